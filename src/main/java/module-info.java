@@ -9,6 +9,10 @@ module org.example.reto2 {
     requires org.hibernate.orm.hikaricp;
     requires jakarta.xml.bind;
     requires jakarta.activation;
+    requires java.management;
+    requires jdk.management;
+    requires jdk.httpserver;
+    requires java.net.http;
 
 
     opens org.example.reto2 to javafx.fxml;
@@ -23,7 +27,16 @@ module org.example.reto2 {
     opens org.example.reto2.session to javafx.fxml, org.hibernate.orm.core;
     exports org.example.reto2.user;
     opens org.example.reto2.user to javafx.fxml, org.hibernate.orm.core;
+    exports org.example.reto2.sync;
+    opens org.example.reto2.sync to org.hibernate.orm.core;
     exports org.example.reto2.utils;
     opens org.example.reto2.utils to javafx.fxml;
+    exports org.example.reto2.bench;
+    exports org.example.reto2.cli;
+    exports org.example.reto2.api;
+    exports org.example.reto2.poster;
+    exports org.example.reto2.audit;
+    opens org.example.reto2.audit to org.hibernate.orm.core;
+    exports org.example.reto2.validation;
 
 }
\ No newline at end of file
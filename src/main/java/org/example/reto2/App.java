@@ -2,6 +2,7 @@ package org.example.reto2;
 
 import javafx.application.Application;
 import javafx.stage.Stage;
+import org.example.reto2.audit.AuditLog;
 import org.example.reto2.utils.JavaFXUtil;
 
 import java.io.IOException;
@@ -29,4 +30,16 @@ public class App extends Application {
         JavaFXUtil.setScene("/org/example/reto2/login-view.fxml");
         logger.info("Aplicación iniciada. Cargando login-view.");
     }
+
+    /**
+     * Método de cierre de la aplicación JavaFX, que se ejecuta también al cerrar la ventana.
+     * Ejecuta las acciones de cierre de la pantalla abierta, como guardar los cambios pendientes,
+     * y después escribe la auditoría pendiente, incluida la de esos cambios.
+     */
+    @Override
+    public void stop() {
+        logger.info("Cerrando aplicación JavaFX.");
+        JavaFXUtil.runExitActions();
+        AuditLog.getInstance().close();
+    }
 }
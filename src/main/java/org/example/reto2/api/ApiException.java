@@ -0,0 +1,27 @@
+package org.example.reto2.api;
+
+/**
+ * Error de la API que se devuelve al cliente con un código de estado HTTP concreto.
+ */
+public class ApiException extends RuntimeException {
+
+    private final int status;
+
+    /**
+     * Crea un error de la API.
+     * @param status El código de estado HTTP.
+     * @param message El mensaje para el cliente.
+     */
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Obtiene el código de estado HTTP.
+     * @return El código de estado.
+     */
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,233 @@
+package org.example.reto2.api;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envoltorio de una petición HTTP de la API: ruta relativa al contexto, parámetros de consulta,
+ * cuerpo JSON, sesión del token y escritura de respuestas JSON.
+ */
+public class ApiExchange {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpExchange exchange;
+    private final List<String> path;
+    private final Map<String, String> query;
+    private TokenSessions.ApiSession session;
+
+    /**
+     * Crea el envoltorio de una petición.
+     * @param exchange La petición del servidor HTTP.
+     */
+    public ApiExchange(HttpExchange exchange) {
+        this.exchange = exchange;
+        String contextPath = exchange.getHttpContext().getPath();
+        String relative = exchange.getRequestURI().getPath().substring(contextPath.length());
+        this.path = relative.isEmpty() || relative.equals("/")
+                ? List.of()
+                : List.of(relative.replaceFirst("^/", "").split("/"));
+        this.query = parseQuery(exchange.getRequestURI().getRawQuery());
+    }
+
+    /**
+     * Obtiene el método HTTP de la petición.
+     * @return El método (ej. "GET").
+     */
+    public String method() {
+        return exchange.getRequestMethod();
+    }
+
+    /**
+     * Obtiene los segmentos de la ruta posteriores al contexto del manejador.
+     * @return Los segmentos de la ruta (ej. ["12"] para {@code /api/peliculas/12}).
+     */
+    public List<String> path() {
+        return path;
+    }
+
+    /**
+     * Obtiene un segmento de la ruta como identificador numérico.
+     * @param index La posición del segmento.
+     * @return El identificador.
+     * @throws ApiException 404 si el segmento no es un número.
+     */
+    public int pathId(int index) {
+        try {
+            return Integer.parseInt(path.get(index));
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Recurso no encontrado.");
+        }
+    }
+
+    /**
+     * Obtiene un parámetro entero de la consulta.
+     * @param name El nombre del parámetro.
+     * @param defaultValue El valor si no se indica.
+     * @param min El valor mínimo permitido.
+     * @param max El valor máximo permitido.
+     * @return El valor del parámetro.
+     * @throws ApiException 400 si el valor no es un número o está fuera de rango.
+     */
+    public int queryInt(String name, int defaultValue, int min, int max) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < min || parsed > max) {
+                throw new ApiException(400, "El parámetro '" + name + "' debe estar entre " + min + " y " + max + ".");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "El parámetro '" + name + "' debe ser un número.");
+        }
+    }
+
+    /**
+     * Obtiene el valor de una cabecera de la petición.
+     * @param name El nombre de la cabecera.
+     * @return El valor, o null si no se envía.
+     */
+    public String header(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    /**
+     * Lee el cuerpo de la petición como objeto JSON.
+     * @return El objeto JSON.
+     * @throws ApiException 400 si el cuerpo no es un objeto JSON válido o supera el tamaño máximo.
+     */
+    public Map<String, Object> body() throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "El cuerpo de la petición es demasiado grande.");
+            }
+            return Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene el token de la cabecera {@code Authorization: Bearer}.
+     * @return El token, o null si no se envía.
+     */
+    public String token() {
+        String authorization = header("Authorization");
+        return authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7).trim() : null;
+    }
+
+    /**
+     * Establece la sesión autenticada de la petición.
+     * @param session La sesión.
+     */
+    void setSession(TokenSessions.ApiSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Obtiene la sesión autenticada de la petición.
+     * @return La sesión.
+     */
+    public TokenSessions.ApiSession session() {
+        return session;
+    }
+
+    /**
+     * Envía una respuesta JSON.
+     * @param status El código de estado HTTP.
+     * @param body El cuerpo, que se convierte con {@link Json#write(Object)}; null para una respuesta sin cuerpo.
+     * @param etag La ETag de la respuesta, o null si no tiene.
+     */
+    public void send(int status, Object body, String etag) throws IOException {
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        }
+        if (body == null || status == 304) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Envía una respuesta JSON sin ETag.
+     * @param status El código de estado HTTP.
+     * @param body El cuerpo de la respuesta.
+     */
+    public void send(int status, Object body) throws IOException {
+        send(status, body, null);
+    }
+
+    /**
+     * Construye una ETag débil ({@code W/"..."}): las respuestas con la misma ETag tienen el mismo contenido,
+     * pero no se garantiza que sean idénticas byte a byte (por ejemplo, si cambia el orden de los campos JSON).
+     * @param value El valor de la ETag, sin comillas.
+     * @return La ETag débil.
+     */
+    public static String weakEtag(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    /**
+     * Responde a una lectura condicional: si alguna de las ETags de {@code If-None-Match} coincide con la
+     * actual envía 304 sin cuerpo y devuelve true; en otro caso no envía nada y devuelve false.
+     * Se usa la comparación débil que exige {@code If-None-Match}: se ignora el prefijo {@code W/}.
+     * @param etag La ETag actual del recurso.
+     * @return true si se ha respondido 304.
+     */
+    public boolean notModified(String etag) throws IOException {
+        String ifNoneMatch = header("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*") || opaque(tag).equals(current)) {
+                send(304, null, etag);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Quita el prefijo de ETag débil, si lo tiene, para la comparación débil.
+     */
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.putIfAbsent(key, value);
+        }
+        return params;
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.reto2.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.example.reto2.audit.AuditLog;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Base de los manejadores de la API.
+ * Autentica la petición con su token (salvo en los manejadores públicos), limita el número de
+ * peticiones que usan la base de datos a la vez al tamaño del pool de conexiones y traduce las
+ * excepciones a respuestas JSON con su código de estado: los errores del cliente se lanzan como
+ * {@link ApiException} con su mensaje, y cualquier otra excepción se registra y se responde con un 500
+ * genérico, sin mostrar al cliente mensajes internos.
+ * <p>
+ * Cada petición se atiende en su propio hilo virtual; las que no obtienen permiso de la base de
+ * datos esperan aparcadas (sin ocupar un hilo de plataforma) hasta {@link #PERMIT_TIMEOUT_MS}
+ * y después se rechazan con 503, en lugar de acumularse sin límite en la cola del pool.
+ * Los cambios hechos durante una petición autenticada se atribuyen en la auditoría al usuario del token.
+ */
+public abstract class ApiHandler implements HttpHandler {
+
+    private static final Logger logger = Logger.getLogger(ApiHandler.class.getName());
+
+    /** Tiempo máximo de espera por una conexión libre antes de responder 503. */
+    public static final long PERMIT_TIMEOUT_MS = 2000;
+
+    private final TokenSessions sessions;
+    private final Semaphore dbPermits;
+    private final boolean requiresSession;
+
+    /**
+     * Crea un manejador.
+     * @param sessions Las sesiones de la API.
+     * @param dbPermits Los permisos de acceso a la base de datos (uno por conexión del pool).
+     * @param requiresSession Si la petición debe llevar un token válido.
+     */
+    protected ApiHandler(TokenSessions sessions, Semaphore dbPermits, boolean requiresSession) {
+        this.sessions = sessions;
+        this.dbPermits = dbPermits;
+        this.requiresSession = requiresSession;
+    }
+
+    @Override
+    public final void handle(HttpExchange httpExchange) throws IOException {
+        ApiExchange exchange = new ApiExchange(httpExchange);
+        try {
+            if (requiresSession) {
+                exchange.setSession(sessions.find(exchange.token())
+                        .orElseThrow(() -> new ApiException(401, "Token ausente, no válido o caducado.")));
+            }
+            if (!dbPermits.tryAcquire(PERMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new ApiException(503, "Servidor ocupado. Inténtelo de nuevo.");
+            }
+            try {
+                if (exchange.session() != null) {
+                    AuditLog.getInstance().setActor(exchange.session().email());
+                }
+                handle(exchange);
+            } finally {
+                AuditLog.getInstance().clearActor();
+                dbPermits.release();
+            }
+        } catch (ApiException e) {
+            exchange.send(e.getStatus(), Map.of("error", e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.send(503, Map.of("error", "Petición interrumpida."));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error al atender " + httpExchange.getRequestMethod() + " "
+                    + httpExchange.getRequestURI() + ": " + e.getMessage(), e);
+            exchange.send(500, Map.of("error", "Error interno del servidor."));
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    /**
+     * Atiende una petición ya autenticada.
+     * @param exchange La petición.
+     * @throws Exception Si la petición no puede atenderse.
+     */
+    protected abstract void handle(ApiExchange exchange) throws Exception;
+
+    /**
+     * Obtiene las sesiones de la API.
+     * @return Las sesiones.
+     */
+    protected TokenSessions sessions() {
+        return sessions;
+    }
+
+    /**
+     * Comprueba que el usuario de la petición es administrador.
+     * @param exchange La petición.
+     * @throws ApiException 403 si no lo es.
+     */
+    protected static void requireAdmin(ApiExchange exchange) {
+        if (!exchange.session().admin()) {
+            throw new ApiException(403, "Operación reservada a administradores.");
+        }
+    }
+
+    /**
+     * Respuesta estándar para un método o ruta no soportados.
+     * @return El error 405.
+     */
+    protected static ApiException methodNotAllowed() {
+        return new ApiException(405, "Método o ruta no soportados.");
+    }
+
+    /**
+     * Construye una página de resultados.
+     * @param items Los elementos de la página.
+     * @param page El número de página.
+     * @param size El tamaño de página.
+     * @param total El número total de elementos.
+     * @return El cuerpo JSON de la página.
+     */
+    protected static Map<String, Object> page(Object items, int page, int size, long total) {
+        return Map.of("items", items, "page", page, "size", size, "total", total);
+    }
+
+    /**
+     * Obtiene un campo de texto obligatorio de un cuerpo JSON.
+     */
+    protected static String requireString(Map<String, Object> body, String field) {
+        if (!(body.get(field) instanceof String value) || value.isBlank()) {
+            throw new ApiException(400, "El campo '" + field + "' es obligatorio.");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Obtiene un campo secreto obligatorio de un cuerpo JSON (por ejemplo, una contraseña) tal cual,
+     * sin quitar los espacios de los extremos, que forman parte del valor.
+     */
+    protected static String requireSecret(Map<String, Object> body, String field) {
+        if (!(body.get(field) instanceof String value) || value.isEmpty()) {
+            throw new ApiException(400, "El campo '" + field + "' es obligatorio.");
+        }
+        return value;
+    }
+
+    /**
+     * Obtiene un campo de texto obligatorio de un cuerpo JSON y lo convierte con un método que lanza
+     * {@link IllegalArgumentException} si el valor no es válido (por ejemplo, {@code EstadoCopia::fromDisplayName}).
+     */
+    protected static <E> E requireValue(Map<String, Object> body, String field, Function<String, E> parser) {
+        String value = requireString(body, field);
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "El valor '" + value + "' no es válido para el campo '" + field + "'.");
+        }
+    }
+
+    /**
+     * Obtiene un campo entero obligatorio de un cuerpo JSON.
+     */
+    protected static int requireInt(Map<String, Object> body, String field) {
+        if (!(body.get(field) instanceof Long value) || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ApiException(400, "El campo '" + field + "' debe ser un número entero.");
+        }
+        return value.intValue();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.reto2.api;
+
+import org.example.reto2.copia.Copia;
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.user.User;
+import org.hibernate.Hibernate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Convierte las entidades en los objetos JSON que devuelve la API.
+ * Solo se exponen los campos pensados para los clientes (nunca la contraseña) y las
+ * asociaciones se reducen a sus identificadores o a un resumen.
+ */
+public final class ApiMapper {
+
+    /**
+     * Constructor privado para evitar instanciación de la clase de utilidad.
+     */
+    private ApiMapper() {
+    }
+
+    /**
+     * Convierte una película.
+     * @param pelicula La película.
+     * @return El objeto JSON de la película.
+     */
+    public static Map<String, Object> pelicula(Pelicula pelicula) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", pelicula.getId());
+        json.put("titulo", pelicula.getTitulo());
+        json.put("genero", pelicula.getGenero());
+        json.put("anio", pelicula.getAnio());
+        json.put("director", pelicula.getDirector());
+        if (Hibernate.isPropertyInitialized(pelicula, "descripcion")) {
+            json.put("descripcion", pelicula.getDescripcion());
+        }
+        json.put("updatedAt", pelicula.getUpdatedAt());
+        return json;
+    }
+
+    /**
+     * Convierte un usuario, con el número de copias en lugar de la lista.
+     * @param user El usuario.
+     * @return El objeto JSON del usuario.
+     */
+    public static Map<String, Object> user(User user) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", user.getId());
+        json.put("email", user.getEmail());
+        json.put("isAdmin", Boolean.TRUE.equals(user.getIsAdmin()));
+        json.put("copias", user.getCopias() == null ? 0 : user.getCopias().size());
+        return json;
+    }
+
+    /**
+     * Convierte una copia, con un resumen de su película.
+     * @param copia La copia.
+     * @return El objeto JSON de la copia.
+     */
+    public static Map<String, Object> copia(Copia copia) {
+        Map<String, Object> pelicula = new LinkedHashMap<>();
+        pelicula.put("id", copia.getPelicula().getId());
+        pelicula.put("titulo", copia.getPelicula().getTitulo());
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", copia.getId());
+        json.put("pelicula", pelicula);
+        json.put("estado", copia.getEstado());
+        json.put("soporte", copia.getSoporte());
+        json.put("cantidad", copia.getCantidad());
+        return json;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.reto2.api;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.reto2.audit.AuditLog;
+import org.example.reto2.copia.CopiaService;
+import org.example.reto2.copia.CopiaStatistics;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.session.AuthService;
+import org.example.reto2.user.UserRepository;
+import org.example.reto2.utils.DataProvider;
+import org.example.reto2.utils.TransactionTemplate;
+import org.hibernate.SessionFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+
+/**
+ * Servidor HTTP/JSON embebido que expone el catálogo, los usuarios y las copias.
+ * Usa el {@link HttpServer} del JDK con un hilo virtual por petición, de modo que miles de
+ * conexiones simultáneas no necesitan miles de hilos de plataforma. Lo que sí está limitado es el
+ * acceso a la base de datos: el servidor usa un pool HikariCP de {@code --pool} conexiones y un
+ * {@link Semaphore} con el mismo número de permisos, así que las peticiones que no caben esperan
+ * (como mucho {@link ApiHandler#PERMIT_TIMEOUT_MS} ms) antes de pedir conexión en vez de agotar el pool.
+ * <p>
+ * Uso: {@code java -m org.example.reto2/org.example.reto2.api.ApiServer [--port 8080] [--pool N]}
+ */
+public class ApiServer {
+
+    private static final Logger logger = Logger.getLogger(ApiServer.class.getName());
+    private static final int DEFAULT_PORT = 8080;
+    /** Conexiones por defecto: el doble de núcleos, la regla habitual para un pool de base de datos. */
+    private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Crea el servidor y registra los recursos de la API.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     * @param port El puerto en el que escuchar.
+     * @param poolSize El número de peticiones que pueden usar la base de datos a la vez.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public ApiServer(SessionFactory sessionFactory, int port, int poolSize) throws IOException {
+        TokenSessions sessions = new TokenSessions();
+        Semaphore dbPermits = new Semaphore(poolSize, true);
+        UserRepository userRepository = new UserRepository(sessionFactory);
+        PeliculaRepository peliculaRepository = new PeliculaRepository(sessionFactory);
+        CopiaService copiaService = new CopiaService(new TransactionTemplate(sessionFactory), CopiaStatistics.standalone());
+
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/api/auth", new AuthHandler(sessions, dbPermits, new AuthService(userRepository)));
+        server.createContext("/api/peliculas", new PeliculasHandler(sessions, dbPermits, peliculaRepository));
+        server.createContext("/api/users", new UsersHandler(sessions, dbPermits, userRepository));
+        server.createContext("/api/me", new MeHandler(sessions, dbPermits, userRepository, peliculaRepository, copiaService));
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Empieza a aceptar peticiones.
+     */
+    public void start() {
+        server.start();
+        logger.info("API escuchando en el puerto " + server.getAddress().getPort() + ".");
+    }
+
+    /**
+     * Detiene el servidor, dejando un segundo a las peticiones en curso.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.close();
+        logger.info("API detenida.");
+    }
+
+    /**
+     * Punto de entrada del servidor.
+     * @param args Opcionalmente {@code --port N} y {@code --pool N}.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int poolSize = DEFAULT_POOL_SIZE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--pool" -> poolSize = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+
+        Properties overrides = new Properties();
+        overrides.setProperty("hibernate.show_sql", "false");
+        overrides.setProperty("hibernate.format_sql", "false");
+        overrides.setProperty("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+        overrides.setProperty("hibernate.hikari.maximumPoolSize", String.valueOf(poolSize));
+        overrides.setProperty("hibernate.hikari.minimumIdle", String.valueOf(poolSize));
+        overrides.setProperty("hibernate.hikari.connectionTimeout", "5000");
+        DataProvider.setOverrides(overrides);
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+        if (sessionFactory == null) {
+            logger.severe("No se pudo conectar con la base de datos. Servidor cancelado.");
+            System.exit(1);
+        }
+
+        ApiServer apiServer = new ApiServer(sessionFactory, port, poolSize);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop();
+            AuditLog.getInstance().close();
+            sessionFactory.close();
+        }));
+        apiServer.start();
+        logger.info("Pool de conexiones: " + poolSize + ".");
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.reto2.api;
+
+import org.example.reto2.session.AuthService;
+import org.example.reto2.user.User;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Autenticación de la API ({@code /api/auth}).
+ * <ul>
+ *     <li>{@code POST /api/auth/login} con {@code {"email", "password"}}: devuelve un token de sesión.</li>
+ *     <li>{@code POST /api/auth/logout}: cierra la sesión del token enviado.</li>
+ * </ul>
+ */
+public class AuthHandler extends ApiHandler {
+
+    private final AuthService authService;
+
+    /**
+     * Crea el manejador de autenticación.
+     * @param sessions Las sesiones de la API.
+     * @param dbPermits Los permisos de acceso a la base de datos.
+     * @param authService El servicio de autenticación.
+     */
+    public AuthHandler(TokenSessions sessions, Semaphore dbPermits, AuthService authService) {
+        super(sessions, dbPermits, false);
+        this.authService = authService;
+    }
+
+    @Override
+    protected void handle(ApiExchange exchange) throws Exception {
+        if (!exchange.method().equals("POST") || exchange.path().size() != 1) {
+            throw methodNotAllowed();
+        }
+        switch (exchange.path().get(0)) {
+            case "login" -> {
+                Map<String, Object> body = exchange.body();
+                Optional<User> user = authService.validateUser(requireString(body, "email"), requireSecret(body, "password"));
+                if (user.isEmpty()) {
+                    throw new ApiException(401, "Credenciales incorrectas.");
+                }
+                String token = sessions().create(new TokenSessions.ApiSession(user.get().getId(), user.get().getEmail(),
+                        Boolean.TRUE.equals(user.get().getIsAdmin())));
+                exchange.send(200, Map.of("token", token, "expiresIn", TokenSessions.TTL.toSeconds(),
+                        "user", ApiMapper.user(user.get())));
+            }
+            case "logout" -> {
+                sessions().remove(exchange.token());
+                exchange.send(204, null);
+            }
+            default -> throw methodNotAllowed();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.example.reto2.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversión mínima entre JSON y objetos de Java para la API HTTP, sin dependencias externas.
+ * Escribe mapas, colecciones, textos, números, booleanos y null (cualquier otro valor se escribe
+ * con su {@code toString()} como texto). Lee objetos, listas, textos, números, booleanos y null,
+ * devolviendo {@link Map}, {@link List}, {@link String}, {@link Long}/{@link Double},
+ * {@link Boolean} o null.
+ */
+public final class Json {
+
+    /**
+     * Constructor privado para evitar instanciación de la clase de utilidad.
+     */
+    private Json() {
+    }
+
+    /**
+     * Convierte un valor a JSON.
+     * @param value El valor.
+     * @return El texto JSON.
+     */
+    public static String write(Object value) {
+        StringBuilder sb = new StringBuilder(256);
+        write(sb, value);
+        return sb.toString();
+    }
+
+    private static void write(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Map<?, ?> map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                writeString(sb, String.valueOf(e.getKey()));
+                sb.append(':');
+                write(sb, e.getValue());
+            }
+            sb.append('}');
+        } else if (value instanceof Collection<?> collection) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : collection) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                write(sb, item);
+            }
+            sb.append(']');
+        } else {
+            writeString(sb, value.toString());
+        }
+    }
+
+    private static void writeString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Lee un objeto JSON.
+     * @param text El texto JSON.
+     * @return El objeto leído como mapa.
+     * @throws IllegalArgumentException Si el texto no es un objeto JSON válido.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Se esperaba un objeto JSON.");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Lee un valor JSON.
+     * @param text El texto JSON.
+     * @return El valor leído.
+     * @throws IllegalArgumentException Si el texto no es JSON válido.
+     */
+    public static Object parse(String text) {
+        Parser parser = new Parser(text);
+        Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("contenido inesperado");
+        }
+        return value;
+    }
+
+    /**
+     * Analizador descendente recursivo de JSON.
+     */
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            skipWhitespace();
+            if (pos >= s.length()) {
+                throw error("fin de texto inesperado");
+            }
+            char c = s.charAt(pos);
+            return switch (c) {
+                case '{' -> object();
+                case '[' -> array();
+                case '"' -> string();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                default -> number();
+            };
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("se esperaba una clave");
+                }
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                map.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return map;
+                }
+                if (c != ',') {
+                    throw error("se esperaba ',' o '}'");
+                }
+            }
+        }
+
+        List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(value());
+                skipWhitespace();
+                char c = next();
+                if (c == ']') {
+                    return list;
+                }
+                if (c != ',') {
+                    throw error("se esperaba ',' o ']'");
+                }
+            }
+        }
+
+        String string() {
+            pos++;
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    char e = next();
+                    switch (e) {
+                        case '"', '\\', '/' -> sb.append(e);
+                        case 'b' -> sb.append('\b');
+                        case 'f' -> sb.append('\f');
+                        case 'n' -> sb.append('\n');
+                        case 'r' -> sb.append('\r');
+                        case 't' -> sb.append('\t');
+                        case 'u' -> {
+                            if (pos + 4 > s.length()) {
+                                throw error("escape unicode incompleto");
+                            }
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                            pos += 4;
+                        }
+                        default -> throw error("escape no válido");
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        Object number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String n = s.substring(start, pos);
+            if (n.isEmpty()) {
+                throw error("valor no válido");
+            }
+            try {
+                return n.contains(".") || n.contains("e") || n.contains("E") ? (Object) Double.parseDouble(n) : (Object) Long.parseLong(n);
+            } catch (NumberFormatException e) {
+                throw error("número no válido");
+            }
+        }
+
+        Object literal(String word, Object value) {
+            if (!s.startsWith(word, pos)) {
+                throw error("valor no válido");
+            }
+            pos += word.length();
+            return value;
+        }
+
+        void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        char peek() {
+            return pos < s.length() ? s.charAt(pos) : '\0';
+        }
+
+        char next() {
+            if (pos >= s.length()) {
+                throw error("fin de texto inesperado");
+            }
+            return s.charAt(pos++);
+        }
+
+        void expect(char c) {
+            if (next() != c) {
+                throw error("se esperaba '" + c + "'");
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("JSON no válido en la posición " + pos + ": " + message);
+        }
+    }
+}
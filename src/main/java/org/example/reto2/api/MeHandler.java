@@ -0,0 +1,135 @@
+package org.example.reto2.api;
+
+import org.example.reto2.copia.Copia;
+import org.example.reto2.copia.CopiaService;
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.user.User;
+import org.example.reto2.user.UserRepository;
+
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Datos del usuario de la sesión ({@code /api/me}).
+ * <ul>
+ *     <li>{@code GET /api/me}: el usuario autenticado.</li>
+ *     <li>{@code GET /api/me/copias?page=&size=}: página de sus copias.</li>
+ *     <li>{@code POST /api/me/copias} con {@code {"peliculaId", "estado", "soporte", "cantidad"}}: añade una copia
+ *     (si ya tiene una igual, suma la cantidad).</li>
+ *     <li>{@code PUT /api/me/copias/{id}}: modifica una copia.</li>
+ *     <li>{@code DELETE /api/me/copias/{id}}: quita una unidad de la copia (y la elimina si era la última).</li>
+ * </ul>
+ * Las operaciones sobre copias pasan por {@link CopiaService}, igual que en la aplicación de escritorio.
+ */
+public class MeHandler extends ApiHandler {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final UserRepository userRepository;
+    private final PeliculaRepository peliculaRepository;
+    private final CopiaService copiaService;
+
+    /**
+     * Crea el manejador de los datos del usuario.
+     * @param sessions Las sesiones de la API.
+     * @param dbPermits Los permisos de acceso a la base de datos.
+     * @param userRepository El repositorio de usuarios.
+     * @param peliculaRepository El repositorio de películas.
+     * @param copiaService El servicio de copias.
+     */
+    public MeHandler(TokenSessions sessions, Semaphore dbPermits, UserRepository userRepository,
+                     PeliculaRepository peliculaRepository, CopiaService copiaService) {
+        super(sessions, dbPermits, true);
+        this.userRepository = userRepository;
+        this.peliculaRepository = peliculaRepository;
+        this.copiaService = copiaService;
+    }
+
+    @Override
+    protected void handle(ApiExchange exchange) throws Exception {
+        int segments = exchange.path().size();
+        if (segments == 0) {
+            if (!exchange.method().equals("GET")) {
+                throw methodNotAllowed();
+            }
+            exchange.send(200, ApiMapper.user(currentUser(exchange)));
+            return;
+        }
+        if (!exchange.path().get(0).equals("copias") || segments > 2) {
+            throw new ApiException(404, "Recurso no encontrado.");
+        }
+        Integer userId = exchange.session().userId();
+        switch (exchange.method()) {
+            case "GET" -> {
+                if (segments != 1) {
+                    throw methodNotAllowed();
+                }
+                int page = exchange.queryInt("page", 0, 0, Integer.MAX_VALUE / MAX_PAGE_SIZE);
+                int size = exchange.queryInt("size", 50, 1, MAX_PAGE_SIZE);
+                exchange.send(200, page(copiaService.findPageByUser(userId, page, size).stream().map(ApiMapper::copia).toList(),
+                        page, size, copiaService.countByUser(userId)));
+            }
+            case "POST" -> {
+                if (segments != 1) {
+                    throw methodNotAllowed();
+                }
+                Map<String, Object> body = exchange.body();
+                Pelicula pelicula = peliculaRepository.findById((long) requireInt(body, "peliculaId"))
+                        .orElseThrow(() -> new ApiException(400, "La película no existe."));
+                Copia copia = read(body, new Copia());
+                copia.setPelicula(pelicula);
+                copiaService.createNewCopia(copia, currentUser(exchange));
+                exchange.send(201, Map.of("copias", copiaService.countByUser(userId)));
+            }
+            case "PUT" -> {
+                if (segments != 2) {
+                    throw methodNotAllowed();
+                }
+                User user = currentUser(exchange);
+                Copia copia = ownCopia(user, exchange.pathId(1));
+                copiaService.updateCopia(read(exchange.body(), copia), user);
+                exchange.send(200, ApiMapper.copia(copia));
+            }
+            case "DELETE" -> {
+                if (segments != 2) {
+                    throw methodNotAllowed();
+                }
+                User user = currentUser(exchange);
+                copiaService.deleteCopiaFromUser(user, ownCopia(user, exchange.pathId(1)));
+                exchange.send(204, null);
+            }
+            default -> throw methodNotAllowed();
+        }
+    }
+
+    private User currentUser(ApiExchange exchange) {
+        return userRepository.findById((long) exchange.session().userId())
+                .orElseThrow(() -> new ApiException(401, "El usuario de la sesión ya no existe."));
+    }
+
+    private static Copia ownCopia(User user, int copiaId) {
+        return user.getCopias().stream()
+                .filter(c -> c.getId() == copiaId)
+                .findFirst()
+                .orElseThrow(() -> new ApiException(404, "Copia no encontrada."));
+    }
+
+    /**
+     * Copia el estado, el soporte y la cantidad del cuerpo en la copia.
+     */
+    private static Copia read(Map<String, Object> body, Copia copia) {
+        EstadoCopia estado = requireValue(body, "estado", EstadoCopia::fromDisplayName);
+        SoporteCopia soporte = requireValue(body, "soporte", SoporteCopia::fromDisplayName);
+        int cantidad = requireInt(body, "cantidad");
+        if (cantidad < 1) {
+            throw new ApiException(400, "La cantidad debe ser mayor que 0.");
+        }
+        copia.setEstado(estado);
+        copia.setSoporte(soporte);
+        copia.setCantidad(cantidad);
+        return copia;
+    }
+}
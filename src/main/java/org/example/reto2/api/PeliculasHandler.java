@@ -0,0 +1,147 @@
+package org.example.reto2.api;
+
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.sync.ChangeTracking;
+import org.example.reto2.sync.DataVersion;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Violation;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Catálogo de películas ({@code /api/peliculas}).
+ * <ul>
+ *     <li>{@code GET /api/peliculas?page=&size=}: página del catálogo, con ETag.</li>
+ *     <li>{@code GET /api/peliculas/{id}}: una película, con ETag.</li>
+ *     <li>{@code POST /api/peliculas}, {@code PUT /api/peliculas/{id}}, {@code DELETE /api/peliculas/{id}}:
+ *     alta, modificación y baja (solo administradores).</li>
+ * </ul>
+ * Las ETags son débiles ({@link ApiExchange#weakEtag}). La ETag de las páginas se calcula a partir de la
+ * versión del catálogo ({@link DataVersion}), que se obtiene con una consulta agregada; si el cliente ya
+ * tiene esa versión se responde 304 sin leer la página.
+ */
+public class PeliculasHandler extends ApiHandler {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final PeliculaRepository peliculaRepository;
+
+    /**
+     * Crea el manejador del catálogo.
+     * @param sessions Las sesiones de la API.
+     * @param dbPermits Los permisos de acceso a la base de datos.
+     * @param peliculaRepository El repositorio de películas.
+     */
+    public PeliculasHandler(TokenSessions sessions, Semaphore dbPermits, PeliculaRepository peliculaRepository) {
+        super(sessions, dbPermits, true);
+        this.peliculaRepository = peliculaRepository;
+    }
+
+    @Override
+    protected void handle(ApiExchange exchange) throws Exception {
+        int segments = exchange.path().size();
+        switch (exchange.method()) {
+            case "GET" -> {
+                if (segments == 0) {
+                    list(exchange);
+                } else if (segments == 1) {
+                    get(exchange, exchange.pathId(0));
+                } else {
+                    throw methodNotAllowed();
+                }
+            }
+            case "POST" -> {
+                requireAdmin(exchange);
+                if (segments != 0) {
+                    throw methodNotAllowed();
+                }
+                Pelicula pelicula = read(exchange.body(), new Pelicula());
+                if (peliculaRepository.findByAttributes(pelicula.getTitulo(), pelicula.getAnio(), pelicula.getDirector()).isPresent()) {
+                    throw new ApiException(409, "La película ya existe.");
+                }
+                exchange.send(201, ApiMapper.pelicula(peliculaRepository.save(pelicula)));
+            }
+            case "PUT" -> {
+                requireAdmin(exchange);
+                if (segments != 1) {
+                    throw methodNotAllowed();
+                }
+                // La película encontrada es la instancia canónica que también leen las pantallas: se modifica
+                // una copia separada, que el repositorio publica en el mapa de identidad tras confirmarse
+                Pelicula existing = find(exchange.pathId(0));
+                exchange.send(200, ApiMapper.pelicula(peliculaRepository.save(read(exchange.body(), existing.detachedCopy()))));
+            }
+            case "DELETE" -> {
+                requireAdmin(exchange);
+                if (segments != 1) {
+                    throw methodNotAllowed();
+                }
+                try {
+                    if (peliculaRepository.deleteById((long) exchange.pathId(0)).isEmpty()) {
+                        throw new ApiException(404, "Película no encontrada.");
+                    }
+                } catch (ConstraintViolationException e) {
+                    throw new ApiException(409, "La película tiene copias asociadas y no puede eliminarse.");
+                }
+                exchange.send(204, null);
+            }
+            default -> throw methodNotAllowed();
+        }
+    }
+
+    private void list(ApiExchange exchange) throws Exception {
+        int page = exchange.queryInt("page", 0, 0, Integer.MAX_VALUE / MAX_PAGE_SIZE);
+        int size = exchange.queryInt("size", 50, 1, MAX_PAGE_SIZE);
+        DataVersion version = peliculaRepository.findVersion();
+        String etag = ApiExchange.weakEtag("p-" + version.watermark() + "-" + version.count() + "-" + page + "-" + size);
+        if (exchange.notModified(etag)) {
+            return;
+        }
+        List<Pelicula> peliculas = peliculaRepository.findPage(page, size);
+        peliculaRepository.loadDescripciones(peliculas);
+        exchange.send(200, page(peliculas.stream().map(ApiMapper::pelicula).toList(),
+                page, size, version.count()), etag);
+    }
+
+    private void get(ApiExchange exchange, int id) throws Exception {
+        Pelicula pelicula = find(id);
+        String etag = ApiExchange.weakEtag("p" + id + "-" + (pelicula.getUpdatedAt() == null ? 0 : ChangeTracking.toWatermark(pelicula.getUpdatedAt())));
+        if (exchange.notModified(etag)) {
+            return;
+        }
+        peliculaRepository.findDescripcion(pelicula);
+        exchange.send(200, ApiMapper.pelicula(pelicula), etag);
+    }
+
+    private Pelicula find(int id) {
+        return peliculaRepository.findById((long) id)
+                .orElseThrow(() -> new ApiException(404, "Película no encontrada."));
+    }
+
+    /**
+     * Copia los campos del cuerpo en la película, con las mismas reglas que el formulario de la aplicación.
+     * Si no son válidos la película no se modifica.
+     */
+    private static Pelicula read(Map<String, Object> body, Pelicula pelicula) {
+        Pelicula candidate = new Pelicula();
+        candidate.setTitulo(requireString(body, "titulo"));
+        candidate.setGenero(requireString(body, "genero"));
+        candidate.setDirector(requireString(body, "director"));
+        candidate.setAnio(requireInt(body, "anio"));
+        candidate.setDescripcion(body.get("descripcion") instanceof String d ? d : null);
+        Violation violation = EntityValidators.PELICULA.firstViolation(candidate);
+        if (violation != null) {
+            throw new ApiException(400, violation.message());
+        }
+        pelicula.setTitulo(candidate.getTitulo());
+        pelicula.setGenero(candidate.getGenero());
+        pelicula.setDirector(candidate.getDirector());
+        pelicula.setAnio(candidate.getAnio());
+        pelicula.setDescripcion(candidate.getDescripcion());
+        return pelicula;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.reto2.api;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Sesiones de la API identificadas por un token aleatorio.
+ * El token se envía en la cabecera {@code Authorization: Bearer <token>}. Las sesiones caducan tras
+ * {@link #TTL} sin uso y cada petición válida renueva el plazo. Las sesiones caducadas se eliminan
+ * al consultarlas y al crear sesiones nuevas, sin hilos adicionales.
+ */
+public class TokenSessions {
+
+    private static final Logger logger = Logger.getLogger(TokenSessions.class.getName());
+
+    /** Tiempo de inactividad tras el que caduca una sesión. */
+    public static final Duration TTL = Duration.ofMinutes(30);
+    private static final int TOKEN_BYTES = 32;
+    private static final int CLEANUP_EVERY = 256;
+
+    /**
+     * Datos de la sesión de un usuario autenticado.
+     *
+     * @param userId El ID del usuario.
+     * @param email El correo del usuario.
+     * @param admin Si el usuario es administrador.
+     */
+    public record ApiSession(Integer userId, String email, boolean admin) {
+    }
+
+    private record Entry(ApiSession session, long expiresAt) {
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    /**
+     * Crea una sesión nueva.
+     * @param session Los datos del usuario.
+     * @return El token de la sesión.
+     */
+    public String create(ApiSession session) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Entry(session, System.currentTimeMillis() + TTL.toMillis()));
+        if (created.incrementAndGet() % CLEANUP_EVERY == 0) {
+            removeExpired();
+        }
+        logger.info("Sesión de API creada para " + session.email() + ".");
+        return token;
+    }
+
+    /**
+     * Obtiene la sesión de un token y renueva su caducidad.
+     * @param token El token.
+     * @return La sesión, o un Optional vacío si el token no existe o ha caducado.
+     */
+    public Optional<ApiSession> find(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = sessions.computeIfPresent(token, (k, e) -> e.expiresAt() < now ? null : new Entry(e.session(), now + TTL.toMillis()));
+        return entry == null ? Optional.empty() : Optional.of(entry.session());
+    }
+
+    /**
+     * Cierra una sesión.
+     * @param token El token de la sesión.
+     */
+    public void remove(String token) {
+        if (token != null && sessions.remove(token) != null) {
+            logger.info("Sesión de API cerrada.");
+        }
+    }
+
+    /**
+     * Obtiene el número de sesiones abiertas.
+     * @return El número de sesiones.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(e -> e.expiresAt() < now);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.reto2.api;
+
+import org.example.reto2.user.User;
+import org.example.reto2.user.UserRepository;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Gestión de usuarios ({@code /api/users}, solo administradores).
+ * <ul>
+ *     <li>{@code GET /api/users?page=&size=}: página de usuarios.</li>
+ *     <li>{@code GET /api/users/{id}}: un usuario.</li>
+ *     <li>{@code DELETE /api/users/{id}}: elimina el usuario y sus copias.</li>
+ * </ul>
+ */
+public class UsersHandler extends ApiHandler {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final UserRepository userRepository;
+
+    /**
+     * Crea el manejador de usuarios.
+     * @param sessions Las sesiones de la API.
+     * @param dbPermits Los permisos de acceso a la base de datos.
+     * @param userRepository El repositorio de usuarios.
+     */
+    public UsersHandler(TokenSessions sessions, Semaphore dbPermits, UserRepository userRepository) {
+        super(sessions, dbPermits, true);
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    protected void handle(ApiExchange exchange) throws Exception {
+        requireAdmin(exchange);
+        int segments = exchange.path().size();
+        switch (exchange.method()) {
+            case "GET" -> {
+                if (segments == 0) {
+                    int page = exchange.queryInt("page", 0, 0, Integer.MAX_VALUE / MAX_PAGE_SIZE);
+                    int size = exchange.queryInt("size", 50, 1, MAX_PAGE_SIZE);
+                    exchange.send(200, page(userRepository.findPage(page, size).stream().map(ApiMapper::user).toList(),
+                            page, size, userRepository.count()));
+                } else if (segments == 1) {
+                    exchange.send(200, ApiMapper.user(find(exchange.pathId(0))));
+                } else {
+                    throw methodNotAllowed();
+                }
+            }
+            case "DELETE" -> {
+                if (segments != 1) {
+                    throw methodNotAllowed();
+                }
+                int id = exchange.pathId(0);
+                if (id == exchange.session().userId()) {
+                    throw new ApiException(409, "No puedes eliminar tu propio usuario.");
+                }
+                if (userRepository.deleteById((long) id).isEmpty()) {
+                    throw new ApiException(404, "Usuario no encontrado.");
+                }
+                exchange.send(204, null);
+            }
+            default -> throw methodNotAllowed();
+        }
+    }
+
+    private User find(int id) {
+        return userRepository.findById((long) id)
+                .orElseThrow(() -> new ApiException(404, "Usuario no encontrado."));
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.reto2.audit;
+
+/**
+ * Tipo de cambio registrado en la auditoría.
+ */
+public enum AuditAction {
+    /** Alta de una entidad. */
+    CREAR,
+    /** Modificación de una entidad existente. */
+    MODIFICAR,
+    /** Eliminación de una entidad. */
+    ELIMINAR
+}
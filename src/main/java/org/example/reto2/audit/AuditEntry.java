@@ -0,0 +1,55 @@
+package org.example.reto2.audit;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Fila del registro de auditoría ({@code audit_log}). La tabla es de solo inserción: las filas
+ * las escribe {@link AuditLog} por lotes y nunca se modifican, por lo que la entidad es inmutable
+ * y solo se usa para consultar el historial.
+ * Los índices cubren el listado por páginas (por ID descendente, global o por tipo de entidad),
+ * el historial de una entidad concreta y la búsqueda por usuario.
+ */
+@Data
+@Entity
+@Immutable
+@NamedQuery(name = "AuditEntry.findBefore",
+        query = "from AuditEntry a where a.id < :beforeId order by a.id desc")
+@NamedQuery(name = "AuditEntry.findBeforeByType",
+        query = "from AuditEntry a where a.entityType = :entityType and a.id < :beforeId order by a.id desc")
+@NamedQuery(name = "AuditEntry.findByEntity",
+        query = "from AuditEntry a where a.entityType = :entityType and a.entityId = :entityId order by a.id desc")
+@Table(name = "audit_log", indexes = {
+        @Index(name = "idx_audit_entity_type", columnList = "entity_type"),
+        @Index(name = "idx_audit_entity", columnList = "entity_type, entity_id"),
+        @Index(name = "idx_audit_actor", columnList = "actor")
+})
+public class AuditEntry implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false)
+    private String actor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AuditAction action;
+
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private String entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(length = 500)
+    private String detail;
+}
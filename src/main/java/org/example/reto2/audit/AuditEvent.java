@@ -0,0 +1,18 @@
+package org.example.reto2.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de auditoría pendiente de escribir. Es inmutable y ligero, ya que se crea en cada
+ * escritura de la aplicación y espera en la cola de {@link AuditLog} hasta que se escribe por lotes.
+ *
+ * @param occurredAt El momento del cambio.
+ * @param actor El email del usuario que hizo el cambio, o "sistema".
+ * @param action El tipo de cambio.
+ * @param entityType El nombre de la entidad (ej. "Copia").
+ * @param entityId El ID de la entidad, o null si no se conoce.
+ * @param detail Una descripción breve del cambio, o null.
+ */
+public record AuditEvent(LocalDateTime occurredAt, String actor, AuditAction action, String entityType,
+                         Long entityId, String detail) {
+}
@@ -0,0 +1,428 @@
+package org.example.reto2.audit;
+
+import org.example.reto2.session.SimpleSessionService;
+import org.example.reto2.user.User;
+import org.example.reto2.utils.DataProvider;
+import org.hibernate.SessionFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registro de auditoría asíncrono de los cambios sobre copias, películas y usuarios.
+ * <p>
+ * {@link #record} solo encola el evento en una cola sin bloqueos y vuelve al momento, de modo que
+ * auditar no añade ninguna escritura a las transacciones de la aplicación. Un hilo escritor en segundo
+ * plano vacía la cola cada segundo, o antes si se acumula un lote completo, e inserta los eventos en la
+ * tabla {@code audit_log} con un único lote JDBC por cada {@link #BATCH_SIZE} eventos.
+ * <p>
+ * Si la base de datos no está disponible, los eventos se guardan en ficheros locales rotativos en
+ * {@code ~/.reto2/audit}, que se vuelven a insertar en cuanto una escritura tiene éxito. La cola está
+ * acotada a {@link #CAPACITY} eventos: si se llena, los eventos nuevos se escriben directamente en el
+ * fichero local en lugar de bloquear al llamante o descartarlos. Al cerrar la aplicación se escribe lo
+ * que quede en la cola: los puntos de entrada llaman a {@link #close()} antes de cerrar la SessionFactory,
+ * y un hook de cierre lo hace en cualquier otro caso.
+ * Sigue el patrón Singleton.
+ */
+public class AuditLog {
+
+    private static final Logger logger = Logger.getLogger(AuditLog.class.getName());
+
+    /** Número máximo de eventos en la cola antes de desviarlos al fichero local. */
+    public static final int CAPACITY = 10_000;
+    /** Número de eventos por lote de inserción. */
+    public static final int BATCH_SIZE = 500;
+    /** Usuario que figura en los cambios hechos sin sesión (importaciones, tareas de mantenimiento). */
+    public static final String SYSTEM_ACTOR = "sistema";
+
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int DETAIL_LENGTH = 500;
+    private static final long SPILL_FILE_BYTES = 4L * 1024 * 1024;
+    private static final int SPILL_FILES = 10;
+    private static final Path SPILL_DIR = Path.of(System.getProperty("user.home"), ".reto2", "audit");
+    private static final String INSERT_SQL = "insert into audit_log (occurred_at, actor, action, entity_type, entity_id, detail) "
+            + "values (?, ?, ?, ?, ?, ?)";
+
+    private static final AuditLog INSTANCE = new AuditLog();
+
+    private final ConcurrentLinkedQueue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final ThreadLocal<String> actor = new ThreadLocal<>();
+    private final Object spillLock = new Object();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long retryAt;
+
+    /**
+     * Constructor privado para implementar el patrón Singleton.
+     * Arranca el hilo escritor y registra el vaciado de la cola al cerrar la aplicación.
+     */
+    private AuditLog() {
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "audit-shutdown"));
+    }
+
+    /**
+     * Obtiene la única instancia de AuditLog.
+     * @return La instancia del registro de auditoría.
+     */
+    public static AuditLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registra un cambio. No bloquea ni lanza excepciones: el evento se escribe más tarde en segundo plano.
+     * @param action El tipo de cambio.
+     * @param entityType El nombre de la entidad (ej. "Copia").
+     * @param entityId El ID de la entidad, o null si no se conoce.
+     * @param detail Una descripción breve del cambio, o null.
+     */
+    public void record(AuditAction action, String entityType, Object entityId, String detail) {
+        AuditEvent event = new AuditEvent(LocalDateTime.now(), currentActor(), action, entityType,
+                entityId instanceof Number n ? n.longValue() : null, truncate(detail));
+        int size = queued.incrementAndGet();
+        if (size > CAPACITY) {
+            queued.decrementAndGet();
+            overflowed.incrementAndGet();
+            spill(List.of(event));
+            return;
+        }
+        queue.offer(event);
+        if (size % BATCH_SIZE == 0) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Indica el usuario al que se atribuyen los cambios hechos desde el hilo actual, por ejemplo
+     * durante una petición del API. Tiene prioridad sobre la sesión de la aplicación de escritorio.
+     * @param email El email del usuario, o null para volver al comportamiento por defecto.
+     */
+    public void setActor(String email) {
+        if (email == null) {
+            actor.remove();
+        } else {
+            actor.set(email);
+        }
+    }
+
+    /**
+     * Deja de atribuir los cambios del hilo actual al usuario indicado con {@link #setActor}.
+     */
+    public void clearActor() {
+        actor.remove();
+    }
+
+    /**
+     * Obtiene el número de eventos en la cola, pendientes de escribir.
+     * @return El número de eventos pendientes.
+     */
+    public int getPending() {
+        return queued.get();
+    }
+
+    /**
+     * Obtiene el número de eventos insertados en la base de datos desde que arrancó la aplicación.
+     * @return El número de eventos escritos.
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Obtiene el número de eventos guardados en el fichero local por no estar disponible la base de datos.
+     * @return El número de eventos desviados al fichero.
+     */
+    public long getSpilled() {
+        return spilled.get();
+    }
+
+    /**
+     * Obtiene el número de eventos que no cupieron en la cola y se escribieron directamente en el fichero local.
+     * @return El número de eventos desbordados.
+     */
+    public long getOverflowed() {
+        return overflowed.get();
+    }
+
+    /**
+     * Obtiene el usuario al que se atribuye un cambio hecho desde el hilo actual.
+     */
+    private String currentActor() {
+        String email = actor.get();
+        if (email != null) {
+            return email;
+        }
+        User active = SimpleSessionService.getInstance().getActive();
+        return active != null && active.getEmail() != null ? active.getEmail() : SYSTEM_ACTOR;
+    }
+
+    private static String truncate(String detail) {
+        return detail == null || detail.length() <= DETAIL_LENGTH ? detail : detail.substring(0, DETAIL_LENGTH);
+    }
+
+    /**
+     * Bucle del hilo escritor: espera al siguiente intervalo (o a que se llene un lote) y vacía la cola.
+     */
+    private void runWriter() {
+        while (running) {
+            LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+            try {
+                drain();
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Error en el escritor de auditoría: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Vacía la cola por lotes. Mientras la base de datos no esté disponible, y durante el periodo de espera
+     * tras un fallo, los lotes se guardan en el fichero local. Tras una escritura correcta se reintentan
+     * los eventos que quedaron en ficheros locales.
+     */
+    private void drain() {
+        boolean wroteToDatabase = false;
+        List<AuditEvent> batch;
+        while (!(batch = poll()).isEmpty()) {
+            if (System.nanoTime() - retryAt < 0 || !insert(batch)) {
+                spill(batch);
+            } else {
+                wroteToDatabase = true;
+            }
+        }
+        if (wroteToDatabase) {
+            replaySpilled();
+        }
+    }
+
+    private List<AuditEvent> poll() {
+        List<AuditEvent> batch = new ArrayList<>(Math.min(queued.get(), BATCH_SIZE));
+        AuditEvent event;
+        while (batch.size() < BATCH_SIZE && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        queued.addAndGet(-batch.size());
+        return batch;
+    }
+
+    /**
+     * Inserta un lote de eventos con un único lote JDBC en una transacción. Con IDs IDENTITY Hibernate no
+     * agrupa las inserciones de entidades, por eso se usa directamente la conexión.
+     * @return true si el lote se escribió; false si falló, en cuyo caso no se vuelve a intentar hasta
+     *         pasado {@link #RETRY_DELAY_NANOS}.
+     */
+    private boolean insert(List<AuditEvent> batch) {
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+        if (sessionFactory == null || sessionFactory.isClosed()) {
+            retryAt = System.nanoTime() + RETRY_DELAY_NANOS;
+            return false;
+        }
+        try {
+            sessionFactory.inStatelessTransaction(session -> session.doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                    for (AuditEvent event : batch) {
+                        ps.setTimestamp(1, Timestamp.valueOf(event.occurredAt()));
+                        ps.setString(2, event.actor());
+                        ps.setString(3, event.action().name());
+                        ps.setString(4, event.entityType());
+                        if (event.entityId() == null) {
+                            ps.setNull(5, Types.BIGINT);
+                        } else {
+                            ps.setLong(5, event.entityId());
+                        }
+                        ps.setString(6, event.detail());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }));
+            written.addAndGet(batch.size());
+            return true;
+        } catch (Exception e) {
+            logger.warning("No se pudo escribir la auditoría en la base de datos (" + batch.size()
+                    + " eventos); se guardan en local: " + e.getMessage());
+            retryAt = System.nanoTime() + RETRY_DELAY_NANOS;
+            return false;
+        }
+    }
+
+    /**
+     * Añade eventos al fichero local actual, rotándolo si supera el tamaño máximo. Se conservan los
+     * {@link #SPILL_FILES} ficheros más recientes.
+     */
+    private void spill(List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(SPILL_DIR);
+                Path current = SPILL_DIR.resolve("audit.tsv");
+                if (Files.exists(current) && Files.size(current) > SPILL_FILE_BYTES) {
+                    Files.move(current, SPILL_DIR.resolve("audit-" + System.currentTimeMillis() + ".tsv"));
+                    pruneSpillFiles();
+                }
+                try (BufferedWriter out = Files.newBufferedWriter(current, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (AuditEvent event : events) {
+                        out.write(toLine(event));
+                        out.newLine();
+                    }
+                }
+                spilled.addAndGet(events.size());
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "No se pudieron guardar " + events.size() + " eventos de auditoría: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void pruneSpillFiles() throws IOException {
+        List<Path> rolled = rolledSpillFiles();
+        for (int i = 0; i < rolled.size() - SPILL_FILES; i++) {
+            Files.deleteIfExists(rolled.get(i));
+            logger.warning("Fichero de auditoría local descartado por antigüedad: " + rolled.get(i).getFileName());
+        }
+    }
+
+    /**
+     * Reinserta en la base de datos los eventos guardados en ficheros locales, del más antiguo al actual.
+     * Cada fichero se borra en cuanto todos sus eventos están escritos; si un lote falla se deja para el
+     * siguiente intento, así que un evento puede llegar a insertarse dos veces pero nunca se pierde.
+     */
+    private void replaySpilled() {
+        synchronized (spillLock) {
+            if (!Files.isDirectory(SPILL_DIR)) {
+                return;
+            }
+            try {
+                List<Path> files = rolledSpillFiles();
+                Path current = SPILL_DIR.resolve("audit.tsv");
+                if (Files.exists(current)) {
+                    files.add(current);
+                }
+                for (Path file : files) {
+                    List<AuditEvent> events = new ArrayList<>();
+                    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                        AuditEvent event = fromLine(line);
+                        if (event != null) {
+                            events.add(event);
+                        }
+                    }
+                    for (int from = 0; from < events.size(); from += BATCH_SIZE) {
+                        if (!insert(events.subList(from, Math.min(from + BATCH_SIZE, events.size())))) {
+                            return;
+                        }
+                    }
+                    Files.delete(file);
+                    logger.info(events.size() + " eventos de auditoría locales escritos en la base de datos.");
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Error al reenviar la auditoría local: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Obtiene los ficheros locales ya rotados, del más antiguo al más reciente.
+     */
+    private static List<Path> rolledSpillFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(SPILL_DIR, "audit-*.tsv")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static String toLine(AuditEvent event) {
+        return String.join("\t", event.occurredAt().toString(), escape(event.actor()), event.action().name(),
+                escape(event.entityType()), event.entityId() == null ? "" : event.entityId().toString(),
+                event.detail() == null ? "" : escape(event.detail()));
+    }
+
+    private static AuditEvent fromLine(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            logger.warning("Línea de auditoría local ignorada: " + line);
+            return null;
+        }
+        try {
+            return new AuditEvent(LocalDateTime.parse(fields[0]), unescape(fields[1]), AuditAction.valueOf(fields[2]),
+                    unescape(fields[3]), fields[4].isEmpty() ? null : Long.valueOf(fields[4]),
+                    fields[5].isEmpty() ? null : unescape(fields[5]));
+        } catch (RuntimeException e) {
+            logger.warning("Línea de auditoría local ignorada: " + line);
+            return null;
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Detiene el escritor y escribe los eventos que queden en la cola (en la base de datos o, si no
+     * está disponible, en el fichero local). Vuelve cuando están escritos, así que debe llamarse antes de
+     * cerrar la SessionFactory; si no, todo lo pendiente acaba en el fichero local. Puede llamarse más de
+     * una vez: cada llamada escribe lo que se haya encolado después de la anterior.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<AuditEvent> batch;
+        while (!(batch = poll()).isEmpty()) {
+            SessionFactory sessionFactory = DataProvider.sessionFactory;
+            if (sessionFactory == null || sessionFactory.isClosed() || !insert(batch)) {
+                spill(batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.reto2.audit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Consultas sobre el registro de auditoría.
+ * El listado se pagina por clave (el ID de la última fila mostrada) en lugar de por desplazamiento,
+ * de forma que cada página es una lectura acotada del índice sin importar lo antigua que sea.
+ */
+public class AuditRepository {
+
+    private static final Logger logger = Logger.getLogger(AuditRepository.class.getName());
+
+    /** Cursor de la primera página: anterior a cualquier ID. */
+    public static final long FIRST_PAGE = Long.MAX_VALUE;
+
+    private final SessionFactory sessionFactory;
+
+    /**
+     * Constructor que inicializa el repositorio con una SessionFactory.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     */
+    public AuditRepository(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Recupera una página del registro, de más reciente a más antigua.
+     * @param entityType El tipo de entidad por el que filtrar, o null para todas.
+     * @param beforeId Solo se devuelven filas con ID menor que este; {@link #FIRST_PAGE} para la primera página.
+     * @param size El número máximo de filas.
+     * @return Las filas de la página; el ID de la última es el cursor de la siguiente.
+     */
+    public List<AuditEntry> findPage(String entityType, long beforeId, int size) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            var query = entityType == null
+                    ? session.createNamedQuery("AuditEntry.findBefore", AuditEntry.class)
+                    : session.createNamedQuery("AuditEntry.findBeforeByType", AuditEntry.class)
+                            .setParameter("entityType", entityType);
+            return query.setParameter("beforeId", beforeId)
+                    .setMaxResults(size)
+                    .list();
+        } catch (Exception e) {
+            logger.severe("Error al consultar el registro de auditoría: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Recupera el historial completo de una entidad, de más reciente a más antiguo.
+     * @param entityType El tipo de entidad (ej. "Copia").
+     * @param entityId El ID de la entidad.
+     * @return Las filas del historial.
+     */
+    public List<AuditEntry> findByEntity(String entityType, Long entityId) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return session.createNamedQuery("AuditEntry.findByEntity", AuditEntry.class)
+                    .setParameter("entityType", entityType)
+                    .setParameter("entityId", entityId)
+                    .list();
+        } catch (Exception e) {
+            logger.severe("Error al consultar el historial de " + entityType + " " + entityId + ": " + e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.api.Json;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Logger;
+
+/**
+ * Generador de carga para la API HTTP ({@link org.example.reto2.api.ApiServer}).
+ * Inicia sesión una vez y lanza {@code clientes} clientes concurrentes, cada uno en un hilo virtual,
+ * que leen páginas del catálogo durante {@code segundos} segundos reenviando la última ETag recibida
+ * (como haría un cliente con caché). Al terminar muestra el rendimiento, los percentiles de latencia,
+ * los errores y la proporción de respuestas 304.
+ * <p>
+ * Uso: {@code java org.example.reto2.bench.ApiLoadGenerator <url> <email> <contraseña> [clientes] [segundos]}
+ */
+public class ApiLoadGenerator {
+
+    private static final Logger logger = Logger.getLogger(ApiLoadGenerator.class.getName());
+    /** Latencias registradas como máximo; suficiente para calcular percentiles estables. */
+    private static final int MAX_SAMPLES = 1_000_000;
+
+    /**
+     * Punto de entrada del generador de carga.
+     * @param args La URL base, las credenciales y opcionalmente el número de clientes y la duración.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Uso: ApiLoadGenerator <url> <email> <contraseña> [clientes] [segundos]");
+            System.exit(2);
+        }
+        String baseUrl = args[0].endsWith("/") ? args[0].substring(0, args[0].length() - 1) : args[0];
+        int clients = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(Json.write(Map.of("email", args[1], "password", args[2]))))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (login.statusCode() != 200) {
+                logger.severe("No se pudo iniciar sesión: " + login.statusCode() + " " + login.body());
+                System.exit(1);
+            }
+            String token = (String) Json.parseObject(login.body()).get("token");
+
+            AtomicLongArray latencies = new AtomicLongArray(MAX_SAMPLES);
+            AtomicInteger samples = new AtomicInteger();
+            AtomicInteger ok = new AtomicInteger();
+            AtomicInteger notModified = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            long start = System.nanoTime();
+
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    int page = c % 20;
+                    workers.submit(() -> {
+                        String etag = null;
+                        while (System.nanoTime() < deadline) {
+                            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/peliculas?page=" + page + "&size=50"))
+                                    .header("Authorization", "Bearer " + token)
+                                    .timeout(Duration.ofSeconds(10))
+                                    .GET();
+                            if (etag != null) {
+                                request.header("If-None-Match", etag);
+                            }
+                            long requestStart = System.nanoTime();
+                            try {
+                                HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+                                int index = samples.getAndIncrement();
+                                if (index < MAX_SAMPLES) {
+                                    latencies.set(index, System.nanoTime() - requestStart);
+                                }
+                                switch (response.statusCode()) {
+                                    case 200 -> {
+                                        ok.incrementAndGet();
+                                        etag = response.headers().firstValue("ETag").orElse(null);
+                                    }
+                                    case 304 -> notModified.incrementAndGet();
+                                    default -> errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    });
+                }
+            }
+
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            int total = ok.get() + notModified.get() + errors.get();
+            long[] sorted = new long[Math.min(samples.get(), MAX_SAMPLES)];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            System.out.printf("Clientes: %d, duración: %.1f s, peticiones: %,d (%.0f/s)%n", clients, elapsed, total, total / elapsed);
+            System.out.printf("200: %,d  304: %,d (%.1f %%)  errores: %,d%n", ok.get(), notModified.get(),
+                    total == 0 ? 0 : 100.0 * notModified.get() / total, errors.get());
+            System.out.printf("Latencia p50=%.1f ms  p95=%.1f ms  p99=%.1f ms  max=%.1f ms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
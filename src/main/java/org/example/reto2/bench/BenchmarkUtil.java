@@ -0,0 +1,115 @@
+package org.example.reto2.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Utilidades comunes para los benchmarks de la capa de datos.
+ * Mide tiempo de reloj, tiempo de CPU del hilo, bytes reservados por el hilo
+ * y memoria retenida por el resultado de cada operación.
+ */
+public class BenchmarkUtil {
+
+    private static final Logger logger = Logger.getLogger(BenchmarkUtil.class.getName());
+    private static final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private static final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Constructor privado para evitar instanciación de la clase de utilidad.
+     */
+    private BenchmarkUtil() {
+    }
+
+    /**
+     * Resultado agregado de una medición.
+     * @param name Nombre de la operación medida.
+     * @param iterations Número de iteraciones medidas.
+     * @param wallMillis Tiempo medio de reloj por iteración, en milisegundos.
+     * @param cpuMillis Tiempo medio de CPU del hilo por iteración, en milisegundos.
+     * @param allocatedBytes Bytes reservados de media por iteración.
+     * @param retainedBytes Memoria retenida por el resultado de la última iteración tras un GC.
+     */
+    public record Result(String name, int iterations, double wallMillis, double cpuMillis,
+                         long allocatedBytes, long retainedBytes) {
+
+        @Override
+        public String toString() {
+            return String.format("%-40s it=%-4d reloj=%9.3f ms  cpu=%9.3f ms  reservado=%,14d B  retenido=%,14d B",
+                    name, iterations, wallMillis, cpuMillis, allocatedBytes, retainedBytes);
+        }
+    }
+
+    /**
+     * Ejecuta una operación varias veces (con calentamiento previo) y mide su coste.
+     * @param name Nombre de la operación.
+     * @param warmup Número de iteraciones de calentamiento que no se miden.
+     * @param iterations Número de iteraciones medidas.
+     * @param operation La operación a medir. Su resultado se mantiene vivo para medir la memoria retenida.
+     * @return El resultado de la medición.
+     */
+    public static Result measure(String name, int warmup, int iterations, Supplier<?> operation) {
+        logger.info("Midiendo '" + name + "' (" + warmup + " de calentamiento, " + iterations + " medidas).");
+        for (int i = 0; i < warmup; i++) {
+            operation.get();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long wall = 0;
+        long cpu = 0;
+        long allocated = 0;
+        Object last = null;
+        for (int i = 0; i < iterations; i++) {
+            last = null;
+            long allocStart = threadBean.getThreadAllocatedBytes(threadId);
+            long cpuStart = threadBean.getCurrentThreadCpuTime();
+            long wallStart = System.nanoTime();
+            last = operation.get();
+            wall += System.nanoTime() - wallStart;
+            cpu += threadBean.getCurrentThreadCpuTime() - cpuStart;
+            allocated += threadBean.getThreadAllocatedBytes(threadId) - allocStart;
+        }
+
+        long withResult = usedHeapAfterGc();
+        Reference.reachabilityFence(last);
+        last = null;
+        long withoutResult = usedHeapAfterGc();
+
+        return new Result(name, iterations, wall / 1_000_000.0 / iterations, cpu / 1_000_000.0 / iterations,
+                allocated / iterations, Math.max(0, withResult - withoutResult));
+    }
+
+    /**
+     * Reduce el log a advertencias, para que la salida del benchmark no se mezcle con el log
+     * de cada consulta.
+     */
+    public static void quietLogging() {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.WARNING);
+        for (var handler : root.getHandlers()) {
+            handler.setLevel(Level.WARNING);
+        }
+        Logger.getLogger("org.hibernate").setLevel(Level.WARNING);
+    }
+
+    /**
+     * Fuerza varias recolecciones y devuelve la memoria de heap en uso.
+     * @return Bytes de heap en uso tras el GC.
+     */
+    public static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.utils.CollatedSort;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Benchmark de la ordenación de textos en español de las tablas ({@link CollatedSort}).
+ * Ordena una lista de títulos sintéticos con acentos y mayúsculas mezcladas de tres formas: con
+ * {@code String.compareTo} (rápido pero con un orden incorrecto), con un {@link Collator} en cada
+ * comparación y con {@link CollatedSort#sortBy}, que calcula una clave de ordenación por fila (en paralelo
+ * a partir de {@link CollatedSort#PARALLEL_THRESHOLD} filas) y ordena por esas claves.
+ * No necesita base de datos.
+ * <p>
+ * Uso: {@code java org.example.reto2.bench.CollationBenchmark [filas] [iteraciones]}
+ */
+public class CollationBenchmark {
+
+    private static final String[] WORDS = {"Álvarez", "Avila", "Ávila", "el", "último", "Ultimo", "camión", "Camino",
+            "señor", "Senda", "Ñu", "nube", "árbol", "Arbol", "corazón", "Zapata", "ébano", "Echo", "íntimo", "Isla"};
+
+    /**
+     * Punto de entrada del benchmark.
+     * @param args Opcionalmente, el número de títulos (por defecto 100000) y las iteraciones medidas (por defecto 10).
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        BenchmarkUtil.quietLogging();
+
+        Random random = new Random(42);
+        List<String> titles = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            titles.add(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+        }
+        Collator collator = Collator.getInstance(CollatedSort.LOCALE);
+        collator.setStrength(Collator.SECONDARY);
+
+        System.out.println(BenchmarkUtil.measure("String.compareTo", 2, iterations, () -> sorted(titles, Comparator.naturalOrder())));
+        System.out.println(BenchmarkUtil.measure("Collator en cada comparación", 1, iterations, () -> sorted(titles, collator)));
+        System.out.println(BenchmarkUtil.measure("claves por fila (sortBy)", 2, iterations, () -> {
+            List<String> copy = new ArrayList<>(titles);
+            CollatedSort.sortBy(copy, Function.identity());
+            return copy;
+        }));
+    }
+
+    private static List<String> sorted(List<String> titles, Comparator<? super String> comparator) {
+        List<String> copy = new ArrayList<>(titles);
+        copy.sort(comparator);
+        return copy;
+    }
+}
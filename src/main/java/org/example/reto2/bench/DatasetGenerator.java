@@ -0,0 +1,488 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
+import org.example.reto2.utils.DataProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Generador de datos sintéticos para benchmarks y pruebas de carga: películas, usuarios y copias
+ * en volúmenes reales (por ejemplo 1M películas, 100k usuarios y 20M copias).
+ * <p>
+ * La generación es determinista: cada bloque de filas usa un generador aleatorio derivado de
+ * {@code --seed} y de su número de bloque, así que la misma semilla produce los mismos datos sea
+ * cual sea el número de hilos. La popularidad sigue distribuciones de Zipf: las copias se reparten
+ * entre películas con exponente {@code --pelicula-skew} y entre usuarios con {@code --user-skew}
+ * (los rangos se permutan para que las películas y usuarios populares no sean los de ID más bajo).
+ * Las copias repetidas de un usuario (misma película, estado y soporte) se agrupan sumando la
+ * cantidad, igual que hace {@code CopiaService}.
+ * <p>
+ * Hay dos modos de salida:
+ * <ul>
+ *     <li>Por defecto se insertan las filas con lotes JDBC en la base de datos de hibernate.cfg.xml,
+ *     con un pool HikariCP de {@code --threads} conexiones y una transacción por bloque. Los IDs
+ *     continúan a partir de los existentes.</li>
+ *     <li>Con {@code --output <directorio>} se escriben ficheros TSV por bloque y un {@code load.sql}
+ *     con las sentencias {@code LOAD DATA LOCAL INFILE}, sin conectarse a la base de datos. Los IDs
+ *     empiezan en 1, por lo que están pensados para una base de datos vacía.</li>
+ * </ul>
+ * Uso: {@code java org.example.reto2.bench.DatasetGenerator [--peliculas 1000000] [--users 100000]
+ * [--copias 20000000] [--seed 42] [--pelicula-skew 1.0] [--user-skew 0.5] [--threads N] [--batch 5000]
+ * [--output dir]}
+ */
+public class DatasetGenerator {
+
+    private static final Logger logger = Logger.getLogger(DatasetGenerator.class.getName());
+
+    /** Filas de películas o usuarios por bloque. */
+    private static final int ROWS_PER_CHUNK = 20_000;
+    /** Usuarios por bloque al generar copias. */
+    private static final int USERS_PER_CHUNK = 500;
+    /** Proporción de administradores, en tanto por mil. */
+    private static final int ADMIN_PER_MILLE = 1;
+    private static final String PASSWORD = "1234";
+    private static final int LAST_YEAR = 2025;
+    private static final int YEARS = LAST_YEAR - 1950 + 1;
+
+    /** Multiplicadores de {@link #permute} ya calculados, por tamaño. */
+    private static final Map<Integer, Long> MULTIPLIERS = new ConcurrentHashMap<>();
+
+    private static final String[] GENEROS = {"Drama", "Comedia", "Acción", "Thriller", "Terror", "Romance",
+            "Ciencia ficción", "Animación", "Aventura", "Documental", "Fantasía", "Crimen", "Musical", "Western",
+            "Bélico", "Historia"};
+    private static final String[] PALABRAS = {"noche", "ciudad", "sombra", "camino", "silencio", "fuego", "mar",
+            "tiempo", "memoria", "viaje", "sueño", "guerra", "luz", "secreto", "invierno", "río", "destino",
+            "corazón", "tormenta", "frontera", "espejo", "ladrón", "jardín", "último", "perdido", "rojo",
+            "eterno", "salvaje", "oscuro", "dorado", "lejano", "roto"};
+
+    /**
+     * Tablas que se generan, con su sentencia de inserción y sus columnas.
+     */
+    enum Table {
+        PELICULA("pelicula", "peliculas", "id, titulo, genero, `año`, descripcion, director"),
+        USER("`user`", "users", "id, email, password, is_admin"),
+        COPIA("copia", "copias", "id_pelicula, id_usuario, estado_code, soporte_code, cantidad");
+
+        private final String name;
+        private final String filePrefix;
+        private final String columns;
+
+        Table(String name, String filePrefix, String columns) {
+            this.name = name;
+            this.filePrefix = filePrefix;
+            this.columns = columns;
+        }
+
+        String insertSql() {
+            return "insert into " + name + " (" + columns + ") values (?" + ", ?".repeat(columns.split(",").length - 1) + ")";
+        }
+    }
+
+    /**
+     * Destino de las filas de un bloque: un lote JDBC o un fichero TSV.
+     */
+    private interface RowSink extends AutoCloseable {
+        void add(Object... values) throws Exception;
+    }
+
+    /**
+     * Genera las filas de un bloque.
+     */
+    @FunctionalInterface
+    private interface ChunkBody {
+        void generate(RowSink sink, SplittableRandom random) throws Exception;
+    }
+
+    private final long seed;
+    private final int peliculas;
+    private final int users;
+    private final long copias;
+    private final int threads;
+    private final int batchSize;
+    private final Path output;
+    private final ConnectionProvider connections;
+    private final ZipfDistribution peliculaPopularity;
+    private final ZipfDistribution userActivity;
+    private final ZipfDistribution generoPopularity;
+    private final ZipfDistribution directorPopularity;
+    private final ZipfDistribution yearRecency;
+    private final ConcurrentLinkedQueue<String> loadStatements = new ConcurrentLinkedQueue<>();
+    private long peliculaOffset;
+    private long userOffset;
+
+    private DatasetGenerator(Map<String, String> options, SessionFactory sessionFactory) {
+        this.seed = Long.parseLong(options.get("--seed"));
+        this.peliculas = Integer.parseInt(options.get("--peliculas"));
+        this.users = Integer.parseInt(options.get("--users"));
+        this.copias = Long.parseLong(options.get("--copias"));
+        this.threads = Integer.parseInt(options.get("--threads"));
+        this.batchSize = Integer.parseInt(options.get("--batch"));
+        this.output = options.containsKey("--output") ? Path.of(options.get("--output")).toAbsolutePath() : null;
+        this.connections = sessionFactory == null ? null
+                : sessionFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry().requireService(ConnectionProvider.class);
+        this.peliculaPopularity = new ZipfDistribution(Math.max(1, peliculas), Double.parseDouble(options.get("--pelicula-skew")));
+        this.userActivity = new ZipfDistribution(Math.max(1, users), Double.parseDouble(options.get("--user-skew")));
+        this.generoPopularity = new ZipfDistribution(GENEROS.length, 0.8);
+        this.directorPopularity = new ZipfDistribution(Math.max(1, peliculas / 10), 1.0);
+        this.yearRecency = new ZipfDistribution(YEARS, 0.4);
+    }
+
+    /**
+     * Punto de entrada del generador.
+     * @param args Las opciones de generación.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of("--peliculas", "1000000", "--users", "100000",
+                "--copias", "20000000", "--seed", "42", "--pelicula-skew", "1.0", "--user-skew", "0.5",
+                "--threads", String.valueOf(Runtime.getRuntime().availableProcessors()), "--batch", "5000"));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!options.containsKey(args[i]) && !args[i].equals("--output")) {
+                System.err.println("Opción desconocida: " + args[i]);
+                System.exit(2);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+
+        BenchmarkUtil.quietLogging();
+        SessionFactory sessionFactory = null;
+        if (!options.containsKey("--output")) {
+            String threads = options.get("--threads");
+            Properties overrides = new Properties();
+            overrides.setProperty("hibernate.show_sql", "false");
+            overrides.setProperty("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+            overrides.setProperty("hibernate.hikari.maximumPoolSize", threads);
+            // Connector/J reescribe cada lote como un único INSERT con varias filas
+            overrides.setProperty("hibernate.hikari.dataSource.rewriteBatchedStatements", "true");
+            DataProvider.setOverrides(overrides);
+            sessionFactory = DataProvider.getSessionFactory();
+            if (sessionFactory == null) {
+                logger.severe("No se pudo conectar con la base de datos. Generación cancelada.");
+                System.exit(1);
+            }
+        }
+        try {
+            new DatasetGenerator(options, sessionFactory).generate();
+        } finally {
+            if (sessionFactory != null) {
+                sessionFactory.close();
+            }
+        }
+    }
+
+    /**
+     * Genera las películas y los usuarios en paralelo y, después, las copias que los referencian.
+     */
+    private void generate() throws Exception {
+        if (output != null) {
+            Files.createDirectories(output);
+        } else {
+            peliculaOffset = maxId(Table.PELICULA);
+            userOffset = maxId(Table.USER);
+        }
+        long totalStart = System.nanoTime();
+        long totalRows = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            long start = System.nanoTime();
+            List<Future<Long>> peliculaChunks = submitChunks(executor, Table.PELICULA, chunks(peliculas, ROWS_PER_CHUNK),
+                    chunk -> (sink, random) -> {
+                        int from = chunk * ROWS_PER_CHUNK;
+                        for (int i = from; i < Math.min(peliculas, from + ROWS_PER_CHUNK); i++) {
+                            writePelicula(sink, random, i);
+                        }
+                    });
+            List<Future<Long>> userChunks = submitChunks(executor, Table.USER, chunks(users, ROWS_PER_CHUNK),
+                    chunk -> (sink, random) -> {
+                        int from = chunk * ROWS_PER_CHUNK;
+                        for (int i = from; i < Math.min(users, from + ROWS_PER_CHUNK); i++) {
+                            long id = userOffset + i + 1;
+                            sink.add(id, "usuario" + id + "@reto2.test", PASSWORD, random.nextInt(1000) < ADMIN_PER_MILLE);
+                        }
+                    });
+            totalRows += report("películas", sum(peliculaChunks), start);
+            totalRows += report("usuarios", sum(userChunks), start);
+
+            start = System.nanoTime();
+            totalRows += report("copias", sum(submitChunks(executor, Table.COPIA, chunks(users, USERS_PER_CHUNK),
+                    chunk -> (sink, random) -> writeCopias(sink, random, chunk * USERS_PER_CHUNK,
+                            Math.min(users, (chunk + 1) * USERS_PER_CHUNK)))), start);
+        }
+        report("total", totalRows, totalStart);
+        if (output != null) {
+            writeLoadScript();
+        }
+    }
+
+    private void writePelicula(RowSink sink, SplittableRandom random, int index) throws Exception {
+        String titulo = capitalize(word(random)) + " " + word(random) + " " + (index + 1);
+        StringBuilder descripcion = new StringBuilder(capitalize(word(random)));
+        for (int w = 8 + random.nextInt(24); w > 0; w--) {
+            descripcion.append(' ').append(word(random));
+        }
+        sink.add(peliculaOffset + index + 1,
+                titulo,
+                GENEROS[generoPopularity.sample(random)],
+                LAST_YEAR - yearRecency.sample(random),
+                descripcion.append('.').toString(),
+                "Director " + (directorPopularity.sample(random) + 1));
+    }
+
+    /**
+     * Genera las copias de los usuarios {@code [from, to)}. El número de copias de cada usuario es
+     * su parte del total según su actividad; las copias que coinciden en película, estado y soporte
+     * se agrupan en una fila con la cantidad acumulada.
+     */
+    private void writeCopias(RowSink sink, SplittableRandom random, int from, int to) throws Exception {
+        for (int u = from; u < to; u++) {
+            double expected = copias * userActivity.probability(permute(u, users));
+            long draws = (long) expected + (random.nextDouble() < expected - Math.floor(expected) ? 1 : 0);
+            Map<Long, int[]> grouped = new LinkedHashMap<>();
+            for (long d = 0; d < draws; d++) {
+                long pelicula = permute(peliculaPopularity.sample(random), peliculas);
+                EstadoCopia estado = estado(random);
+                SoporteCopia soporte = random.nextInt(100) < 65 ? SoporteCopia.DVD : SoporteCopia.BLU_RAY;
+                grouped.computeIfAbsent(pelicula * 16 + estado.getCode() * 4 + soporte.getCode(), k -> new int[1])[0]++;
+            }
+            long userId = userOffset + u + 1;
+            for (Map.Entry<Long, int[]> entry : grouped.entrySet()) {
+                long key = entry.getKey();
+                sink.add(peliculaOffset + key / 16 + 1, userId, (byte) (key % 16 / 4), (byte) (key % 4), entry.getValue()[0]);
+            }
+        }
+    }
+
+    private static EstadoCopia estado(SplittableRandom random) {
+        int value = random.nextInt(100);
+        return value < 60 ? EstadoCopia.BUENO : value < 90 ? EstadoCopia.GASTADO : EstadoCopia.DANADO;
+    }
+
+    /**
+     * Lanza un bloque por tarea. Cada bloque tiene su propio generador aleatorio, derivado de la
+     * semilla, la tabla y el número de bloque.
+     */
+    private List<Future<Long>> submitChunks(ExecutorService executor, Table table, int chunks,
+                                            IntFunction<ChunkBody> bodies) {
+        List<Future<Long>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int number = chunk;
+            Callable<Long> task = () -> runChunk(table, number, bodies.apply(number),
+                    new SplittableRandom(seed + 0x9E3779B97F4A7C15L * (((long) table.ordinal() << 32) | number)));
+            futures.add(executor.submit(task));
+        }
+        return futures;
+    }
+
+    private long runChunk(Table table, int chunk, ChunkBody body, SplittableRandom random) throws Exception {
+        if (output != null) {
+            Path file = output.resolve(String.format("%s-%05d.tsv", table.filePrefix, chunk));
+            try (TsvSink sink = new TsvSink(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+                body.generate(sink, random);
+                loadStatements.add(String.format("LOAD DATA LOCAL INFILE '%s' INTO TABLE %s CHARACTER SET utf8mb4 (%s);",
+                        file.toString().replace("\\", "/"), table.name, table.columns));
+                return sink.rows;
+            }
+        }
+        Connection connection = connections.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            setChecks(connection, 0);
+            try (JdbcSink sink = new JdbcSink(connection.prepareStatement(table.insertSql()), batchSize)) {
+                body.generate(sink, random);
+                sink.flush();
+                connection.commit();
+                return sink.rows;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                setChecks(connection, 1);
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            connections.closeConnection(connection);
+        }
+    }
+
+    /**
+     * Activa o desactiva en la conexión las comprobaciones de claves ajenas y de unicidad, que no
+     * son necesarias para datos generados y ralentizan mucho las inserciones masivas en MySQL.
+     */
+    private static void setChecks(Connection connection, int value) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("set foreign_key_checks = " + value);
+            statement.execute("set unique_checks = " + value);
+        }
+    }
+
+    private long maxId(Table table) throws Exception {
+        Connection connection = connections.getConnection();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) from " + table.name)) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            connections.closeConnection(connection);
+        }
+    }
+
+    private void writeLoadScript() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("-- Generado por DatasetGenerator (semilla " + seed + "). Ejecutar con: mysql --local-infile=1 <bd> < load.sql");
+        lines.add("SET foreign_key_checks = 0;");
+        lines.add("SET unique_checks = 0;");
+        // Películas y usuarios antes que las copias que los referencian
+        for (Table table : Table.values()) {
+            loadStatements.stream()
+                    .filter(s -> s.contains("/" + table.filePrefix + "-"))
+                    .sorted()
+                    .forEach(lines::add);
+        }
+        lines.add("SET unique_checks = 1;");
+        lines.add("SET foreign_key_checks = 1;");
+        Files.write(output.resolve("load.sql"), lines, StandardCharsets.UTF_8);
+        System.out.println("Script de carga: " + output.resolve("load.sql"));
+    }
+
+    private static long report(String name, long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-10s %,14d filas en %8.1f s (%,.0f filas/s)%n", name, rows, seconds, rows / seconds);
+        return rows;
+    }
+
+    private static long sum(List<Future<Long>> futures) throws Exception {
+        long total = 0;
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+
+    private static int chunks(int rows, int perChunk) {
+        return (rows + perChunk - 1) / perChunk;
+    }
+
+    /**
+     * Biyección de {@code [0, n)} en sí mismo, para que el orden de popularidad no coincida con el de los IDs.
+     */
+    private static long permute(long rank, int n) {
+        long multiplier = multiplierFor(n);
+        return (rank * multiplier + n / 3) % n;
+    }
+
+    private static long multiplierFor(int n) {
+        return MULTIPLIERS.computeIfAbsent(n, size -> {
+            long m = (long) (size * 0.6180339887) | 1;
+            while (gcd(m, size) != 1) {
+                m++;
+            }
+            return m;
+        });
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static String word(SplittableRandom random) {
+        return PALABRAS[random.nextInt(PALABRAS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Inserta las filas con lotes JDBC de {@code batchSize} filas.
+     */
+    private static final class JdbcSink implements RowSink {
+        private final PreparedStatement statement;
+        private final int batchSize;
+        private int pending;
+        private long rows;
+
+        JdbcSink(PreparedStatement statement, int batchSize) {
+            this.statement = statement;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void add(Object... values) throws Exception {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            rows++;
+            if (++pending >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() throws Exception {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            statement.close();
+        }
+    }
+
+    /**
+     * Escribe las filas en formato TSV, el formato por defecto de {@code LOAD DATA}.
+     */
+    private static final class TsvSink implements RowSink {
+        private final BufferedWriter writer;
+        private long rows;
+
+        TsvSink(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void add(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write('\t');
+                }
+                Object value = values[i];
+                writer.write(value == null ? "\\N" : value instanceof Boolean b ? (b ? "1" : "0") : value.toString());
+            }
+            writer.write('\n');
+            rows++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.copia.Copia;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.user.UserRepository;
+import org.example.reto2.utils.DataProvider;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Benchmark del efecto de la mejora de bytecode de Hibernate (plugin {@code hibernate-enhance-maven-plugin}).
+ * Mide la memoria retenida al cargar los usuarios con sus copias y el catálogo completo (sin las
+ * descripciones, que son perezosas) y el tiempo de {@code flush} de una sesión con muchas copias
+ * gestionadas de las que solo se modifica una de cada cien: sin mejora Hibernate compara el estado
+ * de todas con su instantánea, y con el seguimiento de cambios en línea solo revisa las modificadas.
+ * <p>
+ * La mejora se aplica al compilar, así que la comparación se hace ejecutando el benchmark con dos builds:
+ * el normal y el del perfil {@code no-enhance} ({@code mvn -Pno-enhance package}), que la desactiva.
+ * El benchmark indica al empezar si las clases que está usando están mejoradas. Las modificaciones
+ * se deshacen con rollback, por lo que no cambia ningún dato.
+ * <p>
+ * Uso: {@code java org.example.reto2.bench.EnhancementBenchmark [copias en la sesión] [iteraciones]}
+ */
+public class EnhancementBenchmark {
+
+    private static final Logger logger = Logger.getLogger(EnhancementBenchmark.class.getName());
+
+    /**
+     * Punto de entrada del benchmark.
+     * @param args Opcionalmente, el número de copias cargadas en la sesión del flush (por defecto 20000)
+     *             y las iteraciones medidas (por defecto 10).
+     */
+    public static void main(String[] args) {
+        int copias = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        BenchmarkUtil.quietLogging();
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+        if (sessionFactory == null) {
+            logger.severe("No se pudo conectar con la base de datos. Benchmark cancelado.");
+            return;
+        }
+
+        System.out.println("Carga perezosa de atributos: "
+                + (PersistentAttributeInterceptable.class.isAssignableFrom(Copia.class) ? "activada" : "desactivada"));
+        System.out.println("Seguimiento de cambios en línea: "
+                + (SelfDirtinessTracker.class.isAssignableFrom(Copia.class) ? "activado" : "desactivado"));
+
+        try {
+            UserRepository userRepository = new UserRepository(sessionFactory);
+            PeliculaRepository peliculaRepository = new PeliculaRepository(sessionFactory);
+            System.out.println(BenchmarkUtil.measure("cargar usuarios con sus copias", 1, iterations, userRepository::findAll));
+            System.out.println(BenchmarkUtil.measure("cargar catálogo", 1, iterations, peliculaRepository::findAll));
+
+            flush(sessionFactory, copias, 2);
+            long nanos = flush(sessionFactory, copias, iterations);
+            System.out.printf("%-40s it=%-4d flush=%9.3f ms%n", "flush con " + copias + " copias gestionadas",
+                    iterations, nanos / 1_000_000.0 / iterations);
+        } finally {
+            sessionFactory.close();
+        }
+    }
+
+    /**
+     * Carga copias en una sesión, modifica una de cada cien y mide solo el tiempo del flush.
+     * @return El tiempo total de flush de todas las iteraciones, en nanosegundos.
+     */
+    private static long flush(SessionFactory sessionFactory, int copias, int iterations) {
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            try (Session session = sessionFactory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                try {
+                    List<Copia> loaded = session.createQuery("from Copia c order by c.id", Copia.class)
+                            .setMaxResults(copias)
+                            .list();
+                    for (int j = 0; j < loaded.size(); j += 100) {
+                        Copia copia = loaded.get(j);
+                        copia.setCantidad(copia.getCantidad() + 1);
+                    }
+                    long start = System.nanoTime();
+                    session.flush();
+                    total += System.nanoTime() - start;
+                } finally {
+                    tx.rollback();
+                }
+            }
+        }
+        return total;
+    }
+}
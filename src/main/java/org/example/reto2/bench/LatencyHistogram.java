@@ -0,0 +1,92 @@
+package org.example.reto2.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias concurrente y de tamaño fijo, para calcular percentiles sin guardar
+ * cada muestra. Las latencias se registran en microsegundos en cubos log-lineales: exactos por
+ * debajo de 1 ms y con un error relativo inferior al 0,2 % por encima, hasta algo más de una hora.
+ * Registrar una muestra es un incremento atómico, por lo que miles de hilos pueden compartirlo.
+ */
+public class LatencyHistogram {
+
+    /** Bits de la mantisa de cada cubo: 2^9 cubos por potencia de dos. */
+    private static final int SUB_BUCKET_BITS = 9;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int MAX_SHIFT = 23;
+    private static final int BUCKETS = LINEAR_LIMIT + MAX_SHIFT * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra una latencia.
+     * @param nanos La latencia en nanosegundos.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(indexOf(micros));
+        total.increment();
+        max.accumulate(micros);
+    }
+
+    /**
+     * Obtiene el número de muestras registradas.
+     * @return El número de muestras.
+     */
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * Obtiene la latencia máxima registrada.
+     * @return La latencia máxima, en milisegundos.
+     */
+    public double maxMillis() {
+        return max.get() / 1000.0;
+    }
+
+    /**
+     * Calcula un percentil de las latencias registradas.
+     * @param percentile El percentil, entre 0 y 100.
+     * @return La latencia del percentil (límite inferior de su cubo), en milisegundos.
+     */
+    public double percentileMillis(double percentile) {
+        long samples = count();
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * samples));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(valueOf(i), max.get()) / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int shift = Math.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS);
+        long mantissa = Math.min(SUB_BUCKETS * 2 - 1, micros >> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (mantissa - SUB_BUCKETS);
+    }
+
+    private static long valueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long mantissa = SUB_BUCKETS + (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        return mantissa << shift;
+    }
+}
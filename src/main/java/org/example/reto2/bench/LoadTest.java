@@ -0,0 +1,380 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.copia.Copia;
+import org.example.reto2.copia.CopiaService;
+import org.example.reto2.copia.CopiaStatistics;
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.session.AuthService;
+import org.example.reto2.user.User;
+import org.example.reto2.user.UserRepository;
+import org.example.reto2.utils.DataProvider;
+import org.example.reto2.utils.TransactionTemplate;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Prueba de carga de la capa de datos con usuarios concurrentes.
+ * Simula {@code --users} usuarios virtuales, cada uno en un hilo virtual, que repiten una mezcla
+ * de operaciones como las de la aplicación: iniciar sesión ({@link AuthService#validateUser}),
+ * consultar el catálogo, y añadir, modificar y quitar copias con {@link CopiaService}. Los usuarios
+ * arrancan repartidos durante {@code --ramp-up} segundos y esperan un tiempo de reflexión aleatorio
+ * (de media {@code --think} ms) entre operaciones.
+ * <p>
+ * Se ejecuta contra una base de datos H2 en memoria en modo de compatibilidad MySQL, que se crea y
+ * se llena al arrancar, con un pool HikariCP de {@code --pool} conexiones. Varios usuarios virtuales
+ * comparten cada cuenta ({@code --accounts}), igual que un usuario con la aplicación abierta en
+ * varios equipos, para que haya escrituras concurrentes sobre las mismas copias.
+ * <p>
+ * Actualizaciones perdidas: cada cuenta tiene una copia "caliente" con una cantidad inicial muy alta.
+ * Cada operación confirmada sobre ella suma o resta una cantidad conocida, así que al terminar la
+ * cantidad real debería ser la inicial más la suma de esos cambios; la diferencia son las
+ * actualizaciones que se han perdido por escrituras concurrentes.
+ * <p>
+ * Uso: {@code java org.example.reto2.bench.LoadTest [--users 200] [--accounts 50] [--ramp-up 10]
+ * [--think 200] [--duration 60] [--pool 10] [--peliculas 2000]}
+ */
+public class LoadTest {
+
+    private static final Logger logger = Logger.getLogger(LoadTest.class.getName());
+    private static final String PASSWORD = "1234";
+    private static final int HOT_INITIAL_CANTIDAD = 1_000_000;
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * Operaciones que realiza cada usuario virtual, con su peso en la mezcla.
+     */
+    enum Operation {
+        LOGIN(5), CATALOGO(55), CREAR_COPIA(15), EDITAR_COPIA(15), QUITAR_COPIA(10);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int TOTAL_WEIGHT = Arrays.stream(Operation.values()).mapToInt(o -> o.weight).sum();
+
+    private final PeliculaRepository peliculaRepository;
+    private final AuthService authService;
+    private final CopiaService copiaService;
+    private final List<Pelicula> peliculas;
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    /** Cambio confirmado acumulado en la cantidad de cada copia caliente, por ID de copia. */
+    private final Map<Integer, LongAdder> expectedDeltas = new HashMap<>();
+    private final Pelicula hotPelicula;
+    private final long peliculaCount;
+
+    private LoadTest(SessionFactory sessionFactory, List<Pelicula> peliculas, List<Copia> hotCopias) {
+        UserRepository userRepository = new UserRepository(sessionFactory);
+        this.peliculaRepository = new PeliculaRepository(sessionFactory);
+        this.authService = new AuthService(userRepository);
+        this.copiaService = new CopiaService(new TransactionTemplate(sessionFactory), CopiaStatistics.standalone());
+        this.peliculas = peliculas;
+        this.hotPelicula = peliculas.get(0);
+        this.peliculaCount = peliculas.size();
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, new LongAdder());
+        }
+        for (Copia copia : hotCopias) {
+            expectedDeltas.put(copia.getId(), new LongAdder());
+        }
+    }
+
+    /**
+     * Punto de entrada de la prueba de carga.
+     * @param args Las opciones de la prueba.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, Integer> options = new HashMap<>(Map.of("--users", 200, "--accounts", 50, "--ramp-up", 10,
+                "--think", 200, "--duration", 60, "--pool", 10, "--peliculas", 2000));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!options.containsKey(args[i])) {
+                System.err.println("Opción desconocida: " + args[i]);
+                System.exit(2);
+            }
+            options.put(args[i], Integer.parseInt(args[i + 1]));
+        }
+        int users = options.get("--users");
+        int accounts = Math.min(users, options.get("--accounts"));
+        int poolSize = options.get("--pool");
+
+        BenchmarkUtil.quietLogging();
+        Properties overrides = new Properties();
+        overrides.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+        overrides.setProperty("hibernate.connection.url", "jdbc:h2:mem:reto2load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        overrides.setProperty("hibernate.connection.username", "sa");
+        overrides.setProperty("hibernate.connection.password", "");
+        overrides.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        overrides.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        overrides.setProperty("hibernate.show_sql", "false");
+        overrides.setProperty("hibernate.format_sql", "false");
+        overrides.setProperty("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+        overrides.setProperty("hibernate.hikari.maximumPoolSize", String.valueOf(poolSize));
+        overrides.setProperty("hibernate.hikari.connectionTimeout", "30000");
+        DataProvider.setOverrides(overrides);
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+        if (sessionFactory == null) {
+            logger.severe("No se pudo crear la base de datos H2. Prueba cancelada.");
+            System.exit(1);
+        }
+
+        try {
+            long seedStart = System.nanoTime();
+            List<Pelicula> peliculas = seedPeliculas(sessionFactory, options.get("--peliculas"));
+            List<Copia> hotCopias = seedAccounts(sessionFactory, accounts, peliculas.get(0));
+            System.out.printf("Datos iniciales: %d películas, %d cuentas en %.1f s.%n", peliculas.size(), accounts,
+                    (System.nanoTime() - seedStart) / 1e9);
+
+            LoadTest test = new LoadTest(sessionFactory, peliculas, hotCopias);
+            long elapsed = test.run(users, accounts, options.get("--ramp-up"), options.get("--think"), options.get("--duration"));
+            test.report(users, poolSize, elapsed);
+            test.reportLostUpdates(sessionFactory);
+        } finally {
+            sessionFactory.close();
+        }
+    }
+
+    /**
+     * Lanza los usuarios virtuales y espera a que termine la prueba.
+     * @return La duración real de la prueba, en nanosegundos.
+     */
+    private long run(int users, int accounts, int rampUpSeconds, int thinkMillis, int durationSeconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long rampStep = users == 0 ? 0 : TimeUnit.SECONDS.toNanos(rampUpSeconds) / users;
+        System.out.printf("Lanzando %d usuarios virtuales durante %d s (rampa de %d s, reflexión media %d ms)...%n",
+                users, durationSeconds, rampUpSeconds, thinkMillis);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                String email = emailOf(i % accounts);
+                long startAt = start + i * rampStep;
+                executor.submit(() -> virtualUser(email, startAt, deadline, thinkMillis));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Bucle de un usuario virtual: inicia sesión y repite operaciones hasta el final de la prueba.
+     */
+    private void virtualUser(String email, long startAt, long deadline, int thinkMillis) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(startAt - System.nanoTime());
+            User user = login(email);
+            while (user != null && System.nanoTime() < deadline) {
+                Operation operation = pick();
+                long opStart = System.nanoTime();
+                try {
+                    user = execute(operation, email, user);
+                    latencies.get(operation).record(System.nanoTime() - opStart);
+                } catch (RuntimeException e) {
+                    errors.get(operation).increment();
+                }
+                if (thinkMillis > 0) {
+                    TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(2L * thinkMillis + 1));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private User login(String email) {
+        long start = System.nanoTime();
+        try {
+            User user = authService.validateUser(email, PASSWORD).orElseThrow();
+            latencies.get(Operation.LOGIN).record(System.nanoTime() - start);
+            return user;
+        } catch (RuntimeException e) {
+            errors.get(Operation.LOGIN).increment();
+            return null;
+        }
+    }
+
+    /**
+     * Ejecuta una operación con el usuario tal y como lo tiene el usuario virtual (posiblemente
+     * desactualizado, como en la aplicación) y devuelve el usuario resultante.
+     */
+    private User execute(Operation operation, String email, User user) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case LOGIN -> authService.validateUser(email, PASSWORD).orElseThrow();
+            case CATALOGO -> {
+                if (random.nextBoolean()) {
+                    peliculaRepository.findPage(random.nextInt((int) Math.max(1, peliculaCount / PAGE_SIZE)), PAGE_SIZE);
+                } else {
+                    peliculaRepository.findById((long) peliculas.get(random.nextInt(peliculas.size())).getId());
+                }
+                yield user;
+            }
+            case CREAR_COPIA -> {
+                Copia copia = new Copia();
+                int cantidad = 1 + random.nextInt(3);
+                copia.setCantidad(cantidad);
+                if (random.nextInt(3) == 0) {
+                    copia.setPelicula(hotPelicula);
+                    copia.setEstado(EstadoCopia.BUENO);
+                    copia.setSoporte(SoporteCopia.DVD);
+                    User updated = copiaService.createNewCopia(copia, user);
+                    expectedDeltas.get(hotCopiaOf(updated).getId()).add(cantidad);
+                    yield updated;
+                }
+                copia.setPelicula(peliculas.get(1 + random.nextInt(peliculas.size() - 1)));
+                copia.setEstado(EstadoCopia.values()[random.nextInt(EstadoCopia.values().length)]);
+                copia.setSoporte(SoporteCopia.values()[random.nextInt(SoporteCopia.values().length)]);
+                yield copiaService.createNewCopia(copia, user);
+            }
+            case EDITAR_COPIA -> {
+                Copia hot = hotCopiaOf(user);
+                Copia edited = new Copia();
+                edited.setId(hot.getId());
+                edited.setPelicula(hot.getPelicula());
+                edited.setUser(hot.getUser());
+                edited.setEstado(hot.getEstado());
+                edited.setSoporte(hot.getSoporte());
+                edited.setCantidad(hot.getCantidad() + 1);
+                User updated = copiaService.updateCopia(edited, user);
+                expectedDeltas.get(hot.getId()).increment();
+                yield updated;
+            }
+            case QUITAR_COPIA -> {
+                List<Copia> copias = user.getCopias();
+                Copia copia = copias.get(random.nextInt(copias.size()));
+                User updated = copiaService.deleteCopiaFromUser(user, copia);
+                LongAdder expected = expectedDeltas.get(copia.getId());
+                if (expected != null) {
+                    expected.decrement();
+                }
+                yield updated;
+            }
+        };
+    }
+
+    private Copia hotCopiaOf(User user) {
+        return user.getCopias().stream()
+                .filter(c -> c.getPelicula().getId().equals(hotPelicula.getId())
+                        && c.getEstado() == EstadoCopia.BUENO && c.getSoporte() == SoporteCopia.DVD)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("La cuenta " + user.getEmail() + " no tiene copia caliente."));
+    }
+
+    private static Operation pick() {
+        int value = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Operation operation : Operation.values()) {
+            value -= operation.weight;
+            if (value < 0) {
+                return operation;
+            }
+        }
+        return Operation.CATALOGO;
+    }
+
+    private void report(int users, int poolSize, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long totalOps = 0;
+        long totalErrors = 0;
+        System.out.printf("%nUsuarios: %d, pool: %d, duración: %.1f s%n", users, poolSize, seconds);
+        System.out.printf("%-14s %10s %10s %9s %9s %9s %9s %9s%n", "operación", "total", "errores", "op/s",
+                "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            long count = histogram.count();
+            long failed = errors.get(operation).sum();
+            totalOps += count;
+            totalErrors += failed;
+            System.out.printf("%-14s %10d %10d %9.1f %9.2f %9.2f %9.2f %9.2f%n", operation, count, failed, count / seconds,
+                    histogram.percentileMillis(50), histogram.percentileMillis(95), histogram.percentileMillis(99),
+                    histogram.maxMillis());
+        }
+        System.out.printf("%-14s %10d %10d %9.1f%n", "TOTAL", totalOps, totalErrors, totalOps / seconds);
+    }
+
+    /**
+     * Compara la cantidad final de cada copia caliente con la esperada según las operaciones confirmadas.
+     */
+    private void reportLostUpdates(SessionFactory sessionFactory) {
+        Map<Integer, Integer> actual = new HashMap<>();
+        sessionFactory.inSession(s -> s.createQuery("select c.id, c.cantidad from Copia c where c.id in :ids", Object[].class)
+                .setParameterList("ids", expectedDeltas.keySet())
+                .list()
+                .forEach(row -> actual.put((Integer) row[0], (Integer) row[1])));
+        long lost = 0;
+        int affected = 0;
+        for (Map.Entry<Integer, LongAdder> entry : expectedDeltas.entrySet()) {
+            long expected = HOT_INITIAL_CANTIDAD + entry.getValue().sum();
+            long difference = expected - actual.getOrDefault(entry.getKey(), 0);
+            if (difference != 0) {
+                affected++;
+                lost += Math.abs(difference);
+            }
+        }
+        System.out.printf("Actualizaciones perdidas: %d unidades en %d de %d copias calientes.%n",
+                lost, affected, expectedDeltas.size());
+    }
+
+    private static String emailOf(int account) {
+        return "carga" + account + "@reto2.test";
+    }
+
+    private static List<Pelicula> seedPeliculas(SessionFactory sessionFactory, int count) {
+        List<Pelicula> peliculas = new ArrayList<>(count);
+        sessionFactory.inStatelessTransaction(s -> {
+            for (int i = 0; i < Math.max(2, count); i++) {
+                Pelicula pelicula = new Pelicula();
+                pelicula.setTitulo("Película " + i);
+                pelicula.setGenero("Género " + i % 12);
+                pelicula.setAnio(1950 + i % 75);
+                pelicula.setDirector("Director " + i % 300);
+                pelicula.setDescripcion("Descripción de la película " + i);
+                s.insert(pelicula);
+                peliculas.add(pelicula);
+            }
+        });
+        return peliculas;
+    }
+
+    /**
+     * Crea las cuentas, cada una con su copia caliente.
+     */
+    private static List<Copia> seedAccounts(SessionFactory sessionFactory, int accounts, Pelicula hotPelicula) {
+        List<Copia> hotCopias = new ArrayList<>(accounts);
+        sessionFactory.inStatelessTransaction(s -> {
+            for (int i = 0; i < accounts; i++) {
+                User user = new User();
+                user.setEmail(emailOf(i));
+                user.setPassword(PASSWORD);
+                user.setIsAdmin(false);
+                s.insert(user);
+                Copia copia = new Copia();
+                copia.setUser(user);
+                copia.setPelicula(hotPelicula);
+                copia.setEstado(EstadoCopia.BUENO);
+                copia.setSoporte(SoporteCopia.DVD);
+                copia.setCantidad(HOT_INITIAL_CANTIDAD);
+                s.insert(copia);
+                hotCopias.add(copia);
+            }
+        });
+        return hotCopias;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.user.User;
+import org.example.reto2.utils.DataProvider;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Benchmark que mide el coste por llamada de una consulta según cómo se crea:
+ * <ul>
+ *     <li>HQL distinto en cada llamada: Hibernate tiene que interpretarlo siempre (sin caché de planes).</li>
+ *     <li>HQL en línea repetido: se interpreta una vez y después se busca en la caché de planes por su texto.</li>
+ *     <li>Consulta con nombre: interpretada y validada al construir la SessionFactory.</li>
+ * </ul>
+ * Cada variante se mide solo creando la consulta (coste de Hibernate) y ejecutándola, que incluye
+ * además la sentencia preparada (cacheada en el servidor con {@code cachePrepStmts}).
+ * Se ejecuta contra la base de datos configurada en hibernate.cfg.xml.
+ * <p>
+ * Uso: {@code java org.example.reto2.bench.NamedQueryBenchmark [llamadas por iteración] [iteraciones]}
+ */
+public class NamedQueryBenchmark {
+
+    private static final Logger logger = Logger.getLogger(NamedQueryBenchmark.class.getName());
+    private static final String EMAIL = "f@cesur.com";
+
+    /**
+     * Punto de entrada del benchmark.
+     * @param args Opcionalmente, las llamadas por iteración (por defecto 1000) y las iteraciones medidas (por defecto 10).
+     */
+    public static void main(String[] args) {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        BenchmarkUtil.quietLogging();
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+        if (sessionFactory == null) {
+            logger.severe("No se pudo conectar con la base de datos. Benchmark cancelado.");
+            return;
+        }
+
+        try (Session session = DataProvider.openReadOnlySession(sessionFactory)) {
+            int[] unique = {0};
+            List<BenchmarkUtil.Result> results = List.of(
+                    BenchmarkUtil.measure("crear: HQL distinto (sin caché)", 2, iterations, () -> {
+                        for (int i = 0; i < calls; i++) {
+                            session.createQuery("from User u where u.email = :email and u.id > " + -(++unique[0]), User.class);
+                        }
+                        return null;
+                    }),
+                    BenchmarkUtil.measure("crear: HQL en línea (caché de planes)", 2, iterations, () -> {
+                        for (int i = 0; i < calls; i++) {
+                            session.createQuery("from User u where u.email = :email", User.class);
+                        }
+                        return null;
+                    }),
+                    BenchmarkUtil.measure("crear: consulta con nombre", 2, iterations, () -> {
+                        for (int i = 0; i < calls; i++) {
+                            session.createNamedQuery("User.findByEmail", User.class);
+                        }
+                        return null;
+                    }),
+                    BenchmarkUtil.measure("ejecutar: HQL distinto (sin caché)", 2, iterations, () -> {
+                        for (int i = 0; i < calls; i++) {
+                            session.createQuery("from User u where u.email = :email and u.id > " + -(++unique[0]), User.class)
+                                    .setParameter("email", EMAIL).uniqueResult();
+                            session.clear();
+                        }
+                        return null;
+                    }),
+                    BenchmarkUtil.measure("ejecutar: HQL en línea (caché de planes)", 2, iterations, () -> {
+                        for (int i = 0; i < calls; i++) {
+                            session.createQuery("from User u where u.email = :email", User.class)
+                                    .setParameter("email", EMAIL).uniqueResult();
+                            session.clear();
+                        }
+                        return null;
+                    }),
+                    BenchmarkUtil.measure("ejecutar: consulta con nombre", 2, iterations, () -> {
+                        for (int i = 0; i < calls; i++) {
+                            session.createNamedQuery("User.findByEmail", User.class)
+                                    .setParameter("email", EMAIL).uniqueResult();
+                            session.clear();
+                        }
+                        return null;
+                    }));
+            for (BenchmarkUtil.Result result : results) {
+                System.out.println(result);
+                System.out.printf("    %.2f µs por llamada%n", result.wallMillis() * 1000 / calls);
+            }
+        } finally {
+            sessionFactory.close();
+        }
+    }
+}
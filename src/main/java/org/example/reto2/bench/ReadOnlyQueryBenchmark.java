@@ -0,0 +1,62 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.user.User;
+import org.example.reto2.user.UserRepository;
+import org.example.reto2.utils.DataProvider;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Benchmark que compara las lecturas con una sesión completa (con contexto de persistencia
+ * e instantáneas para dirty checking) frente al modo de solo lectura de los repositorios.
+ * Se ejecuta contra la base de datos configurada en hibernate.cfg.xml, que debería contener
+ * un volumen grande de películas y usuarios.
+ * <p>
+ * Uso: {@code java org.example.reto2.bench.ReadOnlyQueryBenchmark [iteraciones]}
+ */
+public class ReadOnlyQueryBenchmark {
+
+    private static final Logger logger = Logger.getLogger(ReadOnlyQueryBenchmark.class.getName());
+
+    /**
+     * Punto de entrada del benchmark.
+     * @param args Opcionalmente, el número de iteraciones medidas (por defecto 10).
+     */
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+        if (sessionFactory == null) {
+            logger.severe("No se pudo conectar con la base de datos. Benchmark cancelado.");
+            return;
+        }
+        PeliculaRepository peliculaRepository = new PeliculaRepository(sessionFactory);
+        UserRepository userRepository = new UserRepository(sessionFactory);
+
+        System.out.println(BenchmarkUtil.measure("Pelicula findAll (sesión completa)", 2, iterations, () -> {
+            try (Session session = sessionFactory.openSession()) {
+                List<Pelicula> peliculas = session.createQuery("from Pelicula", Pelicula.class).list();
+                session.flush(); // el flush recorre las instantáneas igual que al cerrar una transacción
+                return peliculas;
+            }
+        }));
+        System.out.println(BenchmarkUtil.measure("Pelicula findAll (solo lectura)", 2, iterations,
+                peliculaRepository::findAll));
+
+        System.out.println(BenchmarkUtil.measure("User findAll (sesión completa)", 2, iterations, () -> {
+            try (Session session = sessionFactory.openSession()) {
+                List<User> users = session.createQuery("from User", User.class).list();
+                session.flush();
+                return users;
+            }
+        }));
+        System.out.println(BenchmarkUtil.measure("User findAll (solo lectura)", 2, iterations,
+                userRepository::findAll));
+
+        sessionFactory.close();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.copia.Copia;
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.user.User;
+import org.example.reto2.user.UserRepository;
+import org.example.reto2.utils.DataProvider;
+import org.example.reto2.utils.TransactionTemplate;
+import org.hibernate.SessionFactory;
+
+import java.util.logging.Logger;
+
+/**
+ * Benchmark que compara la eliminación de un usuario con muchas copias mediante el cascade
+ * de Hibernate (carga de todas las copias y un DELETE por copia) frente al borrado masivo de
+ * {@link UserRepository#deleteById(Long)}.
+ * Crea sus propios datos de prueba (una película y usuarios temporales) en la base de datos configurada.
+ * <p>
+ * Uso: {@code java org.example.reto2.bench.UserDeleteBenchmark [copiasPorUsuario] [iteraciones]}
+ */
+public class UserDeleteBenchmark {
+
+    private static final Logger logger = Logger.getLogger(UserDeleteBenchmark.class.getName());
+
+    /**
+     * Punto de entrada del benchmark.
+     * @param args Opcionalmente, el número de copias por usuario (por defecto 2000)
+     *             y el número de iteraciones (por defecto 5).
+     */
+    public static void main(String[] args) {
+        int copiasPorUsuario = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+        if (sessionFactory == null) {
+            logger.severe("No se pudo conectar con la base de datos. Benchmark cancelado.");
+            return;
+        }
+        TransactionTemplate transactions = new TransactionTemplate(sessionFactory);
+        UserRepository userRepository = new UserRepository(sessionFactory);
+        Pelicula pelicula = createPelicula(transactions);
+
+        long cascadeNanos = 0;
+        long bulkNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            Integer cascadeUser = createUserWithCopias(transactions, pelicula, copiasPorUsuario, "cascade-" + i);
+            long start = System.nanoTime();
+            transactions.executeWithoutResult(session -> session.remove(session.find(User.class, cascadeUser)));
+            cascadeNanos += System.nanoTime() - start;
+
+            Integer bulkUser = createUserWithCopias(transactions, pelicula, copiasPorUsuario, "bulk-" + i);
+            start = System.nanoTime();
+            userRepository.deleteById(bulkUser.longValue());
+            bulkNanos += System.nanoTime() - start;
+        }
+
+        transactions.executeWithoutResult(session -> session.remove(session.find(Pelicula.class, pelicula.getId())));
+
+        System.out.printf("Eliminación de usuario con %d copias (%d iteraciones)%n", copiasPorUsuario, iterations);
+        System.out.printf("  cascade de Hibernate: %10.2f ms de media%n", cascadeNanos / 1_000_000.0 / iterations);
+        System.out.printf("  DELETE masivo:        %10.2f ms de media%n", bulkNanos / 1_000_000.0 / iterations);
+        sessionFactory.close();
+    }
+
+    private static Pelicula createPelicula(TransactionTemplate transactions) {
+        Pelicula pelicula = new Pelicula();
+        pelicula.setTitulo("Benchmark " + System.currentTimeMillis());
+        pelicula.setGenero("Benchmark");
+        pelicula.setAnio(2000);
+        pelicula.setDirector("Benchmark");
+        pelicula.setDescripcion("Película temporal creada por UserDeleteBenchmark.");
+        transactions.executeWithoutResult(session -> session.persist(pelicula));
+        return pelicula;
+    }
+
+    private static Integer createUserWithCopias(TransactionTemplate transactions, Pelicula pelicula, int copias, String tag) {
+        return transactions.stateless(session -> {
+            User user = new User();
+            user.setEmail(tag + "-" + System.nanoTime() + "@benchmark.local");
+            user.setPassword("benchmark");
+            user.setIsAdmin(false);
+            session.insert(user);
+            for (int i = 0; i < copias; i++) {
+                Copia copia = new Copia();
+                copia.setPelicula(pelicula);
+                copia.setUser(user);
+                copia.setEstado(i % 2 == 0 ? EstadoCopia.BUENO : EstadoCopia.GASTADO);
+                copia.setSoporte(i % 3 == 0 ? SoporteCopia.DVD : SoporteCopia.BLU_RAY);
+                copia.setCantidad(1);
+                session.insert(copia);
+            }
+            return user.getId();
+        });
+    }
+}
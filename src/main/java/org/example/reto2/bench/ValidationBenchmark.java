@@ -0,0 +1,74 @@
+package org.example.reto2.bench;
+
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark de la validación masiva de películas ({@link EntityValidators#PELICULA}).
+ * Valida una lista de películas sintéticas, con una parte de filas inválidas, de tres formas: con las
+ * comprobaciones que hacían antes los formularios ({@code String.matches}, que compila la expresión
+ * regular en cada llamada), con las reglas precompiladas en un solo hilo y con
+ * {@link Validator#validateAll} en paralelo. No necesita base de datos.
+ * <p>
+ * Uso: {@code java org.example.reto2.bench.ValidationBenchmark [filas] [iteraciones]}
+ */
+public class ValidationBenchmark {
+
+    private static final String[] GENEROS = {"Drama", "Comedia", "Ciencia ficción", "Animación", "1984", "Terror"};
+    private static final String[] DIRECTORES = {"Pedro Almodóvar", "Alejandro Amenábar", "Icíar Bollaín", "3000", "Luis Buñuel"};
+
+    /**
+     * Punto de entrada del benchmark.
+     * @param args Opcionalmente, el número de películas (por defecto 1000000) y las iteraciones medidas (por defecto 5).
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        BenchmarkUtil.quietLogging();
+
+        Random random = new Random(42);
+        List<Pelicula> peliculas = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Pelicula pelicula = new Pelicula();
+            pelicula.setTitulo("Película " + i);
+            pelicula.setGenero(GENEROS[random.nextInt(GENEROS.length)]);
+            pelicula.setDirector(DIRECTORES[random.nextInt(DIRECTORES.length)]);
+            pelicula.setAnio(1940 + random.nextInt(90));
+            peliculas.add(pelicula);
+        }
+
+        System.out.println(BenchmarkUtil.measure("String.matches en cada fila", 1, iterations, () -> {
+            int invalid = 0;
+            for (Pelicula pelicula : peliculas) {
+                if (!legacyValid(pelicula)) {
+                    invalid++;
+                }
+            }
+            return invalid;
+        }));
+        System.out.println(BenchmarkUtil.measure("reglas precompiladas", 1, iterations, () -> {
+            int invalid = 0;
+            for (Pelicula pelicula : peliculas) {
+                if (EntityValidators.PELICULA.firstViolation(pelicula) != null) {
+                    invalid++;
+                }
+            }
+            return invalid;
+        }));
+        System.out.println(BenchmarkUtil.measure("validateAll en paralelo", 1, iterations,
+                () -> EntityValidators.PELICULA.validateAll(peliculas).size()));
+    }
+
+    private static boolean legacyValid(Pelicula pelicula) {
+        return !pelicula.getTitulo().isEmpty() && pelicula.getTitulo().length() <= 255
+                && pelicula.getGenero().length() <= 255 && pelicula.getDirector().length() <= 255
+                && pelicula.getGenero().matches(".*[a-zA-Z]+.*") && pelicula.getDirector().matches(".*[a-zA-Z]+.*")
+                && String.valueOf(pelicula.getAnio()).matches("\\d{4}")
+                && pelicula.getAnio() >= 1950 && pelicula.getAnio() <= 2025;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.reto2.bench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Distribución de Zipf sobre los rangos {@code 0..n-1}: la probabilidad del rango {@code r} es
+ * proporcional a {@code 1 / (r + 1)^s}. Con {@code s = 0} es uniforme y cuanto mayor es {@code s}
+ * más se concentra en los primeros rangos. Se precalcula la función de distribución acumulada, por
+ * lo que cada muestra es una búsqueda binaria y la misma semilla produce siempre la misma secuencia.
+ * Es inmutable y puede compartirse entre hilos; cada hilo usa su propio generador aleatorio.
+ */
+public class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    /**
+     * Crea la distribución.
+     * @param n El número de rangos (al menos 1).
+     * @param exponent El exponente {@code s} (0 o mayor).
+     */
+    public ZipfDistribution(int n, double exponent) {
+        if (n < 1 || exponent < 0) {
+            throw new IllegalArgumentException("Distribución de Zipf no válida: n=" + n + ", s=" + exponent);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int r = 0; r < n; r++) {
+            sum += 1.0 / Math.pow(r + 1, exponent);
+            cumulative[r] = sum;
+        }
+        for (int r = 0; r < n; r++) {
+            cumulative[r] /= sum;
+        }
+    }
+
+    /**
+     * Obtiene el número de rangos.
+     * @return El número de rangos.
+     */
+    public int size() {
+        return cumulative.length;
+    }
+
+    /**
+     * Obtiene la probabilidad de un rango.
+     * @param rank El rango.
+     * @return Su probabilidad.
+     */
+    public double probability(int rank) {
+        return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+    }
+
+    /**
+     * Extrae un rango.
+     * @param random El generador aleatorio del hilo.
+     * @return El rango extraído.
+     */
+    public int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+}
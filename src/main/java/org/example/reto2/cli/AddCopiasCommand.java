@@ -0,0 +1,126 @@
+package org.example.reto2.cli;
+
+import org.example.reto2.copia.Copia;
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.user.User;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Rules;
+import org.example.reto2.validation.Validator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Añade copias a varios usuarios desde un fichero con el formato
+ * {@code email;idPelicula;estado;soporte;cantidad}.
+ * El fichero se lee y se valida por bloques grandes ({@link CsvBatches#validationChunk}), en paralelo;
+ * después cada lote del bloque resuelve sus usuarios y películas con una consulta y se escribe con
+ * {@link org.example.reto2.copia.CopiaService#addCopias} en una transacción, sumando la cantidad
+ * a las copias que ya existen con el mismo estado y soporte. Las copias que no cumplen
+ * {@link EntityValidators#COPIA} se rechazan con todos sus motivos.
+ */
+public class AddCopiasCommand implements CliCommand {
+
+    @Override
+    public String name() {
+        return "add-copias";
+    }
+
+    @Override
+    public String usage() {
+        return "add-copias <fichero>         líneas: email;idPelicula;estado;soporte;cantidad";
+    }
+
+    @Override
+    public BatchReport run(CliContext context, List<String> args) throws Exception {
+        if (args.size() != 1) {
+            throw new IllegalArgumentException("Uso: " + usage());
+        }
+        BatchReport report = new BatchReport();
+        CsvBatches.forEachBatch(Path.of(args.get(0)), "email", CsvBatches.validationChunk(context.batchSize()), report, lines -> {
+            List<Copia> parsed = new ArrayList<>(lines.size());
+            List<Long> numbers = new ArrayList<>(lines.size());
+            for (CsvBatches.Line line : lines) {
+                try {
+                    parsed.add(parse(line));
+                    numbers.add(line.number());
+                } catch (IllegalArgumentException e) {
+                    report.reject(line.number(), e.getMessage());
+                }
+            }
+
+            boolean[] invalid = new boolean[parsed.size()];
+            for (Validator.RowViolations row : EntityValidators.COPIA.validateAll(parsed)) {
+                invalid[row.index()] = true;
+                report.reject(numbers.get(row.index()), row.describe());
+            }
+
+            CsvBatches.forEachSlice(parsed.size(), context.batchSize(), (from, to) -> {
+                Set<String> emails = new HashSet<>();
+                Set<Integer> peliculaIds = new HashSet<>();
+                for (int i = from; i < to; i++) {
+                    if (!invalid[i]) {
+                        emails.add(parsed.get(i).getUser().getEmail());
+                        peliculaIds.add(parsed.get(i).getPelicula().getId());
+                    }
+                }
+                Map<String, Integer> userIds = context.userRepository().findIdsByEmail(emails);
+                Set<Integer> existingPeliculas = context.peliculaRepository().findExistingIds(peliculaIds);
+
+                List<Copia> copias = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    if (invalid[i]) {
+                        continue;
+                    }
+                    Copia copia = parsed.get(i);
+                    Integer userId = userIds.get(copia.getUser().getEmail());
+                    if (userId == null) {
+                        report.reject(numbers.get(i), "usuario '" + copia.getUser().getEmail() + "' no encontrado");
+                    } else if (!existingPeliculas.contains(copia.getPelicula().getId())) {
+                        report.reject(numbers.get(i), "película con ID " + copia.getPelicula().getId() + " no encontrada");
+                    } else {
+                        copia.getUser().setId(userId);
+                        copias.add(copia);
+                    }
+                }
+                context.copiaService().addCopias(copias);
+                report.batch(copias.size());
+            });
+        });
+        return report;
+    }
+
+    /**
+     * Convierte una línea en una copia con el email del usuario y el ID de la película, que se comprueban
+     * después contra la base de datos en cada lote.
+     */
+    private static Copia parse(CsvBatches.Line line) {
+        String[] f = line.fields();
+        if (f.length != 5) {
+            throw new IllegalArgumentException("se esperaban 5 campos");
+        }
+        Integer peliculaId = Rules.parseInt(f[1], Rules.DIGITS);
+        Integer cantidad = Rules.parseInt(f[4], Rules.DIGITS);
+        if (peliculaId == null || cantidad == null) {
+            throw new IllegalArgumentException("ID de película o cantidad no numéricos");
+        }
+
+        User user = new User();
+        user.setEmail(f[0]);
+        Pelicula pelicula = new Pelicula();
+        pelicula.setId(peliculaId);
+        Copia copia = new Copia();
+        copia.setUser(user);
+        copia.setPelicula(pelicula);
+        copia.setEstado(EstadoCopia.fromDisplayName(f[2]));
+        copia.setSoporte(SoporteCopia.fromDisplayName(f[3]));
+        copia.setCantidad(cantidad);
+        return copia;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.reto2.cli;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contadores de una ejecución de un subcomando: líneas leídas, filas escritas, líneas rechazadas
+ * y lotes confirmados. Se imprime al final con el tiempo total y el rendimiento en filas por segundo.
+ */
+public class BatchReport {
+
+    /** Número máximo de líneas rechazadas que se detallan en el informe. */
+    private static final int MAX_REJECTED_DETAILS = 20;
+
+    private long read;
+    private long written;
+    private long rejected;
+    private long batches;
+    private final List<String> rejectedDetails = new ArrayList<>();
+
+    /**
+     * Registra líneas de entrada leídas.
+     * @param lines El número de líneas.
+     */
+    public void read(long lines) {
+        read += lines;
+    }
+
+    /**
+     * Registra un lote confirmado.
+     * @param rows El número de filas escritas en el lote.
+     */
+    public void batch(long rows) {
+        written += rows;
+        batches++;
+    }
+
+    /**
+     * Registra una línea rechazada.
+     * @param lineNumber El número de línea en el fichero de entrada.
+     * @param reason El motivo del rechazo.
+     */
+    public void reject(long lineNumber, String reason) {
+        rejected++;
+        if (rejectedDetails.size() < MAX_REJECTED_DETAILS) {
+            rejectedDetails.add("línea " + lineNumber + ": " + reason);
+        }
+    }
+
+    /**
+     * Obtiene el número de filas escritas.
+     * @return Las filas escritas.
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Imprime el informe de la ejecución.
+     * @param out La salida.
+     * @param command El nombre del subcomando.
+     * @param elapsedNanos La duración de la ejecución en nanosegundos.
+     */
+    public void print(PrintStream out, String command, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("%s: %d líneas leídas, %d filas escritas en %d lotes, %d rechazadas, %.1f ms (%.0f filas/s)%n",
+                command, read, written, batches, rejected, elapsedNanos / 1e6, seconds > 0 ? written / seconds : 0);
+        for (String detail : rejectedDetails) {
+            out.println("  rechazada " + detail);
+        }
+        if (rejected > rejectedDetails.size()) {
+            out.println("  ... y " + (rejected - rejectedDetails.size()) + " rechazadas más.");
+        }
+    }
+}
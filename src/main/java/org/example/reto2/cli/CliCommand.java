@@ -0,0 +1,31 @@
+package org.example.reto2.cli;
+
+import java.util.List;
+
+/**
+ * Subcomando del modo sin interfaz gráfica ({@link HeadlessMain}).
+ */
+public interface CliCommand {
+
+    /**
+     * Obtiene el nombre con el que se invoca el subcomando.
+     * @return El nombre del subcomando (ej. "import-peliculas").
+     */
+    String name();
+
+    /**
+     * Obtiene la descripción de los argumentos y el formato de entrada del subcomando.
+     * @return El texto de ayuda del subcomando.
+     */
+    String usage();
+
+    /**
+     * Ejecuta el subcomando.
+     * @param context Los servicios y opciones compartidos por todos los subcomandos.
+     * @param args Los argumentos del subcomando.
+     * @return El informe de la ejecución, o null si el subcomando no procesa líneas de entrada por lotes
+     * (entonces solo se imprime la duración).
+     * @throws Exception Si el subcomando no puede completarse.
+     */
+    BatchReport run(CliContext context, List<String> args) throws Exception;
+}
@@ -0,0 +1,25 @@
+package org.example.reto2.cli;
+
+import org.example.reto2.copia.CopiaService;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.user.User;
+import org.example.reto2.user.UserRepository;
+import org.hibernate.SessionFactory;
+
+import java.io.PrintStream;
+
+/**
+ * Servicios y opciones compartidos por los subcomandos del modo sin interfaz gráfica.
+ *
+ * @param sessionFactory La SessionFactory de Hibernate.
+ * @param peliculaRepository El repositorio de películas.
+ * @param userRepository El repositorio de usuarios.
+ * @param copiaService El servicio de copias.
+ * @param admin El administrador autenticado que ejecuta el comando.
+ * @param batchSize El número de líneas de entrada que se escriben en cada transacción.
+ * @param out La salida en la que se informa del progreso.
+ */
+public record CliContext(SessionFactory sessionFactory, PeliculaRepository peliculaRepository,
+                         UserRepository userRepository, CopiaService copiaService, User admin,
+                         int batchSize, PrintStream out) {
+}
@@ -0,0 +1,130 @@
+package org.example.reto2.cli;
+
+import org.example.reto2.validation.Validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura en streaming de ficheros de entrada separados por punto y coma.
+ * El fichero se lee línea a línea y se entrega por lotes, por lo que la memoria usada depende
+ * del tamaño del lote y no del fichero. Las cargas que validan sus filas leen bloques de
+ * {@link #validationChunk(int)} líneas, los validan enteros y los escriben en tramos ({@link #forEachSlice}). Se ignoran las líneas vacías, las que empiezan por
+ * {@code #} y la cabecera si la primera línea empieza por el nombre de la primera columna.
+ */
+public final class CsvBatches {
+
+    /**
+     * Línea de entrada ya separada en campos.
+     *
+     * @param number El número de línea en el fichero (empezando en 1).
+     * @param fields Los campos de la línea, sin espacios alrededor.
+     */
+    public record Line(long number, String[] fields) {
+    }
+
+    /**
+     * Procesa un lote de líneas.
+     */
+    @FunctionalInterface
+    public interface BatchHandler {
+        /**
+         * Procesa un lote de líneas.
+         * @param lines Las líneas del lote.
+         * @throws Exception Si el lote no puede procesarse.
+         */
+        void handle(List<Line> lines) throws Exception;
+    }
+
+    /**
+     * Procesa un tramo de un bloque de líneas.
+     */
+    @FunctionalInterface
+    public interface SliceHandler {
+        /**
+         * Procesa un tramo.
+         * @param from La primera posición del tramo.
+         * @param to La posición siguiente a la última del tramo.
+         * @throws Exception Si el tramo no puede procesarse.
+         */
+        void handle(int from, int to) throws Exception;
+    }
+
+    /**
+     * Constructor privado para evitar instanciación de la clase de utilidad.
+     */
+    private CsvBatches() {
+    }
+
+    /**
+     * Lee un fichero y entrega sus líneas por lotes.
+     * @param file El fichero de entrada (UTF-8).
+     * @param headerPrefix El nombre de la primera columna, para reconocer la cabecera.
+     * @param batchSize El número de líneas por lote.
+     * @param report El informe en el que se cuentan las líneas leídas.
+     * @param handler El procesador de cada lote.
+     * @throws Exception Si el fichero no se puede leer o un lote falla.
+     */
+    public static void forEachBatch(Path file, String headerPrefix, int batchSize, BatchReport report,
+                                    BatchHandler handler) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<Line> batch = new ArrayList<>(batchSize);
+            String text;
+            long number = 0;
+            while ((text = reader.readLine()) != null) {
+                number++;
+                String trimmed = text.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")
+                        || (number == 1 && trimmed.toLowerCase().startsWith(headerPrefix))) {
+                    continue;
+                }
+                String[] fields = trimmed.split(";", -1);
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].strip();
+                }
+                batch.add(new Line(number, fields));
+                if (batch.size() == batchSize) {
+                    report.read(batch.size());
+                    handler.handle(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                report.read(batch.size());
+                handler.handle(batch);
+            }
+        } catch (IOException e) {
+            throw new IOException("No se pudo leer el fichero " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Obtiene cuántas líneas leer de una vez en las cargas que validan sus filas. Los lotes de escritura
+     * son pequeños (una transacción cada uno) y nunca llegarían a {@link Validator#PARALLEL_THRESHOLD},
+     * así que se lee y se valida un bloque de al menos ese tamaño, que después se escribe en lotes.
+     * @param batchSize El número de líneas que se escriben en cada transacción.
+     * @return El número de líneas de cada bloque.
+     */
+    public static int validationChunk(int batchSize) {
+        return Math.max(batchSize, Validator.PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Recorre las posiciones de un bloque en tramos consecutivos, por ejemplo para escribir en lotes
+     * las filas de un bloque ya validado.
+     * @param size El número de elementos del bloque.
+     * @param sliceSize El número máximo de elementos de cada tramo.
+     * @param handler El procesador de cada tramo.
+     * @throws Exception Si un tramo falla.
+     */
+    public static void forEachSlice(int size, int sliceSize, SliceHandler handler) throws Exception {
+        for (int from = 0; from < size; from += sliceSize) {
+            handler.handle(from, Math.min(size, from + sliceSize));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.reto2.cli;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Elimina usuarios, junto a todas sus copias, a partir de un fichero con un email por línea.
+ * Cada lote se elimina con las operaciones masivas de {@link org.example.reto2.user.UserRepository},
+ * sin cargar los usuarios. El administrador que ejecuta el comando nunca se elimina.
+ */
+public class DeleteUsersCommand implements CliCommand {
+
+    @Override
+    public String name() {
+        return "delete-users";
+    }
+
+    @Override
+    public String usage() {
+        return "delete-users <fichero>       líneas: email";
+    }
+
+    @Override
+    public BatchReport run(CliContext context, List<String> args) throws Exception {
+        if (args.size() != 1) {
+            throw new IllegalArgumentException("Uso: " + usage());
+        }
+        BatchReport report = new BatchReport();
+        CsvBatches.forEachBatch(Path.of(args.get(0)), "email", context.batchSize(), report, lines -> {
+            Set<String> emails = new HashSet<>();
+            for (CsvBatches.Line line : lines) {
+                emails.add(line.fields()[0]);
+            }
+            Map<String, Integer> ids = context.userRepository().findIdsByEmail(emails);
+            List<Integer> toDelete = new ArrayList<>(ids.size());
+            for (CsvBatches.Line line : lines) {
+                String email = line.fields()[0];
+                Integer id = ids.get(email);
+                if (id == null) {
+                    report.reject(line.number(), "usuario '" + email + "' no encontrado");
+                } else if (id.equals(context.admin().getId())) {
+                    report.reject(line.number(), "no se puede eliminar al administrador que ejecuta el comando");
+                } else {
+                    toDelete.add(id);
+                }
+            }
+            report.batch(context.userRepository().deleteAllByIds(new HashSet<>(toDelete)));
+        });
+        return report;
+    }
+}
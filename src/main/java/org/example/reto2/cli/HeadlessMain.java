@@ -0,0 +1,167 @@
+package org.example.reto2.cli;
+
+import org.example.reto2.audit.AuditLog;
+import org.example.reto2.copia.CopiaService;
+import org.example.reto2.copia.CopiaStatistics;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.session.AuthService;
+import org.example.reto2.user.User;
+import org.example.reto2.user.UserRepository;
+import org.example.reto2.utils.DataProvider;
+import org.example.reto2.utils.TransactionTemplate;
+import org.hibernate.SessionFactory;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Punto de entrada sin interfaz gráfica para operaciones de mantenimiento por lotes.
+ * Reutiliza {@link DataProvider}, los repositorios, {@link CopiaService} y {@link AuthService}
+ * sin inicializar JavaFX. Los ficheros de entrada se leen en streaming y se escriben por lotes
+ * de {@code --batch} líneas, cada uno en una transacción; al terminar se imprime el tiempo y el
+ * rendimiento de la ejecución.
+ * <p>
+ * Uso: {@code java -m org.example.reto2/org.example.reto2.cli.HeadlessMain
+ * --email <admin> --password <contraseña> [--batch N] [--verbose] <subcomando> [argumentos]}
+ * <p>
+ * Las credenciales también pueden indicarse con las variables de entorno {@code RETO2_EMAIL}
+ * y {@code RETO2_PASSWORD}. Solo los administradores pueden ejecutar subcomandos.
+ */
+public class HeadlessMain {
+
+    private static final Logger logger = Logger.getLogger(HeadlessMain.class.getName());
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final Map<String, CliCommand> COMMANDS = new LinkedHashMap<>();
+
+    static {
+        for (CliCommand command : List.of(new ImportPeliculasCommand(), new AddCopiasCommand(),
+                new DeleteUsersCommand(), new RecountCommand())) {
+            COMMANDS.put(command.name(), command);
+        }
+    }
+
+    /**
+     * Constructor privado: la clase solo contiene el punto de entrada.
+     */
+    private HeadlessMain() {
+    }
+
+    /**
+     * Punto de entrada del modo sin interfaz gráfica.
+     * @param args Las opciones, el subcomando y sus argumentos.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Ejecuta un subcomando.
+     * @param args Las opciones, el subcomando y sus argumentos.
+     * @param out La salida para el informe.
+     * @param err La salida para los errores.
+     * @return El código de salida: 0 si todo fue bien, 1 si falló el subcomando, 2 si los argumentos no son válidos.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        long start = System.nanoTime();
+        String email = System.getenv("RETO2_EMAIL");
+        String password = System.getenv("RETO2_PASSWORD");
+        int batchSize = DEFAULT_BATCH_SIZE;
+        boolean verbose = false;
+        List<String> rest = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--email" -> email = args[++i];
+                    case "--password" -> password = args[++i];
+                    case "--batch" -> batchSize = Integer.parseInt(args[++i]);
+                    case "--verbose" -> verbose = true;
+                    default -> rest.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            printUsage(err);
+            return 2;
+        }
+        if (rest.isEmpty() || !COMMANDS.containsKey(rest.get(0)) || email == null || password == null || batchSize <= 0) {
+            printUsage(err);
+            return 2;
+        }
+        CliCommand command = COMMANDS.get(rest.get(0));
+
+        configureLogging(verbose);
+        Properties overrides = new Properties();
+        overrides.setProperty("hibernate.show_sql", "false");
+        overrides.setProperty("hibernate.format_sql", "false");
+        DataProvider.setOverrides(overrides);
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+        if (sessionFactory == null) {
+            err.println("No se pudo conectar con la base de datos.");
+            return 1;
+        }
+        try {
+            UserRepository userRepository = new UserRepository(sessionFactory);
+            Optional<User> admin = new AuthService(userRepository).validateUser(email, password);
+            if (admin.isEmpty() || !Boolean.TRUE.equals(admin.get().getIsAdmin())) {
+                err.println("Credenciales no válidas o el usuario no es administrador.");
+                return 1;
+            }
+            CliContext context = new CliContext(sessionFactory, new PeliculaRepository(sessionFactory), userRepository,
+                    new CopiaService(new TransactionTemplate(sessionFactory), CopiaStatistics.standalone()),
+                    admin.get(), batchSize, out);
+            out.printf("Arranque completado en %.1f ms.%n", (System.nanoTime() - start) / 1e6);
+
+            long commandStart = System.nanoTime();
+            BatchReport report;
+            try {
+                report = command.run(context, rest.subList(1, rest.size()));
+            } catch (IllegalArgumentException e) {
+                err.println(e.getMessage());
+                return 2;
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Error al ejecutar " + command.name() + ": " + e.getMessage(), e);
+                err.println(command.name() + " interrumpido: " + e.getMessage()
+                        + ". Los lotes ya confirmados se mantienen; el lote en curso se ha deshecho.");
+                return 1;
+            }
+            long elapsed = System.nanoTime() - commandStart;
+            if (report != null) {
+                report.print(out, command.name(), elapsed);
+            } else {
+                out.printf("%s: completado en %.1f ms%n", command.name(), elapsed / 1e6);
+            }
+            return 0;
+        } finally {
+            AuditLog.getInstance().close();
+            sessionFactory.close();
+        }
+    }
+
+    /**
+     * Reduce el log a advertencias para que la salida muestre solo el informe, salvo con {@code --verbose}.
+     */
+    private static void configureLogging(boolean verbose) {
+        Level level = verbose ? Level.INFO : Level.WARNING;
+        Logger root = Logger.getLogger("");
+        root.setLevel(level);
+        for (var handler : root.getHandlers()) {
+            handler.setLevel(level);
+        }
+        Logger.getLogger("org.hibernate").setLevel(verbose ? Level.INFO : Level.WARNING);
+    }
+
+    private static void printUsage(PrintStream err) {
+        err.println("Uso: HeadlessMain --email <admin> --password <contraseña> [--batch N] [--verbose] <subcomando> [argumentos]");
+        err.println("Subcomandos:");
+        for (CliCommand command : COMMANDS.values()) {
+            err.println("  " + command.usage());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.reto2.cli;
+
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.utils.UnitOfWork;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Rules;
+import org.example.reto2.validation.Validator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importa películas desde un fichero con el formato
+ * {@code titulo;genero;anio;director;descripcion}.
+ * El fichero se lee y se valida por bloques grandes ({@link CsvBatches#validationChunk}), en paralelo, y cada
+ * bloque se escribe en lotes de una transacción. Las películas que no cumplen {@link EntityValidators#PELICULA},
+ * que ya existen (mismo título, año y director) o que se repiten dentro del fichero se rechazan, igual que
+ * al añadirlas desde la aplicación.
+ */
+public class ImportPeliculasCommand implements CliCommand {
+
+    @Override
+    public String name() {
+        return "import-peliculas";
+    }
+
+    @Override
+    public String usage() {
+        return "import-peliculas <fichero>   líneas: titulo;genero;anio;director;descripcion";
+    }
+
+    @Override
+    public BatchReport run(CliContext context, List<String> args) throws Exception {
+        if (args.size() != 1) {
+            throw new IllegalArgumentException("Uso: " + usage());
+        }
+        BatchReport report = new BatchReport();
+        Set<String> seen = new HashSet<>();
+        CsvBatches.forEachBatch(Path.of(args.get(0)), "titulo", CsvBatches.validationChunk(context.batchSize()), report, lines -> {
+            List<Pelicula> peliculas = new ArrayList<>(lines.size());
+            List<Long> numbers = new ArrayList<>(lines.size());
+            for (CsvBatches.Line line : lines) {
+                String[] f = line.fields();
+                if (f.length != 5 || f[0].isEmpty()) {
+                    report.reject(line.number(), "se esperaban 5 campos con título");
+                    continue;
+                }
+                Pelicula pelicula = new Pelicula();
+                pelicula.setTitulo(f[0]);
+                pelicula.setGenero(f[1]);
+                Integer anio = Rules.parseInt(f[2], Rules.DIGITS);
+                if (anio == null) {
+                    report.reject(line.number(), "año no numérico '" + f[2] + "'");
+                    continue;
+                }
+                pelicula.setAnio(anio);
+                pelicula.setDirector(f[3]);
+                pelicula.setDescripcion(f[4].isEmpty() ? null : f[4]);
+                peliculas.add(pelicula);
+                numbers.add(line.number());
+            }
+
+            boolean[] invalid = new boolean[peliculas.size()];
+            for (Validator.RowViolations row : EntityValidators.PELICULA.validateAll(peliculas)) {
+                invalid[row.index()] = true;
+                report.reject(numbers.get(row.index()), row.describe());
+            }
+
+            CsvBatches.forEachSlice(peliculas.size(), context.batchSize(), (from, to) -> {
+                List<String> titulos = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    if (!invalid[i]) {
+                        titulos.add(peliculas.get(i).getTitulo());
+                    }
+                }
+                Set<String> existing = new HashSet<>();
+                for (Pelicula p : context.peliculaRepository().findByTitulos(titulos)) {
+                    existing.add(key(p));
+                }
+                UnitOfWork unitOfWork = context.peliculaRepository().unitOfWork();
+                for (int i = from; i < to; i++) {
+                    if (invalid[i]) {
+                        continue;
+                    }
+                    Pelicula pelicula = peliculas.get(i);
+                    String key = key(pelicula);
+                    if (existing.contains(key) || !seen.add(key)) {
+                        report.reject(numbers.get(i), "la película '" + pelicula.getTitulo() + "' ya existe");
+                    } else {
+                        unitOfWork.persist(pelicula);
+                    }
+                }
+                report.batch(unitOfWork.commit());
+            });
+        });
+        return report;
+    }
+
+    private static String key(Pelicula pelicula) {
+        return pelicula.getTitulo() + '\u0000' + pelicula.getAnio() + '\u0000' + pelicula.getDirector();
+    }
+}
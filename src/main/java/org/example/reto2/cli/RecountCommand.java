@@ -0,0 +1,43 @@
+package org.example.reto2.cli;
+
+import org.example.reto2.copia.CopiaStatistics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recalcula las estadísticas de la colección con una agregación completa sobre la tabla de copias
+ * y las imprime: total de unidades, unidades por estado y por soporte, y las películas y usuarios
+ * con más unidades.
+ */
+public class RecountCommand implements CliCommand {
+
+    private static final int TOP_LIMIT = 10;
+
+    @Override
+    public String name() {
+        return "recount";
+    }
+
+    @Override
+    public String usage() {
+        return "recount                      recalcula y muestra las estadísticas de copias";
+    }
+
+    @Override
+    public BatchReport run(CliContext context, List<String> args) {
+        CopiaStatistics statistics = CopiaStatistics.standalone();
+        statistics.reconcile(context.sessionFactory());
+        context.out().println("Total de unidades: " + statistics.getTotal());
+        print(context, "Por estado", statistics.getPorEstado());
+        print(context, "Por soporte", statistics.getPorSoporte());
+        print(context, "Películas con más unidades", statistics.getTopPeliculas(TOP_LIMIT));
+        print(context, "Usuarios con más unidades", statistics.getTopUsuarios(TOP_LIMIT));
+        return null; // No lee líneas ni escribe lotes: un informe de lotes solo mostraría ceros
+    }
+
+    private static void print(CliContext context, String title, Map<String, Long> values) {
+        context.out().println(title + ":");
+        values.forEach((key, value) -> context.out().println("  " + key + ": " + value));
+    }
+}
@@ -1,26 +1,35 @@
 package org.example.reto2.controllers;
 
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.ListCell;
-import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
+import javafx.util.Duration;
 import javafx.util.StringConverter;
 import org.example.reto2.copia.Copia;
 import org.example.reto2.copia.CopiaService;
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
 import org.example.reto2.pelicula.Pelicula;
 import org.example.reto2.pelicula.PeliculaRepository;
 import org.example.reto2.session.SimpleSessionService;
 import org.example.reto2.user.User;
 import org.example.reto2.utils.DataProvider;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Rules;
+import org.example.reto2.validation.Violation;
 
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 /**
  * Controlador para la vista de añadir una nueva copia de película (add-copia-view.fxml).
@@ -30,23 +39,31 @@ import java.util.logging.Logger;
 public class AddCopiaController implements Initializable {
 
     private static final Logger logger = Logger.getLogger(AddCopiaController.class.getName());
+    private static final int SUGGESTION_LIMIT = 20;
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(250);
+    /** Año que el texto de una película añade al título, completo o a medio escribir: " (1999)", " (19". */
+    private static final Pattern YEAR_SUFFIX = Pattern.compile("\\s*\\(\\d{0,4}\\)?$");
 
     @javafx.fxml.FXML
     private ComboBox<Pelicula> comboPelicula;
     @javafx.fxml.FXML
-    private ComboBox<String> comboEstado;
+    private ComboBox<EstadoCopia> comboEstado;
     @javafx.fxml.FXML
-    private ComboBox<String> comboSoporte;
+    private ComboBox<SoporteCopia> comboSoporte;
     @javafx.fxml.FXML
     private TextField txtCantidad;
 
     private PeliculaRepository peliculaRepository;
     private CopiaService copiaService;
     private User currentUser;
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DEBOUNCE);
+    private long searchSequence;
 
     /**
      * Inicializa el controlador después de que su elemento raíz ha sido completamente procesado.
-     * Carga las películas disponibles en el ComboBox, y las opciones para estado y soporte.
+     * Configura el ComboBox de películas como un autocompletado que consulta, con un pequeño retardo
+     * tras cada pulsación, las películas cuyo título empieza por el texto escrito. También carga
+     * las opciones para estado y soporte.
      * @param url La ubicación utilizada para resolver rutas relativas para el objeto raíz, o null si la ubicación no se conoce.
      * @param resourceBundle Los recursos utilizados para localizar el objeto raíz, o null si el objeto raíz no fue localizado.
      */
@@ -57,17 +74,18 @@ public class AddCopiaController implements Initializable {
         copiaService = new CopiaService();
         currentUser = (User) SimpleSessionService.getInstance().getObject("user");
 
-        comboPelicula.setItems(FXCollections.observableList(peliculaRepository.findAll()));
+        comboPelicula.setEditable(true);
+        // El texto de cada película incluye el año para distinguir las que comparten título (remakes)
+        // y poder volver a resolverla a partir del texto del editor
         comboPelicula.setConverter(new StringConverter<Pelicula>() {
             @Override
             public String toString(Pelicula pelicula) {
-                return pelicula == null ? null : pelicula.getTitulo();
+                return pelicula == null ? null : label(pelicula);
             }
 
             @Override
             public Pelicula fromString(String string) {
-                return comboPelicula.getItems().stream().filter(p -> 
-                    p.getTitulo().equals(string)).findFirst().orElse(null);
+                return resolve(string);
             }
         });
 
@@ -78,15 +96,100 @@ public class AddCopiaController implements Initializable {
                 if (empty || item == null) {
                     setText(null);
                 } else {
-                    setText(item.getTitulo());
+                    setText(label(item));
                 }
             }
         });
 
-        comboEstado.setItems(FXCollections.observableArrayList("bueno", "gastado", "dañado"));
-        comboSoporte.setItems(FXCollections.observableArrayList("dvd", "blue-ray"));
+        searchDelay.setOnFinished(e -> searchSuggestions(comboPelicula.getEditor().getText()));
+        comboPelicula.getEditor().textProperty().addListener((observable, oldValue, newValue) -> {
+            Pelicula selected = comboPelicula.getValue();
+            if (selected != null && label(selected).equals(newValue)) {
+                return; // El texto corresponde a la película ya seleccionada
+            }
+            searchDelay.playFromStart();
+        });
+
+        comboEstado.setItems(FXCollections.observableArrayList(EstadoCopia.values()));
+        comboSoporte.setItems(FXCollections.observableArrayList(SoporteCopia.values()));
+
+        logger.info("AddCopiaController inicializado. Autocompletado de películas y opciones configurados.");
+    }
+
+    /**
+     * Obtiene el texto con el que se muestra una película: su título y su año.
+     */
+    private static String label(Pelicula pelicula) {
+        return pelicula.getTitulo() + " (" + pelicula.getAnio() + ")";
+    }
+
+    /**
+     * Resuelve el texto del editor a una película. Se conserva la película ya seleccionada si el texto
+     * sigue correspondiendo a ella; si no, se busca entre las sugerencias actuales (como mucho
+     * SUGGESTION_LIMIT) y solo se acepta una coincidencia única.
+     * @param text El texto del editor.
+     * @return La película, o null si el texto no corresponde a ninguna o corresponde a varias.
+     */
+    private Pelicula resolve(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        Pelicula selected = comboPelicula.getValue();
+        if (selected != null && selected.getId() != null && label(selected).equals(text)) {
+            return selected;
+        }
+        Pelicula match = null;
+        for (Pelicula pelicula : comboPelicula.getItems()) {
+            if (label(pelicula).equals(text)) {
+                if (match != null && !match.getId().equals(pelicula.getId())) {
+                    return null;
+                }
+                match = pelicula;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Consulta en segundo plano las películas cuyo título empieza por el texto introducido
+     * y las muestra como sugerencias. Las respuestas de búsquedas anteriores que lleguen tarde se descartan.
+     * @param prefix El texto introducido por el usuario.
+     */
+    private void searchSuggestions(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            comboPelicula.getItems().clear();
+            return;
+        }
+        String titlePrefix = YEAR_SUFFIX.matcher(prefix).replaceFirst("").strip();
+        long search = ++searchSequence;
+        Task<List<Pelicula>> task = new Task<>() {
+            @Override
+            protected List<Pelicula> call() {
+                return peliculaRepository.findByTituloPrefix(titlePrefix, SUGGESTION_LIMIT);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (search != searchSequence) {
+                return;
+            }
+            comboPelicula.getItems().setAll(task.getValue());
+            if (!comboPelicula.getItems().isEmpty() && comboPelicula.getEditor().isFocused()) {
+                comboPelicula.show();
+            }
+            logger.fine(task.getValue().size() + " sugerencias para '" + prefix + "'.");
+        });
+        task.setOnFailed(e -> logger.severe("Error al buscar sugerencias de películas: " + task.getException().getMessage()));
+        Thread.ofVirtual().name("pelicula-suggestions").start(task);
+    }
 
-        logger.info("AddCopiaController inicializado. Películas y opciones cargadas.");
+    /**
+     * Obtiene la película elegida. Se usa la propia instancia seleccionada en el ComboBox mientras el
+     * editor siga mostrando su texto; si el usuario ha escrito el texto sin seleccionar una sugerencia,
+     * se resuelve contra las sugerencias actuales por título y año.
+     * @return La película seleccionada, o null si no hay ninguna o el texto es ambiguo.
+     */
+    private Pelicula getSelectedPelicula() {
+        return resolve(comboPelicula.getEditor().getText());
     }
 
     /**
@@ -97,43 +200,36 @@ public class AddCopiaController implements Initializable {
     @javafx.fxml.FXML
     public void addCopia(ActionEvent actionEvent) {
         logger.info("Intento de añadir nueva copia.");
-        Pelicula selectedPelicula = comboPelicula.getSelectionModel().getSelectedItem();
-        String selectedEstado = comboEstado.getSelectionModel().getSelectedItem();
-        String selectedSoporte = comboSoporte.getSelectionModel().getSelectedItem();
+        Pelicula selectedPelicula = getSelectedPelicula();
+        EstadoCopia selectedEstado = comboEstado.getSelectionModel().getSelectedItem();
+        SoporteCopia selectedSoporte = comboSoporte.getSelectionModel().getSelectedItem();
         String cantidadText = txtCantidad.getText();
 
-        if (selectedPelicula == null || selectedEstado == null || selectedSoporte == null || cantidadText.isEmpty()) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Campos Incompletos", "Por favor, rellena todos los campos.", "");
-            logger.warning("Campos incompletos al intentar añadir copia.");
+        Integer cantidad = Rules.parseInt(cantidadText, Rules.DIGITS);
+        if (!cantidadText.isEmpty() && cantidad == null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Cantidad Inválido", "La cantidad debe ser un número entero.", "");
+            logger.warning("Formato de cantidad inválido al intentar añadir copia: " + cantidadText);
             return;
         }
 
-        try {
-            if (!cantidadText.matches("\\d+")) {
-                JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Cantidad Inválido", "La cantidad debe ser un número entero.", "");
-                logger.warning("Formato de cantidad inválido al intentar añadir copia: " + cantidadText);
-                return;
-            }
-            int cantidad = Integer.parseInt(cantidadText);
-            if (cantidad <= 0 || cantidad > 9999) {
-                JavaFXUtil.showModal(Alert.AlertType.WARNING, "Cantidad Inválida", "La cantidad debe ser un número entre 1 y 9999.", "");
-                logger.warning("Cantidad inválida (fuera de rango) al intentar añadir copia.");
-                return;
-            }
+        Copia newCopia = new Copia();
+        newCopia.setPelicula(selectedPelicula);
+        newCopia.setEstado(selectedEstado);
+        newCopia.setSoporte(selectedSoporte);
+        newCopia.setCantidad(cantidad);
 
-            Copia newCopia = new Copia();
-            newCopia.setPelicula(selectedPelicula);
-            newCopia.setEstado(selectedEstado);
-            newCopia.setSoporte(selectedSoporte);
-            newCopia.setCantidad(cantidad);
+        Violation violation = EntityValidators.COPIA.firstViolation(newCopia);
+        if (violation != null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, violation.title(), violation.message(), "");
+            logger.warning("Copia no válida al intentar añadirla (" + violation.field() + "): " + violation.message());
+            return;
+        }
 
+        try {
             currentUser = copiaService.createNewCopia(newCopia, currentUser);
             SimpleSessionService.getInstance().setObject("user", currentUser);
             JavaFXUtil.setScene("/org/example/reto2/main-view.fxml");
             logger.info("Copia añadida exitosamente. Redirigiendo a main-view.");
-        } catch (NumberFormatException e) {
-            JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error de entrada", "Cantidad inválida", "Por favor, introduce un número válido para la cantidad.");
-            logger.severe("Error de formato de número para la cantidad: " + cantidadText + ". " + e.getMessage());
         } catch (Exception e) {
             JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error", "No se pudo añadir la copia", "Ocurrió un error al guardar la copia: " + e.getMessage());
             logger.severe("Error inesperado al añadir copia: " + e.getMessage());
@@ -9,8 +9,13 @@ import org.example.reto2.pelicula.Pelicula;
 import org.example.reto2.pelicula.PeliculaRepository;
 import org.example.reto2.utils.DataProvider;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Rules;
+import org.example.reto2.validation.Violation;
 
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
@@ -34,6 +39,8 @@ public class AddPeliculaController implements Initializable {
     private TextField txtDirector;
     @javafx.fxml.FXML
     private TextArea txtDescripcion;
+    @javafx.fxml.FXML
+    private TextField txtPoster;
 
     private PeliculaRepository peliculaRepository;
 
@@ -59,60 +66,35 @@ public class AddPeliculaController implements Initializable {
     public void addPelicula(ActionEvent actionEvent) {
         logger.info("Intento de añadir nueva película.");
         
-        // Validación de campos vacíos
-        if (txtTitulo.getText().isEmpty() || txtGenero.getText().isEmpty() || txtAnio.getText().isEmpty() ||
-            txtDirector.getText().isEmpty() || txtDescripcion.getText().isEmpty()) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Campos Vacíos", "Todos los campos son obligatorios.", "Por favor, rellene todos los campos.");
-            logger.warning("Intento de añadir película con campos vacíos.");
+        String anioStr = txtAnio.getText();
+        Integer anio = Rules.parseInt(anioStr, Rules.YEAR);
+        if (!anioStr.isEmpty() && anio == null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Año Inválido", "El año debe ser un número de 4 dígitos.", "");
+            logger.warning("Formato de año inválido al intentar añadir película: " + anioStr);
             return;
         }
 
-        // Validación de longitud de campos
-        if (txtTitulo.getText().length() > 255) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Título demasiado largo", "El título no puede exceder los 255 caracteres.", "");
-            logger.warning("Intento de añadir película con título demasiado largo.");
-            return;
-        }
-        if (txtGenero.getText().length() > 255) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Género demasiado largo", "El género no puede exceder los 255 caracteres.", "");
-            logger.warning("Intento de añadir película con género demasiado largo.");
-            return;
-        }
-        if (txtDirector.getText().length() > 255) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Director demasiado largo", "El nombre del director no puede exceder los 255 caracteres.", "");
-            logger.warning("Intento de añadir película con nombre de director demasiado largo.");
-            return;
-        }
-        if (txtDescripcion.getText().length() > 500) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Descripción demasiado larga", "La descripción no puede exceder los 500 caracteres.", "");
-            logger.warning("Intento de añadir película con descripción demasiado larga.");
-            return;
-        }
+        Pelicula newPelicula = new Pelicula();
+        newPelicula.setTitulo(txtTitulo.getText());
+        newPelicula.setGenero(txtGenero.getText());
+        newPelicula.setAnio(anio);
+        newPelicula.setDirector(txtDirector.getText());
+        newPelicula.setDescripcion(txtDescripcion.getText());
+        newPelicula.setPosterPath(txtPoster.getText().isBlank() ? null : txtPoster.getText().trim());
 
-        if (!txtGenero.getText().matches(".*[a-zA-Z]+.*")) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Género Inválido", "El género no puede ser solo números.", "");
-            logger.warning("Intento de añadir película con género puramente numérico.");
+        Violation violation = EntityValidators.PELICULA_FORM.firstViolation(newPelicula);
+        if (violation != null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, violation.title(), violation.message(), "");
+            logger.warning("Película no válida al intentar añadirla (" + violation.field() + "): " + violation.message());
             return;
         }
-        if (!txtDirector.getText().matches(".*[a-zA-Z]+.*")) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Director Inválido", "El nombre del director no puede ser solo números.", "");
-            logger.warning("Intento de añadir película con director puramente numérico.");
+        if (newPelicula.getPosterPath() != null && !Files.isRegularFile(Path.of(newPelicula.getPosterPath()))) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Póster no encontrado", "El fichero del póster no existe.", "Elige una imagen o deja el campo vacío.");
+            logger.warning("Fichero de póster inexistente: " + txtPoster.getText());
             return;
         }
 
         try {
-            String anioStr = txtAnio.getText();
-            if (!anioStr.matches("\\d{4}")) {
-                JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Año Inválido", "El año debe ser un número de 4 dígitos.", "");
-                logger.warning("Formato de año inválido al intentar añadir película: " + anioStr);
-                return;
-            }
-            int anio = Integer.parseInt(anioStr);
-            if (anio < 1950 || anio > 2025) {
-                JavaFXUtil.showModal(Alert.AlertType.WARNING, "Año fuera de rango", "El año debe estar entre 1950 y 2025.", "");
-                logger.warning("Año fuera de rango al intentar añadir película: " + anio);
-                return;
-            }
             Optional<Pelicula> existingPelicula = peliculaRepository.findByAttributes(txtTitulo.getText(), anio, txtDirector.getText());
             if (existingPelicula.isPresent()) {
                 JavaFXUtil.showModal(Alert.AlertType.WARNING, "Película Duplicada", "Ya existe una película con el mismo título, año y director.", "");
@@ -120,25 +102,25 @@ public class AddPeliculaController implements Initializable {
                 return;
             }
 
-            Pelicula newPelicula = new Pelicula();
-            newPelicula.setTitulo(txtTitulo.getText());
-            newPelicula.setGenero(txtGenero.getText());
-            newPelicula.setAnio(anio);
-            newPelicula.setDirector(txtDirector.getText());
-            newPelicula.setDescripcion(txtDescripcion.getText());
-
             peliculaRepository.save(newPelicula);
             JavaFXUtil.setScene("/org/example/reto2/admin-main-view.fxml");
             logger.info("Película '" + newPelicula.getTitulo() + "' añadida exitosamente. Redirigiendo a admin-main-view.");
-        } catch (NumberFormatException e) {
-            JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error de entrada", "Año inválido", "Por favor, introduce un número válido para el año.");
-            logger.severe("Error de formato de número para el año: " + txtAnio.getText() + ". " + e.getMessage());
         } catch (Exception e) {
             JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error", "No se pudo añadir la película", "Ocurrió un error al guardar la película: " + e.getMessage());
             logger.severe("Error inesperado al añadir película: " + e.getMessage());
         }
     }
 
+    /**
+     * Abre un diálogo para elegir la imagen del póster y guarda su ruta en el formulario.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void choosePoster(ActionEvent actionEvent) {
+        JavaFXUtil.chooseImageFile(actionEvent, "Elegir póster")
+                .ifPresent(file -> txtPoster.setText(file.getAbsolutePath()));
+    }
+
     /**
      * Maneja la acción de cancelar la adición de una película.
      * Redirige de vuelta a la vista principal del administrador.
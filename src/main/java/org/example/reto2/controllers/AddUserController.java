@@ -10,6 +10,8 @@ import org.example.reto2.user.User;
 import org.example.reto2.user.UserRepository;
 import org.example.reto2.utils.DataProvider;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Violation;
 
 import java.net.URL;
 import java.util.Optional;
@@ -68,6 +70,18 @@ public class AddUserController implements Initializable {
             return;
         }
 
+        User newUser = new User();
+        newUser.setEmail(email);
+        newUser.setPassword(password);
+        newUser.setIsAdmin(isAdmin);
+
+        Violation violation = EntityValidators.USER.firstViolation(newUser);
+        if (violation != null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, violation.title(), violation.message(), "");
+            logger.warning("Usuario no válido al intentar añadirlo (" + violation.field() + "): " + violation.message());
+            return;
+        }
+
         if (!password.equals(confirmPassword)) {
             JavaFXUtil.showModal(Alert.AlertType.WARNING, "Contraseñas no coinciden", "Las contraseñas introducidas no coinciden.", "");
             logger.warning("Contraseñas no coinciden al intentar añadir usuario.");
@@ -83,11 +97,6 @@ public class AddUserController implements Initializable {
         }
 
         try {
-            User newUser = new User();
-            newUser.setEmail(email);
-            newUser.setPassword(password);
-            newUser.setIsAdmin(isAdmin);
-
             userRepository.save(newUser);
             JavaFXUtil.setScene("/org/example/reto2/admin-users-view.fxml");
             logger.info("Usuario '" + newUser.getEmail() + "' añadido exitosamente. Redirigiendo a admin-users-view.");
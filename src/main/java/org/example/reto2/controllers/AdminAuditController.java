@@ -0,0 +1,180 @@
+package org.example.reto2.controllers;
+
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.example.reto2.audit.AuditEntry;
+import org.example.reto2.audit.AuditLog;
+import org.example.reto2.audit.AuditRepository;
+import org.example.reto2.utils.DataProvider;
+import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.utils.RowValueFactory;
+
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.logging.Logger;
+
+/**
+ * Controlador para el registro de auditoría del administrador (admin-audit-view.fxml).
+ * Muestra los cambios de más reciente a más antiguo, en páginas de {@link #PAGE_SIZE} filas, con filtro
+ * por tipo de entidad. Las páginas se recorren por clave (el ID de la última fila), de modo que avanzar
+ * hacia registros antiguos no se vuelve más lento; para volver atrás se guardan los cursores visitados.
+ * Las consultas se hacen en segundo plano.
+ */
+public class AdminAuditController implements Initializable {
+
+    private static final Logger logger = Logger.getLogger(AdminAuditController.class.getName());
+    private static final int PAGE_SIZE = 50;
+    private static final String ALL = "Todas";
+
+    @javafx.fxml.FXML
+    private TableView<AuditEntry> tableAudit;
+    @javafx.fxml.FXML
+    private TableColumn<AuditEntry, LocalDateTime> colFecha;
+    @javafx.fxml.FXML
+    private TableColumn<AuditEntry, String> colActor;
+    @javafx.fxml.FXML
+    private TableColumn<AuditEntry, String> colAction;
+    @javafx.fxml.FXML
+    private TableColumn<AuditEntry, String> colEntity;
+    @javafx.fxml.FXML
+    private TableColumn<AuditEntry, Long> colEntityId;
+    @javafx.fxml.FXML
+    private TableColumn<AuditEntry, String> colDetail;
+    @javafx.fxml.FXML
+    private ComboBox<String> comboEntity;
+    @javafx.fxml.FXML
+    private Button btnPrevious;
+    @javafx.fxml.FXML
+    private Button btnNext;
+    @javafx.fxml.FXML
+    private Label lblStatus;
+
+    private AuditRepository auditRepository;
+    /** Cursores de las páginas anteriores a la actual. */
+    private final Deque<Long> previous = new ArrayDeque<>();
+    private long cursor = AuditRepository.FIRST_PAGE;
+    private long nextCursor = AuditRepository.FIRST_PAGE;
+    private int loadSequence;
+
+    /**
+     * Inicializa el controlador después de que su elemento raíz ha sido completamente procesado.
+     * Configura la tabla y el filtro y carga la primera página.
+     * @param url La ubicación utilizada para resolver rutas relativas para el objeto raíz, o null si la ubicación no se conoce.
+     * @param resourceBundle Los recursos utilizados para localizar el objeto raíz, o null si el objeto raíz no fue localizado.
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        logger.info("Inicializando AdminAuditController.");
+        auditRepository = new AuditRepository(DataProvider.getSessionFactory());
+        colFecha.setCellValueFactory(RowValueFactory.of(AuditEntry::getOccurredAt));
+        colActor.setCellValueFactory(RowValueFactory.of(AuditEntry::getActor));
+        colAction.setCellValueFactory(RowValueFactory.of(entry -> entry.getAction().name()));
+        colEntity.setCellValueFactory(RowValueFactory.of(AuditEntry::getEntityType));
+        colEntityId.setCellValueFactory(RowValueFactory.of(AuditEntry::getEntityId));
+        colDetail.setCellValueFactory(RowValueFactory.of(AuditEntry::getDetail));
+        comboEntity.setItems(FXCollections.observableArrayList(ALL, "Copia", "Pelicula", "User"));
+        comboEntity.getSelectionModel().select(ALL);
+        comboEntity.valueProperty().addListener((obs, oldValue, newValue) -> refresh(null));
+        refresh(null);
+        logger.info("AdminAuditController inicializado.");
+    }
+
+    /**
+     * Vuelve a la página más reciente.
+     * @param actionEvent El evento de acción que disparó este método (puede ser null).
+     */
+    @javafx.fxml.FXML
+    public void refresh(ActionEvent actionEvent) {
+        previous.clear();
+        load(AuditRepository.FIRST_PAGE);
+    }
+
+    /**
+     * Muestra la página siguiente, con registros más antiguos.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void nextPage(ActionEvent actionEvent) {
+        previous.push(cursor);
+        load(nextCursor);
+    }
+
+    /**
+     * Muestra la página anterior, con registros más recientes.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void previousPage(ActionEvent actionEvent) {
+        if (!previous.isEmpty()) {
+            load(previous.pop());
+        }
+    }
+
+    /**
+     * Maneja la acción de volver a la vista principal del administrador.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void goBack(ActionEvent actionEvent) {
+        logger.info("Volviendo a admin-main-view desde la auditoría.");
+        JavaFXUtil.setScene("/org/example/reto2/admin-main-view.fxml");
+    }
+
+    /**
+     * Carga en segundo plano la página que empieza en el cursor indicado. Si entretanto se pide otra
+     * página, el resultado de esta se descarta.
+     */
+    private void load(long from) {
+        int load = ++loadSequence;
+        String selected = comboEntity.getValue();
+        String entityType = selected == null || ALL.equals(selected) ? null : selected;
+        btnPrevious.setDisable(true);
+        btnNext.setDisable(true);
+        Task<List<AuditEntry>> task = new Task<>() {
+            @Override
+            protected List<AuditEntry> call() {
+                return auditRepository.findPage(entityType, from, PAGE_SIZE);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (load != loadSequence) {
+                return;
+            }
+            List<AuditEntry> entries = task.getValue();
+            cursor = from;
+            nextCursor = entries.isEmpty() ? from : entries.get(entries.size() - 1).getId();
+            tableAudit.setItems(FXCollections.observableList(entries));
+            btnPrevious.setDisable(previous.isEmpty());
+            btnNext.setDisable(entries.size() < PAGE_SIZE);
+            showStatus("Página " + (previous.size() + 1));
+        });
+        task.setOnFailed(e -> {
+            if (load != loadSequence) {
+                return;
+            }
+            logger.severe("Error al cargar el registro de auditoría: " + task.getException().getMessage());
+            btnPrevious.setDisable(previous.isEmpty());
+            showStatus("No se pudo cargar el registro");
+        });
+        Thread.ofVirtual().name("audit-page").start(task);
+    }
+
+    /**
+     * Muestra el estado de la página junto con los contadores del escritor de auditoría.
+     */
+    private void showStatus(String page) {
+        AuditLog audit = AuditLog.getInstance();
+        lblStatus.setText(page + " · pendientes: " + audit.getPending() + " · en local: " + audit.getSpilled());
+    }
+}
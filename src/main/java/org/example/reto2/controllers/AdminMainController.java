@@ -1,27 +1,40 @@
 package org.example.reto2.controllers;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.control.TextInputDialog;
+import org.example.reto2.pelicula.CatalogueBrowser;
 import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.pelicula.PeliculaColumns;
 import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.poster.PosterCache;
+import org.example.reto2.poster.PosterTableCell;
 import org.example.reto2.session.SimpleSessionService;
+import org.example.reto2.user.User;
+import org.example.reto2.utils.CollatedSort;
 import org.example.reto2.utils.DataProvider;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Violation;
+import org.hibernate.SessionFactory;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para la vista principal del administrador (admin-main-view.fxml).
@@ -35,6 +48,8 @@ public class AdminMainController implements Initializable {
     @javafx.fxml.FXML
     private TableView<Pelicula> tableViewPeliculas;
     @javafx.fxml.FXML
+    private TableColumn<Pelicula, Pelicula> colPoster;
+    @javafx.fxml.FXML
     private TableColumn<Pelicula, String> colTitulo;
     @javafx.fxml.FXML
     private TableColumn<Pelicula, String> colGenero;
@@ -46,55 +61,62 @@ public class AdminMainController implements Initializable {
     private TableColumn<Pelicula, String> colDescripcion;
     @javafx.fxml.FXML
     private TextField txtSearchPeliculas;
+    @javafx.fxml.FXML
+    private Label lblSync;
+    @javafx.fxml.FXML
+    private Button btnAddPelicula;
+    @javafx.fxml.FXML
+    private Button btnEditPelicula;
+    @javafx.fxml.FXML
+    private Button btnDeletePelicula;
+    @javafx.fxml.FXML
+    private Button btnBulkGenero;
+    @javafx.fxml.FXML
+    private Button btnManageUsers;
+    @javafx.fxml.FXML
+    private Button btnStatistics;
+    @javafx.fxml.FXML
+    private Button btnAudit;
 
     private PeliculaRepository peliculaRepository;
-    private ObservableList<Pelicula> masterData = FXCollections.observableArrayList();
-    private FilteredList<Pelicula> filteredData;
+    private CatalogueBrowser catalogue;
 
     /**
      * Inicializa el controlador después de que su elemento raíz ha sido completamente procesado.
-     * Configura las columnas de la tabla y refresca la tabla con todas las películas.
+     * Comprueba que hay un administrador con la sesión iniciada, configura las columnas de la tabla y carga
+     * el catálogo de la instantánea local, que después se sincroniza con la base de datos ({@link CatalogueBrowser}).
      * @param url La ubicación utilizada para resolver rutas relativas para el objeto raíz, o null si la ubicación no se conoce.
      * @param resourceBundle Los recursos utilizados para localizar el objeto raíz, o null si el objeto raíz no fue localizado.
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         logger.info("Inicializando AdminMainController.");
-        peliculaRepository = new PeliculaRepository(DataProvider.getSessionFactory());
-
-        colTitulo.setCellValueFactory(new PropertyValueFactory<>("titulo"));
-        colGenero.setCellValueFactory(new PropertyValueFactory<>("genero"));
-        colAnio.setCellValueFactory(new PropertyValueFactory<>("anio"));
-        colDirector.setCellValueFactory(new PropertyValueFactory<>("director"));
-        colDescripcion.setCellValueFactory(new PropertyValueFactory<>("descripcion"));
-
-        masterData.addAll(peliculaRepository.findAll());
-        filteredData = new FilteredList<>(masterData, p -> true);
-
-        txtSearchPeliculas.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredData.setPredicate(pelicula -> {
-                if (newValue == null || newValue.isEmpty()) {
-                    return true;
-                }
-
-                String lowerCaseFilter = newValue.toLowerCase();
-
-                if (pelicula.getTitulo().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                } else if (pelicula.getGenero().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                } else if (pelicula.getDirector().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                }
-                return false;
-            });
-        });
+        User user = SimpleSessionService.getInstance().getActive();
+        if (user == null || !Boolean.TRUE.equals(user.getIsAdmin())) {
+            logger.warning("Acceso a la vista de administración sin una sesión de administrador. Redirigiendo a login-view.");
+            tableViewPeliculas.setDisable(true);
+            Platform.runLater(() -> JavaFXUtil.setScene("/org/example/reto2/login-view.fxml"));
+            return;
+        }
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
 
-        SortedList<Pelicula> sortedData = new SortedList<>(filteredData);
-        sortedData.comparatorProperty().bind(tableViewPeliculas.comparatorProperty());
-        tableViewPeliculas.setItems(sortedData);
+        colPoster.setCellValueFactory(PeliculaColumns.pelicula());
+        colPoster.setCellFactory(column -> new PosterTableCell<>());
+        tableViewPeliculas.setFixedCellSize(PosterCache.THUMB_HEIGHT + 4);
+        colTitulo.setCellValueFactory(PeliculaColumns.titulo());
+        colGenero.setCellValueFactory(PeliculaColumns.genero());
+        colAnio.setCellValueFactory(PeliculaColumns.anio());
+        colDirector.setCellValueFactory(PeliculaColumns.director());
+        colDescripcion.setCellValueFactory(PeliculaColumns.descripcion());
+        CollatedSort.install(colTitulo, colGenero, colDirector);
+        tableViewPeliculas.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
-        refreshTable();
+        if (sessionFactory != null) {
+            peliculaRepository = new PeliculaRepository(sessionFactory);
+        }
+        catalogue = new CatalogueBrowser(tableViewPeliculas, txtSearchPeliculas, lblSync, peliculaRepository)
+                .onOffline(this::setOfflineMode);
+        catalogue.load();
         logger.info("AdminMainController inicializado.");
     }
 
@@ -128,36 +150,46 @@ public class AdminMainController implements Initializable {
     }
 
     /**
-     * Maneja la acción de eliminar una película seleccionada de la tabla.
-     * Incluye un diálogo de confirmación.
+     * Maneja la acción de eliminar las películas seleccionadas de la tabla.
+     * Incluye un diálogo de confirmación. Todas las películas se eliminan con una única
+     * operación masiva y la tabla se actualiza en memoria, sin recargar el catálogo.
      * @param actionEvent El evento de acción que disparó este método.
      */
     @javafx.fxml.FXML
     public void deletePelicula(ActionEvent actionEvent) {
-        Pelicula selectedPelicula = tableViewPeliculas.getSelectionModel().getSelectedItem();
-        if (selectedPelicula != null) {
+        List<Pelicula> selectedPeliculas = new ArrayList<>(tableViewPeliculas.getSelectionModel().getSelectedItems());
+        if (!selectedPeliculas.isEmpty()) {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Confirmar Eliminación");
-            alert.setHeaderText("¿Está seguro de que desea eliminar la película?");
-            alert.setContentText("Película: " + selectedPelicula.getTitulo() + "\n" +
-                                 "Año: " + selectedPelicula.getAnio() +
-                                 "\n\nEsta acción eliminará la película permanentemente.");
+            if (selectedPeliculas.size() == 1) {
+                Pelicula selectedPelicula = selectedPeliculas.get(0);
+                alert.setHeaderText("¿Está seguro de que desea eliminar la película?");
+                alert.setContentText("Película: " + selectedPelicula.getTitulo() + "\n" +
+                                     "Año: " + selectedPelicula.getAnio() +
+                                     "\n\nEsta acción eliminará la película permanentemente.");
+            } else {
+                alert.setHeaderText("¿Está seguro de que desea eliminar " + selectedPeliculas.size() + " películas?");
+                alert.setContentText("Esta acción eliminará las películas seleccionadas permanentemente.");
+            }
 
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
+                Set<Integer> ids = selectedPeliculas.stream().map(Pelicula::getId).collect(Collectors.toSet());
                 try {
-                    logger.info("Administrador confirmó eliminación de película con ID: " + selectedPelicula.getId());
-                    peliculaRepository.delete(selectedPelicula);
-                    refreshTable();
-                    logger.info("Película eliminada. Tabla refrescada.");
+                    logger.info("Administrador confirmó eliminación de " + ids.size() + " películas.");
+                    peliculaRepository.deleteAllByIds(ids);
+                    catalogue.removeIds(ids);
+                    tableViewPeliculas.getSelectionModel().clearSelection();
+                    catalogue.pollNow();
+                    logger.info("Películas eliminadas. Tabla actualizada sin recarga.");
                 } catch (Exception e) {
-                    logger.severe("Error al eliminar película: " + e.getMessage());
+                    logger.severe("Error al eliminar películas: " + e.getMessage());
                     JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error de Eliminación", 
-                                        "No se pudo eliminar la película.", 
-                                        "Es posible que la película tenga copias asociadas y no pueda ser borrada.");
+                                        "No se pudo eliminar la selección.", 
+                                        "Es posible que alguna película tenga copias asociadas y no pueda ser borrada.");
                 }
             } else {
-                logger.info("Administrador canceló la eliminación de película con ID: " + selectedPelicula.getId());
+                logger.info("Administrador canceló la eliminación de " + selectedPeliculas.size() + " películas.");
             }
         } else {
             JavaFXUtil.showModal(Alert.AlertType.WARNING, "Ninguna película seleccionada", "Por favor, selecciona una película para eliminar.", "");
@@ -165,6 +197,51 @@ public class AdminMainController implements Initializable {
         }
     }
 
+    /**
+     * Maneja la acción de cambiar el género de todas las películas seleccionadas.
+     * El cambio se aplica con una única operación masiva, que actualiza también la marca de modificación;
+     * la tabla lo recoge en la sincronización que se lanza a continuación, sin modificar en el hilo de JavaFX
+     * las instancias canónicas que comparten las pantallas.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void bulkEditGenero(ActionEvent actionEvent) {
+        List<Pelicula> selectedPeliculas = new ArrayList<>(tableViewPeliculas.getSelectionModel().getSelectedItems());
+        if (selectedPeliculas.isEmpty()) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Ninguna película seleccionada", "Por favor, selecciona las películas a modificar.", "");
+            logger.warning("Intento de edición masiva sin selección.");
+            return;
+        }
+
+        TextInputDialog dialog = new TextInputDialog(selectedPeliculas.get(0).getGenero());
+        dialog.setTitle("Editar Género");
+        dialog.setHeaderText("Nuevo género para " + selectedPeliculas.size() + " películas");
+        dialog.setContentText("Género:");
+        Optional<String> result = dialog.showAndWait();
+        if (result.isEmpty()) {
+            logger.info("Administrador canceló la edición masiva de género.");
+            return;
+        }
+
+        String genero = result.get().trim();
+        Violation violation = EntityValidators.GENERO.firstViolation(genero);
+        if (violation != null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, violation.title(), violation.message(), "");
+            logger.warning("Género inválido en la edición masiva: " + genero);
+            return;
+        }
+
+        Set<Integer> ids = selectedPeliculas.stream().map(Pelicula::getId).collect(Collectors.toSet());
+        try {
+            peliculaRepository.updateAllByIds(ids, "genero", genero);
+            catalogue.pollNow();
+            logger.info("Género actualizado a '" + genero + "' en " + ids.size() + " películas.");
+        } catch (Exception e) {
+            logger.severe("Error en la edición masiva de género: " + e.getMessage());
+            JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error", "No se pudo actualizar el género", "Ocurrió un error al guardar los cambios: " + e.getMessage());
+        }
+    }
+
     /**
      * Maneja la acción de gestionar usuarios.
      * Redirige a la vista de gestión de usuarios.
@@ -176,6 +253,28 @@ public class AdminMainController implements Initializable {
         JavaFXUtil.setScene("/org/example/reto2/admin-users-view.fxml");
     }
 
+    /**
+     * Maneja la acción de ver las estadísticas de la colección.
+     * Redirige al panel de estadísticas.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void showStatistics(ActionEvent actionEvent) {
+        logger.info("Redirigiendo a admin-stats-view para ver las estadísticas.");
+        JavaFXUtil.setScene("/org/example/reto2/admin-stats-view.fxml");
+    }
+
+    /**
+     * Maneja la acción de ver el registro de auditoría.
+     * Redirige a la vista de auditoría.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void showAudit(ActionEvent actionEvent) {
+        logger.info("Redirigiendo a admin-audit-view para ver el registro de auditoría.");
+        JavaFXUtil.setScene("/org/example/reto2/admin-audit-view.fxml");
+    }
+
     /**
      * Maneja la acción de cerrar sesión del administrador.
      * Cierra la sesión actual y redirige a la vista de login.
@@ -190,13 +289,12 @@ public class AdminMainController implements Initializable {
     }
 
     /**
-     * Refresca la tabla de películas con los datos más recientes de la base de datos.
+     * Deja la pantalla en modo de solo lectura cuando no hay conexión con la base de datos:
+     * el catálogo se consulta desde la instantánea local y se deshabilitan las acciones que modifican datos.
      */
-    private void refreshTable() {
-        logger.info("Refrescando tabla de películas.");
-        masterData.clear();
-        masterData.addAll(peliculaRepository.findAll());
-        tableViewPeliculas.refresh();
-        logger.info("Tabla de películas refrescada. Número de películas: " + masterData.size());
+    private void setOfflineMode() {
+        for (Button button : List.of(btnAddPelicula, btnEditPelicula, btnDeletePelicula, btnBulkGenero, btnManageUsers, btnStatistics, btnAudit)) {
+            button.setDisable(true);
+        }
     }
 }
@@ -0,0 +1,105 @@
+package org.example.reto2.controllers;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import org.example.reto2.copia.CopiaStatistics;
+import org.example.reto2.utils.DataProvider;
+import org.example.reto2.utils.JavaFXUtil;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.logging.Logger;
+
+/**
+ * Controlador para el panel de estadísticas del administrador (admin-stats-view.fxml).
+ * Muestra las unidades de copias por soporte, por estado, por película y por usuario,
+ * leídas de los contadores en memoria de {@link CopiaStatistics}.
+ */
+public class AdminStatsController implements Initializable {
+
+    private static final Logger logger = Logger.getLogger(AdminStatsController.class.getName());
+    private static final int TOP_LIMIT = 20;
+
+    @javafx.fxml.FXML
+    private Label lblTotal;
+    @javafx.fxml.FXML
+    private ListView<String> listSoporte;
+    @javafx.fxml.FXML
+    private ListView<String> listEstado;
+    @javafx.fxml.FXML
+    private ListView<String> listPeliculas;
+    @javafx.fxml.FXML
+    private ListView<String> listUsuarios;
+
+    private CopiaStatistics statistics;
+
+    /**
+     * Inicializa el controlador después de que su elemento raíz ha sido completamente procesado.
+     * Muestra las estadísticas actuales.
+     * @param url La ubicación utilizada para resolver rutas relativas para el objeto raíz, o null si la ubicación no se conoce.
+     * @param resourceBundle Los recursos utilizados para localizar el objeto raíz, o null si el objeto raíz no fue localizado.
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        logger.info("Inicializando AdminStatsController.");
+        statistics = CopiaStatistics.getInstance();
+        refresh(null);
+        logger.info("AdminStatsController inicializado.");
+    }
+
+    /**
+     * Vuelve a leer los contadores en memoria y actualiza las listas.
+     * @param actionEvent El evento de acción que disparó este método (puede ser null).
+     */
+    @javafx.fxml.FXML
+    public void refresh(ActionEvent actionEvent) {
+        long start = System.nanoTime();
+        lblTotal.setText("Total de unidades: " + statistics.getTotal());
+        listSoporte.setItems(FXCollections.observableList(format(statistics.getPorSoporte())));
+        listEstado.setItems(FXCollections.observableList(format(statistics.getPorEstado())));
+        listPeliculas.setItems(FXCollections.observableList(format(statistics.getTopPeliculas(TOP_LIMIT))));
+        listUsuarios.setItems(FXCollections.observableList(format(statistics.getTopUsuarios(TOP_LIMIT))));
+        logger.info("Estadísticas mostradas en " + (System.nanoTime() - start) / 1_000 + " µs.");
+    }
+
+    /**
+     * Fuerza una reconciliación completa con la base de datos en segundo plano
+     * y actualiza las listas al terminar.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void reconcile(ActionEvent actionEvent) {
+        logger.info("Administrador solicitó recalcular las estadísticas.");
+        Thread.ofVirtual().name("stats-reconcile").start(() -> {
+            try {
+                statistics.reconcile(DataProvider.getSessionFactory());
+                Platform.runLater(() -> refresh(null));
+            } catch (Exception e) {
+                logger.severe("Error al recalcular las estadísticas: " + e.getMessage());
+                Platform.runLater(() -> JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error",
+                        "No se pudieron recalcular las estadísticas.", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Maneja la acción de volver a la vista principal del administrador.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void goBack(ActionEvent actionEvent) {
+        logger.info("Volviendo a admin-main-view desde las estadísticas.");
+        JavaFXUtil.setScene("/org/example/reto2/admin-main-view.fxml");
+    }
+
+    private static List<String> format(Map<String, Long> values) {
+        return values.entrySet().stream().map(e -> e.getKey() + ": " + e.getValue()).toList();
+    }
+}
@@ -3,25 +3,37 @@ package org.example.reto2.controllers;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceDialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.control.cell.PropertyValueFactory;
 import org.example.reto2.session.SimpleSessionService;
+import org.example.reto2.sync.ChangePoller;
+import org.example.reto2.sync.ChangeSet;
+import org.example.reto2.sync.ChangeTracking;
 import org.example.reto2.user.User;
+import org.example.reto2.user.UserColumns;
 import org.example.reto2.user.UserRepository;
+import org.example.reto2.utils.CollatedSort;
 import org.example.reto2.utils.DataProvider;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.utils.SceneDataLoader;
+import org.example.reto2.utils.TableSorter;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para la vista de gestión de usuarios por parte del administrador (admin-users-view.fxml).
@@ -46,12 +58,14 @@ public class AdminUsersController implements Initializable {
     private TextField txtSearchUsers;
 
     private UserRepository userRepository;
+    private ChangePoller<User, Integer> poller;
     private ObservableList<User> masterData = FXCollections.observableArrayList();
     private FilteredList<User> filteredData;
 
     /**
      * Inicializa el controlador después de que su elemento raíz ha sido completamente procesado.
-     * Configura las columnas de la tabla, implementa el filtrado y refresca la tabla de usuarios.
+     * Configura las columnas de la tabla, implementa el filtrado, carga los usuarios en segundo plano
+     * y, al terminar, empieza a sincronizar la tabla con los cambios posteriores.
      * @param url La ubicación utilizada para resolver rutas relativas para el objeto raíz, o null si la ubicación no se conoce.
      * @param resourceBundle Los recursos utilizados para localizar el objeto raíz, o null si el objeto raíz no fue localizado.
      */
@@ -60,18 +74,12 @@ public class AdminUsersController implements Initializable {
         logger.info("Inicializando AdminUsersController.");
         userRepository = new UserRepository(DataProvider.getSessionFactory());
 
-        colUserId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        colUserEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
-        colUserIsAdmin.setCellValueFactory(new PropertyValueFactory<>("isAdmin"));
-        colUserCopiasCount.setCellValueFactory(cellData -> {
-            if (cellData.getValue().getCopias() != null) {
-                return new javafx.beans.property.SimpleIntegerProperty(cellData.getValue().getCopias().size()).asObject();
-            }
-            return new javafx.beans.property.SimpleIntegerProperty(0).asObject();
-        });
-
+        colUserId.setCellValueFactory(UserColumns.id());
+        colUserEmail.setCellValueFactory(UserColumns.email());
+        colUserIsAdmin.setCellValueFactory(UserColumns.isAdmin());
+        CollatedSort.install(colUserEmail);
+        colUserCopiasCount.setCellValueFactory(UserColumns.copiasCount());
 
-        masterData.addAll(userRepository.findAll());
         filteredData = new FilteredList<>(masterData, p -> true);
 
         txtSearchUsers.textProperty().addListener((observable, oldValue, newValue) -> {
@@ -89,13 +97,11 @@ public class AdminUsersController implements Initializable {
             });
         });
 
-        SortedList<User> sortedData = new SortedList<>(filteredData);
-
-        sortedData.comparatorProperty().bind(tableViewUsers.comparatorProperty());
-
-        tableViewUsers.setItems(sortedData);
+        tableViewUsers.setItems(filteredData);
+        TableSorter.install(tableViewUsers, masterData);
+        tableViewUsers.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
-        refreshTable();
+        loadUsers();
         logger.info("AdminUsersController inicializado.");
     }
 
@@ -129,16 +135,16 @@ public class AdminUsersController implements Initializable {
     }
 
     /**
-     * Maneja la acción de eliminar un usuario seleccionado de la tabla.
-     * Incluye un diálogo de confirmación.
+     * Maneja la acción de eliminar los usuarios seleccionados de la tabla.
+     * Incluye un diálogo de confirmación. Los usuarios y sus copias se eliminan con una única
+     * operación masiva y la tabla se actualiza en memoria, sin recargar los usuarios.
      * @param actionEvent El evento de acción que disparó este método.
      */
     @javafx.fxml.FXML
     public void deleteUser(ActionEvent actionEvent) {
-        User selectedUser = tableViewUsers.getSelectionModel().getSelectedItem();
-        if (selectedUser != null) {
-            User currentUser = (User) SimpleSessionService.getInstance().getObject("user");
-            if (currentUser != null && currentUser.getId().equals(selectedUser.getId())) {
+        List<User> selectedUsers = new ArrayList<>(tableViewUsers.getSelectionModel().getSelectedItems());
+        if (!selectedUsers.isEmpty()) {
+            if (containsCurrentUser(selectedUsers)) {
                 JavaFXUtil.showModal(Alert.AlertType.ERROR, "Acción no permitida", "No puede eliminarse a sí mismo.", "");
                 logger.warning("Intento de auto-eliminación por parte del administrador.");
                 return;
@@ -146,26 +152,37 @@ public class AdminUsersController implements Initializable {
 
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Confirmar Eliminación");
-            alert.setHeaderText("¿Está seguro de que desea eliminar el usuario?");
-            alert.setContentText("Usuario: " + selectedUser.getEmail() + "\n" +
-                                 "ID: " + selectedUser.getId() +
-                                 "\n\nEsta acción eliminará el usuario y todas sus copias permanentemente.");
+            if (selectedUsers.size() == 1) {
+                User selectedUser = selectedUsers.get(0);
+                alert.setHeaderText("¿Está seguro de que desea eliminar el usuario?");
+                alert.setContentText("Usuario: " + selectedUser.getEmail() + "\n" +
+                                     "ID: " + selectedUser.getId() +
+                                     "\n\nEsta acción eliminará el usuario y todas sus copias permanentemente.");
+            } else {
+                alert.setHeaderText("¿Está seguro de que desea eliminar " + selectedUsers.size() + " usuarios?");
+                alert.setContentText("Esta acción eliminará los usuarios seleccionados y todas sus copias permanentemente.");
+            }
 
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
+                Set<Integer> ids = selectedUsers.stream().map(User::getId).collect(Collectors.toSet());
                 try {
-                    logger.info("Administrador confirmó eliminación de usuario con ID: " + selectedUser.getId());
-                    userRepository.deleteById(selectedUser.getId().longValue());
-                    refreshTable();
-                    logger.info("Usuario eliminado. Tabla refrescada.");
+                    logger.info("Administrador confirmó eliminación de " + ids.size() + " usuarios.");
+                    userRepository.deleteAllByIds(ids);
+                    masterData.removeIf(u -> ids.contains(u.getId()));
+                    tableViewUsers.getSelectionModel().clearSelection();
+                    if (poller != null) {
+                        poller.pollNow();
+                    }
+                    logger.info("Usuarios eliminados. Tabla actualizada sin recarga.");
                 } catch (Exception e) {
-                    logger.severe("Error al eliminar usuario: " + e.getMessage());
+                    logger.severe("Error al eliminar usuarios: " + e.getMessage());
                     JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error de Eliminación", 
-                                        "No se pudo eliminar el usuario.", 
-                                        "Es posible que el usuario tenga copias asociadas y no pueda ser borrado.");
+                                        "No se pudo eliminar la selección.", 
+                                        "Ocurrió un error al eliminar los usuarios: " + e.getMessage());
                 }
             } else {
-                logger.info("Administrador canceló la eliminación de usuario con ID: " + selectedUser.getId());
+                logger.info("Administrador canceló la eliminación de " + selectedUsers.size() + " usuarios.");
             }
         } else {
             JavaFXUtil.showModal(Alert.AlertType.WARNING, "Ningún usuario seleccionado", "Por favor, selecciona un usuario para eliminar.", "");
@@ -173,6 +190,64 @@ public class AdminUsersController implements Initializable {
         }
     }
 
+    /**
+     * Maneja la acción de cambiar el rol (administrador o usuario) de todos los usuarios seleccionados.
+     * El cambio se aplica con una única operación masiva y la tabla se actualiza en memoria.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void bulkEditRole(ActionEvent actionEvent) {
+        List<User> selectedUsers = new ArrayList<>(tableViewUsers.getSelectionModel().getSelectedItems());
+        if (selectedUsers.isEmpty()) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Ningún usuario seleccionado", "Por favor, selecciona los usuarios a modificar.", "");
+            logger.warning("Intento de cambio de rol masivo sin selección.");
+            return;
+        }
+
+        String roleAdmin = "Administrador";
+        String roleUser = "Usuario";
+        ChoiceDialog<String> dialog = new ChoiceDialog<>(roleUser, roleAdmin, roleUser);
+        dialog.setTitle("Cambiar Rol");
+        dialog.setHeaderText("Nuevo rol para " + selectedUsers.size() + " usuarios");
+        dialog.setContentText("Rol:");
+        Optional<String> result = dialog.showAndWait();
+        if (result.isEmpty()) {
+            logger.info("Administrador canceló el cambio de rol masivo.");
+            return;
+        }
+
+        boolean isAdmin = roleAdmin.equals(result.get());
+        if (!isAdmin && containsCurrentUser(selectedUsers)) {
+            JavaFXUtil.showModal(Alert.AlertType.ERROR, "Acción no permitida", "No puede retirarse a sí mismo los permisos de administrador.", "");
+            logger.warning("Intento de auto-degradación por parte del administrador.");
+            return;
+        }
+
+        Set<Integer> ids = selectedUsers.stream().map(User::getId).collect(Collectors.toSet());
+        try {
+            userRepository.updateAllByIds(ids, "isAdmin", isAdmin);
+            selectedUsers.forEach(u -> u.setIsAdmin(isAdmin));
+            tableViewUsers.refresh();
+            if (poller != null) {
+                poller.pollNow();
+            }
+            logger.info("Rol de administrador establecido a " + isAdmin + " en " + ids.size() + " usuarios.");
+        } catch (Exception e) {
+            logger.severe("Error en el cambio de rol masivo: " + e.getMessage());
+            JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error", "No se pudo cambiar el rol", "Ocurrió un error al guardar los cambios: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Comprueba si el usuario con la sesión iniciada está entre los usuarios indicados.
+     * @param users Los usuarios a comprobar.
+     * @return true si el usuario actual está en la lista, false en caso contrario.
+     */
+    private boolean containsCurrentUser(List<User> users) {
+        User currentUser = (User) SimpleSessionService.getInstance().getObject("user");
+        return currentUser != null && users.stream().anyMatch(u -> u.getId().equals(currentUser.getId()));
+    }
+
     /**
      * Maneja la acción de volver a la vista principal del administrador.
      * @param actionEvent El evento de acción que disparó este método.
@@ -196,13 +271,42 @@ public class AdminUsersController implements Initializable {
     }
 
     /**
-     * Refresca la tabla de usuarios con los datos más recientes de la base de datos.
+     * Carga los usuarios (con sus copias, de las que sale la columna del número de copias) fuera del
+     * hilo de JavaFX, ordenados por email, y los muestra de una vez al terminar. La carga se cancela si se sale antes de la pantalla.
+     */
+    private void loadUsers() {
+        tableViewUsers.setPlaceholder(new Label("Cargando usuarios..."));
+        SceneDataLoader loader = new SceneDataLoader("usuarios", SceneDataLoader.DEFAULT_TIMEOUT);
+        SceneDataLoader.Subtask<ChangeSet<User, Integer>> users = loader.fork("usuarios", () -> {
+            ChangeSet<User, Integer> loaded = userRepository.findChangedSince(ChangeTracking.NONE);
+            CollatedSort.sortBy(loaded.changed(), User::getEmail);
+            return loaded;
+        });
+        loader.onLoaded(() -> {
+            masterData.setAll(users.get().changed());
+            tableViewUsers.setPlaceholder(new Label("No hay usuarios."));
+            startSync(users.get().watermark());
+        }).onFailed(e -> {
+            tableViewUsers.setPlaceholder(new Label("No se pudieron cargar los usuarios."));
+            JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error", "No se pudieron cargar los usuarios", e.getMessage());
+        });
+        loader.start();
+        JavaFXUtil.runOnSceneExit(tableViewUsers, loader::cancel);
+    }
+
+    /**
+     * Mantiene la tabla de usuarios al día aplicando solo los cambios posteriores al watermark
+     * de la carga inicial. La sincronización se detiene al salir de la pantalla.
+     * @param watermark El watermark de los usuarios cargados.
      */
-    private void refreshTable() {
-        logger.info("Refrescando tabla de usuarios.");
-        masterData.clear();
-        masterData.addAll(userRepository.findAll());
-        tableViewUsers.refresh();
-        logger.info("Tabla de usuarios refrescada. Número de usuarios: " + masterData.size());
+    private void startSync(long watermark) {
+        poller = new ChangePoller<>("usuarios", masterData, User::getId, userRepository::findChangedSince,
+                watermark, ChangePoller.DEFAULT_INTERVAL)
+                .onApplied(changes -> {
+                    tableViewUsers.refresh();
+                    logger.info("Tabla de usuarios sincronizada. Número de usuarios: " + masterData.size());
+                });
+        poller.start();
+        JavaFXUtil.runOnSceneExit(tableViewUsers, poller::stop);
     }
 }
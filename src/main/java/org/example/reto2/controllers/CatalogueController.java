@@ -0,0 +1,94 @@
+package org.example.reto2.controllers;
+
+import javafx.event.ActionEvent;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import org.example.reto2.pelicula.CatalogueBrowser;
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.pelicula.PeliculaColumns;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.poster.PosterCache;
+import org.example.reto2.poster.PosterTableCell;
+import org.example.reto2.session.SimpleSessionService;
+import org.example.reto2.utils.CollatedSort;
+import org.example.reto2.utils.DataProvider;
+import org.example.reto2.utils.JavaFXUtil;
+import org.hibernate.SessionFactory;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+import java.util.logging.Logger;
+
+/**
+ * Controlador para la consulta del catálogo de películas en modo de solo lectura (catalogue-view.fxml).
+ * Se abre desde la vista del usuario y, sin conexión con la base de datos, desde la vista de login;
+ * no permite modificar nada, así que no necesita una sesión iniciada.
+ * El catálogo se lee de la instantánea local y, si hay conexión, se sincroniza con la base de datos.
+ */
+public class CatalogueController implements Initializable {
+
+    private static final Logger logger = Logger.getLogger(CatalogueController.class.getName());
+
+    @javafx.fxml.FXML
+    private TableView<Pelicula> tableViewPeliculas;
+    @javafx.fxml.FXML
+    private TableColumn<Pelicula, Pelicula> colPoster;
+    @javafx.fxml.FXML
+    private TableColumn<Pelicula, String> colTitulo;
+    @javafx.fxml.FXML
+    private TableColumn<Pelicula, String> colGenero;
+    @javafx.fxml.FXML
+    private TableColumn<Pelicula, Integer> colAnio;
+    @javafx.fxml.FXML
+    private TableColumn<Pelicula, String> colDirector;
+    @javafx.fxml.FXML
+    private TableColumn<Pelicula, String> colDescripcion;
+    @javafx.fxml.FXML
+    private TextField txtSearchPeliculas;
+    @javafx.fxml.FXML
+    private Label lblSync;
+
+    /**
+     * Inicializa el controlador después de que su elemento raíz ha sido completamente procesado.
+     * Configura las columnas de la tabla y carga el catálogo.
+     * @param url La ubicación utilizada para resolver rutas relativas para el objeto raíz, o null si la ubicación no se conoce.
+     * @param resourceBundle Los recursos utilizados para localizar el objeto raíz, o null si el objeto raíz no fue localizado.
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        logger.info("Inicializando CatalogueController.");
+        SessionFactory sessionFactory = DataProvider.getSessionFactory();
+
+        colPoster.setCellValueFactory(PeliculaColumns.pelicula());
+        colPoster.setCellFactory(column -> new PosterTableCell<>());
+        tableViewPeliculas.setFixedCellSize(PosterCache.THUMB_HEIGHT + 4);
+        colTitulo.setCellValueFactory(PeliculaColumns.titulo());
+        colGenero.setCellValueFactory(PeliculaColumns.genero());
+        colAnio.setCellValueFactory(PeliculaColumns.anio());
+        colDirector.setCellValueFactory(PeliculaColumns.director());
+        colDescripcion.setCellValueFactory(PeliculaColumns.descripcion());
+        CollatedSort.install(colTitulo, colGenero, colDirector);
+
+        PeliculaRepository peliculaRepository = sessionFactory == null ? null : new PeliculaRepository(sessionFactory);
+        new CatalogueBrowser(tableViewPeliculas, txtSearchPeliculas, lblSync, peliculaRepository).load();
+        logger.info("CatalogueController inicializado.");
+    }
+
+    /**
+     * Maneja la acción de volver: a la vista del usuario si hay una sesión iniciada, o al login si no.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void back(ActionEvent actionEvent) {
+        if (SimpleSessionService.getInstance().isLoggedIn()) {
+            logger.info("Saliendo del catálogo. Redirigiendo a main-view.");
+            JavaFXUtil.setScene("/org/example/reto2/main-view.fxml");
+        } else {
+            logger.info("Saliendo del catálogo sin sesión. Redirigiendo a login-view.");
+            JavaFXUtil.setScene("/org/example/reto2/login-view.fxml");
+        }
+    }
+}
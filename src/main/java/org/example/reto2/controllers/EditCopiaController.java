@@ -10,10 +10,15 @@ import javafx.scene.control.TextField;
 import javafx.util.StringConverter;
 import org.example.reto2.copia.Copia;
 import org.example.reto2.copia.CopiaService;
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
 import org.example.reto2.pelicula.Pelicula;
 import org.example.reto2.session.SimpleSessionService;
 import org.example.reto2.user.User;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Rules;
+import org.example.reto2.validation.Violation;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -31,9 +36,9 @@ public class EditCopiaController implements Initializable {
     @javafx.fxml.FXML
     private ComboBox<Pelicula> comboPelicula;
     @javafx.fxml.FXML
-    private ComboBox<String> comboEstado;
+    private ComboBox<EstadoCopia> comboEstado;
     @javafx.fxml.FXML
-    private ComboBox<String> comboSoporte;
+    private ComboBox<SoporteCopia> comboSoporte;
     @javafx.fxml.FXML
     private TextField txtCantidad;
 
@@ -77,8 +82,8 @@ public class EditCopiaController implements Initializable {
             }
         });
 
-        comboEstado.setItems(FXCollections.observableArrayList("bueno", "gastado", "dañado"));
-        comboSoporte.setItems(FXCollections.observableArrayList("dvd", "blue-ray"));
+        comboEstado.setItems(FXCollections.observableArrayList(EstadoCopia.values()));
+        comboSoporte.setItems(FXCollections.observableArrayList(SoporteCopia.values()));
 
         copiaToEdit = (Copia) SimpleSessionService.getInstance().getObject("copiaToEdit");
         if (copiaToEdit != null) {
@@ -106,29 +111,32 @@ public class EditCopiaController implements Initializable {
     public void saveCopia(ActionEvent actionEvent) {
         logger.info("Intento de guardar cambios para la copia con ID: " + (copiaToEdit != null ? copiaToEdit.getId() : "N/A"));
         if (copiaToEdit != null) {
-            String selectedEstado = comboEstado.getSelectionModel().getSelectedItem();
-            String selectedSoporte = comboSoporte.getSelectionModel().getSelectedItem();
+            EstadoCopia selectedEstado = comboEstado.getSelectionModel().getSelectedItem();
+            SoporteCopia selectedSoporte = comboSoporte.getSelectionModel().getSelectedItem();
             String cantidadText = txtCantidad.getText();
 
-            if (selectedEstado == null || selectedSoporte == null || cantidadText.isEmpty()) {
-                JavaFXUtil.showModal(Alert.AlertType.WARNING, "Campos Incompletos", "Por favor, rellena todos los campos.", "");
-                logger.warning("Campos incompletos al intentar guardar copia.");
+            Integer cantidad = Rules.parseInt(cantidadText, Rules.DIGITS);
+            if (!cantidadText.isEmpty() && cantidad == null) {
+                JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Cantidad Inválido", "La cantidad debe ser un número entero.", "");
+                logger.warning("Formato de cantidad inválido al intentar guardar copia: " + cantidadText);
                 return;
             }
 
-            try {
-                if (!cantidadText.matches("\\d+")) {
-                    JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Cantidad Inválido", "La cantidad debe ser un número entero.", "");
-                    logger.warning("Formato de cantidad inválido al intentar guardar copia: " + cantidadText);
-                    return;
-                }
-                int cantidad = Integer.parseInt(cantidadText);
-                if (cantidad <= 0 || cantidad > 9999) {
-                    JavaFXUtil.showModal(Alert.AlertType.WARNING, "Cantidad Inválida", "La cantidad debe ser un número entre 1 y 9999.", "");
-                    logger.warning("Cantidad inválida (fuera de rango) al intentar guardar copia.");
-                    return;
-                }
+            // Se valida una copia con los datos del formulario para no modificar la copia si no son válidos
+            Copia candidate = new Copia();
+            candidate.setPelicula(copiaToEdit.getPelicula());
+            candidate.setEstado(selectedEstado);
+            candidate.setSoporte(selectedSoporte);
+            candidate.setCantidad(cantidad);
+
+            Violation violation = EntityValidators.COPIA.firstViolation(candidate);
+            if (violation != null) {
+                JavaFXUtil.showModal(Alert.AlertType.WARNING, violation.title(), violation.message(), "");
+                logger.warning("Copia no válida al intentar guardarla (" + violation.field() + "): " + violation.message());
+                return;
+            }
 
+            try {
                 copiaToEdit.setEstado(selectedEstado);
                 copiaToEdit.setSoporte(selectedSoporte);
                 copiaToEdit.setCantidad(cantidad);
@@ -137,9 +145,6 @@ public class EditCopiaController implements Initializable {
                 SimpleSessionService.getInstance().setObject("user", currentUser);
                 JavaFXUtil.setScene("/org/example/reto2/main-view.fxml");
                 logger.info("Copia con ID " + copiaToEdit.getId() + " actualizada exitosamente. Redirigiendo a main-view.");
-            } catch (NumberFormatException e) {
-                JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error de entrada", "Cantidad inválida", "Por favor, introduce un número válido para la cantidad.");
-                logger.severe("Error de formato de número para la cantidad: " + cantidadText + ". " + e.getMessage());
             } catch (Exception e) {
                 JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error", "No se pudo actualizar la copia", "Ocurrió un error al guardar la copia: " + e.getMessage());
                 logger.severe("Error inesperado al actualizar copia: " + e.getMessage());
@@ -10,8 +10,13 @@ import org.example.reto2.pelicula.PeliculaRepository;
 import org.example.reto2.session.SimpleSessionService;
 import org.example.reto2.utils.DataProvider;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Rules;
+import org.example.reto2.validation.Violation;
 
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
 
@@ -33,6 +38,8 @@ public class EditPeliculaController implements Initializable {
     private TextField txtDirector;
     @javafx.fxml.FXML
     private TextArea txtDescripcion;
+    @javafx.fxml.FXML
+    private TextField txtPoster;
 
     private PeliculaRepository peliculaRepository;
     private Pelicula peliculaToEdit;
@@ -54,7 +61,8 @@ public class EditPeliculaController implements Initializable {
             txtGenero.setText(peliculaToEdit.getGenero());
             txtAnio.setText(String.valueOf(peliculaToEdit.getAnio()));
             txtDirector.setText(peliculaToEdit.getDirector());
-            txtDescripcion.setText(peliculaToEdit.getDescripcion());
+            txtDescripcion.setText(peliculaRepository.findDescripcion(peliculaToEdit));
+            txtPoster.setText(peliculaToEdit.getPosterPath() == null ? "" : peliculaToEdit.getPosterPath());
             logger.info("Cargando datos de la película con ID " + peliculaToEdit.getId() + " para edición.");
         } else {
             logger.warning("No se encontró película para editar en la sesión.");
@@ -73,84 +81,60 @@ public class EditPeliculaController implements Initializable {
     public void savePelicula(ActionEvent actionEvent) {
         logger.info("Intento de guardar cambios para la película con ID: " + (peliculaToEdit != null ? peliculaToEdit.getId() : "N/A"));
         
-        // Validación de campos vacíos
-        if (txtTitulo.getText().isEmpty() || txtGenero.getText().isEmpty() || txtAnio.getText().isEmpty() ||
-            txtDirector.getText().isEmpty() || txtDescripcion.getText().isEmpty()) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Campos Vacíos", "Todos los campos son obligatorios.", "Por favor, rellene todos los campos.");
-            logger.warning("Intento de guardar película con campos vacíos.");
+        if (peliculaToEdit == null) {
             return;
         }
 
-        // Validación de longitud de campos
-        if (txtTitulo.getText().length() > 255) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Título demasiado largo", "El título no puede exceder los 255 caracteres.", "");
-            logger.warning("Intento de guardar película con título demasiado largo.");
-            return;
-        }
-        if (txtGenero.getText().length() > 255) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Género demasiado largo", "El género no puede exceder los 255 caracteres.", "");
-            logger.warning("Intento de guardar película con género demasiado largo.");
-            return;
-        }
-        if (txtDirector.getText().length() > 255) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Director demasiado largo", "El nombre del director no puede exceder los 255 caracteres.", "");
-            logger.warning("Intento de guardar película con nombre de director demasiado largo.");
-            return;
-        }
-        if (txtDescripcion.getText().length() > 500) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Descripción demasiado larga", "La descripción no puede exceder los 500 caracteres.", "");
-            logger.warning("Intento de guardar película con descripción demasiado larga.");
+        String anioStr = txtAnio.getText();
+        Integer anio = Rules.parseInt(anioStr, Rules.YEAR);
+        if (!anioStr.isEmpty() && anio == null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Año Inválido", "El año debe ser un número de 4 dígitos.", "");
+            logger.warning("Formato de año inválido al intentar guardar película: " + anioStr);
             return;
         }
 
-        // Validación de campos no numéricos
-        if (!txtGenero.getText().matches(".*[a-zA-Z]+.*")) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Género Inválido", "El género no puede ser solo números.", "");
-            logger.warning("Intento de guardar película con género puramente numérico.");
+        // Se valida y se guarda una copia separada: la película de la sesión es la instancia canónica que
+        // muestran otras pantallas y no debe cambiar si los datos no son válidos o el guardado falla
+        Pelicula candidate = peliculaToEdit.detachedCopy();
+        candidate.setTitulo(txtTitulo.getText());
+        candidate.setGenero(txtGenero.getText());
+        candidate.setAnio(anio);
+        candidate.setDirector(txtDirector.getText());
+        candidate.setDescripcion(txtDescripcion.getText());
+        candidate.setPosterPath(txtPoster.getText().isBlank() ? null : txtPoster.getText().trim());
+
+        Violation violation = EntityValidators.PELICULA_FORM.firstViolation(candidate);
+        if (violation != null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, violation.title(), violation.message(), "");
+            logger.warning("Película no válida al intentar guardarla (" + violation.field() + "): " + violation.message());
             return;
         }
-        if (!txtDirector.getText().matches(".*[a-zA-Z]+.*")) {
-            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Director Inválido", "El nombre del director no puede ser solo números.", "");
-            logger.warning("Intento de guardar película con director puramente numérico.");
+        if (candidate.getPosterPath() != null && !Files.isRegularFile(Path.of(candidate.getPosterPath()))) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Póster no encontrado", "El fichero del póster no existe.", "Elige una imagen o deja el campo vacío.");
+            logger.warning("Fichero de póster inexistente: " + txtPoster.getText());
             return;
         }
 
-        if (peliculaToEdit != null) {
-            try {
-                peliculaToEdit.setTitulo(txtTitulo.getText());
-                peliculaToEdit.setGenero(txtGenero.getText());
-
-                // Validar y parsear el año
-                String anioStr = txtAnio.getText();
-                if (!anioStr.matches("\\d{4}")) {
-                    JavaFXUtil.showModal(Alert.AlertType.WARNING, "Formato de Año Inválido", "El año debe ser un número de 4 dígitos.", "");
-                    logger.warning("Formato de año inválido al intentar guardar película: " + anioStr);
-                    return;
-                }
-                int anio = Integer.parseInt(anioStr);
-                if (anio < 1950 || anio > 2025) {
-                    JavaFXUtil.showModal(Alert.AlertType.WARNING, "Año fuera de rango", "El año debe estar entre 1950 y 2025.", "");
-                    logger.warning("Año fuera de rango al intentar guardar película: " + anio);
-                    return;
-                }
-                peliculaToEdit.setAnio(anio);
-
-                peliculaToEdit.setDirector(txtDirector.getText());
-                peliculaToEdit.setDescripcion(txtDescripcion.getText());
-
-                peliculaRepository.save(peliculaToEdit); // El método save ya maneja la actualización si el ID existe
-                JavaFXUtil.setScene("/org/example/reto2/admin-main-view.fxml");
-                logger.info("Película con ID " + peliculaToEdit.getId() + " actualizada exitosamente. Redirigiendo a admin-main-view.");
-            } catch (NumberFormatException e) {
-                JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error de entrada", "Año inválido", "Por favor, introduce un número válido para el año.");
-                logger.severe("Error de formato de número para el año: " + txtAnio.getText() + ". " + e.getMessage());
-            } catch (Exception e) {
-                JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error", "No se pudo actualizar la película", "Ocurrió un error al guardar la película: " + e.getMessage());
-                logger.severe("Error inesperado al actualizar película: " + e.getMessage());
-            }
+        try {
+            Pelicula saved = peliculaRepository.save(candidate); // Publica la copia como canónica solo si se guarda
+            JavaFXUtil.setScene("/org/example/reto2/admin-main-view.fxml");
+            logger.info("Película con ID " + saved.getId() + " actualizada exitosamente. Redirigiendo a admin-main-view.");
+        } catch (Exception e) {
+            JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error", "No se pudo actualizar la película", "Ocurrió un error al guardar la película: " + e.getMessage());
+            logger.severe("Error inesperado al actualizar película: " + e.getMessage());
         }
     }
 
+    /**
+     * Abre un diálogo para elegir la imagen del póster y guarda su ruta en el formulario.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void choosePoster(ActionEvent actionEvent) {
+        JavaFXUtil.chooseImageFile(actionEvent, "Elegir póster")
+                .ifPresent(file -> txtPoster.setText(file.getAbsolutePath()));
+    }
+
     /**
      * Maneja la acción de cancelar la edición de una película.
      * Redirige de vuelta a la vista principal del administrador.
@@ -11,6 +11,8 @@ import org.example.reto2.user.User;
 import org.example.reto2.user.UserRepository;
 import org.example.reto2.utils.DataProvider;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.validation.EntityValidators;
+import org.example.reto2.validation.Violation;
 
 import java.net.URL;
 import java.util.Optional;
@@ -76,18 +78,23 @@ public class EditUserController implements Initializable {
             String confirmPassword = pwdConfirmPassword.getText();
             Boolean isAdmin = chkIsAdmin.isSelected();
 
-            if (newEmail.isEmpty()) {
-                JavaFXUtil.showModal(Alert.AlertType.WARNING, "Campo Vacío", "El email no puede estar vacío.", "");
-                logger.warning("Intento de guardar usuario con email vacío.");
-                return;
-            }
-
             if (!newPassword.isEmpty() && !newPassword.equals(confirmPassword)) {
                 JavaFXUtil.showModal(Alert.AlertType.WARNING, "Contraseñas no coinciden", "Las nuevas contraseñas no coinciden.", "");
                 logger.warning("Contraseñas no coinciden al intentar guardar cambios de usuario.");
                 return;
             }
 
+            // Se valida una copia con los datos del formulario; una contraseña vacía conserva la actual
+            User candidate = new User();
+            candidate.setEmail(newEmail);
+            candidate.setPassword(newPassword.isEmpty() ? userToEdit.getPassword() : newPassword);
+            Violation violation = EntityValidators.USER.firstViolation(candidate);
+            if (violation != null) {
+                JavaFXUtil.showModal(Alert.AlertType.WARNING, violation.title(), violation.message(), "");
+                logger.warning("Usuario no válido al intentar guardarlo (" + violation.field() + "): " + violation.message());
+                return;
+            }
+
             // Comprobar si el nuevo email ya está en uso por OTRO usuario
             Optional<User> userWithSameEmail = userRepository.findByEmail(newEmail);
             if (userWithSameEmail.isPresent() && !userWithSameEmail.get().getId().equals(userToEdit.getId())) {
@@ -8,6 +8,7 @@ import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import org.example.reto2.pelicula.CatalogueStore;
 import org.example.reto2.session.AuthService;
 import org.example.reto2.session.SimpleSessionService;
 import org.example.reto2.user.User;
@@ -38,6 +39,8 @@ public class LoginController implements Initializable {
     private Label info;
     @javafx.fxml.FXML
     private Button btnEntrar;
+    @javafx.fxml.FXML
+    private Button btnOffline;
 
     private UserRepository userRepository;
     private AuthService authService;
@@ -62,6 +65,12 @@ public class LoginController implements Initializable {
             txtCorreo.setDisable(true);
             txtContraseña.setDisable(true);
             btnEntrar.setDisable(true);
+
+            if (CatalogueStore.getInstance().hasSnapshot()) {
+                btnOffline.setVisible(true);
+                btnOffline.setManaged(true);
+                logger.info("Existe una copia local del catálogo. Se permite la consulta sin conexión.");
+            }
             return;
         }
 
@@ -124,6 +133,18 @@ public class LoginController implements Initializable {
         }
     }
 
+    /**
+     * Maneja la acción de consultar el catálogo sin conexión.
+     * Abre la consulta del catálogo de solo lectura, que no necesita sesión y sin base de datos
+     * se sirve de la instantánea local. Las vistas de administración siguen exigiendo iniciar sesión.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void verCatalogoOffline(ActionEvent actionEvent) {
+        logger.info("Abriendo el catálogo sin conexión desde la vista de login.");
+        JavaFXUtil.setScene("/org/example/reto2/catalogue-view.fxml");
+    }
+
     /**
      * Maneja la acción de salir de la aplicación.
      * @param actionEvent El evento de acción que disparó este método.
@@ -1,10 +1,8 @@
 package org.example.reto2.controllers;
 
-import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
@@ -12,16 +10,29 @@ import javafx.scene.control.ButtonType;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.MouseEvent;
 import org.example.reto2.copia.Copia;
+import org.example.reto2.copia.CopiaColumns;
 import org.example.reto2.copia.CopiaService;
+import org.example.reto2.copia.CopiaWriteBehind;
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
 import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.pelicula.PeliculaRepository;
+import org.example.reto2.poster.PosterCache;
+import org.example.reto2.poster.PosterTableCell;
 import org.example.reto2.session.SimpleSessionService;
+import org.example.reto2.sync.ChangePoller;
+import org.example.reto2.sync.ChangeTracking;
 import org.example.reto2.user.User;
+import org.example.reto2.utils.CollatedSort;
+import org.example.reto2.utils.DataProvider;
 import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.utils.TableSorter;
 
 import java.net.URL;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
@@ -38,11 +49,13 @@ public class MainController implements Initializable {
     @javafx.fxml.FXML
     private TableView<Copia> tableView;
     @javafx.fxml.FXML
+    private TableColumn<Copia, Pelicula> colPoster;
+    @javafx.fxml.FXML
     private TableColumn<Copia, String> colTitulo;
     @javafx.fxml.FXML
-    private TableColumn<Copia, String> colEstado;
+    private TableColumn<Copia, EstadoCopia> colEstado;
     @javafx.fxml.FXML
-    private TableColumn<Copia, String> colSoporte;
+    private TableColumn<Copia, SoporteCopia> colSoporte;
     @javafx.fxml.FXML
     private TableColumn<Copia, Integer> colCantidad;
     @javafx.fxml.FXML
@@ -50,6 +63,8 @@ public class MainController implements Initializable {
 
     private User currentUser;
     private CopiaService copiaService;
+    private CopiaWriteBehind writeBehind;
+    private PeliculaRepository peliculaRepository;
     private ObservableList<Copia> masterData = FXCollections.observableArrayList();
     private FilteredList<Copia> filteredData;
 
@@ -65,39 +80,51 @@ public class MainController implements Initializable {
         logger.info("Inicializando MainController.");
         currentUser = (User) SimpleSessionService.getInstance().getObject("user");
         copiaService = new CopiaService();
+        peliculaRepository = new PeliculaRepository(DataProvider.getSessionFactory());
+        writeBehind = new CopiaWriteBehind(copiaService, currentUser, CopiaWriteBehind.DEFAULT_DELAY)
+                .onRolledBack(this::restoreCopias);
+        JavaFXUtil.runOnSceneExit(tableView, writeBehind::close);
+        // Al cerrar la aplicación (botón Salir o la ventana) no hay tiempo para la escritura diferida
+        JavaFXUtil.runOnAppExit(tableView, this::savePendingChanges);
 
-        colTitulo.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getPelicula().getTitulo()));
-        colEstado.setCellValueFactory(new PropertyValueFactory<>("estado"));
-        colSoporte.setCellValueFactory(new PropertyValueFactory<>("soporte"));
-        colCantidad.setCellValueFactory(new PropertyValueFactory<>("cantidad"));
+        colPoster.setCellValueFactory(CopiaColumns.pelicula());
+        colPoster.setCellFactory(column -> new PosterTableCell<>());
+        // Altura fija: el TableView no tiene que medir cada fila al desplazarse
+        tableView.setFixedCellSize(PosterCache.THUMB_HEIGHT + 4);
+        colTitulo.setCellValueFactory(CopiaColumns.titulo());
+        colEstado.setCellValueFactory(CopiaColumns.estado());
+        colSoporte.setCellValueFactory(CopiaColumns.soporte());
+        colCantidad.setCellValueFactory(CopiaColumns.cantidad());
+        CollatedSort.install(colTitulo);
 
         masterData.addAll(currentUser.getCopias());
         filteredData = new FilteredList<>(masterData, p -> true);
 
         txtSearch.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredData.setPredicate(copia -> {
-                if (newValue == null || newValue.isEmpty()) {
-                    return true;
-                }
-
-                String lowerCaseFilter = newValue.toLowerCase();
+            if (newValue == null || newValue.isEmpty()) {
+                filteredData.setPredicate(copia -> true);
+                return;
+            }
+            String lowerCaseFilter = newValue.toLowerCase();
+            // Los estados y soportes que coinciden se calculan una vez por pulsación, no por fila
+            EnumSet<EstadoCopia> estados = EstadoCopia.matching(lowerCaseFilter);
+            EnumSet<SoporteCopia> soportes = SoporteCopia.matching(lowerCaseFilter);
 
+            filteredData.setPredicate(copia -> {
                 if (copia.getPelicula().getTitulo().toLowerCase().contains(lowerCaseFilter)) {
                     return true; // Coincide con el título de la película.
-                } else if (copia.getEstado().toLowerCase().contains(lowerCaseFilter)) {
+                } else if (estados.contains(copia.getEstado())) {
                     return true; // Coincide con el estado de la copia.
-                } else if (copia.getSoporte().toLowerCase().contains(lowerCaseFilter)) {
+                } else if (soportes.contains(copia.getSoporte())) {
                     return true; // Coincide con el soporte de la copia.
                 }
                 return false; // No hay coincidencia.
             });
         });
 
-        SortedList<Copia> sortedData = new SortedList<>(filteredData);
-
-        sortedData.comparatorProperty().bind(tableView.comparatorProperty());
-
-        tableView.setItems(sortedData);
+        // Se ordena la lista de copias, no una copia ordenada: los títulos se comparan por claves precalculadas
+        tableView.setItems(filteredData);
+        TableSorter.install(tableView, masterData);
 
 
         tableView.setOnMouseClicked(event -> {
@@ -109,7 +136,7 @@ public class MainController implements Initializable {
                             "Género: " + pelicula.getGenero() + "\n" +
                             "Año: " + pelicula.getAnio() + "\n" +
                             "Director: " + pelicula.getDirector() + "\n" +
-                            "Descripción: " + pelicula.getDescripcion();
+                            "Descripción: " + peliculaRepository.findDescripcion(pelicula);
                     JavaFXUtil.showModal(Alert.AlertType.INFORMATION, "Detalles de la Película", "Información de la película seleccionada", content);
                     logger.info("Mostrando detalles de la película para la copia con ID: " + selectedCopia.getId());
                 }
@@ -117,6 +144,7 @@ public class MainController implements Initializable {
         });
 
         refreshTable();
+        startSync();
         logger.info("MainController inicializado para el usuario: " + currentUser.getEmail());
     }
 
@@ -140,36 +168,73 @@ public class MainController implements Initializable {
     @javafx.fxml.FXML
     public void close(ActionEvent actionEvent) {
         logger.info("Solicitud de cierre de aplicación.");
+        JavaFXUtil.runExitActions();
         System.exit(0);
     }
 
+    /**
+     * Escribe los cambios de cantidad pendientes esperando a que terminen, antes de cerrar la aplicación.
+     */
+    private void savePendingChanges() {
+        try {
+            writeBehind.closeAndWait();
+        } catch (Exception e) {
+            logger.severe("No se pudieron guardar los últimos cambios de cantidad: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Maneja la acción de sumar una unidad a la copia seleccionada.
+     * El cambio se muestra al momento y se escribe en diferido con {@link CopiaWriteBehind},
+     * agrupado con el resto de cambios de cantidad seguidos.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void incrementCopia(ActionEvent actionEvent) {
+        Copia selectedCopia = tableView.getSelectionModel().getSelectedItem();
+        if (selectedCopia == null) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Ninguna copia seleccionada", "Por favor, selecciona una copia para sumar una unidad.", "");
+            return;
+        }
+        if (selectedCopia.getCantidad() >= 9999) {
+            JavaFXUtil.showModal(Alert.AlertType.WARNING, "Cantidad Máxima", "La cantidad no puede superar 9999.", "");
+            return;
+        }
+        writeBehind.adjust(selectedCopia, 1);
+        tableView.refresh();
+    }
+
     /**
      * Maneja la acción de eliminar una copia seleccionada de la tabla.
-     * Si la copia tiene cantidad > 1, decrementa la cantidad. Si es 1, la elimina.
-     * Incluye un diálogo de confirmación.
+     * Si la copia tiene cantidad > 1, decrementa la cantidad al momento; si es 1, pide confirmación
+     * y la elimina. Los cambios se escriben en diferido con {@link CopiaWriteBehind}.
      * @param actionEvent El evento de acción que disparó este método.
      */
     @javafx.fxml.FXML
     public void deleteCopia(ActionEvent actionEvent) {
         Copia selectedCopia = tableView.getSelectionModel().getSelectedItem();
-        if (selectedCopia != null) {
+        if (selectedCopia != null && selectedCopia.getCantidad() > 1) {
+            writeBehind.adjust(selectedCopia, -1);
+            tableView.refresh();
+            logger.fine("Cantidad de la copia con ID " + selectedCopia.getId() + " decrementada a " + selectedCopia.getCantidad());
+        } else if (selectedCopia != null) {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Confirmar Eliminación");
-            alert.setHeaderText("¿Está seguro de que desea eliminar/decrementar esta copia?");
+            alert.setHeaderText("¿Está seguro de que desea eliminar esta copia?");
             alert.setContentText("Película: " + selectedCopia.getPelicula().getTitulo() + "\n" +
                                  "Estado: " + selectedCopia.getEstado() + "\n" +
                                  "Soporte: " + selectedCopia.getSoporte() + "\n" +
                                  "Cantidad actual: " + selectedCopia.getCantidad() +
-                                 "\n\nSi la cantidad es mayor que 1, se decrementará. Si es 1, la copia se eliminará por completo.");
+                                 "\n\nEs la última unidad: la copia se eliminará por completo.");
 
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
                 try {
-                    logger.info("Usuario confirmó eliminación/decremento de copia con ID: " + selectedCopia.getId());
-                    currentUser = copiaService.deleteCopiaFromUser(currentUser, selectedCopia);
-                    SimpleSessionService.getInstance().setObject("user", currentUser);
-                    refreshTable();
-                    logger.info("Operación de eliminación/decremento de copia completada. Tabla refrescada.");
+                    logger.info("Usuario confirmó eliminación de copia con ID: " + selectedCopia.getId());
+                    writeBehind.adjust(selectedCopia, -1);
+                    currentUser.getCopias().removeIf(c -> c == selectedCopia);
+                    masterData.removeIf(c -> c == selectedCopia);
+                    logger.info("Copia con ID " + selectedCopia.getId() + " retirada; se eliminará al escribir los cambios.");
                 } catch (Exception e) {
                     logger.severe("Error al eliminar/decrementar copia: " + e.getMessage());
                     JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error de Eliminación", 
@@ -185,6 +250,17 @@ public class MainController implements Initializable {
         }
     }
 
+    /**
+     * Maneja la acción de consultar el catálogo de películas.
+     * Redirige a la consulta del catálogo de solo lectura.
+     * @param actionEvent El evento de acción que disparó este método.
+     */
+    @javafx.fxml.FXML
+    public void viewCatalogue(ActionEvent actionEvent) {
+        logger.info("Redirigiendo a catalogue-view para consultar el catálogo.");
+        JavaFXUtil.setScene("/org/example/reto2/catalogue-view.fxml");
+    }
+
     /**
      * Maneja la acción de añadir una nueva copia.
      * Redirige a la vista de añadir copia.
@@ -214,6 +290,25 @@ public class MainController implements Initializable {
         }
     }
 
+    /**
+     * Deshace en pantalla los cambios de cantidad que no se pudieron escribir: las copias que se habían
+     * retirado por quedarse sin unidades vuelven a la tabla y a los datos del usuario.
+     * @param copias Las copias con la cantidad ya revertida.
+     * @param error El error de la escritura.
+     */
+    private void restoreCopias(List<Copia> copias, Throwable error) {
+        for (Copia copia : copias) {
+            if (copia.getCantidad() > 0 && currentUser.getCopias().stream().noneMatch(c -> c == copia)) {
+                currentUser.getCopias().add(copia);
+                masterData.add(copia);
+            }
+        }
+        tableView.refresh();
+        JavaFXUtil.showModal(Alert.AlertType.ERROR, "Error al guardar",
+                "No se pudieron guardar los cambios de cantidad.",
+                "Se ha restaurado el estado anterior. " + error.getMessage());
+    }
+
     /**
      * Refresca la tabla de copias con los datos más recientes del usuario actual.
      */
@@ -226,4 +321,24 @@ public class MainController implements Initializable {
         logger.info("Tabla de copias refrescada. Número de copias: " + currentUser.getCopias().size());
     }
 
+    /**
+     * Mantiene la tabla al día con los cambios que otras sesiones hagan en las copias del usuario,
+     * pidiendo solo los cambios posteriores al watermark. El watermark inicial es la última
+     * modificación del usuario, que se actualiza con cada cambio en sus copias.
+     * La sincronización se detiene al salir de la pantalla.
+     */
+    private void startSync() {
+        long watermark = currentUser.getUpdatedAt() == null
+                ? ChangeTracking.NONE
+                : ChangeTracking.toWatermark(currentUser.getUpdatedAt());
+        ChangePoller<Copia, Integer> poller = new ChangePoller<>("copias", masterData, Copia::getId,
+                since -> copiaService.findChangedSince(currentUser, since), watermark, ChangePoller.DEFAULT_INTERVAL)
+                .onApplied(changes -> {
+                    tableView.refresh();
+                    logger.info("Tabla de copias sincronizada. Número de copias: " + masterData.size());
+                });
+        poller.start();
+        JavaFXUtil.runOnSceneExit(tableView, poller::stop);
+    }
+
 }
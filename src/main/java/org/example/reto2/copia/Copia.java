@@ -2,20 +2,44 @@ package org.example.reto2.copia;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.example.reto2.pelicula.Pelicula;
 import org.example.reto2.user.User;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.logging.Logger;
 
 /**
  * Representa una copia específica de una película que posee un usuario.
  * Incluye detalles como la película asociada, el usuario propietario,
  * el estado de la copia, el tipo de soporte y la cantidad de unidades de esta copia.
+ * El estado y el soporte se guardan como códigos enteros pequeños.
+ * La película y el usuario son asociaciones perezosas; quien devuelve copias fuera de la sesión
+ * inicializa antes sus películas (ver {@link CopiaService#fetchPeliculas}). El usuario se excluye de
+ * equals, hashCode y toString porque es la referencia inversa de {@link User#getCopias()}.
  */
 @Data
 @Entity
-@Table(name="copia")
+@NamedQuery(name = "Copia.count", query = "select count(c) from Copia c")
+@NamedQuery(name = "Copia.countByUser", query = "select count(c) from Copia c where c.user.id = :userId")
+@NamedQuery(name = "Copia.deleteByUser", query = "delete from Copia c where c.user.id = :id")
+@NamedQuery(name = "Copia.deleteByUsers", query = "delete from Copia c where c.user.id in :ids")
+@NamedQuery(name = "Copia.findState",
+        query = "select c.pelicula.id, c.estado, c.soporte, c.cantidad from Copia c where c.id = :id and c.user.id = :userId")
+@NamedQuery(name = "Copia.addCantidad",
+        query = "update Copia c set c.cantidad = c.cantidad + :delta, c.updatedAt = local datetime "
+                + "where c.id = :id and c.user.id = :userId")
+@NamedQuery(name = "Copia.findEmptyIds", query = "select c.id from Copia c where c.id in :ids and c.cantidad <= 0")
+@NamedQuery(name = "Copia.deleteByIds", query = "delete from Copia c where c.id in :ids")
+@NamedQuery(name = "Copia.updateState",
+        query = "update Copia c set c.pelicula = :pelicula, c.estado = :estado, c.soporte = :soporte, c.cantidad = :cantidad, "
+                + "c.updatedAt = local datetime where c.id = :id and c.user.id = :userId")
+@Table(name="copia", indexes = @Index(name = "idx_copia_updated_at", columnList = "updated_at"))
 public class Copia implements Serializable {
 
     private static final Logger logger = Logger.getLogger(Copia.class.getName());
@@ -24,18 +48,34 @@ public class Copia implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="id_pelicula")
     private Pelicula pelicula;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="id_usuario")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
-    private String estado;
-    private String soporte;
+    @Convert(converter = EstadoCopiaConverter.class)
+    @Column(name = "estado_code")
+    private EstadoCopia estado;
+
+    @Convert(converter = SoporteCopiaConverter.class)
+    @Column(name = "soporte_code")
+    private SoporteCopia soporte;
+
     private Integer cantidad;
 
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "created_at", updatable = false, columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp(source = SourceType.DB)
+    @Column(name = "updated_at", columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime updatedAt;
+
     // Constructor, getters y setters son generados por Lombok (@Data)
     // No se añaden métodos específicos para logging aquí, ya que las operaciones
     // sobre Copia se registran en CopiaService.
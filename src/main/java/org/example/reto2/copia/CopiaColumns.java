@@ -0,0 +1,54 @@
+package org.example.reto2.copia;
+
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.utils.RowValueFactory;
+
+/**
+ * Fábricas de valores de celda de las tablas de copias.
+ * Cada método devuelve una fábrica nueva, que debe usarse en una sola columna (ver {@link RowValueFactory}).
+ */
+public final class CopiaColumns {
+
+    private CopiaColumns() {
+    }
+
+    /**
+     * Crea la fábrica de la columna con la película de la copia (ej. el póster).
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Copia, Pelicula> pelicula() {
+        return RowValueFactory.of(Copia::getPelicula);
+    }
+
+    /**
+     * Crea la fábrica de la columna del título de la película.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Copia, String> titulo() {
+        return RowValueFactory.of(copia -> copia.getPelicula().getTitulo());
+    }
+
+    /**
+     * Crea la fábrica de la columna del estado.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Copia, EstadoCopia> estado() {
+        return RowValueFactory.of(Copia::getEstado);
+    }
+
+    /**
+     * Crea la fábrica de la columna del soporte.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Copia, SoporteCopia> soporte() {
+        return RowValueFactory.of(Copia::getSoporte);
+    }
+
+    /**
+     * Crea la fábrica de la columna de la cantidad.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Copia, Integer> cantidad() {
+        return RowValueFactory.of(Copia::getCantidad);
+    }
+}
@@ -1,19 +1,68 @@
 package org.example.reto2.copia;
 
+import org.example.reto2.audit.AuditAction;
+import org.example.reto2.audit.AuditLog;
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.pelicula.PeliculaIdentityMap;
+import org.example.reto2.sync.ChangeSet;
+import org.example.reto2.sync.ChangeTracking;
 import org.example.reto2.user.User;
 import org.example.reto2.utils.DataProvider;
+import org.example.reto2.utils.EntityCounters;
+import org.example.reto2.utils.TransactionTemplate;
+import org.example.reto2.utils.UnitOfWork;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 import java.util.logging.Logger;
 
 /**
  * Servicio para la gestión de operaciones relacionadas con las {@link Copia Copias} de películas.
  * Proporciona métodos para añadir, eliminar y actualizar copias de la colección de un usuario.
+ * Las películas de las copias que devuelve se resuelven con {@link PeliculaIdentityMap}, para que todas
+ * las copias de una misma película compartan una única instancia.
+ * Los cambios confirmados se registran en la auditoría ({@link AuditLog}).
  */
 public class CopiaService {
 
     private static final Logger logger = Logger.getLogger(CopiaService.class.getName());
+    private final TransactionTemplate transactions;
+    private final CopiaStatistics statistics;
+    private final AuditLog audit = AuditLog.getInstance();
+
+    /**
+     * Constructor que inicializa el servicio sobre la SessionFactory compartida de {@link DataProvider}.
+     */
+    public CopiaService() {
+        this(new TransactionTemplate(DataProvider.getSessionFactory()));
+    }
+
+    /**
+     * Constructor que inicializa el servicio con una plantilla de transacciones concreta.
+     * @param transactions La plantilla de transacciones a utilizar.
+     */
+    public CopiaService(TransactionTemplate transactions) {
+        this(transactions, CopiaStatistics.getInstance());
+    }
+
+    /**
+     * Constructor que inicializa el servicio con una plantilla de transacciones y unas estadísticas concretas.
+     * @param transactions La plantilla de transacciones a utilizar.
+     * @param statistics Las estadísticas que se actualizan con cada operación.
+     */
+    public CopiaService(TransactionTemplate transactions, CopiaStatistics statistics) {
+        this.transactions = transactions;
+        this.statistics = statistics;
+    }
 
     /**
      * Elimina una copia específica de la colección de un usuario.
@@ -26,33 +75,47 @@ public class CopiaService {
      */
     public User deleteCopiaFromUser(User user, Copia copia) {
         logger.info("Intentando eliminar/decrementar copia con ID " + copia.getId() + " para el usuario " + user.getEmail());
-        try(Session s = DataProvider.getSessionFactory().openSession()) {
-            s.beginTransaction();
-
-            User currentUser = s.find(User.class, user.getId());
-            Copia copiaToDelete = s.find(Copia.class, copia.getId());
-
-            if (copiaToDelete != null) {
-                if (copiaToDelete.getCantidad() > 1) {
-                    // Decrementar la cantidad si es mayor que 1
-                    copiaToDelete.setCantidad(copiaToDelete.getCantidad() - 1);
-                    s.merge(copiaToDelete);
-                    logger.info("Cantidad de copia con ID " + copia.getId() + " decrementada a " + copiaToDelete.getCantidad());
+        try {
+            Copia[] removed = new Copia[1];
+            boolean[] deletedFully = new boolean[1];
+            User currentUser = transactions.execute(s -> {
+                User managedUser = s.find(User.class, user.getId());
+                Copia copiaToDelete = s.find(Copia.class, copia.getId());
+                removed[0] = copiaToDelete;
+                deletedFully[0] = false;
+
+                if (copiaToDelete != null) {
+                    Hibernate.initialize(copiaToDelete.getPelicula());
+                    if (copiaToDelete.getCantidad() > 1) {
+                        // Decrementar la cantidad si es mayor que 1
+                        copiaToDelete.setCantidad(copiaToDelete.getCantidad() - 1);
+                        logger.info("Cantidad de copia con ID " + copia.getId() + " decrementada a " + copiaToDelete.getCantidad());
+                    } else {
+                        // Eliminar la copia si la cantidad es 1
+                        managedUser.getCopias().removeIf(c -> c.getId().equals(copia.getId()));
+                        deletedFully[0] = true;
+                        ChangeTracking.recordDeletes(s, "Copia", List.of(copiaToDelete.getId()));
+                        s.remove(copiaToDelete);
+                        logger.info("Copia con ID " + copia.getId() + " eliminada completamente.");
+                    }
                 } else {
-                    // Eliminar la copia si la cantidad es 1
-                    currentUser.getCopias().removeIf(c -> c.getId().equals(copia.getId()));
-                    s.remove(copiaToDelete);
-                    logger.info("Copia con ID " + copia.getId() + " eliminada completamente.");
+                    logger.warning("Copia con ID " + copia.getId() + " no encontrada para eliminar.");
                 }
-            } else {
-                logger.warning("Copia con ID " + copia.getId() + " no encontrada para eliminar.");
-            }
 
-            s.getTransaction().commit();
+                // Refrescar el usuario para asegurar que la lista de copias esté actualizada
+                touchUser(s, managedUser.getId());
+                s.flush();
+                s.refresh(managedUser);
+                fetchPeliculas(managedUser.getCopias());
+                return managedUser;
+            });
+            resolvePeliculas(currentUser.getCopias());
             logger.info("Transacción de eliminación/decremento de copia completada.");
-
-            // Refrescar el usuario para asegurar que la lista de copias esté actualizada
-            s.refresh(currentUser);
+            if (removed[0] != null) {
+                statistics.record(removed[0].getPelicula(), removed[0].getEstado(), removed[0].getSoporte(), currentUser, -1);
+                audit.record(deletedFully[0] ? AuditAction.ELIMINAR : AuditAction.MODIFICAR, "Copia", copia.getId(),
+                        deletedFully[0] ? describe(removed[0], user) : "Cantidad decrementada a " + removed[0].getCantidad());
+            }
             return currentUser;
         } catch (Exception e) {
             logger.severe("Error al eliminar/decrementar copia con ID " + copia.getId() + ": " + e.getMessage());
@@ -70,32 +133,52 @@ public class CopiaService {
      */
     public User createNewCopia(Copia newCopia, User actualUser) {
         logger.info("Intentando crear nueva copia para la película " + newCopia.getPelicula().getTitulo() + " y el usuario " + actualUser.getEmail());
-        try(Session s = DataProvider.getSessionFactory().openSession()) {
-            s.beginTransaction();
-            User user = s.find(User.class, actualUser.getId());
-
-            // Buscar si ya existe una copia con los mismos atributos
-            Optional<Copia> existingCopia = user.getCopias().stream()
-                    .filter(c -> c.getPelicula().getId().equals(newCopia.getPelicula().getId())
-                            && c.getEstado().equals(newCopia.getEstado())
-                            && c.getSoporte().equals(newCopia.getSoporte()))
-                    .findFirst();
-
-            if (existingCopia.isPresent()) {
-                // Si existe, sumar la cantidad
-                Copia copia = existingCopia.get();
-                copia.setCantidad(copia.getCantidad() + newCopia.getCantidad());
-                s.merge(copia);
-                logger.info("Copia existente encontrada. Cantidad actualizada a " + copia.getCantidad());
-            } else {
-                // Si no existe, añadir la nueva copia
-                user.addCopia(newCopia);
-                s.merge(user);
-                logger.info("Nueva copia creada y añadida al usuario " + user.getEmail() + ". ID de copia: " + newCopia.getId());
-            }
+        try {
+            Copia[] affected = new Copia[1];
+            boolean[] created = new boolean[1];
+            User updatedUser = transactions.execute(s -> {
+                User user = s.find(User.class, actualUser.getId());
 
-            s.getTransaction().commit();
-            return s.find(User.class, user.getId()); // Devuelve el usuario actualizado desde la DB
+                // Buscar si ya existe una copia con los mismos atributos
+                Optional<Copia> existingCopia = user.getCopias().stream()
+                        .filter(c -> c.getPelicula().getId().equals(newCopia.getPelicula().getId())
+                                && c.getEstado() == newCopia.getEstado()
+                                && c.getSoporte() == newCopia.getSoporte())
+                        .findFirst();
+
+                if (existingCopia.isPresent()) {
+                    // Si existe, sumar la cantidad
+                    Copia copia = existingCopia.get();
+                    copia.setCantidad(copia.getCantidad() + newCopia.getCantidad());
+                    affected[0] = copia;
+                    created[0] = false;
+                    logger.info("Copia existente encontrada. Cantidad actualizada a " + copia.getCantidad());
+                } else {
+                    // Si no existe, añadir la nueva copia. Se persiste una instancia nueva para que
+                    // un reintento de la transacción no reutilice un ID asignado en el intento fallido.
+                    Copia copia = new Copia();
+                    copia.setPelicula(newCopia.getPelicula());
+                    copia.setEstado(newCopia.getEstado());
+                    copia.setSoporte(newCopia.getSoporte());
+                    copia.setCantidad(newCopia.getCantidad());
+                    user.addCopia(copia);
+                    s.persist(copia);
+                    affected[0] = copia;
+                    created[0] = true;
+                    logger.info("Nueva copia creada y añadida al usuario " + user.getEmail() + ". ID de copia: " + copia.getId());
+                }
+
+                touchUser(s, user.getId());
+                s.flush();
+                s.refresh(user); // Devuelve el usuario actualizado desde la DB
+                fetchPeliculas(user.getCopias());
+                return user;
+            });
+            resolvePeliculas(updatedUser.getCopias());
+            statistics.record(newCopia.getPelicula(), newCopia.getEstado(), newCopia.getSoporte(), updatedUser, newCopia.getCantidad());
+            audit.record(created[0] ? AuditAction.CREAR : AuditAction.MODIFICAR, "Copia", affected[0].getId(),
+                    created[0] ? describe(affected[0], actualUser) : "Cantidad incrementada a " + affected[0].getCantidad());
+            return updatedUser;
         } catch (Exception e) {
             logger.severe("Error al crear nueva copia para el usuario " + actualUser.getEmail() + ": " + e.getMessage());
             throw e;
@@ -104,22 +187,340 @@ public class CopiaService {
 
     /**
      * Actualiza los datos de una copia existente en la base de datos.
+     * Solo se escriben los campos editables de la copia con una sentencia UPDATE directa, sin cargar
+     * antes la copia ni volver a cargar después el usuario con todas sus copias: la copia del usuario
+     * recibido se actualiza en memoria. El estado anterior, necesario para las estadísticas, se lee con
+     * una consulta de proyección.
      *
      * @param copia La copia con los datos actualizados.
      * @param actualUser El usuario propietario de la copia.
      * @return El objeto User actualizado después de la operación.
+     * @throws IllegalStateException Si la copia ya no existe o no pertenece al usuario.
      */
     public User updateCopia(Copia copia, User actualUser) {
         logger.info("Intentando actualizar copia con ID " + copia.getId() + " para el usuario " + actualUser.getEmail());
-        try (Session s = DataProvider.getSessionFactory().openSession()) {
-            s.beginTransaction();
-            s.merge(copia); // Actualiza la copia
-            s.getTransaction().commit();
+        try {
+            Copia previous = transactions.execute(s -> {
+                Object[] row = s.createNamedQuery("Copia.findState", Object[].class)
+                        .setParameter("id", copia.getId())
+                        .setParameter("userId", actualUser.getId())
+                        .uniqueResult();
+                int updated = s.createNamedMutationQuery("Copia.updateState")
+                        .setParameter("pelicula", copia.getPelicula())
+                        .setParameter("estado", copia.getEstado())
+                        .setParameter("soporte", copia.getSoporte())
+                        .setParameter("cantidad", copia.getCantidad())
+                        .setParameter("id", copia.getId())
+                        .setParameter("userId", actualUser.getId())
+                        .executeUpdate();
+                if (row == null || updated == 0) {
+                    throw new IllegalStateException("La copia con ID " + copia.getId() + " ya no existe.");
+                }
+                touchUser(s, actualUser.getId());
+                // Estado anterior de la copia, para ajustar las estadísticas
+                Copia state = new Copia();
+                state.setPelicula(peliculaRef((Integer) row[0], copia.getPelicula()));
+                state.setEstado((EstadoCopia) row[1]);
+                state.setSoporte((SoporteCopia) row[2]);
+                state.setCantidad((Integer) row[3]);
+                return state;
+            });
+            applyToUser(copia, actualUser);
             logger.info("Copia con ID " + copia.getId() + " actualizada correctamente.");
-            return s.find(User.class, actualUser.getId()); // Devuelve el usuario actualizado
+            statistics.record(previous.getPelicula(), previous.getEstado(), previous.getSoporte(), actualUser, -previous.getCantidad());
+            statistics.record(copia.getPelicula(), copia.getEstado(), copia.getSoporte(), actualUser, copia.getCantidad());
+            audit.record(AuditAction.MODIFICAR, "Copia", copia.getId(), describe(copia, actualUser));
+            return actualUser;
         } catch (Exception e) {
             logger.severe("Error al actualizar copia con ID " + copia.getId() + ": " + e.getMessage());
             throw e;
         }
     }
+
+    /**
+     * Aplica variaciones de cantidad a varias copias de un usuario en una sola transacción, con una
+     * sentencia UPDATE relativa por copia ({@code cantidad = cantidad + delta}), de forma que no se pisan
+     * cambios concurrentes. Las copias que quedan sin unidades se eliminan, como en
+     * {@link #deleteCopiaFromUser}. Lo usa {@link CopiaWriteBehind} para escribir de una vez los cambios
+     * acumulados; si alguna copia ya no existe se revierte todo el lote.
+     * @param user El usuario propietario de las copias.
+     * @param deltas Las variaciones, una por copia; cada copia debe tener su ID.
+     * @return Los IDs de las copias eliminadas por quedarse sin unidades.
+     * @throws IllegalStateException Si alguna copia ya no existe o no pertenece al usuario.
+     */
+    public Set<Integer> applyCantidadDeltas(User user, List<CantidadDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return Set.of();
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (CantidadDelta delta : deltas) {
+            ids.add(delta.copia().getId());
+        }
+        Set<Integer> removed = transactions.execute(s -> {
+            for (CantidadDelta delta : deltas) {
+                int updated = s.createNamedMutationQuery("Copia.addCantidad")
+                        .setParameter("delta", delta.delta())
+                        .setParameter("id", delta.copia().getId())
+                        .setParameter("userId", user.getId())
+                        .executeUpdate();
+                if (updated == 0) {
+                    throw new IllegalStateException("La copia con ID " + delta.copia().getId() + " ya no existe.");
+                }
+            }
+            Set<Integer> empty = new HashSet<>(s.createNamedQuery("Copia.findEmptyIds", Integer.class)
+                    .setParameterList("ids", ids)
+                    .list());
+            if (!empty.isEmpty()) {
+                ChangeTracking.recordDeletes(s, "Copia", empty);
+                s.createNamedMutationQuery("Copia.deleteByIds")
+                        .setParameterList("ids", empty)
+                        .executeUpdate();
+            }
+            touchUser(s, user.getId());
+            return empty;
+        });
+        if (!removed.isEmpty()) {
+            EntityCounters counters = EntityCounters.of(transactions.getSessionFactory());
+            counters.adjust(Copia.class, -removed.size());
+            counters.invalidateUser(user.getId());
+        }
+        for (CantidadDelta delta : deltas) {
+            statistics.record(delta.copia().getPelicula(), delta.copia().getEstado(), delta.copia().getSoporte(),
+                    user, delta.delta());
+            Integer id = delta.copia().getId();
+            audit.record(removed.contains(id) ? AuditAction.ELIMINAR : AuditAction.MODIFICAR, "Copia", id,
+                    "Cantidad " + (delta.delta() > 0 ? "+" : "") + delta.delta());
+        }
+        logger.info("Cantidades de " + deltas.size() + " copias del usuario " + user.getEmail()
+                + " actualizadas en lote; " + removed.size() + " eliminadas.");
+        return removed;
+    }
+
+    /**
+     * Añade varias copias en una sola transacción, con la misma regla que {@link #createNewCopia}:
+     * si el usuario ya tiene una copia de la película con el mismo estado y soporte, se suma la cantidad.
+     * Las copias existentes se buscan con una única consulta de proyección, sin cargar usuarios ni
+     * películas, y las copias repetidas dentro del propio lote se agrupan antes de escribir.
+     * Cada copia solo necesita el ID de su película y de su usuario.
+     * @param copias Las copias a añadir.
+     * @return El número de copias nuevas creadas (el resto incrementan una copia existente).
+     */
+    public int addCopias(List<Copia> copias) {
+        if (copias.isEmpty()) {
+            return 0;
+        }
+        // Agrupa el lote por clave de copia, sumando cantidades
+        Map<CopiaKey, Integer> cantidades = new LinkedHashMap<>();
+        for (Copia copia : copias) {
+            cantidades.merge(CopiaKey.of(copia), copia.getCantidad(), Integer::sum);
+        }
+        Set<Integer> userIds = new HashSet<>();
+        Set<Integer> peliculaIds = new HashSet<>();
+        for (CopiaKey key : cantidades.keySet()) {
+            userIds.add(key.userId());
+            peliculaIds.add(key.peliculaId());
+        }
+
+        List<Integer> createdIds = new ArrayList<>();
+        List<Integer> incrementedIds = new ArrayList<>();
+        int created = transactions.execute(s -> {
+            createdIds.clear();
+            incrementedIds.clear();
+            Map<CopiaKey, Integer> existing = new HashMap<>();
+            for (Object[] row : s.createQuery("select c.id, c.user.id, c.pelicula.id, c.estado, c.soporte from Copia c "
+                            + "where c.user.id in :userIds and c.pelicula.id in :peliculaIds", Object[].class)
+                    .setParameterList("userIds", userIds)
+                    .setParameterList("peliculaIds", peliculaIds)
+                    .list()) {
+                existing.put(new CopiaKey((Integer) row[1], (Integer) row[2], (EstadoCopia) row[3], (SoporteCopia) row[4]), (Integer) row[0]);
+            }
+
+            int nuevas = 0;
+            int pending = 0;
+            for (Map.Entry<CopiaKey, Integer> entry : cantidades.entrySet()) {
+                CopiaKey key = entry.getKey();
+                Integer existingId = existing.get(key);
+                if (existingId != null) {
+                    s.createMutationQuery("update Copia c set c.cantidad = c.cantidad + :cantidad, c.updatedAt = local datetime where c.id = :id")
+                            .setParameter("cantidad", entry.getValue())
+                            .setParameter("id", existingId)
+                            .executeUpdate();
+                    incrementedIds.add(existingId);
+                } else {
+                    Copia copia = new Copia();
+                    copia.setUser(s.getReference(User.class, key.userId()));
+                    copia.setPelicula(s.getReference(Pelicula.class, key.peliculaId()));
+                    copia.setEstado(key.estado());
+                    copia.setSoporte(key.soporte());
+                    copia.setCantidad(entry.getValue());
+                    s.persist(copia);
+                    createdIds.add(copia.getId());
+                    nuevas++;
+                }
+                if (++pending % UnitOfWork.FLUSH_INTERVAL == 0) {
+                    s.flush();
+                    s.clear();
+                }
+            }
+            s.createMutationQuery("update User u set u.updatedAt = local datetime where u.id in :ids")
+                    .setParameterList("ids", userIds)
+                    .executeUpdate();
+            return nuevas;
+        });
+        for (Copia copia : copias) {
+            statistics.record(copia, copia.getCantidad());
+        }
+        createdIds.forEach(id -> audit.record(AuditAction.CREAR, "Copia", id, "Alta en lote"));
+        incrementedIds.forEach(id -> audit.record(AuditAction.MODIFICAR, "Copia", id, "Cantidad incrementada en lote"));
+        logger.info(copias.size() + " copias añadidas en lote: " + created + " nuevas, "
+                + (cantidades.size() - created) + " existentes incrementadas.");
+        return created;
+    }
+
+    /**
+     * Recupera una página de las copias de un usuario, con su película, ordenadas por ID.
+     * @param userId El ID del usuario.
+     * @param page El número de página, empezando en 0.
+     * @param size El número de copias por página.
+     * @return Las copias de la página.
+     */
+    public List<Copia> findPageByUser(Integer userId, int page, int size) {
+        List<Copia> copias = transactions.readOnly(s -> s.createQuery(
+                        "from Copia c join fetch c.pelicula where c.user.id = :userId order by c.id", Copia.class)
+                .setParameter("userId", userId)
+                .setFirstResult(page * size)
+                .setMaxResults(size)
+                .list());
+        resolvePeliculas(copias);
+        return copias;
+    }
+
+    /**
+     * Inicializa las películas de unas copias, que son referencias perezosas. Gracias a
+     * {@link org.hibernate.annotations.BatchSize} en {@link Pelicula}, la primera inicialización carga
+     * de una vez las películas pendientes de hasta 100 copias, en lugar de una consulta por copia.
+     * Debe llamarse con la sesión en la que se cargaron las copias aún abierta.
+     * @param copias Las copias cuyas películas se inicializan, o null.
+     */
+    public static void fetchPeliculas(Collection<Copia> copias) {
+        if (copias == null) {
+            return;
+        }
+        for (Copia copia : copias) {
+            Hibernate.initialize(copia.getPelicula());
+        }
+    }
+
+    /**
+     * Sustituye la película de cada copia por su instancia canónica de {@link PeliculaIdentityMap}.
+     * Debe llamarse con las copias ya fuera de la sesión en la que se cargaron.
+     * @param copias Las copias a resolver, o null.
+     */
+    public static void resolvePeliculas(Collection<Copia> copias) {
+        PeliculaIdentityMap.getInstance().canonicalizeEach(copias, Copia::getPelicula, Copia::setPelicula);
+    }
+
+    /**
+     * Cuenta las copias de un usuario, con el contador en memoria de {@link EntityCounters}.
+     * @param userId El ID del usuario.
+     * @return El número de copias.
+     */
+    public long countByUser(Integer userId) {
+        return EntityCounters.of(transactions.getSessionFactory()).countCopias(userId);
+    }
+
+    /**
+     * Obtiene las copias de un usuario creadas, modificadas o eliminadas desde un watermark.
+     * Las lápidas de copias no guardan el usuario, por lo que los identificadores eliminados
+     * pueden incluir copias de otros usuarios; retirarlos de la lista no tiene efecto.
+     * @param user El usuario propietario de las copias.
+     * @param watermark El watermark de la última sincronización, o {@link ChangeTracking#NONE}.
+     * @return Los cambios y el nuevo watermark.
+     */
+    public ChangeSet<Copia, Integer> findChangedSince(User user, long watermark) {
+        try {
+            ChangeSet<Copia, Integer> changes = transactions.readOnly(s -> {
+                ChangeSet<Copia, Integer> changed = ChangeTracking.findChangedSince(s, Copia.class,
+                        "e.user.id = :userId", Map.of("userId", user.getId()), watermark, Long::intValue);
+                fetchPeliculas(changed.changed());
+                return changed;
+            });
+            resolvePeliculas(changes.changed());
+            return changes;
+        } catch (Exception e) {
+            logger.severe("Error al consultar los cambios de las copias del usuario " + user.getEmail() + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Variación de cantidad pendiente de aplicar a una copia.
+     * @param copia La copia afectada.
+     * @param delta La variación de unidades (positiva o negativa).
+     */
+    public record CantidadDelta(Copia copia, int delta) {
+    }
+
+    /**
+     * Clave que identifica una copia a efectos de agrupar cantidades.
+     */
+    private record CopiaKey(Integer userId, Integer peliculaId, EstadoCopia estado, SoporteCopia soporte) {
+        static CopiaKey of(Copia copia) {
+            return new CopiaKey(copia.getUser().getId(), copia.getPelicula().getId(), copia.getEstado(), copia.getSoporte());
+        }
+    }
+
+    /**
+     * Copia los datos editables de una copia actualizada sobre la copia con el mismo ID del usuario,
+     * si es una instancia distinta.
+     */
+    private static void applyToUser(Copia copia, User user) {
+        if (user.getCopias() == null) {
+            return;
+        }
+        for (Copia own : user.getCopias()) {
+            if (own != copia && copia.getId().equals(own.getId())) {
+                own.setPelicula(copia.getPelicula());
+                own.setEstado(copia.getEstado());
+                own.setSoporte(copia.getSoporte());
+                own.setCantidad(copia.getCantidad());
+            }
+        }
+    }
+
+    /**
+     * Describe una copia para la auditoría. El título solo se incluye si la película ya está cargada.
+     */
+    private static String describe(Copia copia, User user) {
+        Pelicula pelicula = copia.getPelicula();
+        String titulo = pelicula != null && Hibernate.isInitialized(pelicula) ? "'" + pelicula.getTitulo() + "'"
+                : "película con ID " + (pelicula != null ? pelicula.getId() : null);
+        return "Copia de " + titulo + " (" + copia.getEstado() + ", " + copia.getSoporte() + ") x"
+                + copia.getCantidad() + " del usuario " + user.getEmail();
+    }
+
+    /**
+     * Obtiene la película con la que registrar en las estadísticas el estado anterior de una copia:
+     * la propia película de la copia si no ha cambiado, o una referencia con solo el ID.
+     */
+    private static Pelicula peliculaRef(Integer peliculaId, Pelicula current) {
+        if (current != null && peliculaId.equals(current.getId())) {
+            return current;
+        }
+        Pelicula ref = new Pelicula();
+        ref.setId(peliculaId);
+        return ref;
+    }
+
+    /**
+     * Marca al usuario como modificado, ya que sus copias forman parte de lo que muestran
+     * las pantallas de usuarios (ej. el número de copias).
+     * @param s La sesión de la transacción en curso.
+     * @param userId El ID del usuario.
+     */
+    private void touchUser(Session s, Integer userId) {
+        s.createMutationQuery("update User u set u.updatedAt = local datetime where u.id = :id")
+                .setParameter("id", userId)
+                .executeUpdate();
+    }
 }
@@ -0,0 +1,439 @@
+package org.example.reto2.copia;
+
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.user.User;
+import org.example.reto2.utils.DataProvider;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Estadísticas de la colección de copias mantenidas en memoria.
+ * {@link CopiaService} actualiza los contadores de forma incremental en cada alta, baja o modificación,
+ * de modo que las lecturas del panel de estadísticas no consultan la base de datos. Periódicamente
+ * se recalculan todos los contadores con una agregación completa sobre la tabla {@code copia}
+ * para corregir cualquier desviación (cambios hechos por otros clientes, operaciones masivas, etc.).
+ * Los contadores suman la cantidad de unidades de cada copia.
+ * <p>
+ * Si llega alguna variación mientras dura la consulta de una reconciliación, el resultado se descarta y
+ * se vuelve a consultar: la variación puede estar ya incluida en la agregación o no, y sumarla o perderla
+ * a ciegas dejaría los totales mal hasta la siguiente reconciliación. Las películas y los
+ * usuarios con más unidades se mantienen en un ranking acotado ({@link TopN}) que se actualiza en cada
+ * variación, de modo que el panel no recorre todos los contadores en cada lectura.
+ * Sigue el patrón Singleton.
+ */
+public class CopiaStatistics {
+
+    private static final Logger logger = Logger.getLogger(CopiaStatistics.class.getName());
+    private static final long RECONCILE_PERIOD_MINUTES = 10;
+    /** Consultas que se intentan antes de dejar la corrección para la siguiente reconciliación. */
+    private static final int RECONCILE_ATTEMPTS = 3;
+    /** Tamaño de los rankings mantenidos; las lecturas con un límite mayor recorren todos los contadores. */
+    private static final int TOP_CAPACITY = 50;
+    private static CopiaStatistics instance;
+
+    private volatile Counters counters = new Counters();
+    /** Número de variaciones registradas, para saber si alguna llegó durante la consulta de una reconciliación. */
+    private final AtomicLong changes = new AtomicLong();
+    /**
+     * Las variaciones se registran con el bloqueo de lectura (pueden ir en paralelo); la reconciliación
+     * toma el de escritura solo para comprobar que no ha llegado ninguna y publicar los nuevos contadores.
+     */
+    private final ReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor privado para implementar el patrón Singleton.
+     */
+    private CopiaStatistics() {
+        logger.info("CopiaStatistics inicializado.");
+    }
+
+    /**
+     * Obtiene la única instancia de CopiaStatistics.
+     * La primera vez que se obtiene con una base de datos disponible, programa la reconciliación
+     * periódica (la primera se ejecuta de inmediato para cargar los contadores).
+     * @return La instancia de CopiaStatistics.
+     */
+    public static synchronized CopiaStatistics getInstance() {
+        if (instance == null) {
+            instance = new CopiaStatistics();
+            SessionFactory sessionFactory = DataProvider.getSessionFactory();
+            if (sessionFactory != null) {
+                instance.startReconciliation(sessionFactory);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Crea una instancia independiente del Singleton y sin reconciliación periódica, para procesos
+     * que no muestran el panel de estadísticas (ej. el modo sin interfaz gráfica). Sus contadores
+     * solo se cargan al llamar a {@link #reconcile(SessionFactory)}.
+     * @return Una nueva instancia de CopiaStatistics.
+     */
+    public static CopiaStatistics standalone() {
+        return new CopiaStatistics();
+    }
+
+    /**
+     * Aplica una variación de unidades a todos los contadores afectados por una copia.
+     * @param pelicula La película de la copia.
+     * @param estado El estado de la copia.
+     * @param soporte El soporte de la copia.
+     * @param user El usuario propietario de la copia.
+     * @param delta La variación de unidades (positiva o negativa).
+     */
+    public void record(Pelicula pelicula, EstadoCopia estado, SoporteCopia soporte, User user, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        reconcileLock.readLock().lock();
+        try {
+            add(counters, pelicula, estado, soporte, user, delta);
+            changes.incrementAndGet();
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    private static void add(Counters c, Pelicula pelicula, EstadoCopia estado, SoporteCopia soporte, User user, long delta) {
+        c.total.add(delta);
+        if (pelicula != null) {
+            LongAdder adder = c.porPelicula.computeIfAbsent(pelicula.getId(), k -> new LongAdder());
+            adder.add(delta);
+            c.topPeliculas.update(pelicula.getId(), adder, delta < 0);
+            if (pelicula.getTitulo() != null) {
+                c.titulos.put(pelicula.getId(), pelicula.getTitulo());
+            }
+        }
+        if (estado != null) {
+            c.porEstado.get(estado).add(delta);
+        }
+        if (soporte != null) {
+            c.porSoporte.get(soporte).add(delta);
+        }
+        if (user != null) {
+            LongAdder adder = c.porUsuario.computeIfAbsent(user.getId(), k -> new LongAdder());
+            adder.add(delta);
+            c.topUsuarios.update(user.getId(), adder, delta < 0);
+            if (user.getEmail() != null) {
+                c.emails.put(user.getId(), user.getEmail());
+            }
+        }
+    }
+
+    /**
+     * Aplica una variación de unidades a partir de una copia.
+     * @param copia La copia afectada.
+     * @param delta La variación de unidades (positiva o negativa).
+     */
+    public void record(Copia copia, long delta) {
+        record(copia.getPelicula(), copia.getEstado(), copia.getSoporte(), copia.getUser(), delta);
+    }
+
+    /**
+     * Obtiene el número total de unidades de todas las copias.
+     * @return El total de unidades.
+     */
+    public long getTotal() {
+        return counters.total.sum();
+    }
+
+    /**
+     * Obtiene las unidades agrupadas por estado.
+     * @return Un mapa estado → unidades, ordenado de mayor a menor.
+     */
+    public Map<String, Long> getPorEstado() {
+        return sorted(counters.porEstado, Integer.MAX_VALUE, EstadoCopia::getDisplayName);
+    }
+
+    /**
+     * Obtiene las unidades agrupadas por soporte.
+     * @return Un mapa soporte → unidades, ordenado de mayor a menor.
+     */
+    public Map<String, Long> getPorSoporte() {
+        return sorted(counters.porSoporte, Integer.MAX_VALUE, SoporteCopia::getDisplayName);
+    }
+
+    /**
+     * Obtiene las películas con más unidades, a partir del ranking mantenido si el límite no lo supera.
+     * @param limit El número máximo de películas a devolver.
+     * @return Un mapa título → unidades, ordenado de mayor a menor.
+     */
+    public Map<String, Long> getTopPeliculas(int limit) {
+        Counters c = counters;
+        Function<Integer, String> label = id -> c.titulos.getOrDefault(id, "Película " + id);
+        return limit <= TOP_CAPACITY ? labelled(c.topPeliculas.top(c.porPelicula, limit), label) : sorted(c.porPelicula, limit, label);
+    }
+
+    /**
+     * Obtiene los usuarios con más unidades, a partir del ranking mantenido si el límite no lo supera.
+     * @param limit El número máximo de usuarios a devolver.
+     * @return Un mapa email → unidades, ordenado de mayor a menor.
+     */
+    public Map<String, Long> getTopUsuarios(int limit) {
+        Counters c = counters;
+        Function<Integer, String> label = id -> c.emails.getOrDefault(id, "Usuario " + id);
+        return limit <= TOP_CAPACITY ? labelled(c.topUsuarios.top(c.porUsuario, limit), label) : sorted(c.porUsuario, limit, label);
+    }
+
+    /**
+     * Obtiene las unidades de una película concreta.
+     * @param peliculaId El ID de la película.
+     * @return Las unidades de la película, o 0 si no tiene copias.
+     */
+    public long getUnidadesPelicula(Integer peliculaId) {
+        LongAdder adder = counters.porPelicula.get(peliculaId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Obtiene las unidades de un usuario concreto.
+     * @param userId El ID del usuario.
+     * @return Las unidades del usuario, o 0 si no tiene copias.
+     */
+    public long getUnidadesUsuario(Integer userId) {
+        LongAdder adder = counters.porUsuario.get(userId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Recalcula todos los contadores con una agregación completa sobre la tabla de copias
+     * y sustituye los contadores actuales por los nuevos, siempre que no se haya registrado ninguna
+     * variación mientras se ejecutaba la consulta. Si la hay, se repite la consulta y, si sigue habiendo
+     * variaciones, se conservan los contadores actuales hasta la siguiente reconciliación.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     */
+    public void reconcile(SessionFactory sessionFactory) {
+        logger.info("Reconciliando estadísticas de copias con la base de datos.");
+        long start = System.nanoTime();
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            long before = changes.get();
+            Counters fresh = aggregate(sessionFactory);
+            long drift;
+            reconcileLock.writeLock().lock();
+            try {
+                if (changes.get() != before) {
+                    logger.fine("Las copias cambiaron durante la reconciliación (intento " + attempt + "); se descarta el resultado.");
+                    continue;
+                }
+                drift = fresh.total.sum() - counters.total.sum();
+                counters = fresh;
+            } finally {
+                reconcileLock.writeLock().unlock();
+            }
+            logger.info("Estadísticas reconciliadas en " + (System.nanoTime() - start) / 1_000_000 + " ms. Desviación del total: " + drift);
+            return;
+        }
+        logger.warning("Las copias cambiaron en cada intento de reconciliación; se corregirán en la siguiente.");
+    }
+
+    /**
+     * Calcula unos contadores nuevos con una agregación completa sobre la tabla de copias.
+     */
+    private static Counters aggregate(SessionFactory sessionFactory) {
+        Counters fresh = new Counters();
+        try (Session session = DataProvider.openReadOnlySession(sessionFactory)) {
+            List<Object[]> rows = session.createQuery(
+                    "select c.pelicula.id, c.pelicula.titulo, c.estado, c.soporte, c.user.id, c.user.email, sum(c.cantidad) "
+                            + "from Copia c group by c.pelicula.id, c.pelicula.titulo, c.estado, c.soporte, c.user.id, c.user.email",
+                    Object[].class).list();
+            for (Object[] row : rows) {
+                long unidades = ((Number) row[6]).longValue();
+                Integer peliculaId = (Integer) row[0];
+                Integer userId = (Integer) row[4];
+                fresh.total.add(unidades);
+                fresh.porPelicula.computeIfAbsent(peliculaId, k -> new LongAdder()).add(unidades);
+                fresh.titulos.put(peliculaId, (String) row[1]);
+                if (row[2] != null) {
+                    fresh.porEstado.get((EstadoCopia) row[2]).add(unidades);
+                }
+                if (row[3] != null) {
+                    fresh.porSoporte.get((SoporteCopia) row[3]).add(unidades);
+                }
+                fresh.porUsuario.computeIfAbsent(userId, k -> new LongAdder()).add(unidades);
+                fresh.emails.put(userId, (String) row[5]);
+            }
+        }
+        fresh.topPeliculas.invalidate();
+        fresh.topUsuarios.invalidate();
+        return fresh;
+    }
+
+    /**
+     * Programa la reconciliación periódica en un hilo en segundo plano.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     */
+    private synchronized void startReconciliation(SessionFactory sessionFactory) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "copia-statistics");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile(sessionFactory);
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Error al reconciliar las estadísticas de copias: " + e.getMessage(), e);
+            }
+        }, 0, RECONCILE_PERIOD_MINUTES, TimeUnit.MINUTES);
+        logger.info("Reconciliación de estadísticas programada cada " + RECONCILE_PERIOD_MINUTES + " minutos.");
+    }
+
+    /**
+     * Selecciona las claves con más unidades usando un montículo acotado al límite,
+     * sin ordenar el mapa completo.
+     */
+    private static <K> Map<String, Long> sorted(Map<K, LongAdder> source, int limit, Function<K, String> label) {
+        return labelled(largest(source, limit), label);
+    }
+
+    /**
+     * Obtiene, de mayor a menor, como mucho {@code limit} claves con unidades positivas.
+     */
+    private static <K> List<Map.Entry<K, Long>> largest(Map<K, LongAdder> source, int limit) {
+        PriorityQueue<Map.Entry<K, Long>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<K, LongAdder> e : source.entrySet()) {
+            long value = e.getValue().sum();
+            if (value <= 0) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(Map.entry(e.getKey(), value));
+            } else if (value > heap.peek().getValue()) {
+                heap.poll();
+                heap.add(Map.entry(e.getKey(), value));
+            }
+        }
+        List<Map.Entry<K, Long>> entries = new ArrayList<>(heap);
+        entries.sort(Map.Entry.<K, Long>comparingByValue(Comparator.reverseOrder()));
+        return entries;
+    }
+
+    private static <K> Map<String, Long> labelled(List<Map.Entry<K, Long>> entries, Function<K, String> label) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<K, Long> e : entries) {
+            result.merge(label.apply(e.getKey()), e.getValue(), Long::sum);
+        }
+        return result;
+    }
+
+    /**
+     * Ranking acotado a {@link #TOP_CAPACITY} claves con más unidades, actualizado en cada variación.
+     * Mientras solo hay aumentos el ranking es exacto: una clave entra si supera a la menor del ranking.
+     * Si una clave del ranking baja y hay claves fuera de él, alguna podría superarla; entonces el ranking
+     * se marca como no exacto y la siguiente lectura lo reconstruye recorriendo los contadores, una sola vez.
+     * Los valores se leen de los contadores dentro del bloqueo, de modo que la última actualización de una
+     * clave deja siempre su valor más reciente.
+     */
+    private static final class TopN<K> {
+        private final Map<K, Long> members = new HashMap<>();
+        /** Si todas las claves con unidades están en el ranking (ninguna se ha quedado fuera). */
+        private boolean complete = true;
+        private boolean exact = true;
+
+        synchronized void update(K key, LongAdder adder, boolean decreased) {
+            long value = adder.sum();
+            boolean member = members.containsKey(key);
+            if (member) {
+                if (decreased && !complete) {
+                    exact = false;
+                }
+                if (value > 0) {
+                    members.put(key, value);
+                } else {
+                    members.remove(key);
+                }
+                return;
+            }
+            if (value <= 0) {
+                return;
+            }
+            if (members.size() < TOP_CAPACITY) {
+                members.put(key, value);
+                return;
+            }
+            complete = false;
+            Map.Entry<K, Long> min = null;
+            for (Map.Entry<K, Long> e : members.entrySet()) {
+                if (min == null || e.getValue() < min.getValue()) {
+                    min = e;
+                }
+            }
+            if (value > min.getValue()) {
+                members.remove(min.getKey());
+                members.put(key, value);
+            }
+        }
+
+        synchronized void invalidate() {
+            exact = false;
+        }
+
+        synchronized List<Map.Entry<K, Long>> top(Map<K, LongAdder> source, int limit) {
+            if (!exact) {
+                rebuild(source);
+            }
+            List<Map.Entry<K, Long>> entries = new ArrayList<>(members.entrySet());
+            entries.sort(Map.Entry.<K, Long>comparingByValue(Comparator.reverseOrder()));
+            return entries.size() > limit ? entries.subList(0, limit) : entries;
+        }
+
+        private void rebuild(Map<K, LongAdder> source) {
+            members.clear();
+            List<Map.Entry<K, Long>> entries = largest(source, TOP_CAPACITY);
+            entries.forEach(e -> members.put(e.getKey(), e.getValue()));
+            complete = entries.size() < TOP_CAPACITY;
+            exact = true;
+            logger.fine("Ranking de estadísticas reconstruido con " + members.size() + " claves.");
+        }
+    }
+
+    /**
+     * Conjunto de contadores que se sustituye de forma atómica en cada reconciliación.
+     * Los contadores por estado y soporte se crean de antemano para todos los valores, por lo que
+     * sus mapas no cambian después de construirse y pueden leerse y actualizarse sin sincronización.
+     */
+    private static class Counters {
+        private final LongAdder total = new LongAdder();
+        private final Map<Integer, LongAdder> porPelicula = new ConcurrentHashMap<>();
+        private final Map<EstadoCopia, LongAdder> porEstado = adders(EstadoCopia.class);
+        private final Map<SoporteCopia, LongAdder> porSoporte = adders(SoporteCopia.class);
+        private final Map<Integer, LongAdder> porUsuario = new ConcurrentHashMap<>();
+        private final Map<Integer, String> titulos = new ConcurrentHashMap<>();
+        private final Map<Integer, String> emails = new ConcurrentHashMap<>();
+        private final TopN<Integer> topPeliculas = new TopN<>();
+        private final TopN<Integer> topUsuarios = new TopN<>();
+
+        private static <E extends Enum<E>> Map<E, LongAdder> adders(Class<E> type) {
+            Map<E, LongAdder> adders = new EnumMap<>(type);
+            for (E value : type.getEnumConstants()) {
+                adders.put(value, new LongAdder());
+            }
+            return adders;
+        }
+    }
+}
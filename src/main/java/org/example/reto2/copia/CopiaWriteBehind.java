@@ -0,0 +1,219 @@
+package org.example.reto2.copia;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.concurrent.Task;
+import javafx.util.Duration;
+import org.example.reto2.user.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Búfer de escritura diferida para los cambios rápidos de cantidad de las copias de un usuario.
+ * Cada cambio se aplica al momento sobre la copia en memoria (resultado optimista) y se acumula como
+ * variación pendiente por ID de copia, de modo que varias pulsaciones seguidas sobre la misma copia
+ * se escriben como una sola sentencia. Las variaciones se escriben juntas con
+ * {@link CopiaService#applyCantidadDeltas} poco después del último cambio, o al llamar a {@link #flush()}.
+ * <p>
+ * Si la escritura falla, las cantidades en memoria se revierten y se avisa con {@link #onRolledBack}
+ * para que la pantalla vuelva a mostrar el estado real. Todo el estado se maneja en el hilo de JavaFX;
+ * solo la escritura se hace en un hilo virtual, y nunca hay más de una escritura en curso.
+ */
+public class CopiaWriteBehind {
+
+    private static final Logger logger = Logger.getLogger(CopiaWriteBehind.class.getName());
+
+    /** Espera por defecto desde el último cambio hasta la escritura. */
+    public static final Duration DEFAULT_DELAY = Duration.millis(800);
+
+    private final CopiaService copiaService;
+    private final User user;
+    private final PauseTransition timer;
+    /** Variaciones pendientes por ID de copia, en orden de llegada. */
+    private final Map<Integer, Pending> pending = new LinkedHashMap<>();
+    private BiConsumer<List<Copia>, Throwable> onRolledBack = (copias, e) -> { };
+    private Consumer<Set<Integer>> onFlushed = removed -> { };
+    private Task<Set<Integer>> inFlight;
+    private boolean flushing;
+    private boolean closed;
+
+    /**
+     * Crea el búfer de escritura diferida de las copias de un usuario.
+     * @param copiaService El servicio con el que se escriben los cambios.
+     * @param user El usuario propietario de las copias.
+     * @param delay La espera desde el último cambio hasta la escritura.
+     */
+    public CopiaWriteBehind(CopiaService copiaService, User user, Duration delay) {
+        this.copiaService = copiaService;
+        this.user = user;
+        this.timer = new PauseTransition(delay);
+        this.timer.setOnFinished(e -> flush());
+    }
+
+    /**
+     * Indica qué hacer cuando una escritura falla, después de revertir las cantidades en memoria.
+     * @param onRolledBack Recibe las copias revertidas y el error.
+     * @return Este mismo búfer.
+     */
+    public CopiaWriteBehind onRolledBack(BiConsumer<List<Copia>, Throwable> onRolledBack) {
+        this.onRolledBack = onRolledBack;
+        return this;
+    }
+
+    /**
+     * Indica qué hacer cuando una escritura se confirma.
+     * @param onFlushed Recibe los IDs de las copias eliminadas por quedarse sin unidades.
+     * @return Este mismo búfer.
+     */
+    public CopiaWriteBehind onFlushed(Consumer<Set<Integer>> onFlushed) {
+        this.onFlushed = onFlushed;
+        return this;
+    }
+
+    /**
+     * Cambia la cantidad de una copia: se aplica de inmediato en memoria y se escribe más tarde.
+     * Si la cantidad llega a cero la copia se eliminará al escribir. Debe llamarse desde el hilo de JavaFX.
+     * @param copia La copia, con su ID.
+     * @param delta La variación de unidades (positiva o negativa).
+     * @return La nueva cantidad de la copia.
+     * @throws IllegalArgumentException Si la cantidad quedaría negativa.
+     * @throws IllegalStateException Si el búfer ya se ha cerrado.
+     */
+    public int adjust(Copia copia, int delta) {
+        if (closed) {
+            throw new IllegalStateException("El búfer de escritura de copias está cerrado.");
+        }
+        int cantidad = copia.getCantidad() + delta;
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad de la copia con ID " + copia.getId() + " no puede ser negativa.");
+        }
+        copia.setCantidad(cantidad);
+        pending.computeIfAbsent(copia.getId(), id -> new Pending(copia)).delta += delta;
+        timer.playFromStart();
+        return cantidad;
+    }
+
+    /**
+     * Indica si hay cambios sin escribir o una escritura en curso.
+     * @return true si quedan cambios por confirmar.
+     */
+    public boolean hasPending() {
+        return flushing || !pending.isEmpty();
+    }
+
+    /**
+     * Escribe ya los cambios pendientes. Si hay una escritura en curso, los cambios nuevos
+     * se escriben en cuanto termine. Debe llamarse desde el hilo de JavaFX.
+     */
+    public void flush() {
+        timer.stop();
+        if (flushing) {
+            return;
+        }
+        List<CopiaService.CantidadDelta> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        flushing = true;
+        Task<Set<Integer>> task = new Task<>() {
+            @Override
+            protected Set<Integer> call() {
+                return copiaService.applyCantidadDeltas(user, batch);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            flushing = false;
+            onFlushed.accept(task.getValue());
+            flushIfPending();
+        });
+        task.setOnFailed(e -> {
+            flushing = false;
+            Throwable error = task.getException();
+            logger.severe("Error al escribir " + batch.size() + " cambios de cantidad: " + error.getMessage());
+            List<Copia> reverted = new ArrayList<>(batch.size());
+            for (CopiaService.CantidadDelta change : batch) {
+                change.copia().setCantidad(change.copia().getCantidad() - change.delta());
+                reverted.add(change.copia());
+            }
+            onRolledBack.accept(reverted, error);
+            flushIfPending();
+        });
+        logger.fine("Escribiendo " + batch.size() + " cambios de cantidad del usuario " + user.getEmail());
+        inFlight = task;
+        Thread.ofVirtual().name("copia-write-behind").start(task);
+    }
+
+    /**
+     * Cierra el búfer, por ejemplo al salir de la pantalla: escribe los cambios pendientes sin
+     * esperar al temporizador y no admite cambios nuevos. El resultado de la escritura se sigue
+     * notificando, para que un fallo revierta también los datos que conserva la sesión.
+     */
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    /**
+     * Cierra el búfer y escribe los cambios pendientes en el hilo actual, esperando antes a la escritura
+     * en curso. Pensado para cuando la aplicación va a terminar y no hay tiempo para la escritura diferida.
+     * Debe llamarse desde el hilo de JavaFX.
+     */
+    public void closeAndWait() {
+        closed = true;
+        timer.stop();
+        if (inFlight != null) {
+            try {
+                inFlight.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.severe("La última escritura de cantidades falló: " + e.getCause().getMessage());
+            }
+        }
+        List<CopiaService.CantidadDelta> batch = drain();
+        if (!batch.isEmpty()) {
+            copiaService.applyCantidadDeltas(user, batch);
+        }
+    }
+
+    /**
+     * Retira las variaciones pendientes, descartando las que se han compensado hasta quedar en cero.
+     */
+    private List<CopiaService.CantidadDelta> drain() {
+        List<CopiaService.CantidadDelta> batch = new ArrayList<>(pending.size());
+        for (Pending p : pending.values()) {
+            if (p.delta != 0) {
+                batch.add(new CopiaService.CantidadDelta(p.copia, p.delta));
+            }
+        }
+        pending.clear();
+        return batch;
+    }
+
+    private void flushIfPending() {
+        if (!pending.isEmpty() && (closed || timer.getStatus() != Animation.Status.RUNNING)) {
+            flush();
+        }
+    }
+
+    /**
+     * Variación acumulada de una copia.
+     */
+    private static final class Pending {
+        private final Copia copia;
+        private int delta;
+
+        private Pending(Copia copia) {
+            this.copia = copia;
+        }
+    }
+}
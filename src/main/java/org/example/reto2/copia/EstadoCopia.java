@@ -0,0 +1,98 @@
+package org.example.reto2.copia;
+
+import java.util.EnumSet;
+
+/**
+ * Estado físico de una copia.
+ * Se guarda en la base de datos como un código entero pequeño (ver {@link EstadoCopiaConverter})
+ * en lugar de como texto, y su nombre visible es una constante compartida por todas las copias.
+ */
+public enum EstadoCopia {
+
+    BUENO(1, "bueno"),
+    GASTADO(2, "gastado"),
+    DANADO(3, "dañado");
+
+    private static final EstadoCopia[] BY_CODE = new EstadoCopia[4];
+
+    static {
+        for (EstadoCopia estado : values()) {
+            BY_CODE[estado.code] = estado;
+        }
+    }
+
+    private final byte code;
+    private final String displayName;
+
+    EstadoCopia(int code, String displayName) {
+        this.code = (byte) code;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Obtiene el código que se guarda en la base de datos.
+     * @return El código del estado.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Obtiene el nombre visible del estado.
+     * @return El nombre visible (ej. "bueno").
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Obtiene el estado correspondiente a un código de la base de datos.
+     * @param code El código.
+     * @return El estado.
+     * @throws IllegalArgumentException Si el código no corresponde a ningún estado.
+     */
+    public static EstadoCopia fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Código de estado de copia desconocido: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Obtiene el estado correspondiente a un nombre visible, sin distinguir mayúsculas ni espacios
+     * alrededor (ej. al leer ficheros de entrada).
+     * @param name El nombre visible.
+     * @return El estado.
+     * @throws IllegalArgumentException Si el nombre no corresponde a ningún estado.
+     */
+    public static EstadoCopia fromDisplayName(String name) {
+        String normalized = name.trim().toLowerCase();
+        for (EstadoCopia estado : values()) {
+            if (estado.displayName.equals(normalized)) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Estado de copia desconocido: " + name);
+    }
+
+    /**
+     * Obtiene los estados cuyo nombre visible contiene un texto. Se usa para filtrar
+     * comparando estados en lugar de cadenas en cada fila.
+     * @param lowerCaseFilter El texto a buscar, en minúsculas.
+     * @return Los estados que coinciden.
+     */
+    public static EnumSet<EstadoCopia> matching(String lowerCaseFilter) {
+        EnumSet<EstadoCopia> result = EnumSet.noneOf(EstadoCopia.class);
+        for (EstadoCopia estado : values()) {
+            if (estado.displayName.contains(lowerCaseFilter)) {
+                result.add(estado);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.reto2.copia;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Convierte {@link EstadoCopia} a su código entero pequeño para guardarlo en la base de datos.
+ */
+@Converter
+public class EstadoCopiaConverter implements AttributeConverter<EstadoCopia, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(EstadoCopia estado) {
+        return estado == null ? null : estado.getCode();
+    }
+
+    @Override
+    public EstadoCopia convertToEntityAttribute(Byte code) {
+        return code == null ? null : EstadoCopia.fromCode(code);
+    }
+}
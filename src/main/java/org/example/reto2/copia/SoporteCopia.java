@@ -0,0 +1,97 @@
+package org.example.reto2.copia;
+
+import java.util.EnumSet;
+
+/**
+ * Tipo de soporte de una copia.
+ * Se guarda en la base de datos como un código entero pequeño (ver {@link SoporteCopiaConverter})
+ * en lugar de como texto, y su nombre visible es una constante compartida por todas las copias.
+ */
+public enum SoporteCopia {
+
+    DVD(1, "dvd"),
+    BLU_RAY(2, "blue-ray");
+
+    private static final SoporteCopia[] BY_CODE = new SoporteCopia[3];
+
+    static {
+        for (SoporteCopia soporte : values()) {
+            BY_CODE[soporte.code] = soporte;
+        }
+    }
+
+    private final byte code;
+    private final String displayName;
+
+    SoporteCopia(int code, String displayName) {
+        this.code = (byte) code;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Obtiene el código que se guarda en la base de datos.
+     * @return El código del soporte.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Obtiene el nombre visible del soporte.
+     * @return El nombre visible (ej. "dvd").
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Obtiene el soporte correspondiente a un código de la base de datos.
+     * @param code El código.
+     * @return El soporte.
+     * @throws IllegalArgumentException Si el código no corresponde a ningún soporte.
+     */
+    public static SoporteCopia fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Código de soporte de copia desconocido: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Obtiene el soporte correspondiente a un nombre visible, sin distinguir mayúsculas ni espacios
+     * alrededor (ej. al leer ficheros de entrada).
+     * @param name El nombre visible.
+     * @return El soporte.
+     * @throws IllegalArgumentException Si el nombre no corresponde a ningún soporte.
+     */
+    public static SoporteCopia fromDisplayName(String name) {
+        String normalized = name.trim().toLowerCase();
+        for (SoporteCopia soporte : values()) {
+            if (soporte.displayName.equals(normalized)) {
+                return soporte;
+            }
+        }
+        throw new IllegalArgumentException("Soporte de copia desconocido: " + name);
+    }
+
+    /**
+     * Obtiene los soportes cuyo nombre visible contiene un texto. Se usa para filtrar
+     * comparando soportes en lugar de cadenas en cada fila.
+     * @param lowerCaseFilter El texto a buscar, en minúsculas.
+     * @return Los soportes que coinciden.
+     */
+    public static EnumSet<SoporteCopia> matching(String lowerCaseFilter) {
+        EnumSet<SoporteCopia> result = EnumSet.noneOf(SoporteCopia.class);
+        for (SoporteCopia soporte : values()) {
+            if (soporte.displayName.contains(lowerCaseFilter)) {
+                result.add(soporte);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.reto2.copia;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Convierte {@link SoporteCopia} a su código entero pequeño para guardarlo en la base de datos.
+ */
+@Converter
+public class SoporteCopiaConverter implements AttributeConverter<SoporteCopia, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(SoporteCopia soporte) {
+        return soporte == null ? null : soporte.getCode();
+    }
+
+    @Override
+    public SoporteCopia convertToEntityAttribute(Byte code) {
+        return code == null ? null : SoporteCopia.fromCode(code);
+    }
+}
@@ -0,0 +1,228 @@
+package org.example.reto2.pelicula;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import org.example.reto2.sync.ChangePoller;
+import org.example.reto2.sync.ChangeTracking;
+import org.example.reto2.sync.DataVersion;
+import org.example.reto2.utils.JavaFXUtil;
+import org.example.reto2.utils.SceneDataLoader;
+import org.example.reto2.utils.TableSorter;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Tabla del catálogo de películas servida desde la instantánea local ({@link CatalogueStore}) y mantenida
+ * al día con la base de datos. La usan la pantalla de administración y la consulta de solo lectura del catálogo.
+ * <p>
+ * La instantánea se abre fuera del hilo de JavaFX y se muestra a través de {@link CatalogueRows}, que solo
+ * decodifica las filas que se piden: al abrir la pantalla la tabla lee únicamente las filas visibles.
+ * Por eso la lista filtrada no se crea hasta que se escribe una búsqueda (filtrar sí necesita leer todas
+ * las filas), y ordenar por una columna reordena la propia lista ({@link TableSorter}) en lugar de mantener
+ * una copia ordenada.
+ * Si hay conexión, después se piden a la base de datos solo los cambios posteriores al watermark de la
+ * instantánea y cada cambio aplicado se guarda como una nueva instantánea en segundo plano.
+ */
+public class CatalogueBrowser {
+
+    private static final Logger logger = Logger.getLogger(CatalogueBrowser.class.getName());
+
+    /** Catálogo leído de la instantánea local. */
+    private record LocalCatalogue(CatalogueRows rows, long watermark) {
+    }
+
+    private final TableView<Pelicula> table;
+    private final Label status;
+    private final PeliculaRepository peliculaRepository;
+    private final TableSorter<Pelicula> sorter;
+    private final CatalogueStore catalogueStore = CatalogueStore.getInstance();
+    private CatalogueRows catalogueRows = new CatalogueRows();
+    private ObservableList<Pelicula> rows = FXCollections.observableList(catalogueRows);
+    private FilteredList<Pelicula> filtered;
+    private String query = "";
+    private ChangePoller<Pelicula, Integer> poller;
+    private Runnable onOffline = () -> { };
+
+    /**
+     * Prepara la tabla del catálogo. Las columnas deben estar ya configuradas.
+     * @param table La tabla de películas.
+     * @param search El campo de búsqueda por título, género o director.
+     * @param status La etiqueta donde se muestra el estado de la carga y la sincronización.
+     * @param peliculaRepository El repositorio de películas, o null si no hay conexión con la base de datos.
+     */
+    public CatalogueBrowser(TableView<Pelicula> table, TextField search, Label status, PeliculaRepository peliculaRepository) {
+        this.table = table;
+        this.status = status;
+        this.peliculaRepository = peliculaRepository;
+        table.setItems(rows);
+        sorter = TableSorter.install(table, rows);
+        search.textProperty().addListener((observable, oldValue, newValue) -> filter(newValue));
+    }
+
+    /**
+     * Indica qué hacer si la pantalla queda sin conexión con la base de datos, por ejemplo deshabilitar
+     * las acciones que modifican datos.
+     * @param onOffline La acción, que se ejecuta en el hilo de JavaFX.
+     * @return Este mismo objeto.
+     */
+    public CatalogueBrowser onOffline(Runnable onOffline) {
+        this.onOffline = onOffline;
+        return this;
+    }
+
+    /**
+     * Carga el catálogo de la instantánea local y, si hay conexión, empieza la sincronización.
+     * La instantánea se abre fuera del hilo de JavaFX y, en paralelo, se consulta la versión del catálogo
+     * en la base de datos para saber si la instantánea está al día.
+     * Debe llamarse desde el hilo de JavaFX.
+     */
+    public void load() {
+        boolean online = peliculaRepository != null;
+        status.setText("Cargando catálogo...");
+        SceneDataLoader loader = new SceneDataLoader("catálogo", SceneDataLoader.DEFAULT_TIMEOUT);
+        SceneDataLoader.Subtask<LocalCatalogue> local = loader.fork("instantánea local", this::openLocal);
+        SceneDataLoader.Subtask<DataVersion> version = online ? loader.fork("versión del catálogo", peliculaRepository::findVersion) : null;
+        loader.onLoaded(() -> {
+            LocalCatalogue catalogue = local.get();
+            show(catalogue.rows());
+            if (!online) {
+                setOffline("Sin conexión: catálogo en modo de solo lectura.");
+                return;
+            }
+            startSync(catalogue.watermark());
+            DataVersion current = version.get();
+            boolean upToDate = current.watermark() == catalogue.watermark() && current.count() == catalogue.rows().size();
+            status.setText(upToDate ? "" : "Sincronizando catálogo...");
+        }).onFailed(e -> {
+            // La instantánea no hace fallar la carga (si no se puede abrir se empieza vacía), así que el fallo
+            // viene de la versión o del plazo: se muestra lo que se haya leído y el sincronizador pide el resto
+            LocalCatalogue catalogue = local.isDone() ? local.get() : new LocalCatalogue(new CatalogueRows(), ChangeTracking.NONE);
+            show(catalogue.rows());
+            if (online) {
+                startSync(catalogue.watermark());
+            } else {
+                setOffline("Sin conexión: catálogo en modo de solo lectura.");
+            }
+        });
+        loader.start();
+        JavaFXUtil.runOnSceneExit(table, loader::cancel);
+    }
+
+    /**
+     * Obtiene las películas mostradas, sin filtrar. La lista cambia de instancia al terminar la carga.
+     * @return La lista de películas.
+     */
+    public ObservableList<Pelicula> getRows() {
+        return rows;
+    }
+
+    /**
+     * Quita de la tabla las películas con unos IDs, sin decodificar el resto de filas.
+     * @param ids Los IDs de las películas eliminadas.
+     */
+    public void removeIds(Set<Integer> ids) {
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (ids.contains(catalogueRows.idAt(i))) {
+                rows.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Pide ya los cambios de la base de datos, por ejemplo tras una modificación local.
+     */
+    public void pollNow() {
+        if (poller != null) {
+            poller.pollNow();
+        }
+    }
+
+    /**
+     * Abre la instantánea local. Si no existe o no se puede leer se empieza con un catálogo vacío, que la
+     * sincronización completa desde la base de datos.
+     */
+    private LocalCatalogue openLocal() {
+        try {
+            Optional<CatalogueSnapshot> snapshot = catalogueStore.openSnapshot();
+            return new LocalCatalogue(snapshot.map(CatalogueRows::of).orElseGet(CatalogueRows::new),
+                    snapshot.map(CatalogueSnapshot::getWatermark).orElse(ChangeTracking.NONE));
+        } catch (RuntimeException e) {
+            logger.warning("No se pudo leer la instantánea del catálogo; se empieza vacío: " + e.getMessage());
+            return new LocalCatalogue(new CatalogueRows(), ChangeTracking.NONE);
+        }
+    }
+
+    /**
+     * Muestra unas filas nuevas, conservando la búsqueda y el orden elegidos (al ordenarlas se decodifican todas).
+     */
+    private void show(CatalogueRows loaded) {
+        catalogueRows = loaded;
+        rows = FXCollections.observableList(loaded);
+        filtered = null;
+        filter(query);
+        sorter.setRows(rows);
+        logger.info("Catálogo mostrado con " + loaded.size() + " películas (" + loaded.materializedCount() + " decodificadas).");
+    }
+
+    /**
+     * Muestra solo las películas cuyo título, género o director contienen el texto buscado.
+     * Sin búsqueda la tabla muestra directamente la lista de películas, sin recorrerla.
+     */
+    private void filter(String text) {
+        query = text == null ? "" : text;
+        if (query.isEmpty()) {
+            table.setItems(rows);
+            return;
+        }
+        String lowerCaseFilter = query.toLowerCase();
+        Predicate<Pelicula> predicate = pelicula -> contains(pelicula.getTitulo(), lowerCaseFilter)
+                || contains(pelicula.getGenero(), lowerCaseFilter)
+                || contains(pelicula.getDirector(), lowerCaseFilter);
+        if (filtered == null) {
+            filtered = new FilteredList<>(rows, predicate);
+        } else {
+            filtered.setPredicate(predicate);
+        }
+        table.setItems(filtered);
+    }
+
+    private static boolean contains(String text, String lowerCaseFilter) {
+        return text != null && text.toLowerCase().contains(lowerCaseFilter);
+    }
+
+    /**
+     * Mantiene la tabla al día pidiendo a la base de datos solo los cambios posteriores al watermark de
+     * los datos mostrados. Cada vez que se aplican cambios se guarda una nueva instantánea en segundo plano.
+     * La sincronización se detiene al salir de la pantalla.
+     * @param watermark El watermark de los datos cargados desde la instantánea, o {@link ChangeTracking#NONE}.
+     */
+    private void startSync(long watermark) {
+        status.setText("Sincronizando catálogo...");
+        poller = new ChangePoller<>("catálogo", rows, Pelicula::getId, peliculaRepository::findChangedSince,
+                watermark, ChangePoller.DEFAULT_INTERVAL)
+                .idAt(catalogueRows::idAt)
+                .onApplied(changes -> {
+                    table.refresh();
+                    CatalogueRows copy = catalogueRows.copy();
+                    Thread.ofVirtual().name("catalogue-snapshot").start(() -> catalogueStore.save(copy, changes.watermark()));
+                    logger.info("Tabla de películas sincronizada. Número de películas: " + rows.size());
+                })
+                .onPolled(() -> status.setText(""))
+                .onFailed(e -> status.setText("Sin conexión: mostrando la copia local del catálogo."));
+        poller.start();
+        JavaFXUtil.runOnSceneExit(table, poller::stop);
+    }
+
+    private void setOffline(String message) {
+        logger.warning("Sin conexión con la base de datos. Catálogo en modo de solo lectura.");
+        status.setText(message);
+        onOffline.run();
+    }
+}
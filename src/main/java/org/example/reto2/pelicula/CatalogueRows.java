@@ -0,0 +1,168 @@
+package org.example.reto2.pelicula;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Lista de películas respaldada por una {@link CatalogueSnapshot} que decodifica cada fila solo cuando
+ * se pide. Al abrir una pantalla la tabla únicamente pide las filas visibles, así que el arranque no
+ * depende del tamaño del catálogo; las filas ya decodificadas se conservan para que la tabla y la
+ * selección vean siempre el mismo objeto.
+ * <p>
+ * La lista admite cambios (la sincronización sustituye, añade y elimina filas): las filas nuevas o
+ * sustituidas se guardan como objetos y el resto sigue apuntando a su posición en la instantánea.
+ * {@link #idAt(int)} obtiene el ID de una fila sin decodificarla.
+ * <p>
+ * No es segura entre hilos; para leerla fuera del hilo de JavaFX se usa una {@link #copy()}.
+ */
+public class CatalogueRows extends AbstractList<Pelicula> implements RandomAccess {
+
+    private static final int NO_SNAPSHOT_ROW = -1;
+
+    private final CatalogueSnapshot snapshot;
+    private int[] snapshotRows;
+    private Pelicula[] rows;
+    private int size;
+
+    /**
+     * Crea una lista vacía, sin instantánea.
+     */
+    public CatalogueRows() {
+        this(null, new int[0], new Pelicula[0], 0);
+    }
+
+    private CatalogueRows(CatalogueSnapshot snapshot, int[] snapshotRows, Pelicula[] rows, int size) {
+        this.snapshot = snapshot;
+        this.snapshotRows = snapshotRows;
+        this.rows = rows;
+        this.size = size;
+    }
+
+    /**
+     * Crea una lista con todas las películas de una instantánea, sin decodificar ninguna.
+     * @param snapshot La instantánea abierta.
+     * @return La lista.
+     */
+    public static CatalogueRows of(CatalogueSnapshot snapshot) {
+        int[] snapshotRows = new int[snapshot.size()];
+        for (int i = 0; i < snapshotRows.length; i++) {
+            snapshotRows[i] = i;
+        }
+        return new CatalogueRows(snapshot, snapshotRows, new Pelicula[snapshotRows.length], snapshotRows.length);
+    }
+
+    /**
+     * Obtiene la película de una posición, decodificándola de la instantánea la primera vez.
+     * @param index La posición.
+     * @return La película.
+     */
+    @Override
+    public Pelicula get(int index) {
+        checkIndex(index);
+        Pelicula pelicula = rows[index];
+        if (pelicula == null) {
+            pelicula = snapshot.get(snapshotRows[index], true);
+            rows[index] = pelicula;
+        }
+        return pelicula;
+    }
+
+    /**
+     * Obtiene el ID de la película de una posición sin decodificarla.
+     * @param index La posición.
+     * @return El ID de la película.
+     */
+    public Integer idAt(int index) {
+        checkIndex(index);
+        Pelicula pelicula = rows[index];
+        return pelicula != null ? pelicula.getId() : snapshot.id(snapshotRows[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Pelicula set(int index, Pelicula pelicula) {
+        Pelicula previous = get(index);
+        rows[index] = pelicula;
+        snapshotRows[index] = NO_SNAPSHOT_ROW;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Pelicula pelicula) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Posición " + index + " fuera de la lista de " + size + " películas.");
+        }
+        if (size == rows.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            rows = Arrays.copyOf(rows, capacity);
+            snapshotRows = Arrays.copyOf(snapshotRows, capacity);
+        }
+        System.arraycopy(rows, index, rows, index + 1, size - index);
+        System.arraycopy(snapshotRows, index, snapshotRows, index + 1, size - index);
+        rows[index] = pelicula;
+        snapshotRows[index] = NO_SNAPSHOT_ROW;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Pelicula remove(int index) {
+        Pelicula previous = get(index);
+        removeRange(index, index + 1);
+        return previous;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        int moved = size - toIndex;
+        System.arraycopy(rows, toIndex, rows, fromIndex, moved);
+        System.arraycopy(snapshotRows, toIndex, snapshotRows, fromIndex, moved);
+        int newSize = size - (toIndex - fromIndex);
+        Arrays.fill(rows, newSize, size, null);
+        size = newSize;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        rows = new Pelicula[0];
+        snapshotRows = new int[0];
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Obtiene el número de filas ya decodificadas o añadidas como objeto, para los mensajes de log.
+     * @return El número de filas en memoria.
+     */
+    public int materializedCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (rows[i] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Crea una copia independiente que comparte la instantánea y las filas ya decodificadas,
+     * pensada para recorrer la lista en otro hilo (por ejemplo, al guardar una nueva instantánea).
+     * Solo copia dos arrays; las filas pendientes se decodifican en la copia sin afectar a esta lista.
+     * @return La copia.
+     */
+    public CatalogueRows copy() {
+        return new CatalogueRows(snapshot, Arrays.copyOf(snapshotRows, size), Arrays.copyOf(rows, size), size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Posición " + index + " fuera de la lista de " + size + " películas.");
+        }
+    }
+}
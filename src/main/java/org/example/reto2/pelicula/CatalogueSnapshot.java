@@ -0,0 +1,237 @@
+package org.example.reto2.pelicula;
+
+import org.hibernate.Hibernate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Instantánea binaria y compacta del catálogo de películas, guardada en un fichero local
+ * y leída mediante {@link FileChannel#map}.
+ * <p>
+ * Formato (big-endian):
+ * <pre>
+ * cabecera:      int MAGIC, int VERSION, long watermark, int count
+ * índice:        count × (int id, int anio, int offsetTextos, int offsetDescripcion)
+ * textos:        por película: titulo, genero, director, posterPath (cada uno int longitud + UTF-8)
+ * descripciones: por película: descripcion (int longitud + UTF-8)
+ * </pre>
+ * El watermark es el de {@link org.example.reto2.sync.ChangeTracking}: a partir de él se piden
+ * solo los cambios posteriores a la instantánea.
+ * Las entradas del índice tienen tamaño fijo, por lo que cualquier película se decodifica
+ * directamente por su posición, y las descripciones (el campo más largo) solo se leen cuando se piden.
+ */
+public class CatalogueSnapshot {
+
+    private static final Logger logger = Logger.getLogger(CatalogueSnapshot.class.getName());
+
+    private static final int MAGIC = 0x52325043; // "R2PC"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    private static final int INDEX_ENTRY_SIZE = 4 * 4;
+    private static final int NULL_LENGTH = -1;
+
+    private final ByteBuffer buffer;
+    private final long watermark;
+    private final int count;
+
+    private CatalogueSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("El fichero no es una instantánea de catálogo válida.");
+        }
+        this.watermark = buffer.getLong(8);
+        this.count = buffer.getInt(16);
+        checkIndex();
+    }
+
+    /**
+     * Comprueba que el índice cabe en el fichero y que todos sus desplazamientos apuntan dentro de él,
+     * para que un fichero truncado o dañado se rechace al abrirlo y no al decodificar una fila más tarde.
+     * Solo lee enteros del índice, sin decodificar ningún texto.
+     */
+    private void checkIndex() {
+        long textosStart = HEADER_SIZE + (long) INDEX_ENTRY_SIZE * count;
+        if (count < 0 || textosStart > buffer.capacity()) {
+            throw new IllegalStateException("La instantánea de catálogo está truncada.");
+        }
+        for (int i = 0; i < count; i++) {
+            int entry = HEADER_SIZE + i * INDEX_ENTRY_SIZE;
+            int textos = buffer.getInt(entry + 8);
+            int descripcion = buffer.getInt(entry + 12);
+            if (textos < textosStart || textos >= buffer.capacity() || descripcion < textosStart || descripcion >= buffer.capacity()) {
+                throw new IllegalStateException("La instantánea de catálogo tiene un índice dañado en la posición " + i + ".");
+            }
+        }
+    }
+
+    /**
+     * Abre una instantánea existente proyectando el fichero en memoria.
+     * @param path La ruta del fichero.
+     * @return La instantánea abierta.
+     * @throws IOException Si el fichero no se puede leer.
+     */
+    public static CatalogueSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CatalogueSnapshot snapshot = new CatalogueSnapshot(mapped);
+            logger.info("Instantánea de catálogo abierta: " + snapshot.count + " películas, watermark " + snapshot.watermark + ".");
+            return snapshot;
+        }
+    }
+
+    /**
+     * Escribe una instantánea del catálogo. El fichero se escribe primero en un temporal
+     * y después se mueve al destino, para que un lector nunca vea un fichero a medias.
+     * El destino debería ser un fichero nuevo: en Windows no se puede sustituir un fichero
+     * que otra instantánea abierta tiene proyectado en memoria (ver {@link CatalogueStore}).
+     * @param path La ruta del fichero destino.
+     * @param peliculas Las películas del catálogo.
+     * @param watermark La marca de sincronización con la base de datos en el momento de la instantánea.
+     * @throws IOException Si el fichero no se puede escribir.
+     */
+    public static void write(Path path, List<Pelicula> peliculas, long watermark) throws IOException {
+        long start = System.nanoTime();
+        byte[][] textos = new byte[peliculas.size()][];
+        byte[][] descripciones = new byte[peliculas.size()][];
+        for (int i = 0; i < peliculas.size(); i++) {
+            Pelicula p = peliculas.get(i);
+            textos[i] = encodeAll(p.getTitulo(), p.getGenero(), p.getDirector(), p.getPosterPath());
+            descripciones[i] = encodeAll(Hibernate.isPropertyInitialized(p, "descripcion") ? p.getDescripcion() : null);
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(watermark);
+            out.writeInt(peliculas.size());
+
+            int textosStart = HEADER_SIZE + INDEX_ENTRY_SIZE * peliculas.size();
+            int descripcionesStart = textosStart;
+            for (byte[] t : textos) {
+                descripcionesStart += t.length;
+            }
+            int textoOffset = textosStart;
+            int descripcionOffset = descripcionesStart;
+            for (int i = 0; i < peliculas.size(); i++) {
+                Pelicula p = peliculas.get(i);
+                out.writeInt(p.getId());
+                out.writeInt(p.getAnio() == null ? 0 : p.getAnio());
+                out.writeInt(textoOffset);
+                out.writeInt(descripcionOffset);
+                textoOffset += textos[i].length;
+                descripcionOffset += descripciones[i].length;
+            }
+            for (byte[] t : textos) {
+                out.write(t);
+            }
+            for (byte[] d : descripciones) {
+                out.write(d);
+            }
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Instantánea de catálogo escrita con " + peliculas.size() + " películas en "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Obtiene la marca de sincronización guardada en la instantánea.
+     * @return El watermark de la instantánea.
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Obtiene el número de películas de la instantánea.
+     * @return El número de películas.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Obtiene el ID de la película en una posición de la instantánea, sin decodificar sus textos.
+     * @param index La posición de la película (de 0 a {@link #size()} - 1).
+     * @return El ID de la película.
+     */
+    public int id(int index) {
+        return buffer.getInt(HEADER_SIZE + index * INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * Decodifica la película en una posición de la instantánea.
+     * @param index La posición de la película (de 0 a {@link #size()} - 1).
+     * @param withDescripcion Si se debe leer también la descripción.
+     * @return Una nueva instancia de {@link Pelicula} con los datos de la instantánea.
+     */
+    public Pelicula get(int index, boolean withDescripcion) {
+        int entry = HEADER_SIZE + index * INDEX_ENTRY_SIZE;
+        Pelicula p = new Pelicula();
+        p.setId(buffer.getInt(entry));
+        int anio = buffer.getInt(entry + 4);
+        p.setAnio(anio == 0 ? null : anio);
+        int[] pos = {buffer.getInt(entry + 8)};
+        p.setTitulo(decode(pos));
+        p.setGenero(decode(pos));
+        p.setDirector(decode(pos));
+        p.setPosterPath(decode(pos));
+        if (withDescripcion) {
+            p.setDescripcion(decode(new int[]{buffer.getInt(entry + 12)}));
+        }
+        return p;
+    }
+
+    private String decode(int[] pos) {
+        int length = buffer.getInt(pos[0]);
+        pos[0] += 4;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(pos[0], bytes);
+        pos[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeAll(String... values) {
+        int size = 0;
+        byte[][] encoded = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = values[i] == null ? null : values[i].getBytes(StandardCharsets.UTF_8);
+            size += 4 + (encoded[i] == null ? 0 : encoded[i].length);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        for (byte[] e : encoded) {
+            if (e == null) {
+                out.putInt(NULL_LENGTH);
+            } else {
+                out.putInt(e.length);
+                out.put(e);
+            }
+        }
+        return out.array();
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.reto2.pelicula;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Almacén local del catálogo de películas basado en {@link CatalogueSnapshot}.
+ * Permite que las pantallas muestren el catálogo nada más arrancar, leyendo la instantánea
+ * del disco, y después pidan a la base de datos solo los cambios posteriores a su watermark. Si la base de datos
+ * no está disponible, la instantánea permite seguir consultando el catálogo en modo de solo lectura.
+ * <p>
+ * Cada instantánea se guarda con un número de generación en el nombre ({@code catalogo.<n>.bin}) y nunca se
+ * sobrescribe: la lista de una pantalla puede seguir leyendo su instantánea proyectada en memoria mientras se
+ * escribe la siguiente, y en Windows un fichero proyectado no se puede sustituir. Al guardar se intentan borrar
+ * las generaciones anteriores; las que siguen proyectadas se borran en un guardado posterior.
+ * Sigue el patrón Singleton.
+ */
+public class CatalogueStore {
+
+    private static final Logger logger = Logger.getLogger(CatalogueStore.class.getName());
+    private static final Path DEFAULT_DIRECTORY = Path.of(System.getProperty("user.home"), ".reto2");
+    private static final String PREFIX = "catalogo.";
+    private static final String SUFFIX = ".bin";
+    /** Fichero de las versiones que sobrescribían siempre la misma instantánea. */
+    private static final String LEGACY_FILE = "catalogo.bin";
+    private static final long NO_GENERATION = -1;
+    private static CatalogueStore instance;
+
+    private final Path directory;
+
+    /**
+     * Constructor privado para implementar el patrón Singleton.
+     * @param directory El directorio de las instantáneas.
+     */
+    private CatalogueStore(Path directory) {
+        this.directory = directory;
+        logger.info("CatalogueStore inicializado en " + directory + ".");
+    }
+
+    /**
+     * Obtiene la única instancia de CatalogueStore.
+     * @return La instancia de CatalogueStore.
+     */
+    public static synchronized CatalogueStore getInstance() {
+        if (instance == null) {
+            instance = new CatalogueStore(DEFAULT_DIRECTORY);
+        }
+        return instance;
+    }
+
+    /**
+     * Indica si existe una instantánea local del catálogo.
+     * @return true si existe alguna generación de la instantánea, false en caso contrario.
+     */
+    public boolean hasSnapshot() {
+        return latestGeneration() != NO_GENERATION;
+    }
+
+    /**
+     * Abre la última instantánea local del catálogo.
+     * @return La instantánea, o un Optional vacío si no existe o no se puede leer
+     *         (por ejemplo, si tiene un formato anterior o está dañada).
+     */
+    public Optional<CatalogueSnapshot> openSnapshot() {
+        long generation = latestGeneration();
+        if (generation == NO_GENERATION) {
+            logger.info("No existe instantánea local del catálogo.");
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(CatalogueSnapshot.open(pathOf(generation)));
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "No se pudo leer la instantánea del catálogo: " + e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Guarda el catálogo como una nueva generación de la instantánea local. Los errores de escritura solo
+     * se registran, ya que la instantánea es una caché. Debe llamarse fuera del hilo de JavaFX.
+     * @param peliculas Las películas del catálogo; la lista no debe cambiar mientras se guarda.
+     * @param watermark La marca de sincronización de los datos.
+     */
+    public synchronized void save(List<Pelicula> peliculas, long watermark) {
+        long generation = latestGeneration() + 1;
+        try {
+            CatalogueSnapshot.write(pathOf(generation), peliculas, watermark);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "No se pudo guardar la instantánea del catálogo: " + e.getMessage(), e);
+            return;
+        }
+        deleteOlderThan(generation);
+    }
+
+    private Path pathOf(long generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+
+    /**
+     * Busca la generación más reciente de la instantánea en el directorio.
+     */
+    private long latestGeneration() {
+        long latest = NO_GENERATION;
+        if (!Files.isDirectory(directory)) {
+            return latest;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                latest = Math.max(latest, generationOf(file));
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "No se pudo listar el directorio de instantáneas: " + e.getMessage(), e);
+        }
+        return latest;
+    }
+
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return NO_GENERATION;
+        }
+    }
+
+    /**
+     * Borra las generaciones anteriores a una dada y el fichero de versiones antiguas. Los ficheros que
+     * no se pueden borrar (en Windows, los que aún están proyectados en memoria) se dejan para más tarde.
+     */
+    private void deleteOlderThan(long generation) {
+        tryDelete(directory.resolve(LEGACY_FILE));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (generationOf(file) < generation) {
+                    tryDelete(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "No se pudieron borrar las instantáneas antiguas: " + e.getMessage(), e);
+        }
+    }
+
+    private static void tryDelete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.fine("La instantánea " + file + " sigue en uso; se borrará más tarde.");
+        }
+    }
+}
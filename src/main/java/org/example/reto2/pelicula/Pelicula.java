@@ -2,18 +2,47 @@ package org.example.reto2.pelicula;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.logging.Logger;
 
 /**
  * Representa una película en la base de datos.
  * Contiene información como el ID, título, género, año de lanzamiento,
- * descripción y director.
+ * descripción y director, además de las marcas de creación y última modificación
+ * que usa la sincronización incremental.
+ * La descripción es un atributo perezoso (requiere la mejora de bytecode de Hibernate, ver pom.xml): los
+ * listados no la cargan y se obtiene aparte con {@link PeliculaRepository#findDescripcion(Pelicula)}.
+ * Las referencias perezosas desde las copias se inicializan por lotes gracias a {@link BatchSize}.
+ * Las consultas de {@link PeliculaRepository} se declaran aquí como consultas con nombre, de forma
+ * que Hibernate las valida e interpreta una sola vez al construir la SessionFactory.
  */
 @Data
 @Entity
-@Table(name="pelicula")
+@NamedQuery(name = "Pelicula.findAll", query = "from Pelicula p")
+@NamedQuery(name = "Pelicula.count", query = "select count(p) from Pelicula p")
+@NamedQuery(name = "Pelicula.findPage", query = "from Pelicula p order by p.id")
+@NamedQuery(name = "Pelicula.findVersion", query = "select max(p.updatedAt), count(p) from Pelicula p")
+@NamedQuery(name = "Pelicula.deleteByIds", query = "delete from Pelicula p where p.id in :ids")
+@NamedQuery(name = "Pelicula.findByAttributes",
+        query = "from Pelicula p where p.titulo = :titulo and p.anio = :anio and p.director = :director")
+@NamedQuery(name = "Pelicula.findByTituloPrefix",
+        query = "from Pelicula p where p.titulo like :prefix escape '!' order by p.titulo")
+@NamedQuery(name = "Pelicula.findByTitulos", query = "from Pelicula p where p.titulo in :titulos")
+@NamedQuery(name = "Pelicula.findExistingIds", query = "select p.id from Pelicula p where p.id in :ids")
+@NamedQuery(name = "Pelicula.findDescripciones", query = "select p.id, p.descripcion from Pelicula p where p.id in :ids")
+@BatchSize(size = 100)
+@Table(name="pelicula", indexes = {
+        @Index(name = "idx_pelicula_titulo", columnList = "titulo"),
+        @Index(name = "idx_pelicula_updated_at", columnList = "updated_at")
+})
 public class Pelicula implements Serializable {
 
     private static final Logger logger = Logger.getLogger(Pelicula.class.getName());
@@ -26,7 +55,40 @@ public class Pelicula implements Serializable {
     private String genero;
     @Column(name = "año")
     private Integer anio;
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String descripcion;
     private String director;
+    /** Ruta local de la imagen del póster, o null si la película no tiene póster. */
+    @Column(name = "poster_path", length = 1024)
+    private String posterPath;
 
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "created_at", updatable = false, columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp(source = SourceType.DB)
+    @Column(name = "updated_at", columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Crea una copia separada de la película para modificarla y guardarla sin tocar esta instancia,
+     * que puede ser la canónica de {@link PeliculaIdentityMap} y estar mostrándose en otras pantallas.
+     * La descripción no se copia, porque es perezosa y leerla fuera de una sesión fallaría: quien
+     * guarde la copia debe asignarla.
+     * @return Una película nueva con el mismo ID, campos y marcas de tiempo, salvo la descripción.
+     */
+    public Pelicula detachedCopy() {
+        Pelicula copy = new Pelicula();
+        copy.setId(id);
+        copy.setTitulo(titulo);
+        copy.setGenero(genero);
+        copy.setAnio(anio);
+        copy.setDirector(director);
+        copy.setPosterPath(posterPath);
+        copy.setCreatedAt(createdAt);
+        copy.setUpdatedAt(updatedAt);
+        return copy;
+    }
 }
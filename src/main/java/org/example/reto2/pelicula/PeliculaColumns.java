@@ -0,0 +1,61 @@
+package org.example.reto2.pelicula;
+
+import org.example.reto2.utils.RowValueFactory;
+
+/**
+ * Fábricas de valores de celda de las tablas de películas.
+ * Cada método devuelve una fábrica nueva, que debe usarse en una sola columna (ver {@link RowValueFactory}).
+ */
+public final class PeliculaColumns {
+
+    private PeliculaColumns() {
+    }
+
+    /**
+     * Crea la fábrica de la columna con la propia película (ej. el póster).
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Pelicula, Pelicula> pelicula() {
+        return RowValueFactory.row();
+    }
+
+    /**
+     * Crea la fábrica de la columna del título.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Pelicula, String> titulo() {
+        return RowValueFactory.of(Pelicula::getTitulo);
+    }
+
+    /**
+     * Crea la fábrica de la columna del género.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Pelicula, String> genero() {
+        return RowValueFactory.of(Pelicula::getGenero);
+    }
+
+    /**
+     * Crea la fábrica de la columna del año.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Pelicula, Integer> anio() {
+        return RowValueFactory.of(Pelicula::getAnio);
+    }
+
+    /**
+     * Crea la fábrica de la columna del director.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Pelicula, String> director() {
+        return RowValueFactory.of(Pelicula::getDirector);
+    }
+
+    /**
+     * Crea la fábrica de la columna de la descripción, que debe estar ya cargada.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<Pelicula, String> descripcion() {
+        return RowValueFactory.of(Pelicula::getDescripcion);
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.reto2.pelicula;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Mapa de identidad de películas compartido por toda la aplicación.
+ * Cada sesión de Hibernate crea sus propias instancias de {@link Pelicula}, de modo que un usuario con
+ * miles de copias de las mismas películas acababa con una instancia por copia. Los repositorios y
+ * {@link org.example.reto2.copia.CopiaService} resuelven las películas cargadas a través de este mapa,
+ * que devuelve siempre la misma instancia para cada ID mientras alguna pantalla la siga usando.
+ * <p>
+ * Las instancias se guardan con referencias débiles: en cuanto ninguna pantalla ni copia las referencia,
+ * el recolector de basura las libera y su entrada se purga. La versión se comprueba con {@code updatedAt}:
+ * si llega una película más reciente que la registrada, la nueva pasa a ser la canónica; las
+ * instancias antiguas siguen siendo válidas para quien ya las tenía hasta que recargue sus datos.
+ */
+public class PeliculaIdentityMap {
+
+    private static final Logger logger = Logger.getLogger(PeliculaIdentityMap.class.getName());
+
+    private static final PeliculaIdentityMap INSTANCE = new PeliculaIdentityMap();
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Pelicula> collected = new ReferenceQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private PeliculaIdentityMap() {
+    }
+
+    /**
+     * Obtiene la instancia única del mapa de identidad.
+     * @return El mapa de identidad de películas.
+     */
+    public static PeliculaIdentityMap getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Devuelve la instancia canónica de una película.
+     * Si ya hay una instancia registrada con el mismo ID y no es más antigua que la recibida, se devuelve
+     * esa; en caso contrario la recibida se registra como canónica y se devuelve tal cual.
+     * Las películas sin ID (aún no persistidas) no se registran.
+     * @param pelicula La película recién cargada o guardada, o null.
+     * @return La instancia canónica, o null si la película es null.
+     */
+    public Pelicula canonicalize(Pelicula pelicula) {
+        if (pelicula == null || pelicula.getId() == null) {
+            return pelicula;
+        }
+        purge();
+        Pelicula[] result = new Pelicula[1];
+        entries.compute(pelicula.getId(), (id, entry) -> {
+            Pelicula current = entry == null ? null : entry.get();
+            if (current != null && !isNewer(pelicula, current)) {
+                hits.increment();
+                result[0] = current;
+                return entry;
+            }
+            misses.increment();
+            result[0] = pelicula;
+            return new Entry(id, pelicula, collected);
+        });
+        return result[0];
+    }
+
+    /**
+     * Registra como canónica una película que se acaba de guardar, aunque su marca de modificación no sea
+     * más reciente que la registrada (tras un UPDATE la entidad guardada conserva la marca anterior).
+     * Las modificaciones se hacen sobre copias separadas y solo se publican aquí tras confirmarse, de modo
+     * que ningún hilo ve a medio modificar la instancia canónica que comparten las pantallas.
+     * @param pelicula La película guardada.
+     * @return La misma película, ya registrada.
+     */
+    public Pelicula publish(Pelicula pelicula) {
+        if (pelicula == null || pelicula.getId() == null) {
+            return pelicula;
+        }
+        purge();
+        entries.put(pelicula.getId(), new Entry(pelicula.getId(), pelicula, collected));
+        misses.increment();
+        return pelicula;
+    }
+
+    /**
+     * Sustituye en una lista cada película por su instancia canónica.
+     * @param peliculas La lista a resolver; debe ser modificable.
+     * @return La misma lista, ya resuelta.
+     */
+    public List<Pelicula> canonicalizeAll(List<Pelicula> peliculas) {
+        peliculas.replaceAll(this::canonicalize);
+        return peliculas;
+    }
+
+    /**
+     * Sustituye la película de cada elemento de una colección por su instancia canónica.
+     * Permite resolver, por ejemplo, las copias de un usuario sin que este paquete dependa de ellas.
+     * @param items Los elementos que referencian una película.
+     * @param getter Obtiene la película de un elemento.
+     * @param setter Asigna la película canónica a un elemento.
+     * @param <E> El tipo de los elementos.
+     */
+    public <E> void canonicalizeEach(Iterable<E> items, Function<E, Pelicula> getter, BiConsumer<E, Pelicula> setter) {
+        if (items == null) {
+            return;
+        }
+        for (E item : items) {
+            Pelicula pelicula = getter.apply(item);
+            Pelicula canonical = canonicalize(pelicula);
+            if (canonical != pelicula) {
+                setter.accept(item, canonical);
+            }
+        }
+    }
+
+    /**
+     * Retira una película del mapa, por ejemplo porque se ha eliminado.
+     * @param id El ID de la película.
+     */
+    public void evict(Integer id) {
+        if (id != null) {
+            entries.remove(id);
+        }
+    }
+
+    /**
+     * Vacía el mapa. Las instancias ya repartidas siguen siendo válidas.
+     */
+    public void clear() {
+        entries.clear();
+        logger.info("Mapa de identidad de películas vaciado.");
+    }
+
+    /**
+     * Obtiene el número de películas registradas (incluidas las que el recolector aún no ha purgado).
+     * @return El número de entradas del mapa.
+     */
+    public int size() {
+        purge();
+        return entries.size();
+    }
+
+    /**
+     * Obtiene el número de resoluciones que reutilizaron una instancia ya registrada.
+     * @return El número de aciertos.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Obtiene el número de resoluciones que registraron una instancia nueva.
+     * @return El número de fallos.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Indica si una película recibida es más reciente que la canónica. Si alguna de las dos no tiene
+     * marca de modificación no se puede comparar y se da por buena la recibida.
+     */
+    private static boolean isNewer(Pelicula incoming, Pelicula current) {
+        LocalDateTime incomingAt = incoming.getUpdatedAt();
+        LocalDateTime currentAt = current.getUpdatedAt();
+        return incomingAt == null || currentAt == null || incomingAt.isAfter(currentAt);
+    }
+
+    /**
+     * Elimina las entradas cuyas películas ya ha liberado el recolector de basura.
+     * Solo se borra la entrada si sigue siendo la misma referencia, por si entretanto se registró otra.
+     */
+    private void purge() {
+        for (Object ref; (ref = collected.poll()) != null; ) {
+            Entry entry = (Entry) ref;
+            entries.remove(entry.id, entry);
+        }
+    }
+
+    /**
+     * Referencia débil a una película que recuerda su ID para poder purgar la entrada.
+     */
+    private static final class Entry extends WeakReference<Pelicula> {
+        private final Integer id;
+
+        Entry(Integer id, Pelicula pelicula, ReferenceQueue<Pelicula> queue) {
+            super(pelicula, queue);
+            this.id = id;
+        }
+    }
+}
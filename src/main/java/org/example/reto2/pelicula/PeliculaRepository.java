@@ -1,131 +1,156 @@
 package org.example.reto2.pelicula;
 
-import org.example.reto2.utils.Repository;
-import org.hibernate.Session;
+import org.example.reto2.sync.ChangeSet;
+import org.example.reto2.utils.HibernateRepository;
+import org.hibernate.Hibernate;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.query.Query;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
  * Repositorio para la gestión de entidades {@link Pelicula} en la base de datos.
  * Proporciona métodos para realizar operaciones CRUD sobre películas.
+ * Todas las películas que devuelve pasan por {@link PeliculaIdentityMap}, de forma que las pantallas
+ * y las copias comparten una única instancia por película.
+ * La descripción es perezosa: el catálogo sincronizado la carga con una consulta aparte
+ * ({@link #loadDescripciones(List)}) y el resto de pantallas la piden solo cuando la muestran.
  */
-public class PeliculaRepository implements Repository<Pelicula> {
+public class PeliculaRepository extends HibernateRepository<Pelicula, Integer> {
 
     private static final Logger logger = Logger.getLogger(PeliculaRepository.class.getName());
-    private final SessionFactory sessionFactory;
+
+    private final PeliculaIdentityMap identityMap = PeliculaIdentityMap.getInstance();
 
     /**
      * Constructor que inicializa el repositorio con una SessionFactory.
      * @param sessionFactory La SessionFactory de Hibernate.
      */
     public PeliculaRepository(SessionFactory sessionFactory) {
-        this.sessionFactory = sessionFactory;
+        super(sessionFactory, Pelicula.class, Long::intValue, "película");
         logger.info("PeliculaRepository inicializado.");
     }
 
+    @Override
+    protected Integer getId(Pelicula entity) {
+        return entity.getId();
+    }
+
+    @Override
+    protected void setId(Pelicula entity, Integer id) {
+        entity.setId(id);
+    }
+
+    @Override
+    protected String describe(Pelicula entity) {
+        return "película '" + entity.getTitulo() + "' (ID: " + entity.getId() + ")";
+    }
+
+    @Override
+    protected Pelicula resolve(Pelicula entity) {
+        return identityMap.canonicalize(entity);
+    }
+
     /**
-     * Guarda una entidad de película en la base de datos.
-     * Si la entidad ya existe, la actualiza; de lo contrario, la persiste.
-     * @param entity La entidad de película a guardar.
-     * @return La entidad de película guardada/actualizada.
+     * Actualiza la película y, solo si la actualización se confirma, la publica como instancia canónica.
+     * Quien modifica una película debe pasar una {@link Pelicula#detachedCopy()}, no la instancia canónica.
+     * @param entity La copia separada con los nuevos valores.
+     * @return La misma copia, ya canónica.
      */
     @Override
-    public Pelicula save(Pelicula entity) {
-        logger.info("Guardando película: " + entity.getTitulo());
-        try (Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-            session.merge(entity); // Usa merge para persistir o actualizar
-            session.getTransaction().commit();
-            logger.info("Película " + entity.getTitulo() + " guardada exitosamente con ID: " + entity.getId());
-            return entity;
-        } catch (Exception e) {
-            logger.severe("Error al guardar película " + entity.getTitulo() + ": " + e.getMessage());
-            throw e;
-        }
+    protected Pelicula update(Pelicula entity) {
+        return identityMap.publish(super.update(entity));
+    }
+
+    @Override
+    protected Optional<Pelicula> deleteByKey(Integer id) {
+        Optional<Pelicula> deleted = super.deleteByKey(id);
+        identityMap.evict(id);
+        return deleted;
+    }
+
+    @Override
+    protected void afterBulkDelete(Collection<Integer> ids) {
+        ids.forEach(identityMap::evict);
     }
 
     /**
-     * Elimina una entidad de película de la base de datos.
-     * @param entity La entidad de película a eliminar.
-     * @return Un Optional que contiene la entidad eliminada si la operación fue exitosa,
-     *         o un Optional vacío si la entidad no pudo ser eliminada o no existía.
+     * Obtiene los cambios del catálogo desde un watermark, con las descripciones ya cargadas,
+     * ya que el catálogo del administrador las muestra en la tabla y en la instantánea local.
+     * @param watermark El watermark de la última sincronización.
+     * @return Los cambios y el nuevo watermark.
      */
     @Override
-    public Optional<Pelicula> delete(Pelicula entity) {
-        logger.info("Intentando eliminar película: " + entity.getTitulo() + " (ID: " + entity.getId() + ")");
-        try(Session session = sessionFactory.openSession()){
-            session.beginTransaction();
-            session.remove(entity);
-            session.getTransaction().commit();
-            logger.info("Película " + entity.getTitulo() + " eliminada exitosamente.");
-            return Optional.ofNullable(entity);
-        } catch (Exception e) {
-            logger.severe("Error al eliminar película " + entity.getTitulo() + ": " + e.getMessage());
-            throw e;
-        }
+    public ChangeSet<Pelicula, Integer> findChangedSince(long watermark) {
+        ChangeSet<Pelicula, Integer> changes = super.findChangedSince(watermark);
+        loadDescripciones(changes.changed());
+        return changes;
     }
 
     /**
-     * Elimina una entidad de película por su ID de la base de datos.
-     * @param id El ID de la película a eliminar.
-     * @return Un Optional que contiene la entidad eliminada si la operación fue exitosa,
-     *         o un Optional vacío si la entidad no pudo ser eliminada o no existía.
+     * Obtiene la descripción de una película. Si ya está cargada se devuelve sin consultar la base de datos.
+     * @param pelicula La película.
+     * @return La descripción, o null si no tiene.
      */
-    @Override
-    public Optional<Pelicula> deleteById(Long id) {
-        logger.info("Intentando eliminar película por ID: " + id);
-        try(Session session = sessionFactory.openSession()){
-            Pelicula pelicula = session.find(Pelicula.class, id);
-            if(pelicula != null){
-                session.beginTransaction();
-                session.remove(pelicula);
-                session.getTransaction().commit();
-                logger.info("Película con ID " + id + " eliminada exitosamente.");
-            } else {
-                logger.warning("Película con ID " + id + " no encontrada para eliminar.");
-            }
-            return Optional.ofNullable(pelicula);
-        } catch (Exception e) {
-            logger.severe("Error al eliminar película por ID " + id + ": " + e.getMessage());
-            throw e;
+    public String findDescripcion(Pelicula pelicula) {
+        if (pelicula.getId() == null || Hibernate.isPropertyInitialized(pelicula, "descripcion")) {
+            return pelicula.getDescripcion();
         }
+        loadDescripciones(List.of(pelicula));
+        return pelicula.getDescripcion();
     }
 
     /**
-     * Busca una entidad de película por su ID.
-     * @param id El ID de la película a buscar.
-     * @return Un Optional que contiene la película si se encuentra,
-     *         o un Optional vacío si no se encuentra ninguna película con ese ID.
+     * Carga la descripción de las películas que aún no la tienen, con una consulta de proyección
+     * por cada bloque de {@link #BULK_CHUNK_SIZE} películas, y la asigna a cada instancia.
+     * @param peliculas Las películas, ya fuera de la sesión en la que se cargaron.
      */
-    @Override
-    public Optional<Pelicula> findById(Long id) {
-        logger.info("Buscando película por ID: " + id);
-        try(Session session = sessionFactory.openSession()){
-            Optional<Pelicula> pelicula = Optional.ofNullable(session.find(Pelicula.class, id));
-            if (pelicula.isPresent()) {
-                logger.info("Película con ID " + id + " encontrada.");
-            } else {
-                logger.info("Película con ID " + id + " no encontrada.");
+    public void loadDescripciones(List<Pelicula> peliculas) {
+        Map<Integer, Pelicula> pending = new HashMap<>();
+        for (Pelicula pelicula : peliculas) {
+            if (pelicula.getId() != null && !Hibernate.isPropertyInitialized(pelicula, "descripcion")) {
+                pending.put(pelicula.getId(), pelicula);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(pending.keySet());
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < ids.size(); i += BULK_CHUNK_SIZE) {
+                for (Object[] row : session.createNamedQuery("Pelicula.findDescripciones", Object[].class)
+                        .setParameterList("ids", ids.subList(i, Math.min(i + BULK_CHUNK_SIZE, ids.size())))
+                        .list()) {
+                    pending.get((Integer) row[0]).setDescripcion((String) row[1]);
+                }
             }
-            return pelicula;
         } catch (Exception e) {
-            logger.severe("Error al buscar película por ID " + id + ": " + e.getMessage());
+            logger.severe("Error al cargar las descripciones de " + ids.size() + " películas: " + e.getMessage());
             throw e;
         }
     }
 
     /**
      * Recupera todas las entidades de película de la base de datos.
+     * Utiliza una {@link StatelessSession}: las películas no tienen asociaciones que cargar
+     * y solo se muestran, por lo que no se necesita contexto de persistencia.
      * @return Una Lista de todas las películas encontradas.
      */
+    @Override
     public List<Pelicula> findAll() {
         logger.info("Recuperando todas las películas.");
-        try (Session session = sessionFactory.openSession()) {
-            List<Pelicula> peliculas = session.createQuery("from Pelicula", Pelicula.class).list();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            List<Pelicula> peliculas = identityMap.canonicalizeAll(
+                    session.createNamedQuery("Pelicula.findAll", Pelicula.class).list());
             logger.info(peliculas.size() + " películas recuperadas.");
             return peliculas;
         } catch (Exception e) {
@@ -134,23 +159,6 @@ public class PeliculaRepository implements Repository<Pelicula> {
         }
     }
 
-    /**
-     * Cuenta el número total de entidades de película en la base de datos.
-     * @return El número total de películas.
-     */
-    @Override
-    public Long count() {
-        logger.info("Contando el número de películas.");
-        try (Session session = sessionFactory.openSession()) {
-            Long count = session.createQuery("select count(p) from Pelicula p", Long.class).uniqueResult();
-            logger.info("Número total de películas: " + count);
-            return count;
-        } catch (Exception e) {
-            logger.severe("Error al contar películas: " + e.getMessage());
-            throw e;
-        }
-    }
-
     /**
      * Busca una película por sus atributos para evitar duplicados.
      * @param titulo El título de la película.
@@ -160,16 +168,81 @@ public class PeliculaRepository implements Repository<Pelicula> {
      */
     public Optional<Pelicula> findByAttributes(String titulo, int anio, String director) {
         logger.info("Buscando película por atributos: " + titulo);
-        try (Session session = sessionFactory.openSession()) {
-            Query<Pelicula> q = session.createQuery(
-                    "from Pelicula where titulo = :titulo and anio = :anio and director = :director", Pelicula.class);
-            q.setParameter("titulo", titulo);
-            q.setParameter("anio", anio);
-            q.setParameter("director", director);
-            return Optional.ofNullable(q.uniqueResult());
+        try {
+            return transactions.readOnly(session -> {
+                Query<Pelicula> q = session.createNamedQuery("Pelicula.findByAttributes", Pelicula.class);
+                q.setParameter("titulo", titulo);
+                q.setParameter("anio", anio);
+                q.setParameter("director", director);
+                return Optional.ofNullable(q.uniqueResult()).map(identityMap::canonicalize);
+            });
         } catch (Exception e) {
             logger.severe("Error al buscar película por atributos: " + e.getMessage());
             return Optional.empty();
         }
     }
+
+    /**
+     * Busca las películas cuyo título empieza por un prefijo, ordenadas por título.
+     * La consulta usa {@code LIKE 'prefijo%'}, que aprovecha el índice {@code idx_pelicula_titulo},
+     * y limita el número de resultados para alimentar un autocompletado.
+     * @param prefix El prefijo del título (los comodines {@code %} y {@code _} se tratan como literales).
+     * @param limit El número máximo de películas a devolver.
+     * @return Una Lista con las películas encontradas.
+     */
+    public List<Pelicula> findByTituloPrefix(String prefix, int limit) {
+        logger.fine("Buscando películas con prefijo de título: " + prefix);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return identityMap.canonicalizeAll(session.createNamedQuery("Pelicula.findByTituloPrefix", Pelicula.class)
+                    .setParameter("prefix", escapeLike(prefix) + "%")
+                    .setMaxResults(limit)
+                    .list());
+        } catch (Exception e) {
+            logger.severe("Error al buscar películas por prefijo de título: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Busca las películas con alguno de los títulos indicados, con una única consulta.
+     * Permite comprobar duplicados de un lote completo de películas de una vez.
+     * @param titulos Los títulos a buscar.
+     * @return Una Lista con las películas encontradas.
+     */
+    public List<Pelicula> findByTitulos(Collection<String> titulos) {
+        if (titulos.isEmpty()) {
+            return List.of();
+        }
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return identityMap.canonicalizeAll(session.createNamedQuery("Pelicula.findByTitulos", Pelicula.class)
+                    .setParameterList("titulos", titulos)
+                    .list());
+        } catch (Exception e) {
+            logger.severe("Error al buscar películas por título: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene cuáles de los IDs indicados corresponden a películas existentes, con una única consulta.
+     * @param ids Los IDs a comprobar.
+     * @return Los IDs de las películas que existen.
+     */
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return new HashSet<>(session.createNamedQuery("Pelicula.findExistingIds", Integer.class)
+                    .setParameterList("ids", ids)
+                    .list());
+        } catch (Exception e) {
+            logger.severe("Error al comprobar IDs de películas: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
 }
@@ -0,0 +1,206 @@
+package org.example.reto2.poster;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import org.example.reto2.pelicula.Pelicula;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caché de miniaturas de los pósteres de las películas, en dos niveles:
+ * <ul>
+ *     <li>En memoria: un LRU acotado a {@link #MEMORY_ENTRIES} imágenes, por ID de película y ruta del póster.</li>
+ *     <li>En disco: las miniaturas ya reducidas se guardan en {@code ~/.reto2/thumbs} como píxeles ARGB,
+ *     de modo que la siguiente vez no hay que volver a decodificar el póster original. El nombre del
+ *     fichero incluye la fecha de modificación del póster, así que si este cambia se genera otra miniatura.</li>
+ * </ul>
+ * Las miniaturas se decodifican directamente al tamaño de destino fuera del hilo de JavaFX, en un pool
+ * pequeño que atiende primero las peticiones más recientes (las de las filas que se acaban de mostrar).
+ * Las peticiones se pueden cancelar cuando la celda pasa a mostrar otra película.
+ * Sigue el patrón Singleton.
+ */
+public class PosterCache {
+
+    private static final Logger logger = Logger.getLogger(PosterCache.class.getName());
+
+    /** Ancho de las miniaturas, en píxeles. */
+    public static final int THUMB_WIDTH = 40;
+    /** Alto de las miniaturas, en píxeles. */
+    public static final int THUMB_HEIGHT = 60;
+    private static final int MEMORY_ENTRIES = 512;
+    private static final int DECODE_THREADS = 2;
+    private static final int THUMB_MAGIC = 0x5232544E; // "R2TN"
+    private static final Path DISK_DIR = Path.of(System.getProperty("user.home"), ".reto2", "thumbs");
+
+    private static PosterCache instance;
+
+    private record Key(int peliculaId, String posterPath) {
+    }
+
+    private final Map<Key, Image> memory = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Image> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+    private final ThreadPoolExecutor decoder;
+
+    /**
+     * Constructor privado para implementar el patrón Singleton.
+     */
+    private PosterCache() {
+        decoder = new ThreadPoolExecutor(DECODE_THREADS, DECODE_THREADS, 0, TimeUnit.MILLISECONDS, new LifoQueue(), r -> {
+            Thread t = new Thread(r, "poster-decoder");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Obtiene la única instancia de PosterCache.
+     * @return La instancia de PosterCache.
+     */
+    public static synchronized PosterCache getInstance() {
+        if (instance == null) {
+            instance = new PosterCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Obtiene la miniatura de una película si ya está en memoria.
+     * @param pelicula La película.
+     * @return La miniatura, o null si no está en memoria o la película no tiene póster.
+     */
+    public Image getCached(Pelicula pelicula) {
+        if (pelicula.getPosterPath() == null) {
+            return null;
+        }
+        synchronized (memory) {
+            return memory.get(new Key(pelicula.getId(), pelicula.getPosterPath()));
+        }
+    }
+
+    /**
+     * Carga la miniatura de una película en segundo plano: primero desde la caché en disco y, si no
+     * está, decodificando el póster original al tamaño de la miniatura.
+     * @param pelicula La película (debe tener póster).
+     * @param onLoaded Recibe la miniatura en el hilo de JavaFX; no se llama si la carga se cancela o falla.
+     * @return La tarea de carga, que puede cancelarse.
+     */
+    public Future<?> load(Pelicula pelicula, Consumer<Image> onLoaded) {
+        Key key = new Key(pelicula.getId(), pelicula.getPosterPath());
+        return decoder.submit(() -> {
+            Image image = loadThumbnail(key);
+            if (image == null || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            synchronized (memory) {
+                memory.put(key, image);
+            }
+            Platform.runLater(() -> onLoaded.accept(image));
+        });
+    }
+
+    private Image loadThumbnail(Key key) {
+        Path source = Path.of(key.posterPath());
+        try {
+            if (!Files.isRegularFile(source)) {
+                logger.fine("Póster no encontrado: " + source);
+                return null;
+            }
+            Path thumb = DISK_DIR.resolve(key.peliculaId() + "-" + Integer.toHexString(
+                    Objects.hash(key.posterPath(), Files.getLastModifiedTime(source).toMillis(), THUMB_WIDTH, THUMB_HEIGHT)) + ".thumb");
+            if (Files.isRegularFile(thumb)) {
+                Image cached = readThumbnail(thumb);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            Image decoded = new Image(source.toUri().toString(), THUMB_WIDTH, THUMB_HEIGHT, true, true, false);
+            if (decoded.isError()) {
+                logger.warning("No se pudo decodificar el póster " + source + ": " + decoded.getException());
+                return null;
+            }
+            writeThumbnail(thumb, decoded);
+            return decoded;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error al cargar la miniatura de " + source + ": " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static Image readThumbnail(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != THUMB_MAGIC) {
+                return null;
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            int[] pixels = new int[width * height];
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = in.readInt();
+            }
+            WritableImage image = new WritableImage(width, height);
+            image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+            return image;
+        }
+    }
+
+    /**
+     * Guarda una miniatura en disco. Se escribe en un temporal que después se mueve sobre el destino,
+     * para que otro proceso nunca lea un fichero a medias.
+     */
+    private static void writeThumbnail(Path file, Image image) throws IOException {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] pixels = new int[width * height];
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(THUMB_MAGIC);
+            out.writeInt(width);
+            out.writeInt(height);
+            for (int pixel : pixels) {
+                out.writeInt(pixel);
+            }
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Cola LIFO para el pool de decodificación: al desplazarse por la tabla, las miniaturas de las
+     * filas visibles ahora se decodifican antes que las de filas que ya han dejado de verse.
+     */
+    private static final class LifoQueue extends LinkedBlockingDeque<Runnable> {
+        @Override
+        public boolean offer(Runnable runnable) {
+            return offerFirst(runnable);
+        }
+    }
+}
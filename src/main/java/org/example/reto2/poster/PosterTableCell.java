@@ -0,0 +1,59 @@
+package org.example.reto2.poster;
+
+import javafx.scene.control.TableCell;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import org.example.reto2.pelicula.Pelicula;
+
+import java.util.Objects;
+import java.util.concurrent.Future;
+
+/**
+ * Celda de tabla que muestra la miniatura del póster de una película.
+ * Si la miniatura está en memoria se muestra al momento; si no, se pide a {@link PosterCache} en
+ * segundo plano. Cuando la celda se reutiliza para otra fila (al desplazarse por la tabla) la
+ * petición pendiente se cancela, de modo que solo se decodifican los pósteres de las filas visibles.
+ * @param <S> El tipo de las filas de la tabla.
+ */
+public class PosterTableCell<S> extends TableCell<S, Pelicula> {
+
+    private final ImageView view = new ImageView();
+    private Future<?> pending;
+
+    /**
+     * Crea la celda con el tamaño de las miniaturas.
+     */
+    public PosterTableCell() {
+        view.setFitWidth(PosterCache.THUMB_WIDTH);
+        view.setFitHeight(PosterCache.THUMB_HEIGHT);
+        view.setPreserveRatio(true);
+    }
+
+    @Override
+    protected void updateItem(Pelicula pelicula, boolean empty) {
+        super.updateItem(pelicula, empty);
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+        if (empty || pelicula == null || pelicula.getPosterPath() == null) {
+            view.setImage(null);
+            setGraphic(null);
+            return;
+        }
+        setGraphic(view);
+        PosterCache cache = PosterCache.getInstance();
+        Image cached = cache.getCached(pelicula);
+        view.setImage(cached);
+        if (cached == null) {
+            Integer id = pelicula.getId();
+            String path = pelicula.getPosterPath();
+            pending = cache.load(pelicula, image -> {
+                Pelicula current = getItem();
+                if (current != null && Objects.equals(current.getId(), id) && Objects.equals(current.getPosterPath(), path)) {
+                    view.setImage(image);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.reto2.sync;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.util.Duration;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.logging.Logger;
+
+/**
+ * Mantiene una lista de JavaFX al día consultando periódicamente los cambios desde el último
+ * watermark y aplicando solo las diferencias: las entidades modificadas se sustituyen en su
+ * posición, las nuevas se añaden al final y las eliminadas se retiran.
+ * La consulta se hace en un hilo virtual y los cambios se aplican en el hilo de JavaFX.
+ * Si una consulta sigue en curso cuando toca la siguiente, esta se omite.
+ *
+ * @param <T> El tipo de entidad.
+ * @param <ID> El tipo del identificador de la entidad.
+ */
+public class ChangePoller<T, ID> {
+
+    private static final Logger logger = Logger.getLogger(ChangePoller.class.getName());
+
+    /** Intervalo de consulta por defecto. */
+    public static final Duration DEFAULT_INTERVAL = Duration.seconds(15);
+
+    private final String name;
+    private final ObservableList<T> target;
+    private final Function<T, ID> idOf;
+    private final LongFunction<ChangeSet<T, ID>> source;
+    private final Timeline timeline;
+    private Consumer<ChangeSet<T, ID>> onApplied = changes -> { };
+    private Runnable onPolled = () -> { };
+    private Consumer<Throwable> onFailed = e -> { };
+    private IntFunction<ID> idAt;
+    private long watermark;
+    private boolean polling;
+
+    /**
+     * Crea un poller de cambios.
+     * @param name Nombre para los mensajes de log y del hilo de consulta.
+     * @param target La lista que se mantiene sincronizada.
+     * @param idOf Obtiene el identificador de una entidad.
+     * @param source Obtiene los cambios desde un watermark (ej. {@code repository::findChangedSince}).
+     * @param watermark El watermark de los datos que ya contiene la lista, o {@link ChangeTracking#NONE}.
+     * @param interval El intervalo entre consultas.
+     */
+    public ChangePoller(String name, ObservableList<T> target, Function<T, ID> idOf,
+                        LongFunction<ChangeSet<T, ID>> source, long watermark, Duration interval) {
+        this.name = name;
+        this.target = target;
+        this.idOf = idOf;
+        this.source = source;
+        this.watermark = watermark;
+        this.timeline = new Timeline(new KeyFrame(interval, e -> pollNow()));
+        this.timeline.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    /**
+     * Establece la acción que se ejecuta, en el hilo de JavaFX, tras aplicar unos cambios no vacíos.
+     * @param onApplied La acción, que recibe los cambios aplicados.
+     * @return Este poller.
+     */
+    public ChangePoller<T, ID> onApplied(Consumer<ChangeSet<T, ID>> onApplied) {
+        this.onApplied = onApplied;
+        return this;
+    }
+
+    /**
+     * Establece la acción que se ejecuta, en el hilo de JavaFX, tras cada consulta correcta,
+     * haya o no cambios.
+     * @param onPolled La acción.
+     * @return Este poller.
+     */
+    public ChangePoller<T, ID> onPolled(Runnable onPolled) {
+        this.onPolled = onPolled;
+        return this;
+    }
+
+    /**
+     * Establece la acción que se ejecuta, en el hilo de JavaFX, si falla una consulta.
+     * @param onFailed La acción, que recibe el error.
+     * @return Este poller.
+     */
+    public ChangePoller<T, ID> onFailed(Consumer<Throwable> onFailed) {
+        this.onFailed = onFailed;
+        return this;
+    }
+
+    /**
+     * Indica cómo obtener el identificador de la entidad de una posición de la lista sin leer la entidad.
+     * Sirve para listas que decodifican sus elementos bajo demanda (como
+     * {@link org.example.reto2.pelicula.CatalogueRows}), que así no se decodifican enteras al aplicar cambios.
+     * @param idAt Obtiene el identificador de la posición indicada de la lista.
+     * @return Este poller.
+     */
+    public ChangePoller<T, ID> idAt(IntFunction<ID> idAt) {
+        this.idAt = idAt;
+        return this;
+    }
+
+    /**
+     * Lanza una consulta inmediata y empieza a consultar periódicamente.
+     */
+    public void start() {
+        pollNow();
+        timeline.play();
+        logger.info("Sincronización de " + name + " iniciada.");
+    }
+
+    /**
+     * Deja de consultar cambios.
+     */
+    public void stop() {
+        timeline.stop();
+        logger.info("Sincronización de " + name + " detenida.");
+    }
+
+    /**
+     * Consulta los cambios en este momento, por ejemplo tras una modificación local.
+     * Debe llamarse desde el hilo de JavaFX.
+     */
+    public void pollNow() {
+        if (polling) {
+            return;
+        }
+        polling = true;
+        long since = watermark;
+        Task<ChangeSet<T, ID>> task = new Task<>() {
+            @Override
+            protected ChangeSet<T, ID> call() {
+                return source.apply(since);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            polling = false;
+            ChangeSet<T, ID> changes = task.getValue();
+            watermark = changes.watermark();
+            if (!changes.isEmpty()) {
+                apply(changes);
+                onApplied.accept(changes);
+            }
+            onPolled.run();
+        });
+        task.setOnFailed(e -> {
+            polling = false;
+            logger.warning("Error al consultar los cambios de " + name + ": " + task.getException().getMessage());
+            onFailed.accept(task.getException());
+        });
+        Thread.ofVirtual().name(name + "-sync").start(task);
+    }
+
+    /**
+     * Obtiene el watermark de los datos aplicados.
+     * @return El watermark actual.
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Aplica los cambios a la lista en una sola pasada.
+     * @param changes Los cambios a aplicar.
+     */
+    private void apply(ChangeSet<T, ID> changes) {
+        if (changes.full()) {
+            target.setAll(changes.changed());
+            logger.info("Carga completa de " + name + ": " + target.size() + " elementos.");
+            return;
+        }
+        Map<ID, T> pending = new HashMap<>();
+        for (T entity : changes.changed()) {
+            pending.put(idOf.apply(entity), entity);
+        }
+        Set<ID> deleted = new HashSet<>(changes.deletedIds());
+        int updated = 0;
+        int removed = 0;
+        for (int i = 0; i < target.size(); ) {
+            ID id = idAt != null ? idAt.apply(i) : idOf.apply(target.get(i));
+            if (deleted.contains(id)) {
+                target.remove(i);
+                removed++;
+                continue;
+            }
+            T replacement = pending.remove(id);
+            if (replacement != null) {
+                target.set(i, replacement);
+                updated++;
+            }
+            i++;
+        }
+        target.addAll(pending.values());
+        logger.info("Cambios aplicados a " + name + ": " + updated + " actualizados, " + pending.size()
+                + " añadidos, " + removed + " eliminados.");
+    }
+}
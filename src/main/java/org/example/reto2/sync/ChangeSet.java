@@ -0,0 +1,25 @@
+package org.example.reto2.sync;
+
+import java.util.List;
+
+/**
+ * Cambios de una entidad desde un watermark dado.
+ *
+ * @param full Si es una carga completa (sin watermark previo o demasiado antiguo). En ese caso
+ *             {@code changed} contiene todas las entidades y sustituye a los datos anteriores.
+ * @param changed Las entidades creadas o modificadas.
+ * @param deletedIds Los identificadores de las entidades eliminadas.
+ * @param watermark El nuevo watermark, que se pasa en la siguiente consulta de cambios.
+ * @param <T> El tipo de entidad.
+ * @param <ID> El tipo del identificador de la entidad.
+ */
+public record ChangeSet<T, ID>(boolean full, List<T> changed, List<ID> deletedIds, long watermark) {
+
+    /**
+     * Indica si no hay ningún cambio que aplicar.
+     * @return true si no hay entidades modificadas ni eliminadas y no es una carga completa.
+     */
+    public boolean isEmpty() {
+        return !full && changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
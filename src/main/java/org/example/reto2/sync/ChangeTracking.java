@@ -0,0 +1,168 @@
+package org.example.reto2.sync;
+
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Consultas de cambios incrementales basadas en la columna {@code updated_at} de las entidades
+ * y en la tabla de lápidas ({@link Tombstone}).
+ * <p>
+ * El watermark es la marca {@code updated_at} más reciente vista, codificada como microsegundos
+ * desde la época (ver {@link #toWatermark(LocalDateTime)}). Las marcas las genera siempre la base
+ * de datos, de modo que no dependen del reloj de cada cliente. Cada consulta repasa además
+ * {@link #OVERLAP} hacia atrás, para no perder filas de transacciones que confirmaron tarde con
+ * una marca anterior a la ya vista; aplicar una fila dos veces no tiene efecto.
+ */
+public final class ChangeTracking {
+
+    private static final Logger logger = Logger.getLogger(ChangeTracking.class.getName());
+
+    /** Watermark inicial: no se ha sincronizado nada y hace falta una carga completa. */
+    public static final long NONE = 0L;
+    /** Margen que se vuelve a consultar por detrás del watermark. */
+    public static final Duration OVERLAP = Duration.ofSeconds(5);
+    /** Tiempo que se conservan las lápidas. Un watermark más antiguo obliga a una carga completa. */
+    public static final Duration RETENTION = Duration.ofDays(30);
+
+    /**
+     * Constructor privado para evitar instanciación de la clase de utilidad.
+     */
+    private ChangeTracking() {
+    }
+
+    /**
+     * Codifica una marca temporal de la base de datos como watermark.
+     * @param timestamp La marca temporal.
+     * @return El watermark correspondiente.
+     */
+    public static long toWatermark(LocalDateTime timestamp) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), timestamp);
+    }
+
+    /**
+     * Decodifica un watermark como marca temporal de la base de datos.
+     * @param watermark El watermark.
+     * @return La marca temporal correspondiente.
+     */
+    public static LocalDateTime fromWatermark(long watermark) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(watermark, 1_000_000L),
+                (int) Math.floorMod(watermark, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Obtiene los cambios de una entidad desde un watermark.
+     * Si el watermark es {@link #NONE} o anterior a la retención de las lápidas, devuelve una
+     * carga completa.
+     * @param session La sesión con la que consultar (preferiblemente de solo lectura).
+     * @param entityClass La clase de la entidad. Debe tener el atributo {@code updatedAt}.
+     * @param condition Condición HQL adicional sobre el alias {@code e}, o null si no hay.
+     * @param parameters Los parámetros de la condición adicional.
+     * @param watermark El watermark de la última sincronización.
+     * @param idConverter Convierte el identificador guardado en las lápidas al tipo de la entidad.
+     * @param <T> El tipo de entidad.
+     * @param <ID> El tipo del identificador de la entidad.
+     * @return Los cambios desde el watermark.
+     */
+    public static <T, ID> ChangeSet<T, ID> findChangedSince(Session session, Class<T> entityClass, String condition,
+                                                            Map<String, ?> parameters, long watermark,
+                                                            Function<Long, ID> idConverter) {
+        String entityName = entityClass.getSimpleName();
+        boolean full = watermark == NONE
+                || fromWatermark(watermark).isBefore(LocalDateTime.now().minus(RETENTION));
+        LocalDateTime since = full ? null : fromWatermark(watermark).minus(OVERLAP);
+
+        StringBuilder hql = new StringBuilder("select e, e.updatedAt from ").append(entityName).append(" e where 1 = 1");
+        if (condition != null) {
+            hql.append(" and (").append(condition).append(')');
+        }
+        if (!full) {
+            hql.append(" and e.updatedAt > :since");
+        }
+        Query<Object[]> query = session.createQuery(hql.toString(), Object[].class);
+        parameters.forEach(query::setParameter);
+        if (!full) {
+            query.setParameter("since", since);
+        }
+
+        long newWatermark = watermark;
+        List<T> changed = new ArrayList<>();
+        for (Object[] row : query.list()) {
+            changed.add(entityClass.cast(row[0]));
+            if (row[1] != null) {
+                newWatermark = Math.max(newWatermark, toWatermark((LocalDateTime) row[1]));
+            }
+        }
+
+        List<ID> deletedIds = new ArrayList<>();
+        if (!full) {
+            List<Object[]> tombstones = session.createQuery("select t.entityId, t.deletedAt from Tombstone t "
+                            + "where t.entityName = :entityName and t.deletedAt > :since", Object[].class)
+                    .setParameter("entityName", entityName)
+                    .setParameter("since", since)
+                    .list();
+            for (Object[] row : tombstones) {
+                deletedIds.add(idConverter.apply((Long) row[0]));
+                newWatermark = Math.max(newWatermark, toWatermark((LocalDateTime) row[1]));
+            }
+        }
+
+        logger.info("Cambios de " + entityName + (full ? " (carga completa)" : " desde " + since) + ": "
+                + changed.size() + " modificadas, " + deletedIds.size() + " eliminadas.");
+        return new ChangeSet<>(full, changed, deletedIds, newWatermark);
+    }
+
+    /**
+     * Registra lápidas para las entidades que cumplen una condición, antes de eliminarlas.
+     * Se ejecuta una única sentencia {@code INSERT ... SELECT}, por lo que solo se registran
+     * las entidades que existen realmente. Debe llamarse dentro de la transacción que las elimina.
+     * @param session La sesión de la transacción en curso.
+     * @param entityName El nombre de la entidad (nombre simple de la clase).
+     * @param condition Condición HQL sobre el alias {@code e} que selecciona las entidades.
+     * @param parameter El nombre del parámetro de la condición.
+     * @param value El valor del parámetro; si es una colección, se enlaza como lista.
+     * @return El número de lápidas registradas.
+     */
+    public static int recordDeletes(Session session, String entityName, String condition, String parameter, Object value) {
+        var insert = session.createMutationQuery("insert into Tombstone (entityName, entityId, deletedAt) "
+                + "select '" + entityName + "', cast(e.id as Long), local datetime from " + entityName + " e where " + condition);
+        if (value instanceof Collection<?> values) {
+            insert.setParameterList(parameter, values);
+        } else {
+            insert.setParameter(parameter, value);
+        }
+        return insert.executeUpdate();
+    }
+
+    /**
+     * Registra lápidas para las entidades con los identificadores indicados, antes de eliminarlas.
+     * @param session La sesión de la transacción en curso.
+     * @param entityName El nombre de la entidad (nombre simple de la clase).
+     * @param ids Los identificadores de las entidades que se van a eliminar.
+     * @return El número de lápidas registradas.
+     */
+    public static int recordDeletes(Session session, String entityName, Collection<?> ids) {
+        return recordDeletes(session, entityName, "e.id in :ids", "ids", ids);
+    }
+
+    /**
+     * Elimina las lápidas más antiguas que el periodo de retención.
+     * @param session La sesión de la transacción en curso.
+     * @return El número de lápidas eliminadas.
+     */
+    public static int purgeTombstones(Session session) {
+        return session.createMutationQuery("delete from Tombstone t where t.deletedAt < :cutoff")
+                .setParameter("cutoff", LocalDateTime.now().minus(RETENTION))
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.reto2.sync;
+
+/**
+ * Versión de los datos de una entidad: la última modificación y el número de filas.
+ * Cambia con cualquier alta o modificación (por {@code updated_at}) y con cualquier baja
+ * (por el número de filas), por lo que sirve para validar cachés sin leer los datos.
+ *
+ * @param watermark La marca {@code updated_at} más reciente, codificada como en {@link ChangeTracking}.
+ * @param count El número de filas.
+ */
+public record DataVersion(long watermark, long count) {
+}
@@ -0,0 +1,33 @@
+package org.example.reto2.sync;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Registro de una entidad eliminada (lápida).
+ * Las filas borradas no dejan rastro en su tabla, por lo que cada eliminación anota aquí
+ * el nombre de la entidad y su identificador. Así las pantallas y cachés que sincronizan
+ * por {@code updated_at} pueden retirar también las filas eliminadas.
+ * Las lápidas se conservan durante {@link ChangeTracking#RETENTION}.
+ */
+@Data
+@Entity
+@Table(name = "tombstone", indexes = @Index(name = "idx_tombstone_entity_deleted", columnList = "entity_name, deleted_at"))
+public class Tombstone implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_name", nullable = false, length = 64)
+    private String entityName;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "deleted_at", nullable = false, columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime deletedAt;
+}
@@ -2,9 +2,14 @@ package org.example.reto2.user;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.example.reto2.copia.Copia;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
@@ -13,10 +18,22 @@ import java.util.logging.Logger;
  * Representa un usuario en el sistema.
  * Contiene información como el ID, email, contraseña, si es administrador
  * y una lista de las copias de películas que posee.
+ * Las consultas de {@link UserRepository} se declaran aquí como consultas con nombre.
  */
 @Data
 @Entity
-@Table(name="user")
+@NamedQuery(name = "User.findAll", query = "from User u")
+@NamedQuery(name = "User.count", query = "select count(u) from User u")
+@NamedQuery(name = "User.findPage", query = "from User u order by u.id")
+@NamedQuery(name = "User.findVersion", query = "select max(u.updatedAt), count(u) from User u")
+@NamedQuery(name = "User.deleteByIds", query = "delete from User u where u.id in :ids")
+@NamedQuery(name = "User.deleteById", query = "delete from User u where u.id = :id")
+@NamedQuery(name = "User.findByEmail", query = "from User u where u.email = :email")
+@NamedQuery(name = "User.findIdsByEmail", query = "select u.email, u.id from User u where u.email in :emails")
+@NamedQuery(name = "User.findSummary",
+        query = "select u.email as email, u.password as password, u.isAdmin as isAdmin from User u where u.id = :id")
+@BatchSize(size = 100)
+@Table(name="user", indexes = @Index(name = "idx_user_updated_at", columnList = "updated_at"))
 public class User implements Serializable {
 
     private static final Logger logger = Logger.getLogger(User.class.getName());
@@ -31,6 +48,14 @@ public class User implements Serializable {
     @Column(name="is_admin")
     private Boolean isAdmin;
 
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "created_at", updatable = false, columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp(source = SourceType.DB)
+    @Column(name = "updated_at", columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime updatedAt;
+
     @OneToMany(cascade={CascadeType.ALL}, mappedBy = "user", fetch = FetchType.EAGER)
     private List<Copia> copias = new ArrayList<>();
 
@@ -0,0 +1,46 @@
+package org.example.reto2.user;
+
+import org.example.reto2.utils.RowValueFactory;
+
+/**
+ * Fábricas de valores de celda de las tablas de usuarios.
+ * Cada método devuelve una fábrica nueva, que debe usarse en una sola columna (ver {@link RowValueFactory}).
+ */
+public final class UserColumns {
+
+    private UserColumns() {
+    }
+
+    /**
+     * Crea la fábrica de la columna del ID.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<User, Integer> id() {
+        return RowValueFactory.of(User::getId);
+    }
+
+    /**
+     * Crea la fábrica de la columna del email.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<User, String> email() {
+        return RowValueFactory.of(User::getEmail);
+    }
+
+    /**
+     * Crea la fábrica de la columna del rol de administrador.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<User, Boolean> isAdmin() {
+        return RowValueFactory.of(User::getIsAdmin);
+    }
+
+    /**
+     * Crea la fábrica de la columna del número de copias. {@code Integer.valueOf} reutiliza las instancias
+     * de -128 a 127, así que solo los usuarios con más copias crean un objeto al pintarse.
+     * @return Una fábrica nueva.
+     */
+    public static RowValueFactory<User, Integer> copiasCount() {
+        return RowValueFactory.of(user -> user.getCopias() == null ? 0 : user.getCopias().size());
+    }
+}
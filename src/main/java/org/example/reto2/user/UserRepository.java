@@ -1,94 +1,117 @@
 package org.example.reto2.user;
 
-import org.example.reto2.utils.Repository;
+import org.example.reto2.audit.AuditAction;
+import org.example.reto2.copia.Copia;
+import org.example.reto2.copia.CopiaService;
+import org.example.reto2.sync.ChangeTracking;
+import org.example.reto2.utils.HibernateRepository;
 import org.hibernate.Session;
+import jakarta.persistence.Tuple;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 
 /**
  * Repositorio para la gestión de entidades {@link User} en la base de datos.
  * Proporciona métodos para realizar operaciones CRUD y consultas específicas de usuarios.
+ * Los identificadores {@code Long} de la interfaz se convierten al {@code Integer} de la entidad
+ * antes de llegar a Hibernate.
  */
-public class UserRepository implements Repository<User> {
+public class UserRepository extends HibernateRepository<User, Integer> {
 
     private static final Logger logger = Logger.getLogger(UserRepository.class.getName());
-    private SessionFactory sessionFactory;
 
     /**
      * Constructor que inicializa el repositorio con una SessionFactory.
      * @param sessionFactory La SessionFactory de Hibernate.
      */
     public UserRepository(SessionFactory sessionFactory) {
-        this.sessionFactory = sessionFactory;
+        super(sessionFactory, User.class, Long::intValue, "usuario");
         logger.info("UserRepository inicializado.");
     }
 
+    @Override
+    protected Integer getId(User entity) {
+        return entity.getId();
+    }
+
+    @Override
+    protected void setId(User entity, Integer id) {
+        entity.setId(id);
+    }
+
     /**
-     * Guarda una entidad de usuario en la base de datos.
-     * Si la entidad ya existe (basado en su ID), la actualiza; de lo contrario, la persiste.
-     * @param entity La entidad de usuario a guardar.
-     * @return La entidad de usuario guardada/actualizada.
+     * Inicializa las películas de las copias del usuario, que son referencias perezosas.
      */
     @Override
-    public User save(User entity) {
-        logger.info("Guardando usuario: " + entity.getEmail());
-        try (Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-            session.merge(entity); // Usa merge para persistir o actualizar
-            session.getTransaction().commit();
-            logger.info("Usuario " + entity.getEmail() + " guardado exitosamente con ID: " + entity.getId());
-            return entity;
-        } catch (Exception e) {
-            logger.severe("Error al guardar usuario " + entity.getEmail() + ": " + e.getMessage());
-            throw e;
-        }
+    protected void initializeLazy(User entity) {
+        CopiaService.fetchPeliculas(entity.getCopias());
     }
 
     /**
-     * Elimina una entidad de usuario de la base de datos.
-     * @param entity La entidad de usuario a eliminar.
-     * @return Un Optional que contiene la entidad eliminada si la operación fue exitosa,
-     *         o un Optional vacío si la entidad no pudo ser eliminada o no existía.
+     * Resuelve las películas de las copias del usuario con el mapa de identidad compartido.
      */
     @Override
-    public Optional<User> delete(User entity) {
-        logger.info("Intentando eliminar usuario: " + entity.getEmail() + " (ID: " + entity.getId() + ")");
-        try(Session session = sessionFactory.openSession()){
-            session.beginTransaction();
-            session.remove(entity);
-            session.getTransaction().commit();
-            logger.info("Usuario " + entity.getEmail() + " eliminado exitosamente.");
-            return Optional.ofNullable(entity);
-        } catch (Exception e) {
-            logger.severe("Error al eliminar usuario " + entity.getEmail() + ": " + e.getMessage());
-            throw e;
-        }
+    protected User resolve(User entity) {
+        CopiaService.resolvePeliculas(entity.getCopias());
+        return entity;
+    }
+
+    @Override
+    protected String describe(User entity) {
+        return "usuario " + entity.getEmail() + " (ID: " + entity.getId() + ")";
     }
 
     /**
-     * Elimina una entidad de usuario por su ID de la base de datos.
+     * Elimina un usuario y todas sus copias sin cargarlas.
+     * En lugar del cascade de la colección EAGER {@code copias} (que carga cada copia con su película
+     * y emite un DELETE por copia), se ejecuta un único {@code DELETE} sobre las copias del usuario
+     * y después otro sobre el usuario, en la misma transacción, registrando antes las lápidas de ambos.
+     * El usuario devuelto contiene solo sus datos básicos, sin la lista de copias.
      * @param id El ID del usuario a eliminar.
-     * @return Un Optional que contiene la entidad eliminada si la operación fue exitosa,
-     *         o un Optional vacío si la entidad no pudo ser eliminada o no existía.
+     * @return Un Optional que contiene el usuario eliminado si existía, o un Optional vacío si no.
      */
     @Override
-    public Optional<User> deleteById(Long id) {
-        logger.info("Intentando eliminar usuario por ID: " + id);
-        try(Session session = sessionFactory.openSession()){
-            User user = session.find(User.class, id.intValue()); // Hibernate IDs are typically Integer for IDENTITY strategy
-            if(user != null){
-                session.beginTransaction();
-                session.remove(user);
-                session.getTransaction().commit();
-                logger.info("Usuario con ID " + id + " eliminado exitosamente.");
-            } else {
+    protected Optional<User> deleteByKey(Integer id) {
+        try {
+            Optional<User> deleted = transactions.execute(session -> {
+                Tuple row = session.createNamedQuery("User.findSummary", Tuple.class)
+                        .setParameter("id", id)
+                        .uniqueResult();
+                if (row == null) {
+                    return Optional.<User>empty();
+                }
+                ChangeTracking.recordDeletes(session, "Copia", "e.user.id = :id", "id", id);
+                ChangeTracking.recordDeletes(session, entityName, List.of(id));
+                int copias = session.createNamedMutationQuery("Copia.deleteByUser")
+                        .setParameter("id", id)
+                        .executeUpdate();
+                session.createNamedMutationQuery("User.deleteById")
+                        .setParameter("id", id)
+                        .executeUpdate();
+                logger.info("Usuario con ID " + id + " eliminado junto a " + copias + " copias.");
+
+                User user = new User();
+                user.setId(id);
+                user.setEmail(row.get("email", String.class));
+                user.setPassword(row.get("password", String.class));
+                user.setIsAdmin(row.get("isAdmin", Boolean.class));
+                return Optional.of(user);
+            });
+            if (deleted.isEmpty()) {
                 logger.warning("Usuario con ID " + id + " no encontrado para eliminar.");
+            } else {
+                counters.adjust(User.class, -1);
+                counters.invalidate(Copia.class);
+                audit.record(AuditAction.ELIMINAR, entityName, id, describe(deleted.get()) + " y sus copias");
             }
-            return Optional.ofNullable(user);
+            return deleted;
         } catch (Exception e) {
             logger.severe("Error al eliminar usuario por ID " + id + ": " + e.getMessage());
             throw e;
@@ -96,58 +119,52 @@ public class UserRepository implements Repository<User> {
     }
 
     /**
-     * Busca una entidad de usuario por su ID.
-     * @param id El ID del usuario a buscar.
-     * @return Un Optional que contiene el usuario si se encuentra,
-     *         o un Optional vacío si no se encuentra ninguna entidad con ese ID.
+     * Antes de eliminar un bloque de usuarios de forma masiva, elimina sus copias con una única
+     * sentencia, ya que el cascade de la colección {@code copias} no se aplica a las sentencias HQL.
+     * @param session La sesión de la transacción en curso.
+     * @param ids Los identificadores de los usuarios que se van a eliminar.
      */
     @Override
-    public Optional<User> findById(Long id) {
-        logger.info("Buscando usuario por ID: " + id);
-        try(Session session = sessionFactory.openSession()){
-            Optional<User> user = Optional.ofNullable(session.find(User.class, id.intValue())); // Hibernate IDs are typically Integer for IDENTITY strategy
-            if (user.isPresent()) {
-                logger.info("Usuario con ID " + id + " encontrado.");
-            } else {
-                logger.info("Usuario con ID " + id + " no encontrado.");
-            }
-            return user;
-        } catch (Exception e) {
-            logger.severe("Error al buscar usuario por ID " + id + ": " + e.getMessage());
-            throw e;
-        }
+    protected void beforeBulkDelete(Session session, List<Integer> ids) {
+        ChangeTracking.recordDeletes(session, "Copia", "e.user.id in :ids", "ids", ids);
+        int copias = session.createNamedMutationQuery("Copia.deleteByUsers")
+                .setParameterList("ids", ids)
+                .executeUpdate();
+        logger.info(copias + " copias eliminadas junto a " + ids.size() + " usuarios.");
     }
 
     /**
-     * Recupera todas las entidades de usuario de la base de datos.
-     * @return Una Lista de todas las entidades de usuario encontradas.
+     * Las copias de los usuarios se eliminan con una sentencia masiva que no genera eventos,
+     * así que se descarta el contador de copias para que se vuelva a cargar.
+     * @param ids Los identificadores de los usuarios eliminados.
      */
     @Override
-    public List<User> findAll() {
-        logger.info("Recuperando todos los usuarios.");
-        try (Session session = sessionFactory.openSession()) {
-            List<User> users = session.createQuery("from User", User.class).list();
-            logger.info(users.size() + " usuarios recuperados.");
-            return users;
-        } catch (Exception e) {
-            logger.severe("Error al recuperar todos los usuarios: " + e.getMessage());
-            throw e;
-        }
+    protected void afterBulkDelete(Collection<Integer> ids) {
+        counters.invalidate(Copia.class);
     }
 
     /**
-     * Cuenta el número total de entidades de usuario en la base de datos.
-     * @return El número total de usuarios.
+     * Obtiene los IDs de los usuarios con los correos indicados, con una única consulta y sin cargar
+     * los usuarios ni sus copias.
+     * @param emails Los correos electrónicos a buscar.
+     * @return Un mapa correo → ID con los usuarios encontrados.
      */
-    @Override
-    public Long count() {
-        logger.info("Contando el número de usuarios.");
-        try (Session session = sessionFactory.openSession()) {
-            Long count = session.createQuery("select count(u) from User u", Long.class).uniqueResult();
-            logger.info("Número total de usuarios: " + count);
-            return count;
+    public Map<String, Integer> findIdsByEmail(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return transactions.readOnly(session -> {
+                Map<String, Integer> ids = new HashMap<>();
+                for (Object[] row : session.createNamedQuery("User.findIdsByEmail", Object[].class)
+                        .setParameterList("emails", emails)
+                        .list()) {
+                    ids.put((String) row[0], (Integer) row[1]);
+                }
+                return ids;
+            });
         } catch (Exception e) {
-            logger.severe("Error al contar usuarios: " + e.getMessage());
+            logger.severe("Error al buscar usuarios por email: " + e.getMessage());
             throw e;
         }
     }
@@ -159,11 +176,16 @@ public class UserRepository implements Repository<User> {
      */
     public Optional<User> findByEmail(String email) {
         logger.info("Buscando usuario por email: " + email);
-        try(Session session = sessionFactory.openSession()) {
-            Query<User> q = session.createQuery(
-                    "from User where email=:email",User.class);
-            q.setParameter("email", email);
-            Optional<User> user = Optional.ofNullable(q.uniqueResult());
+        try {
+            Optional<User> user = transactions.readOnly(session -> {
+                Query<User> q = session.createNamedQuery("User.findByEmail", User.class);
+                q.setParameter("email", email);
+                User found = q.uniqueResult();
+                if (found != null) {
+                    initializeLazy(found);
+                }
+                return Optional.ofNullable(found);
+            }).map(this::resolve);
             if (user.isPresent()) {
                 logger.info("Usuario con email " + email + " encontrado.");
             } else {
@@ -0,0 +1,136 @@
+package org.example.reto2.utils;
+
+import javafx.scene.control.TableColumn;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Ordenación de textos según las reglas del español para las tablas de la aplicación.
+ * {@code String.compareTo} ordena por código Unicode, de modo que "Álvarez" quedaba detrás de "Zapata";
+ * un {@link Collator} ordena bien pero analiza las dos cadenas en cada comparación, lo que con decenas de
+ * miles de filas hace la ordenación varias veces más lenta.
+ * <p>
+ * Por eso, al ordenar, cada texto se convierte una sola vez en su {@link CollationKey} (una secuencia de
+ * bytes que se compara directamente): las claves se calculan por fila y columna en cada ordenación, fuera
+ * del hilo de JavaFX ({@link TableSorter}), y se descartan al terminar, así que no hay ninguna caché global
+ * que crezca ni que haya que vaciar. Las listas grandes calculan las claves y se ordenan en paralelo.
+ * <p>
+ * Se compara con intensidad secundaria: no distingue mayúsculas de minúsculas, y los acentos solo
+ * deciden entre palabras por lo demás iguales ("Ávila" justo después de "Avila").
+ */
+public final class CollatedSort {
+
+    /** Idioma de las reglas de ordenación. */
+    public static final Locale LOCALE = Locale.forLanguageTag("es-ES");
+    /** Tamaño a partir del cual las claves se calculan y las listas se ordenan en paralelo. */
+    public static final int PARALLEL_THRESHOLD = 10_000;
+
+    /** Los Collator no son seguros entre hilos (y sus métodos están sincronizados), así que se usa uno por hilo. */
+    private static final ThreadLocal<Collator> COLLATOR = ThreadLocal.withInitial(() -> {
+        Collator collator = Collator.getInstance(LOCALE);
+        collator.setStrength(Collator.SECONDARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    });
+
+    /**
+     * Comparador de textos con las reglas del español; los null van primero. Compara con el Collator en
+     * cada llamada, así que solo conviene para comparaciones sueltas: es el que {@link #install} asigna a
+     * las columnas, y {@link TableSorter} lo reconoce para ordenar esas columnas por claves precalculadas.
+     */
+    public static final Comparator<String> COMPARATOR = Comparator.nullsFirst((a, b) -> COLLATOR.get().compare(a, b));
+
+    private CollatedSort() {
+    }
+
+    /**
+     * Calcula la clave de ordenación de un texto con el Collator del hilo actual.
+     * @param text El texto.
+     * @return Su clave de ordenación, o null si el texto es null.
+     */
+    public static CollationKey key(String text) {
+        return text == null ? null : COLLATOR.get().getCollationKey(text);
+    }
+
+    /**
+     * Compara dos claves de ordenación; las null van primero, como en {@link #COMPARATOR}.
+     * @param a Una clave, o null.
+     * @param b Otra clave, o null.
+     * @return Un número negativo, cero o positivo según a vaya antes, junto o después de b.
+     */
+    public static int compareKeys(CollationKey a, CollationKey b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : a == null ? -1 : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    /**
+     * Ordena una lista por uno de sus textos: calcula la clave de cada fila una sola vez (en paralelo si
+     * la lista es grande), ordena las posiciones por esas claves y coloca las filas en el nuevo orden.
+     * Pensado para llamarse fuera del hilo de JavaFX, por ejemplo al cargar los datos de una pantalla.
+     * @param rows La lista a ordenar; debe ser modificable.
+     * @param text Obtiene el texto de una fila.
+     * @param <S> El tipo de las filas.
+     */
+    @SuppressWarnings("unchecked")
+    public static <S> void sortBy(List<S> rows, Function<? super S, String> text) {
+        S[] array = (S[]) rows.toArray();
+        CollationKey[] keys = new CollationKey[array.length];
+        stream(array.length).forEach(i -> keys[i] = key(text.apply(array[i])));
+        int[] order = order(array.length, (a, b) -> compareKeys(keys[a], keys[b]));
+        for (int i = 0; i < order.length; i++) {
+            rows.set(i, array[order[i]]);
+        }
+    }
+
+    /**
+     * Recorre las posiciones de una lista, en paralelo si es grande.
+     * @param size El tamaño de la lista.
+     * @return Las posiciones de 0 a size - 1.
+     */
+    static IntStream stream(int size) {
+        IntStream positions = IntStream.range(0, size);
+        return size >= PARALLEL_THRESHOLD ? positions.parallel() : positions;
+    }
+
+    /**
+     * Ordena las posiciones de una lista con un comparador de posiciones, de forma estable y en paralelo
+     * si la lista es grande.
+     * @param size El tamaño de la lista.
+     * @param comparator Compara dos posiciones, normalmente por sus claves precalculadas.
+     * @return Las posiciones en el nuevo orden.
+     */
+    static int[] order(int size, Comparator<Integer> comparator) {
+        Integer[] positions = new Integer[size];
+        Arrays.setAll(positions, i -> i);
+        if (size >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(positions, comparator);
+        } else {
+            Arrays.sort(positions, comparator);
+        }
+        int[] order = new int[size];
+        Arrays.setAll(order, i -> positions[i]);
+        return order;
+    }
+
+    /**
+     * Hace que unas columnas de texto se ordenen según las reglas del español. Las tablas con un
+     * {@link TableSorter} ordenan estas columnas por claves precalculadas fuera del hilo de JavaFX.
+     * @param columns Las columnas.
+     * @param <S> El tipo de las filas.
+     */
+    @SafeVarargs
+    public static <S> void install(TableColumn<S, String>... columns) {
+        for (TableColumn<S, String> column : columns) {
+            column.setComparator(COMPARATOR);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.reto2.utils;
+
+import org.example.reto2.copia.EstadoCopia;
+import org.example.reto2.copia.SoporteCopia;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Migraciones de datos que se ejecutan al arrancar, después de que Hibernate actualice el esquema
+ * ({@code hbm2ddl.auto=update}). {@code hbm2ddl} solo añade columnas y tablas, por lo que aquí se
+ * rellenan las columnas nuevas a partir de las antiguas y se eliminan estas cuando ya no hacen falta.
+ * Cada migración comprueba si tiene trabajo pendiente, de modo que ejecutarlas de nuevo no tiene efecto.
+ */
+public class DataMigrations {
+
+    private static final Logger logger = Logger.getLogger(DataMigrations.class.getName());
+
+    /**
+     * Constructor privado para evitar instanciación de la clase de utilidad.
+     */
+    private DataMigrations() {
+    }
+
+    /**
+     * Ejecuta todas las migraciones pendientes. Un fallo se registra pero no impide arrancar.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     */
+    public static void run(SessionFactory sessionFactory) {
+        try {
+            sessionFactory.inTransaction(DataMigrations::migrateCopiaCodes);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error al ejecutar las migraciones de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Convierte las columnas de texto {@code estado} y {@code soporte} de la tabla {@code copia}
+     * en los códigos {@code estado_code} y {@code soporte_code}. Las columnas de texto solo se
+     * eliminan si todas las filas se han podido convertir; si hay valores desconocidos se conservan
+     * para revisarlos a mano.
+     * @param session La sesión de la transacción en curso.
+     */
+    static void migrateCopiaCodes(Session session) {
+        if (!columnExists(session, "copia", "estado") || !columnExists(session, "copia", "soporte")) {
+            return;
+        }
+        long start = System.nanoTime();
+        int migrated = session.createNativeMutationQuery("update copia set "
+                        + "estado_code = " + caseOf("estado", EstadoCopia.values(), EstadoCopia::getDisplayName, EstadoCopia::getCode) + ", "
+                        + "soporte_code = " + caseOf("soporte", SoporteCopia.values(), SoporteCopia::getDisplayName, SoporteCopia::getCode) + ", "
+                        + "updated_at = current_timestamp(6) "
+                        + "where estado_code is null or soporte_code is null")
+                .executeUpdate();
+        logger.info(migrated + " copias migradas a códigos de estado y soporte en " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+
+        Number unknown = (Number) session.createNativeQuery("select count(*) from copia "
+                        + "where (estado is not null and estado_code is null) or (soporte is not null and soporte_code is null)", Object.class)
+                .getSingleResult();
+        if (unknown.longValue() > 0) {
+            logger.warning(unknown + " copias tienen un estado o soporte desconocido. Se conservan las columnas de texto.");
+            return;
+        }
+        session.createNativeMutationQuery("alter table copia drop column estado, drop column soporte").executeUpdate();
+        logger.info("Columnas de texto estado y soporte eliminadas de la tabla copia.");
+    }
+
+    private static boolean columnExists(Session session, String table, String column) {
+        Number count = (Number) session.createNativeQuery("select count(*) from information_schema.columns "
+                        + "where table_schema = database() and table_name = :table and column_name = :column", Object.class)
+                .setParameter("table", table)
+                .setParameter("column", column)
+                .getSingleResult();
+        return count.intValue() > 0;
+    }
+
+    /**
+     * Construye una expresión {@code CASE} que traduce los nombres de texto a sus códigos,
+     * a partir de los propios valores del enum.
+     */
+    private static <E> String caseOf(String column, E[] values, Function<E, String> name, Function<E, Byte> code) {
+        StringBuilder sql = new StringBuilder("case lower(trim(").append(column).append("))");
+        for (E value : values) {
+            sql.append(" when '").append(name.apply(value)).append("' then ").append(code.apply(value));
+        }
+        return sql.append(" else null end").toString();
+    }
+}
@@ -1,8 +1,12 @@
 package org.example.reto2.utils;
 
+import org.example.reto2.sync.ChangeTracking;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 
+import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,6 +18,7 @@ public class DataProvider {
 
     private static final Logger logger = Logger.getLogger(DataProvider.class.getName());
     public static SessionFactory sessionFactory = null;
+    private static final Properties overrides = new Properties();
 
     /**
      * Constructor privado para evitar instanciación de la clase de utilidad.
@@ -22,6 +27,18 @@ public class DataProvider {
         // Constructor privado
     }
 
+    /**
+     * Sobrescribe propiedades de hibernate.cfg.xml (ej. {@code hibernate.show_sql}).
+     * Solo tiene efecto si se llama antes de inicializar la SessionFactory.
+     * @param properties Las propiedades a sobrescribir.
+     */
+    public static void setOverrides(Properties properties) {
+        if (sessionFactory != null) {
+            logger.warning("La SessionFactory ya está inicializada. Las propiedades indicadas no se aplicarán.");
+        }
+        overrides.putAll(properties);
+    }
+
     /**
      * Obtiene la SessionFactory de Hibernate. Si no ha sido inicializada, la configura
      * utilizando el archivo hibernate.cfg.xml y las variables de entorno para las credenciales de la DB.
@@ -42,9 +59,12 @@ public class DataProvider {
                     configuration.setProperty("hibernate.connection.password", dbPassword);
                     logger.info("Credenciales de DB cargadas desde variables de entorno.");
                 }
+                configuration.addProperties(overrides);
 
                 sessionFactory = configuration.buildSessionFactory();
                 logger.info("SessionFactory de Hibernate inicializada exitosamente.");
+                DataMigrations.run(sessionFactory);
+                purgeTombstones(sessionFactory);
             } catch (Exception e) {
                 logger.log(Level.SEVERE, "Error al inicializar la SessionFactory de Hibernate: " + e.getMessage(), e);
                 return null;
@@ -52,4 +72,33 @@ public class DataProvider {
         }
         return sessionFactory;
     }
+
+    /**
+     * Abre una sesión de solo lectura sobre la SessionFactory indicada.
+     * Las entidades cargadas se marcan como read-only (Hibernate no guarda instantáneas
+     * para el dirty checking) y el flush queda en modo manual, ya que la sesión solo se usa
+     * para consultar datos que se van a mostrar.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     * @return Una nueva sesión configurada en modo de solo lectura.
+     */
+    public static Session openReadOnlySession(SessionFactory sessionFactory) {
+        Session session = sessionFactory.openSession();
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return session;
+    }
+
+    /**
+     * Elimina las lápidas de entidades borradas que superan el periodo de retención.
+     * Es una tarea de mantenimiento, por lo que un fallo solo se registra.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     */
+    private static void purgeTombstones(SessionFactory sessionFactory) {
+        try {
+            int purged = sessionFactory.fromTransaction(ChangeTracking::purgeTombstones);
+            logger.info(purged + " lápidas caducadas eliminadas.");
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "No se pudieron eliminar las lápidas caducadas: " + e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,300 @@
+package org.example.reto2.utils;
+
+import jakarta.persistence.Table;
+import org.example.reto2.copia.Copia;
+import org.example.reto2.user.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Contadores de entidades mantenidos en memoria, para no ejecutar un {@code select count(*)}
+ * (que InnoDB resuelve recorriendo un índice completo) cada vez que se muestra un total.
+ * <p>
+ * Cada contador se carga con un recuento real la primera vez que se pide y después se actualiza
+ * con los listeners de Hibernate de inserción y borrado confirmados ({@code POST_COMMIT_INSERT},
+ * {@code POST_COMMIT_DELETE}), de modo que las transacciones deshechas no cuentan. Las sentencias
+ * HQL masivas no generan eventos: los repositorios ajustan o invalidan los contadores afectados tras
+ * confirmarlas. Además se reconcilian periódicamente con un recuento real para corregir cambios hechos
+ * por otros clientes. También se mantiene el número de copias de cada usuario.
+ * <p>
+ * Un recuento real solo sustituye al contador si este no ha cambiado mientras se contaba: un evento
+ * recibido durante la consulta puede estar ya incluido en el recuento o no, y sumarlo o descartarlo a
+ * ciegas dejaría el contador mal hasta la siguiente reconciliación. En ese caso se vuelve a contar.
+ * <p>
+ * Hay una instancia por SessionFactory ({@link #of(SessionFactory)}).
+ */
+public class EntityCounters implements PostCommitInsertEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger logger = Logger.getLogger(EntityCounters.class.getName());
+    private static final long RECONCILE_PERIOD_MINUTES = 5;
+    /** Recuentos que se intentan antes de dejar un contador para la siguiente reconciliación. */
+    private static final int RECOUNT_ATTEMPTS = 3;
+    /** A partir de este número de filas estimadas, {@link #approximateCount} devuelve la estimación. */
+    public static final long APPROXIMATE_THRESHOLD = 1_000_000;
+
+    private static final Map<SessionFactory, EntityCounters> instances = new ConcurrentHashMap<>();
+
+    private final SessionFactory sessionFactory;
+    private final Map<Class<?>, AtomicLong> totals = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> copiasPorUsuario = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private EntityCounters(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Obtiene los contadores de una SessionFactory. La primera vez registra los listeners
+     * de Hibernate y programa la reconciliación periódica.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     * @return Los contadores de la SessionFactory.
+     */
+    public static EntityCounters of(SessionFactory sessionFactory) {
+        return instances.computeIfAbsent(sessionFactory, EntityCounters::install);
+    }
+
+    private static EntityCounters install(SessionFactory sessionFactory) {
+        EntityCounters counters = new EntityCounters(sessionFactory);
+        EventListenerRegistry registry = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getEventEngine().getListenerRegistry();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, counters);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, counters);
+        counters.startReconciliation();
+        logger.info("Contadores de entidades registrados.");
+        return counters;
+    }
+
+    /**
+     * Obtiene el número de entidades de un tipo. Solo consulta la base de datos la primera vez.
+     * La entidad debe declarar la consulta con nombre {@code <Entidad>.count}.
+     * @param entityClass La clase de la entidad.
+     * @return El número de entidades.
+     */
+    public long count(Class<?> entityClass) {
+        return load(totals, entityClass, this::exactCount);
+    }
+
+    /**
+     * Obtiene el número de entidades de un tipo admitiendo una estimación para tablas muy grandes.
+     * Si el contador ya está cargado se devuelve su valor exacto. Si no, se consulta la estimación
+     * de {@code information_schema.tables} (inmediata, pero con un error que en InnoDB puede ser de
+     * un 40-50 %) y solo si no llega a {@link #APPROXIMATE_THRESHOLD} filas se hace el recuento real.
+     * @param entityClass La clase de la entidad.
+     * @return El número de entidades, exacto o estimado.
+     */
+    public long approximateCount(Class<?> entityClass) {
+        AtomicLong cached = totals.get(entityClass);
+        if (cached != null) {
+            return cached.get();
+        }
+        long estimate = estimate(entityClass);
+        return estimate >= APPROXIMATE_THRESHOLD ? estimate : count(entityClass);
+    }
+
+    /**
+     * Obtiene el número de copias (filas, no unidades) de un usuario.
+     * @param userId El ID del usuario.
+     * @return El número de copias del usuario.
+     */
+    public long countCopias(Integer userId) {
+        return load(copiasPorUsuario, userId, this::exactCopias);
+    }
+
+    /**
+     * Aplica una variación conocida a un contador ya cargado, tras una operación masiva.
+     * @param entityClass La clase de la entidad.
+     * @param delta La variación (positiva o negativa).
+     */
+    public void adjust(Class<?> entityClass, long delta) {
+        AtomicLong total = totals.get(entityClass);
+        if (total != null) {
+            total.addAndGet(delta);
+        }
+    }
+
+    /**
+     * Descarta el contador de un tipo de entidad (y, para las copias, los de cada usuario), que se
+     * volverá a cargar la próxima vez que se pida. Se usa tras operaciones masivas de efecto desconocido.
+     * @param entityClass La clase de la entidad.
+     */
+    public void invalidate(Class<?> entityClass) {
+        totals.remove(entityClass);
+        if (entityClass == Copia.class) {
+            copiasPorUsuario.clear();
+        }
+    }
+
+    /**
+     * Descarta el número de copias de un usuario.
+     * @param userId El ID del usuario.
+     */
+    public void invalidateUser(Integer userId) {
+        copiasPorUsuario.remove(userId);
+    }
+
+    /**
+     * Vuelve a contar todos los contadores cargados y descarta los de copias por usuario,
+     * que se recargan cuando se pidan. Un contador que cambia mientras se cuenta se vuelve a contar
+     * y, si sigue cambiando, se deja como está hasta la siguiente reconciliación.
+     */
+    public void reconcile() {
+        long start = System.nanoTime();
+        for (Map.Entry<Class<?>, AtomicLong> entry : totals.entrySet()) {
+            recount(entry.getKey().getSimpleName(), entry.getValue(), entry.getKey(), this::exactCount);
+        }
+        copiasPorUsuario.clear();
+        logger.fine("Contadores reconciliados en " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Carga un contador con un recuento real fuera del mapa (sin bloquear su entrada mientras se consulta)
+     * y lo publica si nadie lo ha hecho antes. Los eventos confirmados entre el recuento y la publicación
+     * no encuentran el contador y se pierden, así que después se vuelve a contar en segundo plano.
+     */
+    private <K> long load(Map<K, AtomicLong> counters, K key, ToLongFunction<K> exact) {
+        AtomicLong counter = counters.get(key);
+        if (counter != null) {
+            return counter.get();
+        }
+        AtomicLong loaded = new AtomicLong(exact.applyAsLong(key));
+        counter = counters.putIfAbsent(key, loaded);
+        if (counter != null) {
+            return counter.get();
+        }
+        try {
+            scheduler.execute(() -> recount(String.valueOf(key), loaded, key, exact));
+        } catch (RejectedExecutionException e) {
+            logger.fine("Reconciliación detenida; el contador de " + key + " no se vuelve a contar.");
+        }
+        return loaded.get();
+    }
+
+    /**
+     * Sustituye un contador por un recuento real solo si no ha cambiado mientras se contaba.
+     */
+    private <K> void recount(String name, AtomicLong counter, K key, ToLongFunction<K> exact) {
+        for (int attempt = 0; attempt < RECOUNT_ATTEMPTS; attempt++) {
+            long before = counter.get();
+            long value = exact.applyAsLong(key);
+            if (counter.compareAndSet(before, value)) {
+                if (value != before) {
+                    logger.info("Contador de " + name + " corregido en " + (value - before) + ".");
+                }
+                return;
+            }
+        }
+        logger.fine("El contador de " + name + " cambió en cada recuento; se corregirá en la siguiente reconciliación.");
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        apply(event.getPersister(), event.getEntity(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        apply(event.getPersister(), event.getEntity(), -1);
+        if (event.getEntity() instanceof User user) {
+            copiasPorUsuario.remove(user.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // La inserción no se ha confirmado: no hay nada que contar
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // El borrado no se ha confirmado: no hay nada que descontar
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private void apply(EntityPersister persister, Object entity, long delta) {
+        adjust(persister.getMappedClass(), delta);
+        if (entity instanceof Copia copia && copia.getUser() != null) {
+            AtomicLong copias = copiasPorUsuario.get(copia.getUser().getId());
+            if (copias != null) {
+                copias.addAndGet(delta);
+            }
+        }
+    }
+
+    private long exactCount(Class<?> entityClass) {
+        try (Session session = DataProvider.openReadOnlySession(sessionFactory)) {
+            return session.createNamedQuery(entityClass.getSimpleName() + ".count", Long.class).uniqueResult();
+        }
+    }
+
+    private long exactCopias(Integer userId) {
+        try (Session session = DataProvider.openReadOnlySession(sessionFactory)) {
+            return session.createNamedQuery("Copia.countByUser", Long.class)
+                    .setParameter("userId", userId)
+                    .uniqueResult();
+        }
+    }
+
+    /**
+     * Obtiene la estimación de filas de la tabla de una entidad, o -1 si no está disponible.
+     */
+    private long estimate(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        String tableName = table != null && !table.name().isEmpty() ? table.name() : entityClass.getSimpleName().toLowerCase();
+        try (Session session = DataProvider.openReadOnlySession(sessionFactory)) {
+            Object rows = session.createNativeQuery("select table_rows from information_schema.tables "
+                            + "where table_schema = database() and table_name = :table", Object.class)
+                    .setParameter("table", tableName)
+                    .uniqueResult();
+            return rows instanceof Number n ? n.longValue() : -1;
+        } catch (Exception e) {
+            logger.log(Level.FINE, "Estimación de filas no disponible para " + tableName + ": " + e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    private synchronized void startReconciliation() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "entity-counters");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (sessionFactory.isClosed()) {
+                instances.remove(sessionFactory);
+                scheduler.shutdown();
+                return;
+            }
+            try {
+                reconcile();
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Error al reconciliar los contadores de entidades: " + e.getMessage(), e);
+            }
+        }, RECONCILE_PERIOD_MINUTES, RECONCILE_PERIOD_MINUTES, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,500 @@
+package org.example.reto2.utils;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.example.reto2.audit.AuditAction;
+import org.example.reto2.audit.AuditLog;
+import org.example.reto2.sync.ChangeSet;
+import org.example.reto2.sync.ChangeTracking;
+import org.example.reto2.sync.DataVersion;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.tuple.entity.EntityMetamodel;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Implementación base de {@link Repository} sobre Hibernate.
+ * Centraliza la apertura de sesiones, la gestión de transacciones (con rollback y reintentos,
+ * ver {@link TransactionTemplate}) y las operaciones CRUD comunes, de forma que los repositorios
+ * concretos solo añadan sus consultas específicas.
+ * <p>
+ * Las entidades gestionadas deben tener el atributo {@code updatedAt} y las eliminaciones registran
+ * lápidas ({@link org.example.reto2.sync.Tombstone}), de forma que {@link #findChangedSince(long)}
+ * pueda devolver solo los cambios desde la última sincronización.
+ * <p>
+ * Las consultas comunes son consultas con nombre que cada entidad declara con su nombre como prefijo:
+ * {@code <Entidad>.findAll}, {@code .count}, {@code .findPage}, {@code .findVersion} y {@code .deleteByIds}.
+ * Así Hibernate las valida al construir la SessionFactory y no vuelve a interpretarlas en cada llamada.
+ * <p>
+ * Las escrituras confirmadas se registran en la auditoría ({@link AuditLog}) después del commit, nunca
+ * dentro de la transacción, para que un reintento no duplique eventos.
+ *
+ * @param <T> El tipo de entidad gestionada.
+ * @param <ID> El tipo del identificador de la entidad.
+ */
+public abstract class HibernateRepository<T, ID extends Serializable> implements Repository<T> {
+
+    private static final Logger logger = Logger.getLogger(HibernateRepository.class.getName());
+
+    /** Número máximo de identificadores por sentencia en las operaciones masivas. */
+    public static final int BULK_CHUNK_SIZE = 500;
+
+    protected final SessionFactory sessionFactory;
+    protected final TransactionTemplate transactions;
+    protected final EntityCounters counters;
+    protected final AuditLog audit = AuditLog.getInstance();
+    protected final Class<T> entityClass;
+    protected final String entityName;
+    private final Function<Long, ID> idConverter;
+    private final String displayName;
+
+    /**
+     * Constructor que inicializa el repositorio base.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     * @param entityClass La clase de la entidad gestionada.
+     * @param idConverter Convierte los identificadores {@code Long} de la interfaz {@link Repository}
+     *                    al tipo real del identificador de la entidad.
+     * @param displayName Nombre de la entidad para los mensajes de log (ej. "película").
+     */
+    protected HibernateRepository(SessionFactory sessionFactory, Class<T> entityClass,
+                                  Function<Long, ID> idConverter, String displayName) {
+        this.sessionFactory = sessionFactory;
+        this.transactions = new TransactionTemplate(sessionFactory);
+        this.counters = EntityCounters.of(sessionFactory);
+        this.entityClass = entityClass;
+        this.entityName = entityClass.getSimpleName();
+        this.idConverter = idConverter;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Obtiene el identificador de una entidad.
+     * @param entity La entidad.
+     * @return Su identificador, o null si aún no ha sido persistida.
+     */
+    protected abstract ID getId(T entity);
+
+    /**
+     * Asigna el identificador de una entidad. Se usa para deshacer el ID asignado por un intento
+     * de inserción cuya transacción se ha revertido, antes de reintentarla.
+     * @param entity La entidad.
+     * @param id El identificador, o null.
+     */
+    protected abstract void setId(T entity, ID id);
+
+    /**
+     * Devuelve una descripción legible de la entidad para los mensajes de log.
+     * @param entity La entidad.
+     * @return La descripción de la entidad.
+     */
+    protected String describe(T entity) {
+        return displayName + " con ID " + getId(entity);
+    }
+
+    /**
+     * Inicializa, con la sesión aún abierta, las asociaciones perezosas que se usan fuera de ella.
+     * Se llama con cada entidad que devuelven las operaciones de lectura.
+     * Por defecto no hace nada.
+     * @param entity La entidad cargada o guardada.
+     */
+    protected void initializeLazy(T entity) {
+    }
+
+    /**
+     * Resuelve una entidad recién cargada o guardada antes de devolverla, para que las subclases puedan
+     * compartir instancias entre sesiones (ver {@link org.example.reto2.pelicula.PeliculaIdentityMap}).
+     * Por defecto devuelve la misma entidad.
+     * @param entity La entidad, ya fuera de la sesión.
+     * @return La entidad que se devuelve al llamante.
+     */
+    protected T resolve(T entity) {
+        return entity;
+    }
+
+    /**
+     * Convierte un identificador {@code Long} al tipo de identificador de la entidad.
+     * @param id El identificador recibido.
+     * @return El identificador con el tipo correcto.
+     */
+    protected ID toId(Long id) {
+        return idConverter.apply(id);
+    }
+
+    /**
+     * Crea una unidad de trabajo que agrupa varias operaciones en una sola transacción.
+     * @return Una nueva unidad de trabajo vacía.
+     */
+    public UnitOfWork unitOfWork() {
+        return new UnitOfWork(transactions);
+    }
+
+    /**
+     * Guarda una entidad en la base de datos.
+     * Si la entidad no tiene ID se inserta con {@link #insert(Object)}; si ya lo tiene se actualiza
+     * directamente con {@link #update(Object)}. Ninguno de los dos caminos lee antes la fila, a
+     * diferencia de {@code merge}, que hacía un SELECT (con sus asociaciones EAGER) antes de cada escritura.
+     * @param entity La entidad a guardar.
+     * @return La misma entidad, con su ID asignado.
+     */
+    @Override
+    public T save(T entity) {
+        logger.info("Guardando " + describe(entity));
+        try {
+            AuditAction action = getId(entity) == null ? AuditAction.CREAR : AuditAction.MODIFICAR;
+            T saved = resolve(action == AuditAction.CREAR ? insert(entity) : update(entity));
+            audit.record(action, entityName, getId(saved), describe(saved));
+            logger.info("Guardado completado: " + describe(saved) + ".");
+            return saved;
+        } catch (Exception e) {
+            logger.severe("Error al guardar " + describe(entity) + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Inserta una entidad nueva con {@code persist}, que ejecuta directamente el INSERT.
+     * Si la transacción se revierte tras asignar el ID, se borra antes de reintentar
+     * para que el reintento vuelva a insertar la entidad.
+     * @param entity La entidad nueva, sin ID.
+     * @return La misma entidad, con su ID asignado.
+     */
+    protected T insert(T entity) {
+        return transactions.execute(session -> {
+            if (getId(entity) != null) {
+                setId(entity, null);
+            }
+            session.persist(entity);
+            return entity;
+        });
+    }
+
+    /**
+     * Actualiza una entidad existente con un UPDATE directo por su ID, en una {@link org.hibernate.StatelessSession},
+     * sin leerla antes ni propagar la operación a sus colecciones. Si la fila ya no existe, Hibernate
+     * lanza {@link org.hibernate.StaleStateException} al no actualizarse ninguna fila.
+     * @param entity La entidad separada con los nuevos valores.
+     * @return La misma entidad.
+     */
+    protected T update(T entity) {
+        return transactions.stateless(session -> {
+            session.update(entity);
+            return entity;
+        });
+    }
+
+    /**
+     * Elimina una entidad de la base de datos.
+     * @param entity La entidad a eliminar.
+     * @return Un Optional que contiene la entidad eliminada si existía, o un Optional vacío si no.
+     */
+    @Override
+    public Optional<T> delete(T entity) {
+        logger.info("Intentando eliminar " + describe(entity));
+        return deleteByKey(getId(entity));
+    }
+
+    /**
+     * Elimina una entidad por su ID de la base de datos.
+     * @param id El ID de la entidad a eliminar.
+     * @return Un Optional que contiene la entidad eliminada si existía, o un Optional vacío si no.
+     */
+    @Override
+    public Optional<T> deleteById(Long id) {
+        logger.info("Intentando eliminar " + displayName + " por ID: " + id);
+        return deleteByKey(toId(id));
+    }
+
+    /**
+     * Elimina una entidad por su identificador con su tipo real.
+     * @param id El identificador de la entidad.
+     * @return Un Optional que contiene la entidad eliminada si existía, o un Optional vacío si no.
+     */
+    protected Optional<T> deleteByKey(ID id) {
+        try {
+            Optional<T> deleted = transactions.execute(session -> {
+                T managed = session.find(entityClass, id);
+                if (managed != null) {
+                    ChangeTracking.recordDeletes(session, entityName, List.of(id));
+                    session.remove(managed);
+                }
+                return Optional.ofNullable(managed);
+            });
+            if (deleted.isPresent()) {
+                audit.record(AuditAction.ELIMINAR, entityName, id, describe(deleted.get()));
+                logger.info("Eliminación completada: " + displayName + " con ID " + id + ".");
+            } else {
+                logger.warning("No existe " + displayName + " con ID " + id + " para eliminar.");
+            }
+            return deleted;
+        } catch (Exception e) {
+            logger.severe("Error al eliminar " + displayName + " con ID " + id + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Busca una entidad por su ID en una sesión de solo lectura.
+     * @param id El ID de la entidad a buscar.
+     * @return Un Optional que contiene la entidad si se encuentra, o un Optional vacío si no.
+     */
+    @Override
+    public Optional<T> findById(Long id) {
+        logger.info("Buscando " + displayName + " por ID: " + id);
+        try {
+            Optional<T> entity = transactions.readOnly(session -> {
+                T found = session.find(entityClass, toId(id));
+                if (found != null) {
+                    initializeLazy(found);
+                }
+                return Optional.ofNullable(found);
+            }).map(this::resolve);
+            logger.info("Búsqueda de " + displayName + " con ID " + id + (entity.isPresent() ? ": con resultado." : ": sin resultados."));
+            return entity;
+        } catch (Exception e) {
+            logger.severe("Error al buscar " + displayName + " por ID " + id + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Recupera todas las entidades en una sesión de solo lectura.
+     * @return Una Lista de todas las entidades encontradas.
+     */
+    @Override
+    public List<T> findAll() {
+        logger.info("Recuperando todas las entidades " + entityName + ".");
+        try {
+            List<T> entities = transactions.readOnly(session -> {
+                List<T> all = session.createNamedQuery(entityName + ".findAll", entityClass).list();
+                all.forEach(this::initializeLazy);
+                return all;
+            });
+            entities.replaceAll(this::resolve);
+            logger.info(entities.size() + " entidades " + entityName + " recuperadas.");
+            return entities;
+        } catch (Exception e) {
+            logger.severe("Error al recuperar las entidades " + entityName + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el número total de entidades. Solo la primera llamada consulta la base de datos;
+     * después el valor se mantiene con {@link EntityCounters}.
+     * @return El número total de entidades.
+     */
+    @Override
+    public Long count() {
+        try {
+            return counters.count(entityClass);
+        } catch (Exception e) {
+            logger.severe("Error al contar entidades " + entityName + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el número total de entidades admitiendo una estimación si la tabla es muy grande
+     * (ver {@link EntityCounters#approximateCount(Class)}). Pensado para pies de paginación y paneles.
+     * @return El número de entidades, exacto o estimado.
+     */
+    public long countApproximate() {
+        return counters.approximateCount(entityClass);
+    }
+
+    /**
+     * Obtiene las entidades creadas, modificadas y eliminadas desde un watermark, en una sesión
+     * de solo lectura. El coste depende del número de cambios y no del tamaño de la tabla.
+     * @param watermark El watermark de la última sincronización, o {@link ChangeTracking#NONE}
+     *                  para una carga completa.
+     * @return Los cambios y el nuevo watermark.
+     */
+    public ChangeSet<T, ID> findChangedSince(long watermark) {
+        try {
+            ChangeSet<T, ID> changes = transactions.readOnly(session -> {
+                ChangeSet<T, ID> changed = ChangeTracking.findChangedSince(session, entityClass, null, Map.of(), watermark, this::toId);
+                changed.changed().forEach(this::initializeLazy);
+                return changed;
+            });
+            changes.changed().replaceAll(this::resolve);
+            return changes;
+        } catch (Exception e) {
+            logger.severe("Error al consultar los cambios de " + entityName + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Recupera una página de entidades ordenadas por su identificador, en una sesión de solo lectura.
+     * @param page El número de página, empezando en 0.
+     * @param size El número de entidades por página.
+     * @return Las entidades de la página.
+     */
+    public List<T> findPage(int page, int size) {
+        try {
+            List<T> entities = transactions.readOnly(session -> {
+                List<T> found = session.createNamedQuery(entityName + ".findPage", entityClass)
+                        .setFirstResult(page * size)
+                        .setMaxResults(size)
+                        .list();
+                found.forEach(this::initializeLazy);
+                return found;
+            });
+            entities.replaceAll(this::resolve);
+            return entities;
+        } catch (Exception e) {
+            logger.severe("Error al recuperar la página " + page + " de " + entityName + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene la versión actual de los datos de la entidad con una única consulta agregada
+     * sobre el índice de {@code updated_at}.
+     * @return La versión de los datos.
+     */
+    public DataVersion findVersion() {
+        try {
+            return transactions.readOnly(session -> {
+                Object[] row = session.createNamedQuery(entityName + ".findVersion", Object[].class).uniqueResult();
+                long watermark = row[0] == null ? ChangeTracking.NONE : ChangeTracking.toWatermark((LocalDateTime) row[0]);
+                return new DataVersion(watermark, ((Number) row[1]).longValue());
+            });
+        } catch (Exception e) {
+            logger.severe("Error al obtener la versión de " + entityName + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Elimina varias entidades a partir de sus identificadores, sin cargarlas.
+     * Se ejecuta una sentencia {@code DELETE ... WHERE id IN (...)} por cada bloque de
+     * {@link #BULK_CHUNK_SIZE} identificadores, todos dentro de la misma transacción.
+     * @param ids Los identificadores de las entidades a eliminar.
+     * @return El número de filas eliminadas.
+     */
+    public int deleteAllByIds(Collection<ID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        logger.info("Eliminación masiva de " + ids.size() + " entidades " + entityName + ".");
+        try {
+            int deleted = transactions.execute(session -> {
+                int total = 0;
+                for (List<ID> chunk : chunks(ids)) {
+                    beforeBulkDelete(session, chunk);
+                    ChangeTracking.recordDeletes(session, entityName, chunk);
+                    total += session.createNamedMutationQuery(entityName + ".deleteByIds")
+                            .setParameterList("ids", chunk)
+                            .executeUpdate();
+                }
+                return total;
+            });
+            logger.info(deleted + " entidades " + entityName + " eliminadas.");
+            counters.adjust(entityClass, -deleted);
+            ids.forEach(id -> audit.record(AuditAction.ELIMINAR, entityName, id, "Eliminación masiva"));
+            afterBulkDelete(ids);
+            return deleted;
+        } catch (Exception e) {
+            logger.severe("Error en la eliminación masiva de " + entityName + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Se ejecuta después de confirmar una eliminación masiva, para que las subclases
+     * actualicen lo que dependa de las entidades eliminadas. Por defecto no hace nada.
+     * @param ids Los identificadores de las entidades eliminadas.
+     */
+    protected void afterBulkDelete(Collection<ID> ids) {
+    }
+
+    /**
+     * Actualiza un atributo básico de varias entidades a la vez, sin cargarlas.
+     * Se ejecuta una sentencia {@code UPDATE ... WHERE id IN (...)} por cada bloque de
+     * {@link #BULK_CHUNK_SIZE} identificadores, todos dentro de la misma transacción.
+     * Las sentencias HQL no pasan por {@code @UpdateTimestamp}, así que también se actualiza
+     * {@code updatedAt} para que la sincronización incremental detecte el cambio.
+     * @param ids Los identificadores de las entidades a actualizar.
+     * @param attribute El nombre del atributo de la entidad (ej. "genero").
+     * @param value El nuevo valor del atributo.
+     * @return El número de filas actualizadas.
+     * @throws IllegalArgumentException Si el atributo no existe, es el identificador o no es básico.
+     */
+    public int updateAllByIds(Collection<ID> ids, String attribute, Object value) {
+        checkUpdatableAttribute(attribute);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        logger.info("Actualización masiva de '" + attribute + "' en " + ids.size() + " entidades " + entityName + ".");
+        try {
+            int updated = transactions.execute(session -> {
+                int total = 0;
+                for (List<ID> chunk : chunks(ids)) {
+                    total += session.createMutationQuery("update " + entityName + " e set e." + attribute + " = :value, e.updatedAt = local datetime where e.id in :ids")
+                            .setParameter("value", value)
+                            .setParameterList("ids", chunk)
+                            .executeUpdate();
+                }
+                return total;
+            });
+            logger.info(updated + " entidades " + entityName + " actualizadas.");
+            String detail = "Actualización masiva: " + attribute + " = " + value;
+            ids.forEach(id -> audit.record(AuditAction.MODIFICAR, entityName, id, detail));
+            return updated;
+        } catch (Exception e) {
+            logger.severe("Error en la actualización masiva de " + entityName + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Punto de extensión que se ejecuta antes de cada bloque de una eliminación masiva,
+     * dentro de la misma transacción. Permite borrar antes las filas dependientes.
+     * @param session La sesión de la transacción en curso.
+     * @param ids Los identificadores del bloque que se va a eliminar.
+     */
+    protected void beforeBulkDelete(Session session, List<ID> ids) {
+        // Por defecto no hay dependencias que eliminar
+    }
+
+    /**
+     * Comprueba que un atributo puede actualizarse de forma masiva: debe existir en el
+     * metamodelo, ser básico, no ser el identificador, admitir actualización ({@code updatable = false}
+     * lo impide) y no tener un valor generado, como las marcas {@code createdAt} y {@code updatedAt}, que
+     * la propia actualización masiva ya asigna. Evita además construir HQL con nombres arbitrarios.
+     * @param attribute El nombre del atributo.
+     */
+    private void checkUpdatableAttribute(String attribute) {
+        Attribute<? super T, ?> attr = sessionFactory.getMetamodel().entity(entityClass).getAttribute(attribute);
+        EntityMetamodel mapping = sessionFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(entityClass).getEntityMetamodel();
+        Integer index = mapping.getPropertyIndexOrNull(attribute);
+        if (attr.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+                || (attr instanceof SingularAttribute<? super T, ?> singular && singular.isId())
+                || index == null
+                || !mapping.getPropertyUpdateability()[index]
+                || mapping.getGenerators()[index] != null) {
+            throw new IllegalArgumentException("El atributo '" + attribute + "' de " + entityName + " no admite actualización masiva.");
+        }
+    }
+
+    private static <E> List<List<E>> chunks(Collection<E> values) {
+        List<E> all = new ArrayList<>(values);
+        List<List<E>> chunks = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(all.subList(i, Math.min(i + BULK_CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+}
@@ -1,13 +1,23 @@
 package org.example.reto2.utils;
 
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -19,6 +29,8 @@ public class JavaFXUtil {
 
     private static final Logger logger = Logger.getLogger(JavaFXUtil.class.getName());
     private static Stage stage;
+    /** Acciones de las pantallas abiertas que deben ejecutarse antes de que termine la aplicación. */
+    private static final Set<Runnable> exitActions = new LinkedHashSet<>();
 
     /**
      * Constructor privado para evitar instanciación de la clase de utilidad.
@@ -75,6 +87,70 @@ public class JavaFXUtil {
         return null;
     }
 
+    /**
+     * Ejecuta una acción cuando la escena que contiene un nodo deja de ser la escena del Stage
+     * principal, es decir, al navegar a otra vista. Sirve para detener tareas periódicas de una
+     * pantalla. Se puede registrar desde {@code initialize}, antes de que el nodo tenga escena.
+     * @param node Un nodo de la pantalla.
+     * @param action La acción a ejecutar una sola vez al salir de la escena.
+     */
+    public static void runOnSceneExit(Node node, Runnable action) {
+        ChangeListener<Scene> listener = new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Scene> observable, Scene oldScene, Scene newScene) {
+                if (oldScene != null && oldScene == node.getScene()) {
+                    stage.sceneProperty().removeListener(this);
+                    action.run();
+                }
+            }
+        };
+        stage.sceneProperty().addListener(listener);
+    }
+
+    /**
+     * Ejecuta una acción si la aplicación termina mientras la escena que contiene un nodo es la escena
+     * del Stage principal, ya sea con el botón de salir de la pantalla o cerrando la ventana.
+     * Sirve para guardar cambios pendientes de la pantalla; al navegar a otra vista la acción se retira.
+     * Debe llamarse desde el hilo de JavaFX.
+     * @param node Un nodo de la pantalla.
+     * @param action La acción a ejecutar como mucho una vez al terminar.
+     */
+    public static void runOnAppExit(Node node, Runnable action) {
+        exitActions.add(action);
+        runOnSceneExit(node, () -> exitActions.remove(action));
+    }
+
+    /**
+     * Ejecuta y retira las acciones registradas con {@link #runOnAppExit(Node, Runnable)}.
+     * La llaman {@link org.example.reto2.App#stop()} y los botones de salir antes de terminar el proceso.
+     * Un fallo en una acción se registra y no impide ejecutar las demás.
+     */
+    public static void runExitActions() {
+        List<Runnable> actions = new ArrayList<>(exitActions);
+        exitActions.clear();
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.severe("Error al ejecutar una acción de cierre de la aplicación: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Muestra un diálogo para elegir un fichero de imagen (PNG, JPEG, GIF o BMP).
+     * @param actionEvent El evento de acción del botón que abre el diálogo.
+     * @param title El título del diálogo.
+     * @return El fichero elegido, o vacío si se cancela.
+     */
+    public static Optional<File> chooseImageFile(ActionEvent actionEvent, String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Imágenes", "*.png", "*.jpg", "*.jpeg", "*.gif", "*.bmp"));
+        return Optional.ofNullable(chooser.showOpenDialog(getStage(actionEvent)));
+    }
+
     /**
      * Muestra un diálogo modal de alerta al usuario.
      * @param type El tipo de alerta (INFORMATION, WARNING, ERROR, CONFIRMATION).
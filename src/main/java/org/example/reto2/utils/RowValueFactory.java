@@ -0,0 +1,86 @@
+package org.example.reto2.utils;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+import java.util.function.Function;
+
+/**
+ * Fábrica de valores de celda tipada y sin asignaciones, para sustituir a {@code PropertyValueFactory}.
+ * {@code PropertyValueFactory} busca el getter por reflexión y crea un {@code ReadOnlyObjectWrapper}
+ * nuevo en cada actualización de celda, es decir, varias veces por fotograma al desplazarse por la tabla.
+ * <p>
+ * Esta fábrica llama directamente a un getter tipado y se devuelve a sí misma como valor observable:
+ * guarda el último valor leído y la celda lo obtiene en el acto con {@link #getValue()}. Como todas las
+ * llamadas ocurren en el hilo de JavaFX y el valor se lee justo después, una única instancia por columna
+ * basta. Al igual que los valores que crea {@code PropertyValueFactory} para getters normales, no avisa
+ * de cambios: las pantallas muestran las modificaciones de las filas con {@code TableView.refresh()}.
+ * Por eso cada columna necesita su propia instancia (ver las clases {@code *Columns} de cada entidad).
+ *
+ * @param <S> El tipo de las filas.
+ * @param <T> El tipo del valor de la columna.
+ */
+public final class RowValueFactory<S, T> implements Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>>, ObservableValue<T> {
+
+    private final Function<? super S, ? extends T> getter;
+    private T value;
+
+    private RowValueFactory(Function<? super S, ? extends T> getter) {
+        this.getter = getter;
+    }
+
+    /**
+     * Crea la fábrica de valores de una columna.
+     * @param getter Obtiene el valor de la columna a partir de la fila; no debe crear objetos.
+     * @param <S> El tipo de las filas.
+     * @param <T> El tipo del valor de la columna.
+     * @return Una fábrica nueva, para una sola columna.
+     */
+    public static <S, T> RowValueFactory<S, T> of(Function<? super S, ? extends T> getter) {
+        return new RowValueFactory<>(getter);
+    }
+
+    /**
+     * Crea la fábrica de valores de una columna cuyo valor es la propia fila (ej. la columna del póster).
+     * @param <S> El tipo de las filas.
+     * @return Una fábrica nueva, para una sola columna.
+     */
+    public static <S> RowValueFactory<S, S> row() {
+        return new RowValueFactory<>(Function.identity());
+    }
+
+    @Override
+    public ObservableValue<T> call(TableColumn.CellDataFeatures<S, T> features) {
+        S row = features.getValue();
+        value = row == null ? null : getter.apply(row);
+        return this;
+    }
+
+    @Override
+    public T getValue() {
+        return value;
+    }
+
+    @Override
+    public void addListener(ChangeListener<? super T> listener) {
+        // Los valores no notifican cambios
+    }
+
+    @Override
+    public void removeListener(ChangeListener<? super T> listener) {
+        // Los valores no notifican cambios
+    }
+
+    @Override
+    public void addListener(InvalidationListener listener) {
+        // Los valores no notifican cambios
+    }
+
+    @Override
+    public void removeListener(InvalidationListener listener) {
+        // Los valores no notifican cambios
+    }
+}
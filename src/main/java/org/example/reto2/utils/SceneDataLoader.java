@@ -0,0 +1,209 @@
+package org.example.reto2.utils;
+
+import javafx.concurrent.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Carga en paralelo los datos independientes de una pantalla.
+ * Cada consulta se registra con {@link #fork} y, al llamar a {@link #start()}, todas se lanzan a la vez,
+ * cada una en su propio hilo virtual, con un plazo común para el conjunto. Cuando terminan todas, el
+ * callback de {@link #onLoaded} se ejecuta una sola vez en el hilo de JavaFX y puede leer todos los
+ * resultados con {@link Subtask#get()}, de modo que la pantalla se rellena de una vez y nunca muestra
+ * una mezcla de datos nuevos y antiguos.
+ * <p>
+ * Si una consulta falla, o se agota el plazo, las demás se cancelan en el acto (se interrumpen sus hilos)
+ * y se avisa con {@link #onFailed} sin esperar a que terminen. {@link #cancel()} hace lo mismo, por
+ * ejemplo al salir de la pantalla antes de que acabe la carga.
+ */
+public class SceneDataLoader {
+
+    private static final Logger logger = Logger.getLogger(SceneDataLoader.class.getName());
+
+    /** Plazo por defecto para el conjunto de consultas de una pantalla. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(15);
+
+    private final String name;
+    private final Duration timeout;
+    private final List<Subtask<?>> subtasks = new ArrayList<>();
+    private Runnable onLoaded = () -> { };
+    private Consumer<Throwable> onFailed = e -> { };
+    private Task<Void> task;
+
+    /**
+     * Crea un cargador vacío.
+     * @param name El nombre de la pantalla, para los mensajes de log y los nombres de los hilos.
+     * @param timeout El plazo máximo para que terminen todas las consultas.
+     */
+    public SceneDataLoader(String name, Duration timeout) {
+        this.name = name;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Registra una consulta que se ejecutará en paralelo con las demás.
+     * @param name El nombre de la consulta, para los mensajes de error.
+     * @param query La consulta; no debe tocar la interfaz.
+     * @param <T> El tipo del resultado.
+     * @return El resultado de la consulta, disponible en {@link #onLoaded}.
+     * @throws IllegalStateException Si la carga ya ha empezado.
+     */
+    public <T> Subtask<T> fork(String name, Callable<T> query) {
+        if (task != null) {
+            throw new IllegalStateException("La carga de " + this.name + " ya ha empezado.");
+        }
+        Subtask<T> subtask = new Subtask<>(name, query);
+        subtasks.add(subtask);
+        return subtask;
+    }
+
+    /**
+     * Indica qué hacer cuando todas las consultas terminan bien. Se ejecuta en el hilo de JavaFX.
+     * @param onLoaded La acción que aplica los resultados a la pantalla.
+     * @return Este mismo cargador.
+     */
+    public SceneDataLoader onLoaded(Runnable onLoaded) {
+        this.onLoaded = onLoaded;
+        return this;
+    }
+
+    /**
+     * Indica qué hacer cuando una consulta falla o se agota el plazo. Se ejecuta en el hilo de JavaFX.
+     * @param onFailed Recibe el error de la primera consulta que falló, o un {@link TimeoutException}.
+     * @return Este mismo cargador.
+     */
+    public SceneDataLoader onFailed(Consumer<Throwable> onFailed) {
+        this.onFailed = onFailed;
+        return this;
+    }
+
+    /**
+     * Lanza todas las consultas registradas. Debe llamarse desde el hilo de JavaFX y una sola vez.
+     * @throws IllegalStateException Si la carga ya había empezado.
+     */
+    public void start() {
+        if (task != null) {
+            throw new IllegalStateException("La carga de " + name + " ya ha empezado.");
+        }
+        long start = System.nanoTime();
+        task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                runAll();
+                return null;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            logger.info("Datos de " + name + " cargados en " + (System.nanoTime() - start) / 1_000_000
+                    + " ms (" + subtasks.size() + " consultas en paralelo).");
+            onLoaded.run();
+        });
+        task.setOnFailed(e -> {
+            logger.severe("Error al cargar los datos de " + name + ": " + task.getException().getMessage());
+            onFailed.accept(task.getException());
+        });
+        Thread.ofVirtual().name("scene-loader-" + name).start(task);
+    }
+
+    /**
+     * Cancela la carga si sigue en curso, interrumpiendo todas las consultas. No se avisa a ningún callback.
+     */
+    public void cancel() {
+        if (task != null && task.cancel(true)) {
+            logger.info("Carga de " + name + " cancelada.");
+        }
+    }
+
+    /**
+     * Ejecuta todas las consultas y espera a que terminen dentro del plazo. Al salir, por error, plazo
+     * agotado o cancelación, se interrumpen las que sigan en curso.
+     */
+    private void runAll() throws Exception {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("scene-loader-" + name + "-", 0).factory());
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<Void>, Subtask<?>> running = new IdentityHashMap<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (Subtask<?> subtask : subtasks) {
+                running.put(completion.submit(subtask::run, null), subtask);
+            }
+            for (int i = 0; i < subtasks.size(); i++) {
+                Future<Void> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException("La carga de " + name + " superó el plazo de " + timeout.toMillis() + " ms.");
+                }
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    logger.warning("Falló la consulta '" + running.get(done).name + "' de " + name + "; se cancelan las demás.");
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Una consulta de la carga y su resultado.
+     * @param <T> El tipo del resultado.
+     */
+    public static final class Subtask<T> {
+        private final String name;
+        private final Callable<T> query;
+        private volatile T value;
+        private volatile boolean done;
+
+        private Subtask(String name, Callable<T> query) {
+            this.name = name;
+            this.query = query;
+        }
+
+        private void run() {
+            try {
+                value = query.call();
+                done = true;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Indica si la consulta ha terminado con éxito, por ejemplo para aprovechar su resultado
+         * cuando otra consulta de la misma carga ha fallado.
+         * @return true si el resultado está disponible.
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Obtiene el resultado de la consulta.
+         * @return El resultado.
+         * @throws IllegalStateException Si la consulta aún no ha terminado.
+         */
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("La consulta '" + name + "' aún no ha terminado.");
+            }
+            return value;
+        }
+    }
+}
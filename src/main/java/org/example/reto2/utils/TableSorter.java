@@ -0,0 +1,232 @@
+package org.example.reto2.utils;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.text.CollationKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Política de ordenación de una tabla que ordena la lista de datos de la que sale la tabla (la que luego
+ * se filtra), en lugar de mantener una copia ordenada con un {@code SortedList} que compara en el hilo de
+ * JavaFX cada vez que cambia.
+ * <p>
+ * En el hilo de JavaFX solo se copian las filas y los valores de las columnas por las que se ordena, una
+ * vez por fila y columna. Las claves de ordenación de las columnas de texto ({@link CollatedSort#install})
+ * se calculan después en un hilo virtual, junto con la ordenación, y el resultado se aplica de una vez
+ * conservando la selección. Si los datos cambian mientras tanto, el resultado se descarta y se vuelve a
+ * ordenar. Las listas pequeñas se ordenan en el propio hilo de JavaFX, donde cuesta menos que cambiar de hilo.
+ * <p>
+ * Cada vez que se añaden o sustituyen filas (por ejemplo, al sincronizar) la lista se vuelve a ordenar;
+ * los cambios de una misma pulsación se agrupan en una sola ordenación. Debe usarse desde el hilo de JavaFX.
+ * @param <S> El tipo de las filas.
+ */
+public final class TableSorter<S> {
+
+    private static final Logger logger = Logger.getLogger(TableSorter.class.getName());
+
+    /** Tamaño a partir del cual se ordena fuera del hilo de JavaFX. */
+    public static final int ASYNC_THRESHOLD = 2_000;
+
+    private final TableView<S> table;
+    private final ListChangeListener<S> onRowsChanged = this::rowsChanged;
+    private ObservableList<S> rows;
+    /** Aumenta con cada cambio de los datos o del orden pedido, para descartar resultados obsoletos. */
+    private long generation;
+    private boolean scheduled;
+    private boolean running;
+    private boolean applying;
+
+    private TableSorter(TableView<S> table, ObservableList<S> rows) {
+        this.table = table;
+        this.rows = rows;
+        rows.addListener(onRowsChanged);
+        table.setSortPolicy(t -> {
+            requestSort();
+            return true;
+        });
+    }
+
+    /**
+     * Instala la ordenación en una tabla. Las columnas deben estar ya configuradas.
+     * @param table La tabla.
+     * @param rows La lista que se ordena: los elementos de la tabla o la lista de la que se filtran.
+     * @param <S> El tipo de las filas.
+     * @return La ordenación instalada.
+     */
+    public static <S> TableSorter<S> install(TableView<S> table, ObservableList<S> rows) {
+        return new TableSorter<>(table, rows);
+    }
+
+    /**
+     * Cambia la lista que se ordena, por ejemplo al cargar otros datos, y la ordena si hay un orden elegido.
+     * @param rows La nueva lista.
+     */
+    public void setRows(ObservableList<S> rows) {
+        this.rows.removeListener(onRowsChanged);
+        this.rows = rows;
+        rows.addListener(onRowsChanged);
+        requestSort();
+    }
+
+    /**
+     * Solo se reordena si entran filas nuevas o sustituidas; quitar filas no cambia el orden del resto.
+     * Aun así, cualquier cambio invalida una ordenación en curso: su resultado sale de una copia de las
+     * filas y volvería a poner las que se han quitado mientras tanto.
+     */
+    private void rowsChanged(ListChangeListener.Change<? extends S> change) {
+        if (applying) {
+            return;
+        }
+        generation++;
+        while (change.next()) {
+            if (change.wasAdded() || change.wasUpdated()) {
+                requestSort();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Programa una ordenación para la siguiente pulsación del hilo de JavaFX.
+     */
+    private void requestSort() {
+        generation++;
+        if (!scheduled) {
+            scheduled = true;
+            Platform.runLater(this::start);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void start() {
+        scheduled = false;
+        if (running || table.getSortOrder().isEmpty() || rows.isEmpty()) {
+            return; // Si hay una ordenación en curso, al terminar verá que los datos han cambiado
+        }
+        long startedAt = generation;
+        List<TableColumn<S, ?>> columns = new ArrayList<>(table.getSortOrder());
+        S[] items = (S[]) rows.toArray();
+        SortJob job = new SortJob(items.length, columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            TableColumn<S, ?> column = columns.get(c);
+            job.collated[c] = column.getComparator() == CollatedSort.COMPARATOR;
+            job.comparators[c] = (Comparator<Object>) column.getComparator();
+            job.descending[c] = column.getSortType() == TableColumn.SortType.DESCENDING;
+            for (int i = 0; i < items.length; i++) {
+                job.values[c][i] = column.getCellData(items[i]);
+            }
+        }
+        if (items.length < ASYNC_THRESHOLD) {
+            apply(items, job.order());
+            return;
+        }
+        running = true;
+        long start = System.nanoTime();
+        Task<int[]> task = new Task<>() {
+            @Override
+            protected int[] call() {
+                return job.order();
+            }
+        };
+        task.setOnSucceeded(e -> {
+            running = false;
+            if (startedAt != generation) {
+                logger.fine("Los datos cambiaron durante la ordenación; se vuelve a ordenar.");
+                start();
+                return;
+            }
+            apply(items, task.getValue());
+            logger.fine(items.length + " filas ordenadas en " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        });
+        task.setOnFailed(e -> {
+            running = false;
+            logger.severe("Error al ordenar la tabla: " + task.getException().getMessage());
+        });
+        Thread.ofVirtual().name("table-sort").start(task);
+    }
+
+    /**
+     * Coloca las filas en el nuevo orden con un único cambio y vuelve a seleccionar las filas que
+     * estaban seleccionadas.
+     */
+    private void apply(S[] items, int[] order) {
+        Set<S> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+        selected.addAll(table.getSelectionModel().getSelectedItems());
+        List<S> sorted = new ArrayList<>(items.length);
+        for (int position : order) {
+            sorted.add(items[position]);
+        }
+        applying = true;
+        try {
+            rows.setAll(sorted);
+        } finally {
+            applying = false;
+        }
+        if (!selected.isEmpty()) {
+            List<Integer> indices = new ArrayList<>(selected.size());
+            List<S> shown = table.getItems();
+            for (int i = 0; i < shown.size(); i++) {
+                if (selected.contains(shown.get(i))) {
+                    indices.add(i);
+                }
+            }
+            table.getSelectionModel().clearSelection();
+            for (int index : indices) {
+                table.getSelectionModel().select(index);
+            }
+        }
+    }
+
+    /**
+     * Valores de las columnas por las que se ordena, copiados en el hilo de JavaFX. Las columnas de texto
+     * con las reglas del español se comparan por sus claves de ordenación, que se calculan en {@link #order()}.
+     */
+    private static final class SortJob {
+        private final Object[][] values;
+        private final boolean[] collated;
+        private final boolean[] descending;
+        private final Comparator<Object>[] comparators;
+
+        @SuppressWarnings("unchecked")
+        SortJob(int size, int columns) {
+            values = new Object[columns][size];
+            collated = new boolean[columns];
+            descending = new boolean[columns];
+            comparators = new Comparator[columns];
+        }
+
+        int[] order() {
+            int size = values.length == 0 ? 0 : values[0].length;
+            for (int c = 0; c < values.length; c++) {
+                if (collated[c]) {
+                    Object[] column = values[c];
+                    CollatedSort.stream(size).forEach(i -> column[i] = CollatedSort.key((String) column[i]));
+                }
+            }
+            return CollatedSort.order(size, this::compare);
+        }
+
+        private int compare(int a, int b) {
+            for (int c = 0; c < values.length; c++) {
+                int result = collated[c]
+                        ? CollatedSort.compareKeys((CollationKey) values[c][a], (CollationKey) values[c][b])
+                        : comparators[c].compare(values[c][a], values[c][b]);
+                if (result != 0) {
+                    return descending[c] ? -result : result;
+                }
+            }
+            return 0;
+        }
+    }
+}
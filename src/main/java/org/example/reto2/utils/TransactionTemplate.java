@@ -0,0 +1,213 @@
+package org.example.reto2.utils;
+
+import jakarta.persistence.LockTimeoutException;
+import org.hibernate.PessimisticLockException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.exception.LockAcquisitionException;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plantilla de transacciones de Hibernate.
+ * Abre la sesión, inicia y confirma la transacción, hace rollback explícito si algo falla
+ * y reintenta un número acotado de veces (con espera exponencial y jitter) cuando el error
+ * es transitorio: interbloqueos, timeouts de espera de bloqueo o errores SQL transitorios.
+ */
+public class TransactionTemplate {
+
+    private static final Logger logger = Logger.getLogger(TransactionTemplate.class.getName());
+
+    /** Número de intentos por defecto (el primero más dos reintentos). */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    /** Espera base por defecto entre reintentos, en milisegundos. */
+    public static final long DEFAULT_BACKOFF_MILLIS = 50;
+
+    /** SQLState estándar de fallo de serialización / interbloqueo. */
+    private static final String SQLSTATE_SERIALIZATION_FAILURE = "40001";
+    /** Código de error de MySQL para interbloqueo detectado (ER_LOCK_DEADLOCK). */
+    private static final int MYSQL_DEADLOCK = 1213;
+    /** Código de error de MySQL para timeout de espera de bloqueo (ER_LOCK_WAIT_TIMEOUT). */
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+    private final SessionFactory sessionFactory;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    /**
+     * Crea una plantilla con la política de reintentos por defecto.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     */
+    public TransactionTemplate(SessionFactory sessionFactory) {
+        this(sessionFactory, DEFAULT_MAX_ATTEMPTS, DEFAULT_BACKOFF_MILLIS);
+    }
+
+    /**
+     * Crea una plantilla con una política de reintentos concreta.
+     * @param sessionFactory La SessionFactory de Hibernate.
+     * @param maxAttempts Número máximo de intentos (al menos 1).
+     * @param backoffMillis Espera base entre reintentos, en milisegundos.
+     */
+    public TransactionTemplate(SessionFactory sessionFactory, int maxAttempts, long backoffMillis) {
+        this.sessionFactory = sessionFactory;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(0, backoffMillis);
+    }
+
+    /**
+     * Obtiene la SessionFactory sobre la que trabaja la plantilla.
+     * @return La SessionFactory de Hibernate.
+     */
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    /**
+     * Ejecuta un trabajo dentro de una transacción y devuelve su resultado.
+     * Si el trabajo lanza una excepción se hace rollback; si además la excepción es transitoria,
+     * el trabajo completo se vuelve a ejecutar en una sesión nueva.
+     * @param work El trabajo a ejecutar con la sesión abierta.
+     * @param <R> El tipo del resultado.
+     * @return El resultado del trabajo tras confirmar la transacción.
+     */
+    public <R> R execute(Function<Session, R> work) {
+        for (int attempt = 1; ; attempt++) {
+            try (Session session = sessionFactory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                try {
+                    R result = work.apply(session);
+                    tx.commit();
+                    return result;
+                } catch (RuntimeException e) {
+                    rollback(tx);
+                    throw e;
+                }
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isTransient(e)) {
+                    throw e;
+                }
+                long delay = backoff(attempt);
+                logger.warning("Error transitorio en la transacción (intento " + attempt + " de " + maxAttempts
+                        + "): " + e.getMessage() + ". Reintentando en " + delay + " ms.");
+                sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un trabajo sin resultado dentro de una transacción.
+     * @param work El trabajo a ejecutar con la sesión abierta.
+     */
+    public void executeWithoutResult(Consumer<Session> work) {
+        execute(session -> {
+            work.accept(session);
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta una consulta en una sesión de solo lectura, sin transacción explícita.
+     * @param work La consulta a ejecutar.
+     * @param <R> El tipo del resultado.
+     * @return El resultado de la consulta.
+     */
+    public <R> R readOnly(Function<Session, R> work) {
+        try (Session session = DataProvider.openReadOnlySession(sessionFactory)) {
+            return work.apply(session);
+        }
+    }
+
+    /**
+     * Ejecuta un trabajo en una {@link StatelessSession} dentro de una transacción,
+     * con la misma política de rollback y reintentos que {@link #execute(Function)}.
+     * @param work El trabajo a ejecutar.
+     * @param <R> El tipo del resultado.
+     * @return El resultado del trabajo.
+     */
+    public <R> R stateless(Function<StatelessSession, R> work) {
+        for (int attempt = 1; ; attempt++) {
+            try (StatelessSession session = sessionFactory.openStatelessSession()) {
+                Transaction tx = session.beginTransaction();
+                try {
+                    R result = work.apply(session);
+                    tx.commit();
+                    return result;
+                } catch (RuntimeException e) {
+                    rollback(tx);
+                    throw e;
+                }
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isTransient(e)) {
+                    throw e;
+                }
+                long delay = backoff(attempt);
+                logger.warning("Error transitorio en la transacción sin estado (intento " + attempt + " de "
+                        + maxAttempts + "): " + e.getMessage() + ". Reintentando en " + delay + " ms.");
+                sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Indica si una excepción (o alguna de sus causas) corresponde a un error transitorio
+     * que tiene sentido reintentar.
+     * @param error La excepción a analizar.
+     * @return true si el error es transitorio, false en caso contrario.
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof LockAcquisitionException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException
+                    || t instanceof SQLTransientException) {
+                return true;
+            }
+            if (t instanceof SQLException sqlException) {
+                if (SQLSTATE_SERIALIZATION_FAILURE.equals(sqlException.getSQLState())
+                        || sqlException.getErrorCode() == MYSQL_DEADLOCK
+                        || sqlException.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcula la espera antes del siguiente intento: exponencial sobre la espera base,
+     * con jitter aleatorio para que varios clientes no reintenten a la vez.
+     * @param attempt El número del intento que acaba de fallar.
+     * @return La espera en milisegundos.
+     */
+    private long backoff(int attempt) {
+        long ceiling = backoffMillis << Math.min(attempt - 1, 10);
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static void rollback(Transaction tx) {
+        try {
+            if (tx != null && tx.isActive()) {
+                tx.rollback();
+            }
+        } catch (RuntimeException rollbackError) {
+            logger.log(Level.WARNING, "Error al hacer rollback de la transacción: " + rollbackError.getMessage(), rollbackError);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento de transacción interrumpido.", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.reto2.utils;
+
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Unidad de trabajo que agrupa varias operaciones de escritura en una única transacción.
+ * Las operaciones se registran en memoria y se ejecutan todas juntas al llamar a {@link #commit()}.
+ * Cada {@link #FLUSH_INTERVAL} operaciones se hace flush, que envía en lotes JDBC las actualizaciones y
+ * borrados pendientes, y se vacía la sesión, para que el contexto de persistencia no crezca con el número
+ * de operaciones. Los INSERT no se agrupan en lotes: los ids IDENTITY obligan a ejecutar cada uno en su
+ * persist. Tras el commit las entidades quedan separadas de la sesión.
+ * Si cualquiera de ellas falla, se deshace la transacción completa.
+ */
+public class UnitOfWork {
+
+    private static final Logger logger = Logger.getLogger(UnitOfWork.class.getName());
+
+    /** Número de operaciones tras el que se hace flush y se vacía la sesión (coincide con hibernate.jdbc.batch_size). */
+    public static final int FLUSH_INTERVAL = 50;
+
+    private final TransactionTemplate transactions;
+    private final List<Consumer<Session>> operations = new ArrayList<>();
+
+    /**
+     * Crea una unidad de trabajo vacía.
+     * @param transactions La plantilla de transacciones con la que se ejecutará.
+     */
+    public UnitOfWork(TransactionTemplate transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * Registra la persistencia de una entidad nueva.
+     * @param entity La entidad a persistir.
+     * @return Esta unidad de trabajo, para encadenar llamadas.
+     */
+    public UnitOfWork persist(Object entity) {
+        operations.add(session -> session.persist(entity));
+        return this;
+    }
+
+    /**
+     * Registra la actualización (merge) de una entidad.
+     * @param entity La entidad a fusionar.
+     * @return Esta unidad de trabajo, para encadenar llamadas.
+     */
+    public UnitOfWork merge(Object entity) {
+        operations.add(session -> session.merge(entity));
+        return this;
+    }
+
+    /**
+     * Registra la eliminación de una entidad a partir de su clase e identificador.
+     * @param entityClass La clase de la entidad.
+     * @param id El identificador de la entidad.
+     * @return Esta unidad de trabajo, para encadenar llamadas.
+     */
+    public UnitOfWork remove(Class<?> entityClass, Object id) {
+        operations.add(session -> {
+            Object managed = session.find(entityClass, id);
+            if (managed != null) {
+                session.remove(managed);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Registra una operación arbitraria sobre la sesión.
+     * @param operation La operación a ejecutar dentro de la transacción.
+     * @return Esta unidad de trabajo, para encadenar llamadas.
+     */
+    public UnitOfWork add(Consumer<Session> operation) {
+        operations.add(operation);
+        return this;
+    }
+
+    /**
+     * Obtiene el número de operaciones pendientes.
+     * @return El número de operaciones registradas y aún no confirmadas.
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Ejecuta todas las operaciones pendientes en una sola transacción.
+     * Tras confirmar (o fallar) la lista de operaciones pendientes queda vacía.
+     * @return El número de operaciones ejecutadas.
+     */
+    public int commit() {
+        if (operations.isEmpty()) {
+            return 0;
+        }
+        List<Consumer<Session>> pending = new ArrayList<>(operations);
+        operations.clear();
+        logger.info("Confirmando unidad de trabajo con " + pending.size() + " operaciones.");
+        return transactions.execute(session -> {
+            int executed = 0;
+            for (Consumer<Session> operation : pending) {
+                operation.accept(session);
+                if (++executed % FLUSH_INTERVAL == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            return executed;
+        });
+    }
+}
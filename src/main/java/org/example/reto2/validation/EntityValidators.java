@@ -0,0 +1,105 @@
+package org.example.reto2.validation;
+
+import org.example.reto2.copia.Copia;
+import org.example.reto2.pelicula.Pelicula;
+import org.example.reto2.user.User;
+
+import java.util.function.Function;
+
+import static org.example.reto2.validation.Rules.between;
+import static org.example.reto2.validation.Rules.contains;
+import static org.example.reto2.validation.Rules.maxLength;
+import static org.example.reto2.validation.Rules.notNull;
+import static org.example.reto2.validation.Rules.required;
+
+/**
+ * Reglas de validación de las entidades, compartidas por los formularios, el API y las cargas masivas
+ * para que todas las entradas apliquen exactamente los mismos límites y mensajes.
+ * Los validadores se construyen una sola vez y son seguros entre hilos.
+ */
+public final class EntityValidators {
+
+    /** Longitud máxima del título, el género y el director de una película, y del email de un usuario. */
+    public static final int MAX_TEXT = 255;
+    /** Longitud máxima de la descripción de una película. */
+    public static final int MAX_DESCRIPCION = 500;
+    /** Primer año admitido para una película. */
+    public static final int MIN_ANIO = 1950;
+    /** Último año admitido para una película. */
+    public static final int MAX_ANIO = 2025;
+    /** Cantidad mínima de unidades de una copia. */
+    public static final int MIN_CANTIDAD = 1;
+    /** Cantidad máxima de unidades de una copia. */
+    public static final int MAX_CANTIDAD = 9999;
+
+    private static final String VACIOS = "Campos Vacíos";
+    private static final String OBLIGATORIOS = "Todos los campos son obligatorios.";
+
+    /**
+     * Reglas de un género suelto, como el que se aplica en la edición masiva de películas.
+     */
+    public static final Validator<String> GENERO = Validator.<String>of(
+            required("genero", Function.<String>identity(), "Campo Vacío", "El género no puede estar vacío."),
+            generoLength(Function.<String>identity()),
+            generoFormat(Function.<String>identity()));
+
+    /**
+     * Reglas de una película. La descripción es opcional, como en el API y en la importación por CSV.
+     */
+    public static final Validator<Pelicula> PELICULA = Validator.of(
+            required("titulo", Pelicula::getTitulo, VACIOS, OBLIGATORIOS),
+            required("genero", Pelicula::getGenero, VACIOS, OBLIGATORIOS),
+            notNull("anio", Pelicula::getAnio, VACIOS, OBLIGATORIOS),
+            required("director", Pelicula::getDirector, VACIOS, OBLIGATORIOS),
+            maxLength("titulo", Pelicula::getTitulo, MAX_TEXT,
+                    "Título demasiado largo", "El título no puede exceder los " + MAX_TEXT + " caracteres."),
+            generoLength(Pelicula::getGenero),
+            maxLength("director", Pelicula::getDirector, MAX_TEXT,
+                    "Director demasiado largo", "El nombre del director no puede exceder los " + MAX_TEXT + " caracteres."),
+            maxLength("descripcion", Pelicula::getDescripcion, MAX_DESCRIPCION,
+                    "Descripción demasiado larga", "La descripción no puede exceder los " + MAX_DESCRIPCION + " caracteres."),
+            generoFormat(Pelicula::getGenero),
+            contains("director", Pelicula::getDirector, Rules.LETTER,
+                    "Formato de Director Inválido", "El nombre del director no puede ser solo números."),
+            between("anio", Pelicula::getAnio, MIN_ANIO, MAX_ANIO,
+                    "Año fuera de rango", "El año debe estar entre " + MIN_ANIO + " y " + MAX_ANIO + "."));
+
+    /**
+     * Reglas de una película dada de alta o editada desde un formulario, donde la descripción es obligatoria.
+     */
+    public static final Validator<Pelicula> PELICULA_FORM = PELICULA.and(
+            required("descripcion", Pelicula::getDescripcion, VACIOS, OBLIGATORIOS));
+
+    /**
+     * Reglas de una copia.
+     */
+    public static final Validator<Copia> COPIA = Validator.of(
+            notNull("pelicula", Copia::getPelicula, "Campos Incompletos", "Por favor, rellena todos los campos."),
+            notNull("estado", Copia::getEstado, "Campos Incompletos", "Por favor, rellena todos los campos."),
+            notNull("soporte", Copia::getSoporte, "Campos Incompletos", "Por favor, rellena todos los campos."),
+            notNull("cantidad", Copia::getCantidad, "Campos Incompletos", "Por favor, rellena todos los campos."),
+            between("cantidad", Copia::getCantidad, MIN_CANTIDAD, MAX_CANTIDAD,
+                    "Cantidad Inválida", "La cantidad debe ser un número entre " + MIN_CANTIDAD + " y " + MAX_CANTIDAD + "."));
+
+    /**
+     * Reglas de un usuario.
+     */
+    public static final Validator<User> USER = Validator.of(
+            required("email", User::getEmail, "Campo Vacío", "El email no puede estar vacío."),
+            maxLength("email", User::getEmail, MAX_TEXT,
+                    "Email demasiado largo", "El email no puede exceder los " + MAX_TEXT + " caracteres."),
+            required("password", User::getPassword, "Campo Vacío", "La contraseña no puede estar vacía."));
+
+    private EntityValidators() {
+    }
+
+    private static <T> Rule<T> generoLength(Function<? super T, String> getter) {
+        return maxLength("genero", getter, MAX_TEXT,
+                "Género demasiado largo", "El género no puede exceder los " + MAX_TEXT + " caracteres.");
+    }
+
+    private static <T> Rule<T> generoFormat(Function<? super T, String> getter) {
+        return contains("genero", getter, Rules.LETTER,
+                "Formato de Género Inválido", "El género no puede ser solo números.");
+    }
+}
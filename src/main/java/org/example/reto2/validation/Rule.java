@@ -0,0 +1,35 @@
+package org.example.reto2.validation;
+
+import java.util.function.Predicate;
+
+/**
+ * Regla de validación sobre un objeto. Las reglas no lanzan excepciones: devuelven la infracción,
+ * o null si el objeto la cumple. Deben ser inmutables y seguras entre hilos, ya que se comparten
+ * entre la interfaz, el API y las cargas masivas en paralelo.
+ *
+ * @param <T> El tipo del objeto validado.
+ */
+@FunctionalInterface
+public interface Rule<T> {
+
+    /**
+     * Comprueba la regla.
+     * @param target El objeto a validar.
+     * @return La infracción, o null si el objeto cumple la regla.
+     */
+    Violation check(T target);
+
+    /**
+     * Crea una regla a partir de una condición.
+     * @param field El atributo comprobado.
+     * @param valid La condición que debe cumplir el objeto.
+     * @param title El resumen de la infracción.
+     * @param message La explicación de la infracción.
+     * @param <T> El tipo del objeto validado.
+     * @return La regla.
+     */
+    static <T> Rule<T> of(String field, Predicate<? super T> valid, String title, String message) {
+        Violation violation = new Violation(field, title, message);
+        return target -> valid.test(target) ? null : violation;
+    }
+}
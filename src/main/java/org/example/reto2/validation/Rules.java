@@ -0,0 +1,117 @@
+package org.example.reto2.validation;
+
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Reglas de validación reutilizables y patrones precompilados.
+ * Antes cada formulario llamaba a {@code String.matches}, que compila la expresión regular en cada
+ * llamada; aquí cada patrón se compila una sola vez y las reglas de "contiene una letra" buscan un único
+ * carácter con {@code find()} en lugar de recorrer toda la cadena con {@code .*[a-zA-Z]+.*}.
+ */
+public final class Rules {
+
+    /** Un número entero sin signo. */
+    public static final Pattern DIGITS = Pattern.compile("\\d+");
+    /** Un año de cuatro cifras. */
+    public static final Pattern YEAR = Pattern.compile("\\d{4}");
+    /** Cualquier letra, incluidas las acentuadas y la ñ. */
+    public static final Pattern LETTER = Pattern.compile("\\p{L}");
+
+    private Rules() {
+    }
+
+    /**
+     * Regla de texto obligatorio (no null ni vacío).
+     * @param field El atributo comprobado.
+     * @param getter Obtiene el texto del objeto.
+     * @param title El resumen de la infracción.
+     * @param message La explicación de la infracción.
+     * @param <T> El tipo del objeto validado.
+     * @return La regla.
+     */
+    public static <T> Rule<T> required(String field, Function<? super T, String> getter, String title, String message) {
+        return Rule.of(field, target -> {
+            String value = getter.apply(target);
+            return value != null && !value.isEmpty();
+        }, title, message);
+    }
+
+    /**
+     * Regla de valor obligatorio (no null).
+     * @param field El atributo comprobado.
+     * @param getter Obtiene el valor del objeto.
+     * @param title El resumen de la infracción.
+     * @param message La explicación de la infracción.
+     * @param <T> El tipo del objeto validado.
+     * @return La regla.
+     */
+    public static <T> Rule<T> notNull(String field, Function<? super T, ?> getter, String title, String message) {
+        return Rule.of(field, target -> getter.apply(target) != null, title, message);
+    }
+
+    /**
+     * Regla de longitud máxima de un texto. Un texto null la cumple.
+     * @param field El atributo comprobado.
+     * @param getter Obtiene el texto del objeto.
+     * @param max La longitud máxima.
+     * @param title El resumen de la infracción.
+     * @param message La explicación de la infracción.
+     * @param <T> El tipo del objeto validado.
+     * @return La regla.
+     */
+    public static <T> Rule<T> maxLength(String field, Function<? super T, String> getter, int max, String title, String message) {
+        return Rule.of(field, target -> {
+            String value = getter.apply(target);
+            return value == null || value.length() <= max;
+        }, title, message);
+    }
+
+    /**
+     * Regla de texto que contiene alguna coincidencia de un patrón. Un texto null la cumple.
+     * @param field El atributo comprobado.
+     * @param getter Obtiene el texto del objeto.
+     * @param pattern El patrón precompilado.
+     * @param title El resumen de la infracción.
+     * @param message La explicación de la infracción.
+     * @param <T> El tipo del objeto validado.
+     * @return La regla.
+     */
+    public static <T> Rule<T> contains(String field, Function<? super T, String> getter, Pattern pattern, String title, String message) {
+        return Rule.of(field, target -> {
+            String value = getter.apply(target);
+            return value == null || pattern.matcher(value).find();
+        }, title, message);
+    }
+
+    /**
+     * Regla de número entero dentro de un rango, ambos extremos incluidos. Un valor null la cumple.
+     * @param field El atributo comprobado.
+     * @param getter Obtiene el número del objeto.
+     * @param min El mínimo.
+     * @param max El máximo.
+     * @param title El resumen de la infracción.
+     * @param message La explicación de la infracción.
+     * @param <T> El tipo del objeto validado.
+     * @return La regla.
+     */
+    public static <T> Rule<T> between(String field, Function<? super T, Integer> getter, int min, int max, String title, String message) {
+        return Rule.of(field, target -> {
+            Integer value = getter.apply(target);
+            return value == null || (value >= min && value <= max);
+        }, title, message);
+    }
+
+    /**
+     * Convierte un texto en número si tiene el formato indicado, sin lanzar excepciones.
+     * @param text El texto.
+     * @param format El formato, por ejemplo {@link #DIGITS} o {@link #YEAR}.
+     * @return El número, o null si el texto no tiene el formato o no cabe en un {@code int}.
+     */
+    public static Integer parseInt(String text, Pattern format) {
+        if (text == null || !format.matcher(text).matches() || text.length() > 9) {
+            return null;
+        }
+        return Integer.parseInt(text);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.reto2.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Conjunto inmutable de reglas sobre un tipo de objeto, en el orden en que se comprueban.
+ * Sirve tanto para los formularios, que muestran la primera infracción ({@link #firstViolation}),
+ * como para las cargas masivas, que validan listas enteras en paralelo y recogen todas las
+ * infracciones de cada fila sin lanzar excepciones ({@link #validateAll}).
+ *
+ * @param <T> El tipo del objeto validado.
+ */
+public final class Validator<T> {
+
+    /** Tamaño a partir del cual {@link #validateAll} valida en paralelo. */
+    public static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final List<Rule<? super T>> rules;
+
+    private Validator(List<Rule<? super T>> rules) {
+        this.rules = List.copyOf(rules);
+    }
+
+    /**
+     * Crea un validador con unas reglas.
+     * @param rules Las reglas, en el orden en que se comprueban.
+     * @param <T> El tipo del objeto validado.
+     * @return El validador.
+     */
+    @SafeVarargs
+    public static <T> Validator<T> of(Rule<? super T>... rules) {
+        return new Validator<T>(List.of(rules));
+    }
+
+    /**
+     * Crea un validador con las reglas de este y otras más, comprobadas después.
+     * @param more Las reglas añadidas.
+     * @return Un validador nuevo; este no cambia.
+     */
+    @SafeVarargs
+    public final Validator<T> and(Rule<? super T>... more) {
+        List<Rule<? super T>> all = new ArrayList<>(rules);
+        all.addAll(List.of(more));
+        return new Validator<>(all);
+    }
+
+    /**
+     * Obtiene la primera regla que el objeto no cumple.
+     * @param target El objeto a validar.
+     * @return La infracción, o null si el objeto es válido.
+     */
+    public Violation firstViolation(T target) {
+        for (Rule<? super T> rule : rules) {
+            Violation violation = rule.check(target);
+            if (violation != null) {
+                return violation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene todas las reglas que el objeto no cumple.
+     * @param target El objeto a validar.
+     * @return Las infracciones; una lista vacía (sin crear objetos) si el objeto es válido.
+     */
+    public List<Violation> validate(T target) {
+        List<Violation> violations = null;
+        for (Rule<? super T> rule : rules) {
+            Violation violation = rule.check(target);
+            if (violation != null) {
+                if (violations == null) {
+                    violations = new ArrayList<>(2);
+                }
+                violations.add(violation);
+            }
+        }
+        return violations == null ? List.of() : violations;
+    }
+
+    /**
+     * Valida una lista de objetos, en paralelo si es grande, y devuelve solo las filas con errores,
+     * en el orden de la lista.
+     * @param targets Los objetos a validar; la lista debe permitir acceso por posición eficiente.
+     * @return Las filas inválidas con sus infracciones.
+     */
+    public List<RowViolations> validateAll(List<? extends T> targets) {
+        IntStream indexes = IntStream.range(0, targets.size());
+        if (targets.size() >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        return indexes.mapToObj(i -> {
+                    List<Violation> violations = validate(targets.get(i));
+                    return violations.isEmpty() ? null : new RowViolations(i, violations);
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Infracciones de una fila en una validación masiva.
+     * @param index La posición de la fila en la lista validada.
+     * @param violations Las infracciones de la fila.
+     */
+    public record RowViolations(int index, List<Violation> violations) {
+
+        /**
+         * Une los mensajes de todas las infracciones de la fila, para los informes de carga.
+         * @return Los mensajes separados por "; ".
+         */
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            for (Violation violation : violations) {
+                if (!sb.isEmpty()) {
+                    sb.append("; ");
+                }
+                sb.append(violation.message());
+            }
+            return sb.toString();
+        }
+    }
+}
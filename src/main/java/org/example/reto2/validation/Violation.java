@@ -0,0 +1,14 @@
+package org.example.reto2.validation;
+
+/**
+ * Incumplimiento de una regla de validación.
+ * Cada regla crea su infracción una sola vez, así que comprobar un objeto válido, o buscar solo la primera
+ * infracción ({@link Validator#firstViolation}), no crea objetos; {@link Validator#validate} solo crea la
+ * lista de infracciones cuando el objeto tiene alguna.
+ *
+ * @param field El atributo que no cumple la regla (ej. "titulo").
+ * @param title Un resumen breve, usado como título de los avisos de la aplicación.
+ * @param message La explicación para el usuario.
+ */
+public record Violation(String field, String title, String message) {
+}